@@ -177,6 +177,12 @@ public interface AssemblerConfigurationSource
      */
     boolean isIgnorePermissions();
 
+    /**
+     * @return The number of threads compressing the gzip archives, 1 to compress them in the current thread.
+     * @since 3.0.1
+     */
+    int getCompressionThreads();
+
     /**
      * @return The current encoding.
      */
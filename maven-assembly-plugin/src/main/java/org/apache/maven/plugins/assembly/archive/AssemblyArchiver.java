@@ -25,6 +25,7 @@ import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
 import org.apache.maven.plugins.assembly.model.Assembly;
 
 import java.io.File;
+import java.util.List;
 
 /**
  * Creates an archive
@@ -63,4 +64,26 @@ public interface AssemblyArchiver
     File createArchive( Assembly assembly, String fullName, String format, AssemblerConfigurationSource configSource,
                         boolean recompressZippedFiles, String mergeManifestMode )
         throws ArchiveCreationException, AssemblyFormattingException, InvalidAssemblerConfigurationException;
+
+    /**
+     * Create the assembly archives of several formats in a single pass: the
+     * {@link org.apache.maven.plugins.assembly.archive.phase.AssemblyArchiverPhase} instances are executed once, and
+     * the resources they add are then fed to the archiver of each format, the archives being created concurrently.
+     *
+     * @param assembly              The {@link Assembly}
+     * @param fullName              The full name.
+     * @param formats               The formats.
+     * @param configSource          The {@link org.apache.maven.plugins.assembly.AssemblerConfigurationSource}
+     * @param recompressZippedFiles recompress zipped files.
+     * @param mergeManifestMode     How to handle already existing Manifest files (skip, merge, mergewithoutmain)
+     * @return The resulting archive files, in the order of the formats.
+     * @throws ArchiveCreationException                                                 when creation fails
+     * @throws org.apache.maven.plugins.assembly.format.AssemblyFormattingException     when formatting fails
+     * @throws org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException when the configurationis bad
+     * @since 3.0.1
+     */
+    List<File> createArchives( Assembly assembly, String fullName, List<String> formats,
+                               AssemblerConfigurationSource configSource, boolean recompressZippedFiles,
+                               String mergeManifestMode )
+        throws ArchiveCreationException, AssemblyFormattingException, InvalidAssemblerConfigurationException;
 }
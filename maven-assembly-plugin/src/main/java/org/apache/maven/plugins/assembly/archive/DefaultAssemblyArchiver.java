@@ -22,6 +22,7 @@ package org.apache.maven.plugins.assembly.archive;
 import org.apache.maven.plugin.DebugConfigurationListener;
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.InvalidAssemblerConfigurationException;
+import org.apache.maven.plugins.assembly.archive.archiver.ArchiverCallRecorder;
 import org.apache.maven.plugins.assembly.archive.archiver.AssemblyProxyArchiver;
 import org.apache.maven.plugins.assembly.archive.phase.AssemblyArchiverPhase;
 import org.apache.maven.plugins.assembly.archive.phase.AssemblyArchiverPhaseComparator;
@@ -34,6 +35,7 @@ import org.apache.maven.plugins.assembly.model.Assembly;
 import org.apache.maven.plugins.assembly.model.ContainerDescriptorHandlerConfig;
 import org.apache.maven.plugins.assembly.utils.AssemblyFileUtils;
 import org.apache.maven.plugins.assembly.utils.AssemblyFormatUtils;
+import org.apache.maven.plugins.assembly.utils.ParallelGzipOutputStream;
 import org.codehaus.plexus.PlexusConstants;
 import org.codehaus.plexus.PlexusContainer;
 import org.codehaus.plexus.archiver.ArchiveFinalizer;
@@ -67,14 +69,22 @@ import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Controller component designed to organize the many activities involved in creating an assembly archive. This includes
@@ -139,33 +149,13 @@ public class DefaultAssemblyArchiver
     {
         validate( assembly );
 
-        String filename = fullName;
-        if ( !configSource.isIgnoreDirFormatExtensions() || !format.startsWith( "dir" ) )
-        {
-            filename += "." + format;
-        }
-
         AssemblyFileUtils.verifyTempDirectoryAvailability( configSource.getTemporaryRootDirectory() );
 
-        final File outputDirectory = configSource.getOutputDirectory();
-
-        final File destFile = new File( outputDirectory, filename );
+        final File destFile = getDestFile( fullName, format, configSource );
 
         try
         {
-            final String finalName = configSource.getFinalName();
-            final String specifiedBasedir = assembly.getBaseDirectory();
-
-            String basedir = finalName;
-
-            if ( specifiedBasedir != null )
-            {
-                basedir = AssemblyFormatUtils.getOutputDirectory( specifiedBasedir, finalName, configSource,
-                                                                  AssemblyFormatUtils.moduleProjectInterpolator(
-                                                                      configSource.getProject() ),
-                                                                  AssemblyFormatUtils.artifactProjectInterpolator(
-                                                                      null ) );
-            }
+            final String basedir = getBasedir( assembly, configSource );
 
             final List<ContainerDescriptorHandler> containerHandlers =
                 selectContainerDescriptorHandlers( assembly.getContainerDescriptorHandlers(), configSource );
@@ -181,7 +171,7 @@ public class DefaultAssemblyArchiver
                 phase.execute( assembly, archiver, configSource );
             }
 
-            archiver.createArchive();
+            writeArchive( archiver, format, configSource );
         }
         catch ( final ArchiverException e )
         {
@@ -208,6 +198,234 @@ public class DefaultAssemblyArchiver
         return destFile;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<File> createArchives( final Assembly assembly, final String fullName, final List<String> formats,
+                                      final AssemblerConfigurationSource configSource, boolean recompressZippedFiles,
+                                      String mergeManifestMode )
+        throws ArchiveCreationException, AssemblyFormattingException, InvalidAssemblerConfigurationException
+    {
+        validate( assembly );
+
+        AssemblyFileUtils.verifyTempDirectoryAvailability( configSource.getTemporaryRootDirectory() );
+
+        final List<File> destFiles = new ArrayList<File>( formats.size() );
+        final List<Archiver> archivers = new ArrayList<Archiver>( formats.size() );
+        String format = null;
+        try
+        {
+            final String basedir = getBasedir( assembly, configSource );
+
+            for ( final String archiveFormat : formats )
+            {
+                format = archiveFormat;
+
+                // the handlers configured in the descriptor are the same component instances for every format
+                final List<ContainerDescriptorHandler> containerHandlers =
+                    selectContainerDescriptorHandlers( assembly.getContainerDescriptorHandlers(), configSource );
+
+                final Archiver archiver =
+                    createArchiver( format, assembly.isIncludeBaseDirectory(), basedir, configSource,
+                                    containerHandlers, recompressZippedFiles, mergeManifestMode );
+
+                final File destFile = getDestFile( fullName, format, configSource );
+                archiver.setDestFile( destFile );
+
+                archivers.add( archiver );
+                destFiles.add( destFile );
+            }
+
+            // the phases run once against the first archiver, the resources they add are replayed against the others
+            final ArchiverCallRecorder recorder = new ArchiverCallRecorder( archivers.get( 0 ), destFiles );
+            final Archiver recordingArchiver = recorder.getRecordingArchiver();
+            for ( AssemblyArchiverPhase phase : sortedPhases() )
+            {
+                phase.execute( assembly, recordingArchiver, configSource );
+            }
+            for ( final Archiver archiver : archivers.subList( 1, archivers.size() ) )
+            {
+                recorder.replay( archiver );
+            }
+
+            // handlers shared by the archivers collect the descriptors of all of them, they must run one at a time
+            final List<ContainerDescriptorHandlerConfig> handlerConfigs = assembly.getContainerDescriptorHandlers();
+            createArchives( archivers, formats, configSource, handlerConfigs == null || handlerConfigs.isEmpty() );
+        }
+        catch ( final ArchiverException e )
+        {
+            throw new ArchiveCreationException(
+                "Error creating assembly archive " + assembly.getId() + ": " + e.getMessage(), e );
+        }
+        catch ( final IOException e )
+        {
+            throw new ArchiveCreationException(
+                "Error creating assembly archive " + assembly.getId() + ": " + e.getMessage(), e );
+        }
+        catch ( final NoSuchArchiverException e )
+        {
+            throw new ArchiveCreationException(
+                "Unable to obtain archiver for extension '" + format + "', for assembly: '" + assembly.getId() + "'",
+                e );
+        }
+        catch ( final DependencyResolutionException e )
+        {
+            throw new ArchiveCreationException(
+                "Unable to resolve dependencies for assembly '" + assembly.getId() + "'", e );
+        }
+
+        return destFiles;
+    }
+
+    private void createArchives( final List<Archiver> archivers, final List<String> formats,
+                                 final AssemblerConfigurationSource configSource, final boolean concurrently )
+        throws IOException
+    {
+        if ( !concurrently || archivers.size() < 2 )
+        {
+            for ( int i = 0; i < archivers.size(); i++ )
+            {
+                writeArchive( archivers.get( i ), formats.get( i ), configSource );
+            }
+            return;
+        }
+
+        final ExecutorService executor =
+            Executors.newFixedThreadPool( Math.min( archivers.size(), Runtime.getRuntime().availableProcessors() ) );
+        try
+        {
+            final List<Future<Void>> archives = new ArrayList<Future<Void>>( archivers.size() );
+            for ( int i = 0; i < archivers.size(); i++ )
+            {
+                final Archiver archiver = archivers.get( i );
+                final String format = formats.get( i );
+                archives.add( executor.submit( new Callable<Void>()
+                {
+                    @Override
+                    public Void call()
+                        throws IOException
+                    {
+                        writeArchive( archiver, format, configSource );
+                        return null;
+                    }
+                } ) );
+            }
+
+            for ( final Future<Void> archive : archives )
+            {
+                try
+                {
+                    archive.get();
+                }
+                catch ( final InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IOException( "Interrupted while creating the assembly archives", e );
+                }
+                catch ( final ExecutionException e )
+                {
+                    final Throwable cause = e.getCause();
+                    if ( cause instanceof IOException )
+                    {
+                        throw (IOException) cause;
+                    }
+                    if ( cause instanceof RuntimeException )
+                    {
+                        throw (RuntimeException) cause;
+                    }
+                    if ( cause instanceof Error )
+                    {
+                        throw (Error) cause;
+                    }
+                    throw new IOException( cause.getMessage(), cause );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the archive of the specified archiver. When the gzip compression of a tar archive is parallel, the
+     * archiver writes an uncompressed tar file which is then compressed into the destination file.
+     */
+    private void writeArchive( final Archiver archiver, final String format,
+                               final AssemblerConfigurationSource configSource )
+        throws IOException
+    {
+        if ( !isParallelGzip( format, configSource ) || configSource.isDryRun() )
+        {
+            archiver.createArchive();
+            return;
+        }
+
+        final File destFile = archiver.getDestFile();
+        final File tarFile = new File( configSource.getTemporaryRootDirectory(), destFile.getName() + ".tar" );
+        archiver.setDestFile( tarFile );
+        try
+        {
+            archiver.createArchive();
+
+            getLogger().debug( "Compressing " + destFile + " with " + configSource.getCompressionThreads()
+                                   + " threads" );
+            final OutputStream out =
+                new ParallelGzipOutputStream( new FileOutputStream( destFile ), configSource.getCompressionThreads() );
+            try
+            {
+                Files.copy( tarFile.toPath(), out );
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+        finally
+        {
+            archiver.setDestFile( destFile );
+            tarFile.delete();
+        }
+    }
+
+    private boolean isParallelGzip( final String format, final AssemblerConfigurationSource configSource )
+    {
+        return ( "tgz".equals( format ) || "tar.gz".equals( format ) ) && configSource.getCompressionThreads() > 1;
+    }
+
+    private File getDestFile( final String fullName, final String format,
+                              final AssemblerConfigurationSource configSource )
+    {
+        String filename = fullName;
+        if ( !configSource.isIgnoreDirFormatExtensions() || !format.startsWith( "dir" ) )
+        {
+            filename += "." + format;
+        }
+
+        return new File( configSource.getOutputDirectory(), filename );
+    }
+
+    private String getBasedir( final Assembly assembly, final AssemblerConfigurationSource configSource )
+        throws AssemblyFormattingException
+    {
+        final String finalName = configSource.getFinalName();
+        final String specifiedBasedir = assembly.getBaseDirectory();
+
+        String basedir = finalName;
+
+        if ( specifiedBasedir != null )
+        {
+            basedir = AssemblyFormatUtils.getOutputDirectory( specifiedBasedir, finalName, configSource,
+                                                              AssemblyFormatUtils.moduleProjectInterpolator(
+                                                                  configSource.getProject() ),
+                                                              AssemblyFormatUtils.artifactProjectInterpolator(
+                                                                  null ) );
+        }
+
+        return basedir;
+    }
+
     private void validate( final Assembly assembly )
         throws InvalidAssemblerConfigurationException
     {
@@ -296,6 +514,11 @@ public class DefaultAssemblyArchiver
         if ( "txz".equals( format ) || "tgz".equals( format ) || "tbz2".equals( format ) || format.startsWith( "tar" ) )
         {
             archiver = createTarArchiver( format, TarLongFileMode.valueOf( configSource.getTarLongFileMode() ) );
+            if ( isParallelGzip( format, configSource ) )
+            {
+                // compressed afterwards, see writeArchive
+                ( (TarArchiver) archiver ).setCompression( TarArchiver.TarCompressionMethod.none );
+            }
         }
         else if ( "war".equals( format ) )
         {
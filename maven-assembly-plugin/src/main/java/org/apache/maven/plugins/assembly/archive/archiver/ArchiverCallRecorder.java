@@ -0,0 +1,149 @@
+package org.apache.maven.plugins.assembly.archive.archiver;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.codehaus.plexus.archiver.Archiver;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the calls adding resources to an {@link Archiver}, or configuring it, while forwarding them to that archiver.
+ * The recorded calls make up the resource manifest of the assembly: they are replayed against the archivers of the
+ * other formats, so that the assembly phases resolving and scanning what goes into the assembly only run once whatever
+ * the number of formats.
+ *
+ * @since 3.0.1
+ */
+public class ArchiverCallRecorder
+    implements InvocationHandler
+{
+
+    private final Archiver archiver;
+
+    private final List<File> destFiles;
+
+    private final List<Method> methods = new ArrayList<Method>();
+
+    private final List<Object[]> arguments = new ArrayList<Object[]>();
+
+    /**
+     * @param archiver The archiver the calls are forwarded to.
+     * @param destFiles The destination files of all the archivers the calls end up in, including that one.
+     */
+    public ArchiverCallRecorder( final Archiver archiver, final List<File> destFiles )
+    {
+        this.archiver = archiver;
+        this.destFiles = Collections.unmodifiableList( new ArrayList<File>( destFiles ) );
+    }
+
+    /**
+     * @param archiver An archiver.
+     * @return The destination files of all the formats if the archiver is a recording archiver, else the destination
+     *         file of the archiver.
+     */
+    public static List<File> getDestFiles( final Archiver archiver )
+    {
+        if ( Proxy.isProxyClass( archiver.getClass() ) )
+        {
+            final InvocationHandler handler = Proxy.getInvocationHandler( archiver );
+            if ( handler instanceof ArchiverCallRecorder )
+            {
+                return ( (ArchiverCallRecorder) handler ).destFiles;
+            }
+        }
+        return Collections.singletonList( archiver.getDestFile() );
+    }
+
+    /**
+     * @return An archiver forwarding the calls to the archiver of this recorder, and recording them.
+     */
+    public Archiver getRecordingArchiver()
+    {
+        return (Archiver) Proxy.newProxyInstance( Archiver.class.getClassLoader(), new Class<?>[] { Archiver.class },
+                                                  this );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object invoke( final Object proxy, final Method method, final Object[] args )
+        throws Throwable
+    {
+        if ( isRecorded( method ) )
+        {
+            methods.add( method );
+            arguments.add( args );
+        }
+        return invoke( archiver, method, args );
+    }
+
+    /**
+     * Replays the recorded calls against the specified archiver.
+     *
+     * @param target The archiver.
+     */
+    public void replay( final Archiver target )
+    {
+        for ( int i = 0; i < methods.size(); i++ )
+        {
+            try
+            {
+                invoke( target, methods.get( i ), arguments.get( i ) );
+            }
+            catch ( final RuntimeException e )
+            {
+                throw e;
+            }
+            catch ( final Throwable e )
+            {
+                // the recorded methods do not declare any checked exception
+                throw new IllegalStateException( e );
+            }
+        }
+    }
+
+    private static boolean isRecorded( final Method method )
+    {
+        final String name = method.getName();
+        return name.startsWith( "add" ) || ( name.startsWith( "set" ) && !"setDestFile".equals( name ) );
+    }
+
+    private static Object invoke( final Archiver target, final Method method, final Object[] args )
+        throws Throwable
+    {
+        try
+        {
+            return method.invoke( target, args );
+        }
+        catch ( final InvocationTargetException e )
+        {
+            throw e.getCause();
+        }
+    }
+
+}
@@ -22,6 +22,7 @@ package org.apache.maven.plugins.assembly.archive.task;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
+import org.apache.maven.plugins.assembly.archive.archiver.ArchiverCallRecorder;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
 import org.apache.maven.plugins.assembly.utils.AssemblyFormatUtils;
 import org.apache.maven.plugins.assembly.utils.TypeConversionUtils;
@@ -264,8 +265,9 @@ public class AddArtifactTask
 
     private boolean artifactIsArchiverDestination( Archiver archiver )
     {
-        return ( ( artifact.getFile() != null ) && ( archiver.getDestFile() != null ) ) && artifact.getFile().equals(
-            archiver.getDestFile() );
+        // the destination of any format, when the calls are recorded to be replayed against the other formats
+        return ( artifact.getFile() != null ) && ArchiverCallRecorder.getDestFiles( archiver ).contains(
+            artifact.getFile() );
     }
 
     public void setDirectoryMode( final int directoryMode )
@@ -27,6 +27,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.ArtifactRepository;
@@ -34,6 +35,7 @@ import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
 import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
 import org.apache.maven.artifact.resolver.MultipleArtifactsNotFoundException;
 import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugins.assembly.AssemblerConfigurationSource;
 import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
 import org.apache.maven.plugins.assembly.archive.phase.ModuleSetAssemblyPhase;
@@ -71,6 +73,12 @@ public class DefaultDependencyResolver
     @Requirement
     private org.apache.maven.shared.dependencies.resolve.DependencyResolver dependencyResolver;
 
+    /**
+     * The resolutions of the running builds, the assemblies of all the projects of a build share them.
+     */
+    private final Map<MavenSession, DependencyResolutionCache> resolutionCaches =
+        new WeakHashMap<MavenSession, DependencyResolutionCache>();
+
     @Override
     public Map<DependencySet, Set<Artifact>> resolveDependencySets( final Assembly assembly, ModuleSet moduleSet,
                                                                     final AssemblerConfigurationSource configSource,
@@ -79,6 +87,9 @@ public class DefaultDependencyResolver
     {
         Map<DependencySet, Set<Artifact>> result = new LinkedHashMap<DependencySet, Set<Artifact>>();
 
+        final DependencyResolutionCache cache = getResolutionCache( configSource.getMavenSession() );
+        final int lookups = cache.getHits() + cache.getMisses();
+
         for ( DependencySet dependencySet : dependencySets )
         {
 
@@ -95,6 +106,8 @@ public class DefaultDependencyResolver
             resolve( assembly, configSource, result, dependencySet, info );
 
         }
+
+        logResolutionSummary( cache, lookups );
         return result;
     }
 
@@ -109,19 +122,27 @@ public class DefaultDependencyResolver
             final List<ArtifactRepository> repos =
                 aggregateRemoteArtifactRepositories( configSource.getRemoteRepositories(), info.getEnabledProjects() );
 
-            artifacts = info.getArtifacts();
-            if ( info.isResolvedTransitively() )
+            final DependencyResolutionCache cache = getResolutionCache( configSource.getMavenSession() );
+            final List<Object> key = DependencyResolutionCache.createKey( configSource.getProject(), info, repos );
+            artifacts = cache.get( key );
+            if ( artifacts != null )
+            {
+                getLogger().debug( "Reusing the dependencies resolved for a previous dependency set." );
+            }
+            else if ( info.isResolvedTransitively() )
             {
                 getLogger().debug( "Resolving project dependencies transitively." );
                 
                 ArtifactFilter filter = new ArtifactIncludeFilterTransformer().transform( info.getScopeFilter() );
-                artifacts = resolveTransitively( artifacts, repos, filter, configSource );
+                artifacts = resolveTransitively( info.getArtifacts(), repos, filter, configSource );
+                cache.put( key, artifacts );
             }
             else
             {
                 getLogger().debug( "Resolving project dependencies ONLY. "
                                        + "Transitive dependencies WILL NOT be included in the results." );
-                artifacts = resolveNonTransitively( assembly, artifacts, configSource, repos );
+                artifacts = resolveNonTransitively( assembly, info.getArtifacts(), configSource, repos );
+                cache.put( key, artifacts );
             }
         }
         else
@@ -139,6 +160,9 @@ public class DefaultDependencyResolver
     {
         Map<DependencySet, Set<Artifact>> result = new LinkedHashMap<DependencySet, Set<Artifact>>();
 
+        final DependencyResolutionCache cache = getResolutionCache( configSource.getMavenSession() );
+        final int lookups = cache.getHits() + cache.getMisses();
+
         for ( DependencySet dependencySet : dependencySets )
         {
 
@@ -154,9 +178,40 @@ public class DefaultDependencyResolver
             resolve( assembly, configSource, result, dependencySet, info );
 
         }
+
+        logResolutionSummary( cache, lookups );
         return result;
     }
 
+    /**
+     * Logs the hits and misses of the resolution cache so far in the build, once per call resolving dependency sets.
+     */
+    private void logResolutionSummary( final DependencyResolutionCache cache, final int lookups )
+    {
+        if ( cache.getHits() + cache.getMisses() > lookups )
+        {
+            getLogger().info( cache.getSummary() );
+        }
+    }
+
+    /**
+     * @param session The session of the build.
+     * @return The resolution cache of the build.
+     */
+    DependencyResolutionCache getResolutionCache( final MavenSession session )
+    {
+        synchronized ( resolutionCaches )
+        {
+            DependencyResolutionCache cache = resolutionCaches.get( session );
+            if ( cache == null )
+            {
+                cache = new DependencyResolutionCache();
+                resolutionCaches.put( session, cache );
+            }
+            return cache;
+        }
+    }
+
     Set<Artifact> resolveNonTransitively( final Assembly assembly, final Set<Artifact> dependencyArtifacts,
                                           final AssemblerConfigurationSource configSource,
                                           final List<ArtifactRepository> repos )
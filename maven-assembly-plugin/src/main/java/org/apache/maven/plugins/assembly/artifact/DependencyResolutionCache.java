@@ -0,0 +1,132 @@
+package org.apache.maven.plugins.assembly.artifact;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.artifact.filter.resolve.ScopeFilter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Artifacts resolved for the dependency sets of a build, so that the dependency sets of the different assemblies and
+ * module sets requiring the same resolution share its result.
+ *
+ * @since 3.0.1
+ */
+class DependencyResolutionCache
+{
+
+    private final Map<List<Object>, Set<Artifact>> resolved = new HashMap<List<Object>, Set<Artifact>>();
+
+    private int hits;
+
+    private int misses;
+
+    /**
+     * Creates the key identifying a resolution: the project, the projects and the artifacts to resolve, the scopes,
+     * the transitive flag and the repositories.
+     */
+    static List<Object> createKey( final MavenProject project, final ResolutionManagementInfo info,
+                                   final List<ArtifactRepository> repositories )
+    {
+        final List<Object> key = new ArrayList<Object>();
+        key.add( project == null ? null : project.getId() );
+        key.add( info.isResolvedTransitively() );
+
+        final ScopeFilter scopeFilter = info.getScopeFilter();
+        key.add( scopeFilter == null || scopeFilter.getIncluded() == null ? null
+                        : new TreeSet<String>( scopeFilter.getIncluded() ) );
+        key.add( scopeFilter == null || scopeFilter.getExcluded() == null ? null
+                        : new TreeSet<String>( scopeFilter.getExcluded() ) );
+
+        final List<String> projects = new ArrayList<String>();
+        for ( final MavenProject enabledProject : info.getEnabledProjects() )
+        {
+            projects.add( enabledProject.getId() );
+        }
+        key.add( projects );
+
+        final List<String> artifacts = new ArrayList<String>();
+        for ( final Artifact artifact : info.getArtifacts() )
+        {
+            artifacts.add( artifact.getId() + ":" + artifact.getScope() );
+        }
+        key.add( artifacts );
+
+        final List<String> urls = new ArrayList<String>();
+        for ( final ArtifactRepository repository : repositories )
+        {
+            urls.add( repository.getUrl() );
+        }
+        key.add( urls );
+
+        return key;
+    }
+
+    /**
+     * @param key The key of the resolution.
+     * @return A copy of the artifacts resolved for the key, or <code>null</code> if they were not resolved yet.
+     */
+    synchronized Set<Artifact> get( final List<Object> key )
+    {
+        final Set<Artifact> artifacts = resolved.get( key );
+        if ( artifacts == null )
+        {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new LinkedHashSet<Artifact>( artifacts );
+    }
+
+    synchronized void put( final List<Object> key, final Set<Artifact> artifacts )
+    {
+        resolved.put( key, new LinkedHashSet<Artifact>( artifacts ) );
+    }
+
+    synchronized int getHits()
+    {
+        return hits;
+    }
+
+    synchronized int getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * @return The number of dependency sets whose resolution was reused or resolved, with the hit rate.
+     */
+    synchronized String getSummary()
+    {
+        final int total = hits + misses;
+        return "Dependency resolution cache: " + hits + " of " + total + " dependency sets reused ("
+            + ( total == 0 ? 100 : 100 * hits / total ) + "% hit rate), " + misses + " resolved";
+    }
+
+}
@@ -395,6 +395,36 @@ public abstract class AbstractAssemblyMojo
     @Parameter
     private List<String> delimiters;
 
+    /**
+     * <p>
+     * Set to <code>true</code> in order to build all the formats of an assembly in a single pass: the dependency sets,
+     * file sets and module sets of the descriptor are then resolved once, whatever the number of formats, and the
+     * archives of the different formats are created concurrently.
+     * </p>
+     * <p>
+     * <b>NOTE:</b> The archives are created one after the other when the descriptor configures container descriptor
+     * handlers, since these are shared by the archivers.
+     * </p>
+     *
+     * @since 3.0.1
+     */
+    @Parameter( property = "assembly.singlePass", defaultValue = "false" )
+    private boolean singlePass;
+
+    /**
+     * <p>
+     * The number of threads compressing the <code>tar.gz</code> and <code>tgz</code> archives. When greater than 1,
+     * the archive is split into blocks compressed concurrently, and then concatenated into a single gzip stream.
+     * </p>
+     * <p>
+     * <b>NOTE:</b> The entries of the <code>zip</code> based archives are always compressed concurrently.
+     * </p>
+     *
+     * @since 3.0.1
+     */
+    @Parameter( property = "assembly.compressionThreads", defaultValue = "1" )
+    private int compressionThreads;
+
     public static FixedStringSearchInterpolator mainProjectInterpolator( MavenProject mainProject )
     {
         if ( mainProject != null )
@@ -473,10 +503,19 @@ public abstract class AbstractAssemblyMojo
                         "No formats specified in the execution parameters or the assembly descriptor." );
                 }
 
-                for ( final String format : effectiveFormats )
+                List<File> destFiles = null;
+                if ( singlePass && effectiveFormats.size() > 1 )
                 {
-                    final File destFile =
-                        assemblyArchiver.createArchive( assembly, fullName, format,
+                    destFiles = assemblyArchiver.createArchives( assembly, fullName, effectiveFormats, this,
+                                                                 isRecompressZippedFiles(), getMergeManifestMode() );
+                }
+
+                for ( int i = 0; i < effectiveFormats.size(); i++ )
+                {
+                    final String format = effectiveFormats.get( i );
+                    final File destFile = destFiles != null
+                        ? destFiles.get( i )
+                        : assemblyArchiver.createArchive( assembly, fullName, format,
                             this, isRecompressZippedFiles(), getMergeManifestMode() );
 
                     final MavenProject project = getProject();
@@ -855,6 +894,12 @@ public abstract class AbstractAssemblyMojo
         return ignorePermissions;
     }
 
+    @Override
+    public int getCompressionThreads()
+    {
+        return compressionThreads;
+    }
+
     @Override
     public String getEncoding()
     {
@@ -88,6 +88,61 @@ class LinuxLineFeedInputStream
         }
     }
 
+    /**
+     * Converts whole buffers at once: the bytes are read directly into the specified buffer and converted in place,
+     * since the conversion never makes the content longer.
+     */
+    @Override
+    public int read( byte[] b, int off, int len )
+        throws IOException
+    {
+        if ( off < 0 || len < 0 || len > b.length - off )
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        final int end = off + len;
+        int written = off;
+        while ( written < end )
+        {
+            if ( eofSeen )
+            {
+                final int eof = eofGame( slashRSeen );
+                if ( eof == -1 )
+                {
+                    break;
+                }
+                b[written++] = (byte) eof;
+                continue;
+            }
+
+            final int read = this.target.read( b, written, end - written );
+            if ( read == -1 )
+            {
+                eofSeen = true;
+                continue;
+            }
+
+            final int last = written + read;
+            for ( int i = written; i < last; i++ )
+            {
+                final byte current = b[i];
+                if ( current == '\r' )
+                {
+                    b[written++] = '\n';
+                }
+                else if ( current != '\n' || !slashRSeen )
+                { // a /n following a /r has already been written
+                    b[written++] = current;
+                }
+                // written is never greater than i, so the bytes still to convert are not overwritten
+                slashRSeen = current == '\r';
+                slashNSeen = current == '\n';
+            }
+        }
+        return written == off && len > 0 ? -1 : written - off;
+    }
+
     private int eofGame( boolean previousWasSlashR )
     {
         if ( previousWasSlashR || !ensureLineFeedAtEndOfFile )
@@ -0,0 +1,295 @@
+package org.apache.maven.plugins.assembly.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Output stream writing data in the gzip format, compressing it with several threads. The data is split into blocks
+ * deflated independently, each of them using the end of the previous block as a dictionary, which are then
+ * concatenated in order to form a single gzip member, readable by any gzip implementation.
+ *
+ * @since 3.0.1
+ */
+public class ParallelGzipOutputStream
+    extends FilterOutputStream
+{
+
+    /**
+     * The default size of the blocks compressed by each thread.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+    private final ExecutorService executor;
+
+    private final int maxPendingBlocks;
+
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<Future<byte[]>>();
+
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block;
+
+    private int count;
+
+    private byte[] dictionary;
+
+    private long size;
+
+    private boolean finished;
+
+    /**
+     * @param out The stream the compressed data is written to.
+     * @param threads The number of compressing threads.
+     * @throws IOException in case of an error.
+     */
+    public ParallelGzipOutputStream( OutputStream out, int threads )
+        throws IOException
+    {
+        this( out, threads, DEFAULT_BLOCK_SIZE );
+    }
+
+    /**
+     * @param out The stream the compressed data is written to.
+     * @param threads The number of compressing threads.
+     * @param blockSize The size of the blocks compressed by each thread.
+     * @throws IOException in case of an error.
+     */
+    public ParallelGzipOutputStream( OutputStream out, int threads, int blockSize )
+        throws IOException
+    {
+        super( out );
+        if ( threads < 1 || blockSize < 1 )
+        {
+            throw new IllegalArgumentException( "threads and blockSize must be positive" );
+        }
+        this.executor = Executors.newFixedThreadPool( threads );
+        // bounds the memory used by the blocks waiting to be written
+        this.maxPendingBlocks = threads * 2;
+        this.block = new byte[blockSize];
+        out.write( HEADER );
+    }
+
+    @Override
+    public void write( int b )
+        throws IOException
+    {
+        write( new byte[] { (byte) b }, 0, 1 );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len )
+        throws IOException
+    {
+        if ( finished )
+        {
+            throw new IOException( "The stream is finished" );
+        }
+        crc.update( b, off, len );
+        size += len;
+        while ( len > 0 )
+        {
+            final int n = Math.min( len, block.length - count );
+            System.arraycopy( b, off, block, count, n );
+            count += n;
+            off += n;
+            len -= n;
+            if ( count == block.length )
+            {
+                submitBlock( false );
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks compressed so far, the current block is only compressed once full.
+     *
+     * @throws IOException in case of an error.
+     */
+    @Override
+    public void flush()
+        throws IOException
+    {
+        while ( !pendingBlocks.isEmpty() )
+        {
+            writeBlock( pendingBlocks.removeFirst() );
+        }
+        out.flush();
+    }
+
+    /**
+     * Finishes writing the compressed data without closing the underlying stream.
+     *
+     * @throws IOException in case of an error.
+     */
+    public void finish()
+        throws IOException
+    {
+        if ( finished )
+        {
+            return;
+        }
+        submitBlock( true );
+        flush();
+        finished = true;
+
+        final long value = crc.getValue();
+        out.write( new byte[] { (byte) value, (byte) ( value >> 8 ), (byte) ( value >> 16 ), (byte) ( value >> 24 ),
+            (byte) size, (byte) ( size >> 8 ), (byte) ( size >> 16 ), (byte) ( size >> 24 ) } );
+        out.flush();
+    }
+
+    @Override
+    public void close()
+        throws IOException
+    {
+        try
+        {
+            finish();
+        }
+        finally
+        {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock( final boolean last )
+        throws IOException
+    {
+        final byte[] input = Arrays.copyOf( block, count );
+        pendingBlocks.addLast( executor.submit( new BlockDeflater( input, dictionary, last ) ) );
+        if ( count >= DICTIONARY_SIZE )
+        {
+            dictionary = Arrays.copyOfRange( input, count - DICTIONARY_SIZE, count );
+        }
+        else if ( count > 0 )
+        {
+            dictionary = input;
+        }
+        count = 0;
+
+        while ( pendingBlocks.size() > maxPendingBlocks )
+        {
+            writeBlock( pendingBlocks.removeFirst() );
+        }
+    }
+
+    private void writeBlock( final Future<byte[]> pendingBlock )
+        throws IOException
+    {
+        try
+        {
+            out.write( pendingBlock.get() );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while compressing", e );
+        }
+        catch ( final ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException( e.getCause().getMessage(), e.getCause() );
+        }
+    }
+
+    /**
+     * Deflates a block, ending it on a byte boundary so that it can be followed by the next one.
+     */
+    private static final class BlockDeflater
+        implements Callable<byte[]>
+    {
+
+        private final byte[] input;
+
+        private final byte[] dictionary;
+
+        private final boolean last;
+
+        BlockDeflater( byte[] input, byte[] dictionary, boolean last )
+        {
+            this.input = input;
+            this.dictionary = dictionary;
+            this.last = last;
+        }
+
+        @Override
+        public byte[] call()
+        {
+            final Deflater deflater = new Deflater( Deflater.DEFAULT_COMPRESSION, true );
+            try
+            {
+                if ( dictionary != null )
+                {
+                    deflater.setDictionary( dictionary );
+                }
+                deflater.setInput( input );
+
+                final ByteArrayOutputStream compressed = new ByteArrayOutputStream( input.length / 2 + 64 );
+                final byte[] buffer = new byte[8192];
+                if ( last )
+                {
+                    deflater.finish();
+                    while ( !deflater.finished() )
+                    {
+                        compressed.write( buffer, 0, deflater.deflate( buffer ) );
+                    }
+                }
+                else
+                {
+                    int n;
+                    do
+                    {
+                        n = deflater.deflate( buffer, 0, buffer.length, Deflater.SYNC_FLUSH );
+                        compressed.write( buffer, 0, n );
+                    }
+                    while ( n == buffer.length );
+                }
+                return compressed.toByteArray();
+            }
+            finally
+            {
+                deflater.end();
+            }
+        }
+    }
+
+}
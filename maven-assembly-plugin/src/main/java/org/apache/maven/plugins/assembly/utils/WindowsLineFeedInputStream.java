@@ -29,6 +29,8 @@ class WindowsLineFeedInputStream
     extends InputStream
 {
 
+    private static final int BUFFER_SIZE = 8192;
+
     private final InputStream target;
 
     private final boolean ensureLineFeedAtEndOfFile;
@@ -41,6 +43,8 @@ class WindowsLineFeedInputStream
 
     private boolean eofSeen = false;
 
+    private byte[] buffer;
+
     public WindowsLineFeedInputStream( InputStream in, boolean ensureLineFeedAtEndOfFile )
     {
         this.target = in;
@@ -94,6 +98,79 @@ class WindowsLineFeedInputStream
         }
     }
 
+    /**
+     * Converts whole buffers at once. Since the conversion may make the content longer, the bytes are read into an
+     * internal buffer, reused by the subsequent reads.
+     */
+    @Override
+    public int read( byte[] b, int off, int len )
+        throws IOException
+    {
+        if ( off < 0 || len < 0 || len > b.length - off )
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        final int end = off + len;
+        int written = off;
+        while ( written < end )
+        {
+            if ( eofSeen )
+            {
+                final int eof = eofGame();
+                if ( eof == -1 )
+                {
+                    break;
+                }
+                b[written++] = (byte) eof;
+            }
+            else if ( injectSlashN )
+            {
+                injectSlashN = false;
+                b[written++] = '\n';
+            }
+            else
+            {
+                if ( buffer == null )
+                {
+                    buffer = new byte[BUFFER_SIZE];
+                }
+                // each byte read is written as two bytes at most
+                final int read =
+                    this.target.read( buffer, 0, Math.min( buffer.length, Math.max( 1, ( end - written ) / 2 ) ) );
+                if ( read == -1 )
+                {
+                    eofSeen = true;
+                    continue;
+                }
+
+                for ( int i = 0; i < read; i++ )
+                {
+                    final byte current = buffer[i];
+                    if ( current == '\n' && !slashRSeen )
+                    {
+                        b[written++] = '\r';
+                        if ( written < end )
+                        {
+                            b[written++] = '\n';
+                        }
+                        else
+                        {
+                            injectSlashN = true;
+                        }
+                    }
+                    else
+                    {
+                        b[written++] = current;
+                    }
+                    slashRSeen = current == '\r';
+                    slashNSeen = current == '\n';
+                }
+            }
+        }
+        return written == off && len > 0 ? -1 : written - off;
+    }
+
     private int eofGame()
     {
         if ( !ensureLineFeedAtEndOfFile )
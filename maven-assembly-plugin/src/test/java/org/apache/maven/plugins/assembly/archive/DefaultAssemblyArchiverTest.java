@@ -56,6 +56,7 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -66,6 +67,7 @@ import static org.easymock.EasyMock.expectLastCall;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class DefaultAssemblyArchiverTest
@@ -205,6 +207,74 @@ public class DefaultAssemblyArchiverTest
         mm.verifyAll();
     }
 
+    @Test
+    public void testCreateArchives_ShouldExecutePhasesOnce()
+        throws ArchiveCreationException, AssemblyFormattingException, InvalidAssemblerConfigurationException,
+        NoSuchArchiverException
+    {
+        final EasyMockSupport mm = new EasyMockSupport();
+
+        final MockAndControlForAssemblyArchiver macMgr = new MockAndControlForAssemblyArchiver( mm );
+
+        final RecordingTestArchiver zipArchiver = new RecordingTestArchiver();
+        final RecordingTestArchiver dirArchiver = new RecordingTestArchiver();
+        macMgr.expectGetArchiver( "zip", zipArchiver );
+        macMgr.expectGetArchiver( "dir", dirArchiver );
+
+        final File file = fileManager.createTempFile();
+        final List<Archiver> phaseArchivers = new ArrayList<Archiver>();
+        final AssemblyArchiverPhase phase = new AssemblyArchiverPhase()
+        {
+            public void execute( Assembly assembly, Archiver archiver, AssemblerConfigurationSource configSource )
+            {
+                phaseArchivers.add( archiver );
+                archiver.setFileMode( 0644 );
+                archiver.addFile( file, "file.txt" );
+            }
+        };
+
+        final AssemblerConfigurationSource configSource =
+            mm.createControl().createMock( AssemblerConfigurationSource.class );
+
+        final File tempDir = fileManager.createTempDir();
+        FileUtils.deleteDirectory( tempDir );
+        final File outDir = fileManager.createTempDir();
+
+        expect( configSource.getTemporaryRootDirectory() ).andReturn( tempDir ).anyTimes();
+        expect( configSource.isDryRun() ).andReturn( false ).anyTimes();
+        expect( configSource.isIgnoreDirFormatExtensions() ).andReturn( true ).anyTimes();
+        expect( configSource.getOutputDirectory() ).andReturn( outDir ).anyTimes();
+        expect( configSource.getFinalName() ).andReturn( "finalName" ).anyTimes();
+        expect( configSource.getArchiverConfig() ).andReturn( null ).anyTimes();
+        expect( configSource.getWorkingDirectory() ).andReturn( new File( "." ) ).anyTimes();
+        expect( configSource.isUpdateOnly() ).andReturn( false ).anyTimes();
+        expect( configSource.isIgnorePermissions() ).andReturn( false ).anyTimes();
+
+        final Assembly assembly = new Assembly();
+        assembly.setId( "id" );
+
+        mm.replayAll();
+
+        final DefaultAssemblyArchiver subject = createSubject( macMgr, Collections.singletonList( phase ), null );
+
+        final List<File> destFiles =
+            subject.createArchives( assembly, "full-name", Arrays.asList( "zip", "dir" ), configSource, false, null );
+
+        assertEquals( Arrays.asList( new File( outDir, "full-name.zip" ), new File( outDir, "full-name" ) ),
+                      destFiles );
+        assertEquals( 1, phaseArchivers.size() );
+        for ( final RecordingTestArchiver archiver : Arrays.asList( zipArchiver, dirArchiver ) )
+        {
+            assertEquals( Collections.singletonList( "finalName/file.txt" ), archiver.addedFiles );
+            assertEquals( 0644, archiver.fileMode );
+            assertTrue( archiver.created );
+        }
+        assertEquals( destFiles.get( 0 ), zipArchiver.getDestFile() );
+        assertEquals( destFiles.get( 1 ), dirArchiver.getDestFile() );
+
+        mm.verifyAll();
+    }
+
     @Test
     public void testCreateArchiver_ShouldConfigureArchiver()
         throws NoSuchArchiverException, ArchiverException
@@ -604,6 +674,55 @@ public class DefaultAssemblyArchiverTest
 
     }
 
+    private static final class RecordingTestArchiver
+        extends NoOpArchiver
+    {
+
+        final List<String> addedFiles = new ArrayList<String>();
+
+        int fileMode;
+
+        File destFile;
+
+        volatile boolean created;
+
+        @Override
+        public void addFile( File inputFile, String destFileName )
+        {
+            addedFiles.add( destFileName );
+        }
+
+        @Override
+        public void setFileMode( int mode )
+        {
+            fileMode = mode;
+        }
+
+        @Override
+        public File getDestFile()
+        {
+            return destFile;
+        }
+
+        @Override
+        public void setDestFile( File destFile )
+        {
+            this.destFile = destFile;
+        }
+
+        @Override
+        public void createArchive()
+        {
+            created = true;
+        }
+
+        @Override
+        public String getDuplicateBehavior()
+        {
+            return Archiver.DUPLICATES_ADD;
+        }
+    }
+
     public static final class TestArchiverWithConfig
         extends NoOpArchiver
     {
@@ -0,0 +1,61 @@
+package org.apache.maven.plugins.assembly.archive.archiver;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.codehaus.plexus.archiver.Archiver;
+import org.codehaus.plexus.archiver.diags.TrackingArchiver;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArchiverCallRecorderTest
+{
+
+    @Test
+    public void getDestFiles_AllFormatsWhenRecording()
+    {
+        final TrackingArchiver zip = new TrackingArchiver();
+        zip.setDestFile( new File( "assembly.zip" ) );
+
+        final TrackingArchiver tar = new TrackingArchiver();
+        tar.setDestFile( new File( "assembly.tar" ) );
+
+        final List<File> destFiles = Arrays.asList( zip.getDestFile(), tar.getDestFile() );
+        final Archiver recordingArchiver = new ArchiverCallRecorder( zip, destFiles ).getRecordingArchiver();
+
+        assertEquals( destFiles, ArchiverCallRecorder.getDestFiles( recordingArchiver ) );
+        assertEquals( zip.getDestFile(), recordingArchiver.getDestFile() );
+    }
+
+    @Test
+    public void getDestFiles_OwnDestFileWhenNotRecording()
+    {
+        final TrackingArchiver tar = new TrackingArchiver();
+        tar.setDestFile( new File( "assembly.tar" ) );
+
+        assertEquals( Collections.singletonList( tar.getDestFile() ), ArchiverCallRecorder.getDestFiles( tar ) );
+    }
+
+}
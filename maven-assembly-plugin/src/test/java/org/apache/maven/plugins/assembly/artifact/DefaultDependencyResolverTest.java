@@ -283,6 +283,51 @@ public class DefaultDependencyResolverTest
         assertFalse( info.getScopeFilter().getIncluded().contains( Artifact.SCOPE_TEST ) );
     }
 
+    public void test_resolutionCache()
+        throws DependencyResolutionException
+    {
+        final MavenProject project = createMavenProject( "group", "artifact", "1.0", null );
+        project.setDependencyArtifacts( Collections.<Artifact>emptySet() );
+        final MavenSession session = newMavenSession( project );
+
+        final DependencyResolutionCache cache = resolver.getResolutionCache( session );
+        assertSame( cache, resolver.getResolutionCache( session ) );
+        assertNotSame( cache, resolver.getResolutionCache( newMavenSession( project ) ) );
+
+        final DependencySet ds = new DependencySet();
+        ds.setScope( Artifact.SCOPE_RUNTIME );
+
+        final ResolutionManagementInfo info = new ResolutionManagementInfo( project );
+        resolver.updateDependencySetResolutionRequirements( ds, info, AssemblyId.createAssemblyId( new Assembly() ),
+                                                            session.getProjectBuildingRequest(), project );
+        final ResolutionManagementInfo sameInfo = new ResolutionManagementInfo( project );
+        resolver.updateDependencySetResolutionRequirements( ds, sameInfo,
+                                                            AssemblyId.createAssemblyId( new Assembly() ),
+                                                            session.getProjectBuildingRequest(), project );
+
+        final List<ArtifactRepository> repos = Collections.emptyList();
+        final List<Object> key = DependencyResolutionCache.createKey( project, info, repos );
+        assertEquals( key, DependencyResolutionCache.createKey( project, sameInfo, repos ) );
+
+        final DependencySet testDs = new DependencySet();
+        testDs.setScope( Artifact.SCOPE_TEST );
+        final ResolutionManagementInfo testInfo = new ResolutionManagementInfo( project );
+        resolver.updateDependencySetResolutionRequirements( testDs, testInfo,
+                                                            AssemblyId.createAssemblyId( new Assembly() ),
+                                                            session.getProjectBuildingRequest(), project );
+        assertFalse( key.equals( DependencyResolutionCache.createKey( project, testInfo, repos ) ) );
+
+        assertNull( cache.get( key ) );
+        final Artifact artifact = factory.createArtifact( "group", "dep", "1.0", Artifact.SCOPE_RUNTIME, "jar" );
+        cache.put( key, Collections.singleton( artifact ) );
+        assertEquals( Collections.singleton( artifact ),
+                      cache.get( DependencyResolutionCache.createKey( project, sameInfo, repos ) ) );
+        assertEquals( 1, cache.getHits() );
+        assertEquals( 1, cache.getMisses() );
+        assertEquals( "Dependency resolution cache: 1 of 2 dependency sets reused (50% hit rate), 1 resolved",
+                      cache.getSummary() );
+    }
+
     public void test_aggregateRemoteArtifactRepositories()
     {
         final List<ArtifactRepository> externalRepos = new ArrayList<ArtifactRepository>();
@@ -59,6 +59,8 @@ public class PojoConfigSource
 
     private boolean isIgnorePermissions;
 
+    private int compressionThreads = 1;
+
     private String archiverConfig;
 
     private boolean isAssemblyIdAppended;
@@ -401,6 +403,16 @@ public class PojoConfigSource
         this.isIgnorePermissions = isIgnorePermissions;
     }
 
+    public int getCompressionThreads()
+    {
+        return compressionThreads;
+    }
+
+    public void setCompressionThreads( int compressionThreads )
+    {
+        this.compressionThreads = compressionThreads;
+    }
+
     public String getEncoding()
     {
         return encoding;
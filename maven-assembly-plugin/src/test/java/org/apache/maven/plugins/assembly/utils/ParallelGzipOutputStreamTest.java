@@ -0,0 +1,95 @@
+package org.apache.maven.plugins.assembly.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.codehaus.plexus.util.IOUtil;
+
+public class ParallelGzipOutputStreamTest
+    extends TestCase
+{
+
+    public void testEmpty()
+        throws Exception
+    {
+        assertTrue( Arrays.equals( new byte[0], roundtrip( new byte[0], 4, 1024 ) ) );
+    }
+
+    public void testSeveralBlocks()
+        throws Exception
+    {
+        final byte[] data = new byte[100000];
+        final Random random = new Random( 0 );
+        for ( int i = 0; i < data.length; i++ )
+        {
+            // compressible, with matches spanning the blocks
+            data[i] = (byte) ( i % 3 == 0 ? random.nextInt( 4 ) : 'a' + i % 7 );
+        }
+
+        assertTrue( Arrays.equals( data, roundtrip( data, 4, 1000 ) ) );
+        assertTrue( Arrays.equals( data, roundtrip( data, 1, 40000 ) ) );
+    }
+
+    public void testSingleBytes()
+        throws Exception
+    {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        final ParallelGzipOutputStream out = new ParallelGzipOutputStream( compressed, 2, 3 );
+        for ( final byte b : "single bytes".getBytes( "UTF-8" ) )
+        {
+            out.write( b );
+        }
+        out.close();
+
+        assertEquals( "single bytes",
+                      IOUtil.toString( new GZIPInputStream( new ByteArrayInputStream( compressed.toByteArray() ) ),
+                                       "UTF-8" ) );
+    }
+
+    private byte[] roundtrip( byte[] data, int threads, int blockSize )
+        throws IOException
+    {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        final ParallelGzipOutputStream out = new ParallelGzipOutputStream( compressed, threads, blockSize );
+        try
+        {
+            // uneven writes, not aligned on the blocks
+            for ( int off = 0; off < data.length; off += 777 )
+            {
+                out.write( data, off, Math.min( 777, data.length - off ) );
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+
+        return IOUtil.toByteArray( new GZIPInputStream( new ByteArrayInputStream( compressed.toByteArray() ) ) );
+    }
+
+}
@@ -22,7 +22,9 @@ package org.apache.maven.plugins.assembly.utils;
 import junit.framework.TestCase;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Random;
 
 import org.codehaus.plexus.util.IOUtil;
 
@@ -75,6 +77,56 @@ public class WindowsLineFeedInputStreamTest
         assertEquals( "a", roundtrip( "a", false ) );
     }
 
+    public void testBulkReadMatchesSingleByteRead()
+        throws Exception
+    {
+        final Random random = new Random( 0 );
+        final byte[] alphabet = { 'a', '\r', '\n' };
+        for ( int i = 0; i < 500; i++ )
+        {
+            final byte[] msg = new byte[random.nextInt( 40 )];
+            for ( int j = 0; j < msg.length; j++ )
+            {
+                msg[j] = alphabet[random.nextInt( alphabet.length )];
+            }
+            for ( final boolean ensure : new boolean[] { true, false } )
+            {
+                final String expected = readSingleBytes( msg, ensure );
+                for ( final int bufferSize : new int[] { 1, 2, 3, 7, 100 } )
+                {
+                    assertEquals( expected, readBuffers( msg, ensure, bufferSize ) );
+                }
+            }
+        }
+    }
+
+    private String readSingleBytes( byte[] msg, boolean ensure )
+        throws IOException
+    {
+        final WindowsLineFeedInputStream lf = new WindowsLineFeedInputStream( new ByteArrayInputStream( msg ), ensure );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for ( int b = lf.read(); b != -1; b = lf.read() )
+        {
+            out.write( b );
+        }
+        lf.close();
+        return out.toString( "ISO-8859-1" );
+    }
+
+    private String readBuffers( byte[] msg, boolean ensure, int bufferSize )
+        throws IOException
+    {
+        final WindowsLineFeedInputStream lf = new WindowsLineFeedInputStream( new ByteArrayInputStream( msg ), ensure );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buf = new byte[bufferSize + 2];
+        for ( int n = lf.read( buf, 1, bufferSize ); n != -1; n = lf.read( buf, 1, bufferSize ) )
+        {
+            out.write( buf, 1, n );
+        }
+        lf.close();
+        return out.toString( "ISO-8859-1" );
+    }
+
     private String roundtrip( String msg )
         throws IOException
     {
@@ -164,6 +164,27 @@ public class CleanMojo
     @Parameter( property = "maven.clean.excludeDefaultDirectories", defaultValue = "false" )
     private boolean excludeDefaultDirectories;
 
+    /**
+     * The number of threads used to delete files. When greater than <code>1</code>, directories are walked with NIO
+     * and their subdirectories are deleted in parallel, which pays off for output directories holding a large number
+     * of files.
+     *
+     * @since 3.0.1
+     */
+    @Parameter( property = "maven.clean.threads", defaultValue = "1" )
+    private int threads;
+
+    /**
+     * Enables the fast clean mode: when no filesets are configured, the build directory is renamed to a hidden
+     * sibling directory named <code>.&lt;directory&gt;.trash</code> and deleted by a background thread, so that the
+     * build does not wait for the deletion. Whatever is left when the build ends is deleted by the next clean, fast or
+     * not. If the directory cannot be renamed atomically, it is deleted in place as usual.
+     *
+     * @since 3.0.1
+     */
+    @Parameter( property = "maven.clean.fast", defaultValue = "false" )
+    private boolean fast;
+
     /**
      * Deletes file-sets in the following project build directory order: (source) directory, output directory, test
      * directory, report directory, and then the additional file-sets.
@@ -180,10 +201,33 @@ public class CleanMojo
             return;
         }
 
-        Cleaner cleaner = new Cleaner( getLog(), isVerbose() );
+        Cleaner cleaner = new Cleaner( getLog(), isVerbose(), threads );
+
+        boolean reaping = false;
+        if ( fast && directory != null && !excludeDefaultDirectories )
+        {
+            if ( filesets == null || filesets.length == 0 )
+            {
+                // the other default directories are usually nested and move along, if not they are deleted below
+                cleaner.moveToTrash( directory );
+                cleaner.emptyTrash( directory );
+                reaping = true;
+            }
+            else
+            {
+                getLog().debug( "Fast clean is disabled when filesets are configured" );
+            }
+        }
 
         try
         {
+            if ( !reaping && directory != null && !excludeDefaultDirectories
+                && Cleaner.getTrashDirectory( directory ).isDirectory() )
+            {
+                // left in the project directory by a fast clean whose build ended before the deletion
+                cleaner.delete( Cleaner.getTrashDirectory( directory ), null, false, failOnError, retryOnError );
+            }
+
             for ( File directoryItem : getDirectories() )
             {
                 if ( directoryItem != null )
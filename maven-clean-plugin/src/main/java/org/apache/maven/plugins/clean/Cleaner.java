@@ -21,6 +21,15 @@ package org.apache.maven.plugins.clean;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.shared.utils.Os;
@@ -44,6 +53,8 @@ class Cleaner
 
     private final Logger logWarn;
 
+    private final int threads;
+
     /**
      * Creates a new cleaner.
      * 
@@ -52,6 +63,20 @@ class Cleaner
      */
     public Cleaner( final Log log, boolean verbose )
     {
+        this( log, verbose, 1 );
+    }
+
+    /**
+     * Creates a new cleaner.
+     * 
+     * @param log The logger to use, may be <code>null</code> to disable logging.
+     * @param verbose Whether to perform verbose logging.
+     * @param threads The number of threads used to delete, directories are deleted in parallel if greater than 1.
+     */
+    public Cleaner( final Log log, boolean verbose, int threads )
+    {
+        this.threads = threads;
+
         logDebug = ( log == null || !log.isDebugEnabled() ) ? null : new Logger()
         {
             public void log( CharSequence message )
@@ -115,7 +140,127 @@ class Cleaner
 
         File file = followSymlinks ? basedir : basedir.getCanonicalFile();
 
-        delete( file, "", selector, followSymlinks, failOnError, retryOnError );
+        if ( threads > 1 )
+        {
+            deleteInParallel( file, selector, followSymlinks, failOnError, retryOnError );
+        }
+        else
+        {
+            delete( file, "", selector, followSymlinks, failOnError, retryOnError );
+        }
+    }
+
+    /**
+     * Moves the specified directory into its trash directory, a hidden sibling named <code>.&lt;name&gt;.trash</code>.
+     * The move is a single rename on the same file system, the actual deletion is left to {@link #emptyTrash(File)}.
+     * 
+     * @param basedir The directory to move, must not be <code>null</code>.
+     * @return <code>true</code> if the directory has been moved, <code>false</code> if it does not exist, is a symlink
+     *         or could not be renamed atomically, in which case the caller should delete it in place.
+     */
+    public boolean moveToTrash( File basedir )
+    {
+        Path path = basedir.toPath();
+        if ( !Files.isDirectory( path, LinkOption.NOFOLLOW_LINKS ) )
+        {
+            return false;
+        }
+
+        Path trash = getTrashDirectory( basedir ).toPath();
+        try
+        {
+            Files.createDirectories( trash );
+            Path target = trash.resolve( basedir.getName() + '-' + System.currentTimeMillis() );
+            for ( int i = 1; Files.exists( target, LinkOption.NOFOLLOW_LINKS ); i++ )
+            {
+                target = trash.resolve( basedir.getName() + '-' + System.currentTimeMillis() + '-' + i );
+            }
+
+            Files.move( path, target, StandardCopyOption.ATOMIC_MOVE );
+
+            if ( logInfo != null )
+            {
+                logInfo.log( "Moved " + basedir + " to " + target );
+            }
+            return true;
+        }
+        catch ( IOException e )
+        {
+            if ( logDebug != null )
+            {
+                logDebug.log( "Failed to move " + basedir + " to " + trash + ", deleting it in place: "
+                    + e.getMessage() );
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the trash directory of the specified directory in a background daemon thread. Whatever the thread has not
+     * deleted by the time the JVM exits is left to the next call, so that trash from interrupted runs is reaped too.
+     * 
+     * @param basedir The directory whose trash should be deleted, must not be <code>null</code>.
+     */
+    public void emptyTrash( File basedir )
+    {
+        final File trash = getTrashDirectory( basedir );
+        if ( !trash.isDirectory() )
+        {
+            return;
+        }
+
+        // the reaper runs after the mojo has returned, so it must not log to the build
+        final Cleaner reaper = new Cleaner( null, false, threads );
+        Thread thread = new Thread( new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    reaper.delete( trash, null, false, false, false );
+                }
+                catch ( IOException e )
+                {
+                    // failOnError is off, left for the next run
+                }
+            }
+        }, "maven-clean-reaper" );
+        thread.setDaemon( true );
+        thread.start();
+    }
+
+    static File getTrashDirectory( File basedir )
+    {
+        return new File( basedir.getAbsoluteFile().getParentFile(), '.' + basedir.getName() + ".trash" );
+    }
+
+    /**
+     * Deletes the specified directory on a fork/join pool, see {@link DeleteTask}.
+     */
+    private void deleteInParallel( File file, Selector selector, boolean followSymlinks, boolean failOnError,
+                                   boolean retryOnError )
+        throws IOException
+    {
+        ForkJoinPool pool = new ForkJoinPool( threads );
+        try
+        {
+            pool.invoke( new DeleteTask( file.toPath(), true, "", selector, followSymlinks, failOnError,
+                                         retryOnError ) );
+        }
+        catch ( DeleteException e )
+        {
+            // the fork/join framework may have wrapped the exception thrown by the worker
+            Throwable cause = e.getCause();
+            while ( cause instanceof DeleteException )
+            {
+                cause = cause.getCause();
+            }
+            throw (IOException) cause;
+        }
+        finally
+        {
+            pool.shutdown();
+        }
     }
 
     /**
@@ -264,6 +409,162 @@ class Cleaner
         return 0;
     }
 
+    /**
+     * The parallel counterpart of {@link Cleaner#delete(File, String, Selector, boolean, boolean, boolean)}: the
+     * directories are listed with NIO, which saves the canonical path and symlink checks on every file when the
+     * parent is known to be canonical, and each subdirectory is deleted by a task of its own. The selector and the
+     * symlink handling are the same, a directory is only deleted once all of its subdirectories are done.
+     */
+    private class DeleteTask
+        extends RecursiveTask<Result>
+    {
+
+        private final Path path;
+
+        private final boolean isDirectory;
+
+        private final String pathname;
+
+        private final Selector selector;
+
+        private final boolean followSymlinks;
+
+        private final boolean failOnError;
+
+        private final boolean retryOnError;
+
+        DeleteTask( Path path, boolean isDirectory, String pathname, Selector selector, boolean followSymlinks,
+                    boolean failOnError, boolean retryOnError )
+        {
+            this.path = path;
+            this.isDirectory = isDirectory;
+            this.pathname = pathname;
+            this.selector = selector;
+            this.followSymlinks = followSymlinks;
+            this.failOnError = failOnError;
+            this.retryOnError = retryOnError;
+        }
+
+        @Override
+        protected Result compute()
+        {
+            Result result = new Result();
+
+            if ( isDirectory )
+            {
+                if ( selector == null || selector.couldHoldSelected( pathname ) )
+                {
+                    if ( followSymlinks || !Files.isSymbolicLink( path ) )
+                    {
+                        deleteChildren( result );
+                    }
+                    else if ( logDebug != null )
+                    {
+                        logDebug.log( "Not recursing into symlink " + path );
+                    }
+                }
+                else if ( logDebug != null )
+                {
+                    logDebug.log( "Not recursing into directory without included files " + path );
+                }
+            }
+
+            if ( !result.excluded && ( selector == null || selector.isSelected( pathname ) ) )
+            {
+                if ( logVerbose != null )
+                {
+                    if ( isDirectory )
+                    {
+                        logVerbose.log( "Deleting directory " + path );
+                    }
+                    else if ( Files.exists( path ) )
+                    {
+                        logVerbose.log( "Deleting file " + path );
+                    }
+                    else
+                    {
+                        logVerbose.log( "Deleting dangling symlink " + path );
+                    }
+                }
+                try
+                {
+                    result.failures += delete( path.toFile(), failOnError, retryOnError );
+                }
+                catch ( IOException e )
+                {
+                    throw new DeleteException( e );
+                }
+            }
+            else
+            {
+                result.excluded = true;
+            }
+
+            return result;
+        }
+
+        private void deleteChildren( Result result )
+        {
+            String prefix = pathname.length() > 0 ? pathname + File.separatorChar : "";
+
+            List<DeleteTask> subdirectories = new ArrayList<DeleteTask>();
+            try
+            {
+                DirectoryStream<Path> children = Files.newDirectoryStream( path );
+                try
+                {
+                    for ( Path child : children )
+                    {
+                        boolean childIsDirectory = Files.isDirectory( child );
+                        DeleteTask task = new DeleteTask( child, childIsDirectory, prefix + child.getFileName(),
+                                                          selector, followSymlinks, failOnError, retryOnError );
+                        if ( childIsDirectory )
+                        {
+                            task.fork();
+                            subdirectories.add( task );
+                        }
+                        else
+                        {
+                            result.update( task.compute() );
+                        }
+                    }
+                }
+                finally
+                {
+                    children.close();
+                }
+            }
+            catch ( IOException e )
+            {
+                // same as File.list() returning null, the deletion of the directory itself will report the failure
+                if ( logDebug != null )
+                {
+                    logDebug.log( "Failed to list " + path + ": " + e.getMessage() );
+                }
+            }
+
+            for ( DeleteTask task : subdirectories )
+            {
+                result.update( task.join() );
+            }
+        }
+
+    }
+
+    /**
+     * Carries the exception of a failed deletion out of a {@link DeleteTask}.
+     */
+    private static class DeleteException
+        extends RuntimeException
+    {
+
+        DeleteException( IOException cause )
+        {
+            super( cause );
+        }
+
+    }
+
     private static class Result
     {
 
@@ -23,8 +23,11 @@ import java.io.File;
 import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.apache.maven.plugin.testing.AbstractMojoTestCase;
 import org.apache.maven.plugins.clean.CleanMojo;
 import org.codehaus.plexus.util.FileUtils;
@@ -79,6 +82,92 @@ public class CleanMojoTest
             + "buildTestDirectory" ) );
     }
 
+    /**
+     * Tests the removal of the build directories in fast mode
+     *
+     * @throws Exception
+     */
+    public void testFastClean()
+        throws Exception
+    {
+        String pluginPom = getBasedir() + "/src/test/resources/unit/fast-clean-test/plugin-pom.xml";
+
+        // safety
+        FileUtils.copyDirectory( new File( getBasedir(), "src/test/resources/unit/fast-clean-test" ),
+                                 new File( getBasedir(), "target/test-classes/unit/fast-clean-test" ), null, "**/.svn,**/.svn/**" );
+
+        CleanMojo mojo = (CleanMojo) lookupMojo( "clean", pluginPom );
+        assertNotNull( mojo );
+        final List<String> messages = new ArrayList<String>();
+        mojo.setLog( new SystemStreamLog()
+        {
+            @Override
+            public void info( CharSequence content )
+            {
+                messages.add( content.toString() );
+                super.info( content );
+            }
+        } );
+
+        mojo.execute();
+
+        assertTrue( messages.toString(), messages.toString().contains( ".buildDirectory.trash" ) );
+        assertFalse( "Directory exists", checkExists( getBasedir() + "/target/test-classes/unit/"
+            + "fast-clean-test/buildDirectory" ) );
+        assertFalse( "Directory exists", checkExists( getBasedir() + "/target/test-classes/unit/fast-clean-test/"
+            + "buildOutputDirectory" ) );
+        assertFalse( "Directory exists", checkExists( getBasedir() + "/target/test-classes/unit/fast-clean-test/"
+            + "buildTestDirectory" ) );
+
+        // the mojo leaves the deletion of the trash to the reaper
+        awaitReaper();
+        assertFalse( "Trash exists", checkExists( getBasedir() + "/target/test-classes/unit/fast-clean-test/"
+            + ".buildDirectory.trash" ) );
+
+        File directory = new File( getBasedir(), "target/test-classes/unit/fast-clean-test/buildDirectory" );
+        new File( directory, "classes" ).mkdirs();
+        FileUtils.fileWrite( new File( directory, "classes/file.txt" ).getPath(), "content" );
+
+        Cleaner cleaner = new Cleaner( null, false );
+        assertTrue( cleaner.moveToTrash( directory ) );
+        assertFalse( directory.exists() );
+        File trash = Cleaner.getTrashDirectory( directory );
+        assertTrue( trash.isDirectory() );
+        assertEquals( 1, trash.list().length );
+
+        cleaner.emptyTrash( directory );
+        awaitReaper();
+        assertFalse( trash.exists() );
+    }
+
+    /**
+     * Tests the removal of the trash left by an interrupted fast clean
+     *
+     * @throws Exception
+     */
+    public void testCleanLeftoverTrash()
+        throws Exception
+    {
+        String pluginPom = getBasedir() + "/src/test/resources/unit/basic-clean-test/plugin-pom.xml";
+
+        // safety
+        FileUtils.copyDirectory( new File( getBasedir(), "src/test/resources/unit/basic-clean-test" ),
+                                 new File( getBasedir(), "target/test-classes/unit/basic-clean-test" ), null,
+                                 "**/.svn,**/.svn/**" );
+        File trash = new File( getBasedir(), "target/test-classes/unit/basic-clean-test/.buildDirectory.trash" );
+        new File( trash, "buildDirectory-1/classes" ).mkdirs();
+        FileUtils.fileWrite( new File( trash, "buildDirectory-1/classes/file.txt" ).getPath(), "content" );
+
+        CleanMojo mojo = (CleanMojo) lookupMojo( "clean", pluginPom );
+        assertNotNull( mojo );
+
+        mojo.execute();
+
+        assertFalse( "Trash exists", trash.exists() );
+        assertFalse( "Directory exists", checkExists( getBasedir() + "/target/test-classes/unit/"
+            + "basic-clean-test/buildDirectory" ) );
+    }
+
     /**
      * Tests the removal of files and nested directories
      *
@@ -168,6 +257,42 @@ public class CleanMojoTest
             + "buildOutputDirectory/file.txt" ) );
     }
 
+    /**
+     * Tests the removal of filesets with the parallel cleaner
+     *
+     * @throws Exception
+     */
+    public void testParallelFilesetsClean()
+        throws Exception
+    {
+        String pluginPom = getBasedir() + "/src/test/resources/unit/parallel-clean-test/plugin-pom.xml";
+
+        // safety
+        FileUtils.copyDirectory( new File( getBasedir(), "src/test/resources/unit/parallel-clean-test" ),
+                                 new File( getBasedir(), "target/test-classes/unit/parallel-clean-test" ), null, "**/.svn,**/.svn/**" );
+
+        CleanMojo mojo = (CleanMojo) lookupMojo( "clean", pluginPom );
+        assertNotNull( mojo );
+
+        mojo.execute();
+
+        // fileset 1
+        assertTrue( checkExists( getBasedir() + "/target/test-classes/unit/parallel-clean-test/target" ) );
+        assertTrue( checkExists( getBasedir() + "/target/test-classes/unit/parallel-clean-test/target/classes" ) );
+        assertFalse( checkExists( getBasedir() + "/target/test-classes/unit/parallel-clean-test/target/test-classes" ) );
+        assertTrue( checkExists( getBasedir() + "/target/test-classes/unit/parallel-clean-test/target/subdir" ) );
+        assertFalse( checkExists( getBasedir() + "/target/test-classes/unit/parallel-clean-test/target/classes/file.txt" ) );
+        assertTrue( checkEmpty( getBasedir() + "/target/test-classes/unit/parallel-clean-test/target/classes" ) );
+        assertFalse( checkEmpty( getBasedir() + "/target/test-classes/unit/parallel-clean-test/target/subdir" ) );
+        assertTrue( checkExists( getBasedir() + "/target/test-classes/unit/parallel-clean-test/target/subdir/file.txt" ) );
+
+        // fileset 2
+        assertTrue( checkExists( getBasedir() + "/target/test-classes/unit/parallel-clean-test/"
+            + "buildOutputDirectory" ) );
+        assertFalse( checkExists( getBasedir() + "/target/test-classes/unit/parallel-clean-test/"
+            + "buildOutputDirectory/file.txt" ) );
+    }
+
     /**
      * Tests the removal of a directory as file
      *
@@ -330,6 +455,21 @@ public class CleanMojoTest
         }
     }
 
+    /**
+     * Waits for the background deletion of the trash, so that no test leaves it running.
+     */
+    private static void awaitReaper()
+        throws InterruptedException
+    {
+        for ( Thread thread : Thread.getAllStackTraces().keySet() )
+        {
+            if ( "maven-clean-reaper".equals( thread.getName() ) )
+            {
+                thread.join();
+            }
+        }
+    }
+
     /**
      * @param dir a dir or a file
      * @return true if a file/dir exists, false otherwise
@@ -20,9 +20,12 @@ package org.apache.maven.plugin.compiler;
  */
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -444,6 +447,17 @@ public abstract class AbstractCompilerMojo
     @Parameter( defaultValue = "false", property = "maven.compiler.forceJavacCompilerUse" )
     private boolean forceJavacCompilerUse;
 
+    /**
+     * Compiles with a javax.tools compiler shared by all the executions of the plugin in the build, when
+     * {@link #fork} is <code>false</code> and the compiler is javac. Its file managers are pooled, so that the platform
+     * classes and the dependency jars are indexed once for the whole reactor instead of once per execution. A file
+     * manager which opened a jar that changed in the meantime is discarded.
+     *
+     * @since 3.6.2
+     */
+    @Parameter( defaultValue = "false", property = "maven.compiler.useSharedCompiler" )
+    private boolean useSharedCompiler;
+
     /**
      * @since 3.0 needed for storing the status for the incremental build support.
      */
@@ -466,6 +480,28 @@ public abstract class AbstractCompilerMojo
     @Parameter( defaultValue = "true", property = "maven.compiler.useIncrementalCompilation" )
     private boolean useIncrementalCompilation = true;
 
+    /**
+     * Recompiles only the changed sources and the sources depending on them instead of the whole module, when
+     * {@link #useIncrementalCompilation} is enabled. A class level dependency graph of the module and a hash of the
+     * API of each class are kept in <code>target/maven-status</code>, the sources depending on a class are only
+     * recompiled when its API changes. Only applies to compilers writing one class file per source, like javac.
+     *
+     * @since 3.6.2
+     */
+    @Parameter( defaultValue = "false", property = "maven.compiler.useDependencyGraph" )
+    private boolean useDependencyGraph;
+
+    /**
+     * Detects stale sources by content rather than by modification time. The content hashes of the sources as of
+     * their last successful compilation are kept in <code>target/maven-status</code>, the sources whose length or
+     * modification time changed are hashed in parallel and only recompiled if their content differs. A branch switch
+     * or a restore from a cache touching the modification times then does not recompile untouched sources.
+     *
+     * @since 3.6.2
+     */
+    @Parameter( defaultValue = "false", property = "maven.compiler.useSourceHashes" )
+    private boolean useSourceHashes;
+
     /**
      * Resolves the artifacts needed.
      */
@@ -739,6 +775,14 @@ public abstract class AbstractCompilerMojo
 
         IncrementalBuildHelperRequest incrementalBuildHelperRequest = null;
 
+        ClassDependencyGraph dependencyGraph = null;
+
+        boolean partialCompilation = false;
+
+        SourceHashIndex sourceHashIndex = null;
+
+        Set<File> allSources = null;
+
         if ( useIncrementalCompilation )
         {
             getLog().debug( "useIncrementalCompilation enabled" );
@@ -752,11 +796,58 @@ public abstract class AbstractCompilerMojo
 
                 incrementalBuildHelperRequest = new IncrementalBuildHelperRequest().inputFiles( sources );
 
+                allSources = sources;
+
+                Set<File> changedSources = null;
+
+                if ( useSourceHashes )
+                {
+                    sourceHashIndex = loadSourceHashIndex( incrementalBuildHelper );
+                    changedSources = getChangedSources( sourceHashIndex, sources );
+                }
+
+                if ( useDependencyGraph )
+                {
+                    dependencyGraph = createDependencyGraph( compiler, compilerConfiguration, incrementalBuildHelper );
+                }
+
+                if ( dependencyGraph != null && loadDependencyGraph( dependencyGraph ) && !isDependencyChanged() )
+                {
+                    if ( changedSources != null )
+                    {
+                        Set<File> unchangedSources = new HashSet<File>( sources );
+                        unchangedSources.removeAll( changedSources );
+                        dependencyGraph.refresh( unchangedSources );
+                    }
+
+                    Set<File> staleSources = dependencyGraph.getStaleSources( sources );
+
+                    if ( staleSources.isEmpty() )
+                    {
+                        getLog().info( "Nothing to compile - all classes are up to date" );
+
+                        saveSourceHashIndex( sourceHashIndex );
+
+                        return;
+                    }
+
+                    getLog().info( "Changes detected - recompiling " + staleSources.size() + " of " + sources.size()
+                                       + " source files" );
+
+                    compilerConfiguration.setSourceFiles( staleSources );
+
+                    // the helper would delete the classes created by the previous full compilation
+                    incrementalBuildHelperRequest = null;
+
+                    partialCompilation = true;
+                }
                 // CHECKSTYLE_OFF: LineLength
-                if ( ( compiler.getCompilerOutputStyle().equals( CompilerOutputStyle.ONE_OUTPUT_FILE_FOR_ALL_INPUT_FILES ) && !canUpdateTarget )
+                else if ( ( compiler.getCompilerOutputStyle().equals( CompilerOutputStyle.ONE_OUTPUT_FILE_FOR_ALL_INPUT_FILES ) && !canUpdateTarget )
                     || isDependencyChanged()
-                    || isSourceChanged( compilerConfiguration, compiler )
-                    || incrementalBuildHelper.inputFileTreeChanged( incrementalBuildHelperRequest ) )
+                    || ( changedSources != null
+                        ? !changedSources.isEmpty() || sourceHashIndex.hasRemovedSources( sources ) || !getOutputDirectory().exists()
+                            || hasStaleOutputs( sourceHashIndex, changedSources, compiler, compilerConfiguration )
+                        : isSourceChanged( compilerConfiguration, compiler ) || incrementalBuildHelper.inputFileTreeChanged( incrementalBuildHelperRequest ) ) )
                     // CHECKSTYLE_ON: LineLength
                 {
                     getLog().info( "Changes detected - recompiling the module!" );
@@ -767,6 +858,8 @@ public abstract class AbstractCompilerMojo
                 {
                     getLog().info( "Nothing to compile - all classes are up to date" );
 
+                    saveSourceHashIndex( sourceHashIndex );
+
                     return;
                 }
             }
@@ -784,6 +877,15 @@ public abstract class AbstractCompilerMojo
                 staleSources =
                     computeStaleSources( compilerConfiguration, compiler, getSourceInclusionScanner( staleMillis ) );
 
+                if ( useSourceHashes )
+                {
+                    // sources newer than their classes, but with the content they were compiled from
+                    sourceHashIndex = loadSourceHashIndex( incrementalBuildHelper );
+                    staleSources = filterStaleSources( sourceHashIndex, staleSources,
+                                                       getChangedSources( sourceHashIndex, staleSources ), compiler,
+                                                       compilerConfiguration );
+                }
+
                 canUpdateTarget = compiler.canUpdateTarget( compilerConfiguration );
 
                 if ( compiler.getCompilerOutputStyle().equals( CompilerOutputStyle.ONE_OUTPUT_FILE_FOR_ALL_INPUT_FILES )
@@ -814,6 +916,8 @@ public abstract class AbstractCompilerMojo
             {
                 getLog().info( "Nothing to compile - all classes are up to date" );
 
+                saveSourceHashIndex( sourceHashIndex );
+
                 return;
             }
         }
@@ -936,7 +1040,7 @@ public abstract class AbstractCompilerMojo
         CompilerResult compilerResult;
 
 
-        if ( useIncrementalCompilation )
+        if ( incrementalBuildHelperRequest != null )
         {
             incrementalBuildHelperRequest.outputDirectory( getOutputDirectory() );
 
@@ -945,25 +1049,18 @@ public abstract class AbstractCompilerMojo
             getLog().debug( "incrementalBuildHelper#beforeRebuildExecution" );
         }
 
-        try
+        if ( partialCompilation )
         {
-            try
-            {
-                compilerResult = compiler.performCompile( compilerConfiguration );
-            }
-            catch ( CompilerNotImplementedException cnie )
-            {
-                List<CompilerError> messages = compiler.compile( compilerConfiguration );
-                compilerResult = convertToCompilerResult( messages );
-            }
-        }
-        catch ( Exception e )
-        {
-            // TODO: don't catch Exception
-            throw new MojoExecutionException( "Fatal error compiling", e );
+            dependencyGraph.beforeCompile( compilerConfiguration.getSourceFiles() );
         }
 
-        if ( useIncrementalCompilation )
+        Set<File> compiledSources = compilerConfiguration.getSourceFiles();
+
+        long compileTime = System.currentTimeMillis();
+
+        compilerResult = compile( compiler, compilerConfiguration );
+
+        if ( incrementalBuildHelperRequest != null )
         {
             if ( incrementalBuildHelperRequest.getOutputDirectory().exists() )
             {
@@ -978,6 +1075,22 @@ public abstract class AbstractCompilerMojo
             }
         }
 
+        if ( dependencyGraph != null )
+        {
+            compilerResult = updateDependencyGraph( dependencyGraph, partialCompilation, compiler,
+                                                    compilerConfiguration, compilerResult );
+        }
+
+        if ( sourceHashIndex != null && compilerResult.isSuccess() )
+        {
+            sourceHashIndex.update( compiledSources, compileTime );
+            if ( allSources != null )
+            {
+                sourceHashIndex.retain( allSources );
+            }
+            saveSourceHashIndex( sourceHashIndex );
+        }
+
         List<CompilerMessage> warnings = new ArrayList<CompilerMessage>();
         List<CompilerMessage> errors = new ArrayList<CompilerMessage>();
         List<CompilerMessage> others = new ArrayList<CompilerMessage>();
@@ -1072,6 +1185,295 @@ public abstract class AbstractCompilerMojo
         return false;
     }
 
+    private CompilerResult compile( Compiler compiler, CompilerConfiguration compilerConfiguration )
+        throws MojoExecutionException
+    {
+        try
+        {
+            if ( isSharedCompilerUsed( compilerConfiguration ) )
+            {
+                getLog().debug( "Compiling with the shared in-process compiler" );
+                String[] args = compiler.createCommandLine( compilerConfiguration );
+                return InProcessCompilerService.compile( args, compilerConfiguration );
+            }
+
+            try
+            {
+                return compiler.performCompile( compilerConfiguration );
+            }
+            catch ( CompilerNotImplementedException cnie )
+            {
+                List<CompilerError> messages = compiler.compile( compilerConfiguration );
+                return convertToCompilerResult( messages );
+            }
+        }
+        catch ( Exception e )
+        {
+            // TODO: don't catch Exception
+            throw new MojoExecutionException( "Fatal error compiling", e );
+        }
+    }
+
+    private boolean isSharedCompilerUsed( CompilerConfiguration compilerConfiguration )
+    {
+        if ( !useSharedCompiler || compilerConfiguration.isFork() || !"javac".equals( compilerId )
+            || forceJavacCompilerUse )
+        {
+            return false;
+        }
+        if ( !InProcessCompilerService.isAvailable() )
+        {
+            getLog().debug( "No javax.tools compiler in the running JVM, the shared compiler is not used" );
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the dependency graph of the module or <code>null</code> if the compiler does not write one class file
+     *         per Java source
+     */
+    private ClassDependencyGraph createDependencyGraph( Compiler compiler, CompilerConfiguration compilerConfiguration,
+                                                        IncrementalBuildHelper incrementalBuildHelper )
+        throws CompilerException, MojoExecutionException
+    {
+        String inputFileEnding = compiler.getInputFileEnding( compilerConfiguration );
+        if ( compiler.getCompilerOutputStyle() != CompilerOutputStyle.ONE_OUTPUT_FILE_PER_INPUT_FILE
+            || !".java".equals( inputFileEnding ) )
+        {
+            getLog().debug( "useDependencyGraph is only supported for compilers writing one class file per source" );
+            return null;
+        }
+
+        File file = new File( incrementalBuildHelper.getMojoStatusDirectory(), "dependencyGraph.lst" );
+        return new ClassDependencyGraph( file, getOutputDirectory(), compilerConfiguration.getSourceLocations(),
+                                         inputFileEnding, getConfigurationFingerprint() );
+    }
+
+    private boolean loadDependencyGraph( ClassDependencyGraph dependencyGraph )
+    {
+        try
+        {
+            if ( dependencyGraph.load() )
+            {
+                return true;
+            }
+            getLog().debug( "No dependency graph for the current configuration" );
+        }
+        catch ( IOException e )
+        {
+            getLog().debug( "Failed to read the dependency graph: " + e.getMessage() );
+        }
+        return false;
+    }
+
+    /**
+     * Records the classes written by the compiler in the dependency graph. After a partial compilation, the sources
+     * depending on classes whose API changed are compiled until the API does not change anymore. The graph is only
+     * stored if all the compilations succeeded, so that the same sources are stale again after a failure.
+     */
+    private CompilerResult updateDependencyGraph( ClassDependencyGraph dependencyGraph, boolean partialCompilation,
+                                                  Compiler compiler, CompilerConfiguration compilerConfiguration,
+                                                  CompilerResult compilerResult )
+        throws MojoExecutionException
+    {
+        if ( !compilerResult.isSuccess() )
+        {
+            return compilerResult;
+        }
+
+        List<CompilerMessage> messages = new ArrayList<CompilerMessage>( compilerResult.getCompilerMessages() );
+        try
+        {
+            if ( partialCompilation )
+            {
+                Set<File> dependents = dependencyGraph.afterCompile( compilerConfiguration.getSourceFiles() );
+                while ( !dependents.isEmpty() )
+                {
+                    getLog().info( "API changes detected - recompiling " + dependents.size()
+                                       + " dependent source files" );
+
+                    compilerConfiguration.setSourceFiles( dependents );
+                    dependencyGraph.beforeCompile( dependents );
+
+                    CompilerResult result = compile( compiler, compilerConfiguration );
+                    messages.addAll( result.getCompilerMessages() );
+                    if ( !result.isSuccess() )
+                    {
+                        return new CompilerResult( false, messages );
+                    }
+
+                    dependents = dependencyGraph.afterCompile( dependents );
+                }
+            }
+            else
+            {
+                dependencyGraph.rebuild( compilerConfiguration.getSourceFiles() );
+            }
+
+            dependencyGraph.save();
+        }
+        catch ( IOException e )
+        {
+            discardDependencyGraph( dependencyGraph, e );
+        }
+        catch ( RuntimeException e )
+        {
+            // ASM rejects class files newer than it supports, the compilation itself succeeded
+            discardDependencyGraph( dependencyGraph, e );
+        }
+
+        return new CompilerResult( true, messages );
+    }
+
+    private void discardDependencyGraph( ClassDependencyGraph dependencyGraph, Exception e )
+    {
+        getLog().warn( "Failed to update the dependency graph, the next build will recompile the module: "
+                           + e.getMessage() );
+        dependencyGraph.delete();
+    }
+
+    private SourceHashIndex loadSourceHashIndex( IncrementalBuildHelper incrementalBuildHelper )
+        throws MojoExecutionException
+    {
+        File file = new File( incrementalBuildHelper.getMojoStatusDirectory(), "sourceHashes.lst" );
+        SourceHashIndex sourceHashIndex =
+            new SourceHashIndex( file, Runtime.getRuntime().availableProcessors() );
+        try
+        {
+            sourceHashIndex.load();
+        }
+        catch ( IOException e )
+        {
+            getLog().debug( "Failed to read the source hashes, all sources are hashed again: " + e.getMessage() );
+        }
+        return sourceHashIndex;
+    }
+
+    private Set<File> getChangedSources( SourceHashIndex sourceHashIndex, Collection<File> sources )
+        throws MojoExecutionException
+    {
+        Set<File> changedSources;
+        try
+        {
+            changedSources = sourceHashIndex.getChangedSources( sources );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Error while hashing sources.", e );
+        }
+
+        if ( getLog().isDebugEnabled() )
+        {
+            for ( File f : changedSources )
+            {
+                getLog().debug( "Changed source detected: " + f.getAbsolutePath() );
+            }
+        }
+        return changedSources;
+    }
+
+    private boolean hasStaleOutputs( SourceHashIndex sourceHashIndex, Set<File> changedSources, Compiler compiler,
+                                     CompilerConfiguration compilerConfiguration )
+        throws CompilerException, MojoExecutionException
+    {
+        Set<File> staleSources =
+            computeStaleSources( compilerConfiguration, compiler, getSourceInclusionScanner( staleMillis ) );
+        return !filterStaleSources( sourceHashIndex, staleSources, changedSources, compiler,
+                                    compilerConfiguration ).isEmpty();
+    }
+
+    /**
+     * Narrows the sources which are stale by modification time down to the ones to compile: the sources whose content
+     * changed, and the unchanged ones whose output is missing or older than their last recorded compilation.
+     */
+    private Set<File> filterStaleSources( SourceHashIndex sourceHashIndex, Set<File> staleSources,
+                                          Set<File> changedSources, Compiler compiler,
+                                          CompilerConfiguration compilerConfiguration )
+        throws CompilerException
+    {
+        Set<File> filtered = new HashSet<File>();
+        for ( File source : staleSources )
+        {
+            File output = getOutputFile( source, compiler, compilerConfiguration );
+            if ( changedSources.contains( source ) || output == null
+                || !sourceHashIndex.isOutputUpToDate( source, output ) )
+            {
+                filtered.add( source );
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * @return the file compiled from the specified source, <code>null</code> if it is not below a source root
+     */
+    private File getOutputFile( File source, Compiler compiler, CompilerConfiguration compilerConfiguration )
+        throws CompilerException
+    {
+        if ( compiler.getCompilerOutputStyle() == CompilerOutputStyle.ONE_OUTPUT_FILE_FOR_ALL_INPUT_FILES )
+        {
+            return new File( getOutputDirectory(), compiler.getOutputFile( compilerConfiguration ) );
+        }
+
+        String path = source.getAbsolutePath();
+        String inputFileEnding = compiler.getInputFileEnding( compilerConfiguration );
+        for ( String sourceRoot : compilerConfiguration.getSourceLocations() )
+        {
+            String prefix = new File( sourceRoot ).getAbsolutePath() + File.separator;
+            if ( path.startsWith( prefix ) && path.endsWith( inputFileEnding ) )
+            {
+                String relativePath = path.substring( prefix.length(), path.length() - inputFileEnding.length() );
+                return new File( getOutputDirectory(),
+                                 relativePath + compiler.getOutputFileEnding( compilerConfiguration ) );
+            }
+        }
+        return null;
+    }
+
+    private void saveSourceHashIndex( SourceHashIndex sourceHashIndex )
+    {
+        if ( sourceHashIndex != null )
+        {
+            try
+            {
+                sourceHashIndex.save();
+            }
+            catch ( IOException e )
+            {
+                getLog().warn( "Failed to store the source hashes: " + e.getMessage() );
+            }
+        }
+    }
+
+    /**
+     * @return the settings and dependencies which require to recompile the whole module when they change
+     */
+    private String getConfigurationFingerprint()
+    {
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append( compilerId ).append( '|' ).append( getSource() ).append( '|' ).append( getTarget() );
+        fingerprint.append( '|' ).append( getRelease() ).append( '|' ).append( encoding ).append( '|' ).append( debug );
+        fingerprint.append( '|' ).append( debuglevel ).append( '|' ).append( parameters ).append( '|' ).append( proc );
+        fingerprint.append( '|' ).append( annotationProcessors != null ? Arrays.asList( annotationProcessors ) : null );
+        fingerprint.append( '|' ).append( compilerArgs ).append( '|' ).append( getCompilerArgument() );
+        fingerprint.append( '|' ).append( getCompilerArguments() );
+
+        List<String> pathElements = new ArrayList<String>();
+        pathElements.addAll( getClasspathElements() );
+        pathElements.addAll( getModulepathElements() );
+        for ( String pathElement : pathElements )
+        {
+            File file = new File( pathElement );
+            fingerprint.append( '|' ).append( pathElement );
+            if ( file.isFile() )
+            {
+                fingerprint.append( ':' ).append( file.length() ).append( ':' ).append( file.lastModified() );
+            }
+        }
+        return fingerprint.toString();
+    }
+
     protected CompilerResult convertToCompilerResult( List<CompilerError> compilerErrors )
     {
         if ( compilerErrors == null )
@@ -0,0 +1,891 @@
+package org.apache.maven.plugin.compiler;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * The class level dependency graph of a module, used for fine grained incremental compilation. For each source file
+ * the graph records its length, its last modification time and the classes compiled from it. For each class it
+ * records a hash of its API, a hash of its compile-time constants, its supertypes and the classes of the module it
+ * references, read from the constant pool and the member descriptors of its class file.
+ * <p/>
+ * Changed sources are recompiled together with the sources referencing classes of removed sources. After each
+ * compilation the sources referencing a class whose API hash changed, or one of its subtypes, are recompiled in turn,
+ * until the API of the module is stable again: a change confined to method bodies or private members does not
+ * cascade. Compilers may inline compile-time constants without keeping any reference to the class declaring them, so
+ * a change of constants recompiles the whole module.
+ *
+ * @since 3.6.2
+ */
+class ClassDependencyGraph
+{
+
+    private static final String HEADER = "#dependency-graph 2";
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private static final String SUPERTYPE_PREFIX = "^";
+
+    private static final String NO_CONSTANTS = "-";
+
+    private static final int CONSTANT_CLASS = 7;
+
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int CONSTANT_METHOD_TYPE = 16;
+
+    private final File file;
+
+    private final File outputDirectory;
+
+    private final List<File> sourceRoots;
+
+    private final String inputFileEnding;
+
+    private final String configuration;
+
+    private final Map<File, SourceInfo> sources = new HashMap<File, SourceInfo>();
+
+    private final Map<String, ClassInfo> classes = new HashMap<String, ClassInfo>();
+
+    private Set<File> knownSources = Collections.emptySet();
+
+    private Map<String, Long> snapshot = Collections.emptyMap();
+
+    /**
+     * @param file The file the graph is stored in.
+     * @param outputDirectory The directory of the compiled classes.
+     * @param sourceRoots The source roots of the module.
+     * @param inputFileEnding The extension of the source files.
+     * @param configuration The compiler settings, the graph is discarded when they change.
+     */
+    ClassDependencyGraph( File file, File outputDirectory, List<String> sourceRoots, String inputFileEnding,
+                          String configuration )
+    {
+        this.file = file;
+        this.outputDirectory = outputDirectory;
+        this.sourceRoots = new ArrayList<File>( sourceRoots.size() );
+        for ( String sourceRoot : sourceRoots )
+        {
+            this.sourceRoots.add( new File( sourceRoot ).getAbsoluteFile() );
+        }
+        this.inputFileEnding = inputFileEnding;
+        this.configuration = hash( configuration );
+    }
+
+    /**
+     * Loads the graph stored by the previous build.
+     *
+     * @return <code>true</code> if the graph has been loaded, <code>false</code> if there is none or if it has been
+     *         stored for another compiler configuration.
+     * @throws IOException If the graph cannot be read.
+     */
+    boolean load()
+        throws IOException
+    {
+        sources.clear();
+        classes.clear();
+
+        if ( !file.isFile() )
+        {
+            return false;
+        }
+
+        BufferedReader reader = new BufferedReader( newReader( file ) );
+        try
+        {
+            if ( !HEADER.equals( reader.readLine() ) || !( "K " + configuration ).equals( reader.readLine() ) )
+            {
+                return false;
+            }
+
+            SourceInfo source = null;
+            for ( String line = reader.readLine(); line != null; line = reader.readLine() )
+            {
+                if ( line.startsWith( "S " ) )
+                {
+                    String[] fields = line.split( " ", 4 );
+                    File sourceFile = new File( fields[3] );
+                    source = new SourceInfo( Long.parseLong( fields[1] ), Long.parseLong( fields[2] ) );
+                    sources.put( sourceFile, source );
+                }
+                else if ( line.startsWith( "C " ) )
+                {
+                    String[] fields = line.split( " " );
+                    ClassInfo info = new ClassInfo( fields[1], fields[2], fields[3] );
+                    for ( int i = 4; i < fields.length; i++ )
+                    {
+                        if ( fields[i].startsWith( SUPERTYPE_PREFIX ) )
+                        {
+                            info.supertypes.add( fields[i].substring( SUPERTYPE_PREFIX.length() ) );
+                        }
+                        else
+                        {
+                            info.dependencies.add( fields[i] );
+                        }
+                    }
+                    classes.put( info.name, info );
+                    if ( source != null )
+                    {
+                        source.classes.add( info.name );
+                    }
+                }
+            }
+            for ( Map.Entry<File, SourceInfo> entry : sources.entrySet() )
+            {
+                for ( String name : entry.getValue().classes )
+                {
+                    classes.get( name ).source = entry.getKey();
+                }
+            }
+            return true;
+        }
+        catch ( RuntimeException e )
+        {
+            // a truncated or otherwise broken graph
+            sources.clear();
+            classes.clear();
+            return false;
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    /**
+     * Computes the sources to recompile: the new and changed sources, the sources whose classes are missing and the
+     * sources depending on the classes of deleted sources, or all the sources if a deleted class declared
+     * compile-time constants. The classes of deleted sources are removed from the output directory.
+     *
+     * @param currentSources All the sources of the module.
+     * @return The sources to recompile, never <code>null</code>.
+     */
+    Set<File> getStaleSources( Set<File> currentSources )
+    {
+        knownSources = absolute( currentSources );
+
+        Set<String> removedClasses = new HashSet<String>();
+        boolean constantsRemoved = false;
+        for ( File source : new ArrayList<File>( sources.keySet() ) )
+        {
+            if ( !knownSources.contains( source ) )
+            {
+                for ( String name : sources.remove( source ).classes )
+                {
+                    constantsRemoved |= hasConstants( classes.remove( name ) );
+                    removedClasses.add( name );
+                    getClassFile( name ).delete();
+                }
+            }
+        }
+        if ( constantsRemoved )
+        {
+            return new TreeSet<File>( knownSources );
+        }
+
+        Set<File> staleSources = new TreeSet<File>();
+        for ( File source : knownSources )
+        {
+            SourceInfo info = sources.get( source );
+            if ( info == null || info.length != source.length() || info.lastModified != source.lastModified()
+                || !classFilesExist( info.classes ) )
+            {
+                staleSources.add( source );
+            }
+        }
+
+        staleSources.addAll( getDependents( removedClasses, Collections.<File>emptySet() ) );
+
+        return staleSources;
+    }
+
+    /**
+     * Records the current length and modification time of sources whose content is known to be unchanged, so that
+     * they are not stale.
+     *
+     * @param unchangedSources The sources whose content did not change since their last compilation.
+     */
+    void refresh( Collection<File> unchangedSources )
+    {
+        for ( File source : unchangedSources )
+        {
+            File absoluteSource = source.getAbsoluteFile();
+            SourceInfo previous = sources.get( absoluteSource );
+            if ( previous != null )
+            {
+                SourceInfo info = new SourceInfo( absoluteSource.length(), absoluteSource.lastModified() );
+                info.classes.addAll( previous.classes );
+                sources.put( absoluteSource, info );
+            }
+        }
+    }
+
+    /**
+     * Prepares the compilation of the specified sources: their current classes are deleted, so that classes which are
+     * not generated anymore do not linger, and the output directory is recorded to detect the new classes.
+     *
+     * @param compiledSources The sources about to be compiled.
+     */
+    void beforeCompile( Set<File> compiledSources )
+    {
+        for ( File source : absolute( compiledSources ) )
+        {
+            SourceInfo info = sources.get( source );
+            if ( info != null )
+            {
+                for ( String name : info.classes )
+                {
+                    getClassFile( name ).delete();
+                }
+            }
+        }
+
+        snapshot = new HashMap<String, Long>();
+        for ( String name : listClasses() )
+        {
+            snapshot.put( name, getClassFile( name ).lastModified() );
+        }
+    }
+
+    /**
+     * Updates the graph with the classes written by the compilation of the specified sources.
+     *
+     * @param compiledSources The sources which have been compiled.
+     * @return The sources which have not been compiled and depend on classes whose API changed, or all the sources
+     *         which have not been compiled if compile-time constants changed, never <code>null</code>.
+     * @throws IOException If a class file cannot be read.
+     */
+    Set<File> afterCompile( Set<File> compiledSources )
+        throws IOException
+    {
+        Set<File> compiled = absolute( compiledSources );
+
+        Set<String> changedClasses = new HashSet<String>();
+        boolean constantsChanged = false;
+        Map<File, Set<String>> produced = new HashMap<File, Set<String>>();
+        for ( String name : listClasses() )
+        {
+            Long lastModified = snapshot.get( name );
+            if ( lastModified != null && lastModified == getClassFile( name ).lastModified() )
+            {
+                continue;
+            }
+
+            ClassInfo info = analyze( getClassFile( name ) );
+            ClassInfo previous = classes.put( info.name, info );
+            if ( previous == null || !previous.api.equals( info.api ) )
+            {
+                changedClasses.add( info.name );
+            }
+            if ( previous != null && !previous.constants.equals( info.constants ) )
+            {
+                constantsChanged = true;
+            }
+            addProduced( produced, info );
+        }
+
+        for ( File source : compiled )
+        {
+            Set<String> names = produced.remove( source );
+            if ( names == null )
+            {
+                names = new HashSet<String>();
+            }
+            SourceInfo previous = sources.get( source );
+            if ( previous != null )
+            {
+                for ( String name : previous.classes )
+                {
+                    // deleted before the compilation, unless the class moved to another source
+                    if ( !names.contains( name ) && !getClassFile( name ).isFile() )
+                    {
+                        constantsChanged |= hasConstants( classes.remove( name ) );
+                        changedClasses.add( name );
+                    }
+                }
+            }
+            SourceInfo info = new SourceInfo( source.length(), source.lastModified() );
+            info.classes.addAll( names );
+            sources.put( source, info );
+        }
+
+        // classes the compiler generated for sources it found on the source path
+        for ( Map.Entry<File, Set<String>> entry : produced.entrySet() )
+        {
+            SourceInfo info = sources.get( entry.getKey() );
+            if ( info != null )
+            {
+                info.classes.addAll( entry.getValue() );
+            }
+        }
+
+        snapshot = Collections.emptyMap();
+
+        if ( constantsChanged )
+        {
+            // the values may be inlined anywhere, without any reference left to their class
+            Set<File> others = new TreeSet<File>( knownSources );
+            others.removeAll( compiled );
+            return others;
+        }
+        return getDependents( changedClasses, compiled );
+    }
+
+    /**
+     * Rebuilds the whole graph from the output directory after a full compilation.
+     *
+     * @param currentSources All the sources of the module.
+     * @throws IOException If a class file cannot be read.
+     */
+    void rebuild( Set<File> currentSources )
+        throws IOException
+    {
+        knownSources = absolute( currentSources );
+
+        sources.clear();
+        classes.clear();
+        for ( File source : knownSources )
+        {
+            sources.put( source, new SourceInfo( source.length(), source.lastModified() ) );
+        }
+
+        for ( String name : listClasses() )
+        {
+            ClassInfo info = analyze( getClassFile( name ) );
+            classes.put( info.name, info );
+            if ( info.source != null )
+            {
+                sources.get( info.source ).classes.add( info.name );
+            }
+        }
+    }
+
+    /**
+     * Stores the graph, with the dependencies restricted to the classes of the module.
+     *
+     * @throws IOException If the graph cannot be written.
+     */
+    void save()
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+
+        Writer writer = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" ) );
+        try
+        {
+            writer.write( HEADER + '\n' );
+            writer.write( "K " + configuration + '\n' );
+            for ( ClassInfo info : classes.values() )
+            {
+                if ( info.source == null )
+                {
+                    writeClass( writer, info );
+                }
+            }
+            for ( Map.Entry<File, SourceInfo> entry : sources.entrySet() )
+            {
+                SourceInfo source = entry.getValue();
+                writer.write( "S " + source.length + ' ' + source.lastModified + ' ' + entry.getKey() + '\n' );
+                for ( String name : source.classes )
+                {
+                    writeClass( writer, classes.get( name ) );
+                }
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    /**
+     * Deletes the stored graph, the next build recompiles the whole module.
+     */
+    void delete()
+    {
+        file.delete();
+    }
+
+    private void writeClass( Writer writer, ClassInfo info )
+        throws IOException
+    {
+        StringBuilder line = new StringBuilder( "C " ).append( info.name ).append( ' ' ).append( info.api );
+        line.append( ' ' ).append( info.constants );
+        for ( String supertype : info.supertypes )
+        {
+            if ( classes.containsKey( supertype ) )
+            {
+                line.append( ' ' ).append( SUPERTYPE_PREFIX ).append( supertype );
+            }
+        }
+        for ( String dependency : info.dependencies )
+        {
+            if ( classes.containsKey( dependency ) )
+            {
+                line.append( ' ' ).append( dependency );
+            }
+        }
+        writer.write( line.append( '\n' ).toString() );
+    }
+
+    private Set<File> getDependents( Set<String> changedClasses, Set<File> excludedSources )
+    {
+        Set<File> dependents = new TreeSet<File>();
+        if ( changedClasses.isEmpty() )
+        {
+            return dependents;
+        }
+        Set<String> changedTypes = addSubtypes( changedClasses );
+        for ( ClassInfo info : classes.values() )
+        {
+            if ( info.source != null && !excludedSources.contains( info.source )
+                && knownSources.contains( info.source ) && !Collections.disjoint( info.dependencies, changedTypes ) )
+            {
+                dependents.add( info.source );
+            }
+        }
+        return dependents;
+    }
+
+    /**
+     * @return The specified classes and all their direct and indirect subtypes: the members a type inherits are part of
+     *         its API even though they are not declared in its class file.
+     */
+    private Set<String> addSubtypes( Set<String> types )
+    {
+        Set<String> result = new HashSet<String>( types );
+        boolean added = true;
+        while ( added )
+        {
+            added = false;
+            for ( ClassInfo info : classes.values() )
+            {
+                if ( !result.contains( info.name ) && !Collections.disjoint( info.supertypes, result ) )
+                {
+                    result.add( info.name );
+                    added = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasConstants( ClassInfo info )
+    {
+        return info != null && !NO_CONSTANTS.equals( info.constants );
+    }
+
+    private void addProduced( Map<File, Set<String>> produced, ClassInfo info )
+    {
+        if ( info.source != null )
+        {
+            Set<String> names = produced.get( info.source );
+            if ( names == null )
+            {
+                names = new HashSet<String>();
+                produced.put( info.source, names );
+            }
+            names.add( info.name );
+        }
+    }
+
+    private boolean classFilesExist( Collection<String> names )
+    {
+        for ( String name : names )
+        {
+            if ( !getClassFile( name ).isFile() )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private File getClassFile( String name )
+    {
+        return new File( outputDirectory, name + CLASS_SUFFIX );
+    }
+
+    /**
+     * @return the internal names of the classes in the output directory
+     */
+    private List<String> listClasses()
+    {
+        List<String> names = new ArrayList<String>();
+        listClasses( outputDirectory, "", names );
+        return names;
+    }
+
+    private void listClasses( File directory, String prefix, List<String> names )
+    {
+        File[] children = directory.listFiles();
+        if ( children == null )
+        {
+            return;
+        }
+        for ( File child : children )
+        {
+            String name = child.getName();
+            if ( child.isDirectory() )
+            {
+                listClasses( child, prefix + name + '/', names );
+            }
+            else if ( name.endsWith( CLASS_SUFFIX ) && !name.equals( "module-info.class" ) )
+            {
+                names.add( prefix + name.substring( 0, name.length() - CLASS_SUFFIX.length() ) );
+            }
+        }
+    }
+
+    private ClassInfo analyze( File classFile )
+        throws IOException
+    {
+        InputStream in = new FileInputStream( classFile );
+        try
+        {
+            ClassReader reader = new ClassReader( in );
+            ApiVisitor visitor = new ApiVisitor();
+            reader.accept( visitor, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES );
+
+            String constants = visitor.constants.isEmpty() ? NO_CONSTANTS : hash( visitor.constants.toString() );
+            ClassInfo info = new ClassInfo( reader.getClassName(), hash( visitor.api.toString() ), constants );
+            info.supertypes.addAll( visitor.supertypes );
+            info.dependencies.addAll( visitor.dependencies );
+            addConstantPoolDependencies( reader, info.dependencies );
+            info.dependencies.remove( info.name );
+            info.source = findSource( info.name, visitor.sourceFile );
+            return info;
+        }
+        catch ( RuntimeException e )
+        {
+            // class file versions or attributes unknown to this version of ASM
+            throw new IOException( "Cannot analyze " + classFile + ": " + e, e );
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * Adds the classes referenced by the code of a class, which are only visible in its constant pool.
+     */
+    private static void addConstantPoolDependencies( ClassReader reader, Set<String> dependencies )
+    {
+        char[] buffer = new char[reader.getMaxStringLength()];
+        for ( int i = 1; i < reader.getItemCount(); i++ )
+        {
+            int offset = reader.getItem( i );
+            if ( offset == 0 )
+            {
+                // second slot of a long or a double
+                continue;
+            }
+            switch ( reader.readByte( offset - 1 ) )
+            {
+                case CONSTANT_CLASS:
+                    String name = reader.readUTF8( offset, buffer );
+                    if ( name.startsWith( "[" ) )
+                    {
+                        addDescriptorTypes( name, dependencies );
+                    }
+                    else
+                    {
+                        dependencies.add( name );
+                    }
+                    break;
+                case CONSTANT_NAME_AND_TYPE:
+                    addDescriptorTypes( reader.readUTF8( offset + 2, buffer ), dependencies );
+                    break;
+                case CONSTANT_METHOD_TYPE:
+                    addDescriptorTypes( reader.readUTF8( offset, buffer ), dependencies );
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void addDescriptorTypes( String descriptor, Set<String> dependencies )
+    {
+        if ( descriptor == null )
+        {
+            return;
+        }
+        for ( int i = 0; i < descriptor.length(); i++ )
+        {
+            if ( descriptor.charAt( i ) == 'L' )
+            {
+                int end = descriptor.indexOf( ';', i );
+                if ( end < 0 )
+                {
+                    return;
+                }
+                dependencies.add( descriptor.substring( i + 1, end ) );
+                i = end;
+            }
+        }
+    }
+
+    /**
+     * Maps a class to its source, through the name of the source file recorded by the compiler or else the name of
+     * the top level class.
+     */
+    private File findSource( String name, String sourceFile )
+    {
+        int slash = name.lastIndexOf( '/' );
+        String fileName = sourceFile;
+        if ( fileName == null )
+        {
+            String simpleName = name.substring( slash + 1 );
+            int dollar = simpleName.indexOf( '$' );
+            fileName = ( dollar > 0 ? simpleName.substring( 0, dollar ) : simpleName ) + inputFileEnding;
+        }
+        String path = slash >= 0 ? name.substring( 0, slash + 1 ) + fileName : fileName;
+
+        for ( File sourceRoot : sourceRoots )
+        {
+            File source = new File( sourceRoot, path );
+            if ( knownSources.contains( source ) )
+            {
+                return source;
+            }
+        }
+        return null;
+    }
+
+    private static Set<File> absolute( Set<File> files )
+    {
+        Set<File> absoluteFiles = new HashSet<File>( files.size() * 2 );
+        for ( File file : files )
+        {
+            absoluteFiles.add( file.getAbsoluteFile() );
+        }
+        return absoluteFiles;
+    }
+
+    private static Reader newReader( File file )
+        throws IOException
+    {
+        return new InputStreamReader( new FileInputStream( file ), "UTF-8" );
+    }
+
+    private static String hash( String value )
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance( "SHA-1" ).digest( value.getBytes( "UTF-8" ) );
+            StringBuilder hex = new StringBuilder( digest.length * 2 );
+            for ( byte b : digest )
+            {
+                hex.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+            }
+            return hex.toString();
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /**
+     * Collects the API of a class, i.e. its declaration and its non private members, its compile-time constants, its
+     * supertypes and the classes referenced by them. Synthetic members are left out, they only serve the classes of the
+     * same source.
+     */
+    private static class ApiVisitor
+        extends ClassVisitor
+    {
+
+        private final Set<String> api = new TreeSet<String>();
+
+        private final Set<String> constants = new TreeSet<String>();
+
+        private final Set<String> supertypes = new HashSet<String>();
+
+        private final Set<String> dependencies = new HashSet<String>();
+
+        private String sourceFile;
+
+        ApiVisitor()
+        {
+            super( Opcodes.ASM6 );
+        }
+
+        @Override
+        public void visit( int version, int access, String name, String signature, String superName,
+                           String[] interfaces )
+        {
+            StringBuilder declaration = new StringBuilder( "class " );
+            declaration.append( access & ~Opcodes.ACC_SUPER ).append( ' ' ).append( name ).append( ' ' );
+            declaration.append( signature ).append( ' ' ).append( superName );
+            if ( superName != null )
+            {
+                supertypes.add( superName );
+                dependencies.add( superName );
+            }
+            if ( interfaces != null )
+            {
+                for ( String type : interfaces )
+                {
+                    declaration.append( ' ' ).append( type );
+                    supertypes.add( type );
+                    dependencies.add( type );
+                }
+            }
+            api.add( declaration.toString() );
+        }
+
+        @Override
+        public void visitSource( String source, String debug )
+        {
+            sourceFile = source;
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation( String desc, boolean visible )
+        {
+            api.add( "annotation " + desc + ' ' + visible );
+            addDescriptorTypes( desc, dependencies );
+            return null;
+        }
+
+        @Override
+        public FieldVisitor visitField( int access, String name, String desc, String signature, Object value )
+        {
+            addDescriptorTypes( desc, dependencies );
+            if ( isApi( access ) )
+            {
+                api.add( "field " + access + ' ' + name + ' ' + desc + ' ' + signature + ' ' + value );
+                if ( value != null )
+                {
+                    // a ConstantValue attribute, which compilers may inline in other classes
+                    constants.add( name + ' ' + desc + ' ' + value );
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod( int access, String name, String desc, String signature,
+                                          String[] exceptions )
+        {
+            addDescriptorTypes( desc, dependencies );
+            StringBuilder method = new StringBuilder( "method " );
+            method.append( access ).append( ' ' ).append( name ).append( ' ' ).append( desc ).append( ' ' );
+            method.append( signature );
+            if ( exceptions != null )
+            {
+                for ( String type : exceptions )
+                {
+                    method.append( ' ' ).append( type );
+                    dependencies.add( type );
+                }
+            }
+            if ( isApi( access ) )
+            {
+                api.add( method.toString() );
+            }
+            return null;
+        }
+
+        private static boolean isApi( int access )
+        {
+            return ( access & ( Opcodes.ACC_PRIVATE | Opcodes.ACC_SYNTHETIC ) ) == 0;
+        }
+
+    }
+
+    private static class SourceInfo
+    {
+
+        private final long length;
+
+        private final long lastModified;
+
+        private final Set<String> classes = new TreeSet<String>();
+
+        SourceInfo( long length, long lastModified )
+        {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+    }
+
+    private static class ClassInfo
+    {
+
+        private final String name;
+
+        private final String api;
+
+        private final String constants;
+
+        private final Set<String> supertypes = new TreeSet<String>();
+
+        private final Set<String> dependencies = new TreeSet<String>();
+
+        private File source;
+
+        ClassInfo( String name, String api, String constants )
+        {
+            this.name = name;
+            this.api = api;
+            this.constants = constants;
+        }
+
+    }
+
+}
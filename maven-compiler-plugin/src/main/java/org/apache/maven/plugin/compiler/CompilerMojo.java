@@ -115,6 +115,17 @@ public class CompilerMojo
     @Parameter
     private boolean allowPartialRequirements;
 
+    /**
+     * The file caching the module names of the dependency jars, shared by the builds using the same local repository.
+     * A jar whose length and modification time did not change is not opened again to read its module descriptor or
+     * manifest.
+     *
+     * @since 3.6.2
+     */
+    @Parameter( defaultValue = "${settings.localRepository}/.cache/maven-compiler-plugin/module-descriptors.lst",
+                property = "maven.compiler.moduleDescriptorCache" )
+    private File moduleDescriptorCache;
+
     @Component( hint = "qdox" )
     private ModuleInfoParser moduleInfoParser;
 
@@ -204,7 +215,8 @@ public class CompilerMojo
 
                 ProjectAnalyzerRequest analyzerRequest = new ProjectAnalyzerRequest()
                                 .setBaseModuleDescriptor( moduleDescriptor )
-                                .setDependencyArtifacts( dependencyArtifacts );
+                                .setDependencyArtifacts( dependencyArtifacts )
+                                .setModuleDescriptorCacheFile( moduleDescriptorCache );
 
                 analyzerResult = projectAnalyzer.analyze( analyzerRequest );
 
@@ -0,0 +1,307 @@
+package org.apache.maven.plugin.compiler;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.codehaus.plexus.compiler.CompilerConfiguration;
+import org.codehaus.plexus.compiler.CompilerMessage;
+import org.codehaus.plexus.compiler.CompilerResult;
+
+/**
+ * A javax.tools compiler shared by all the executions of the plugin within the JVM, i.e. by all the modules of a
+ * reactor build since the plugin realm is reused. The file managers are pooled per JDK and source encoding: they keep
+ * the platform classes and the dependency jars they opened indexed from one compilation to the next. A file manager
+ * which opened a jar that has changed since is closed instead of being reused.
+ *
+ * @since 3.6.2
+ */
+class InProcessCompilerService
+{
+
+    private static final Map<String, LinkedList<PooledFileManager>> POOL =
+        new HashMap<String, LinkedList<PooledFileManager>>();
+
+    private static final Collection<JavaFileManager.Location> LOCATIONS = new ArrayList<JavaFileManager.Location>();
+
+    static
+    {
+        LOCATIONS.add( StandardLocation.CLASS_PATH );
+        LOCATIONS.add( StandardLocation.SOURCE_PATH );
+        LOCATIONS.add( StandardLocation.CLASS_OUTPUT );
+        LOCATIONS.add( StandardLocation.SOURCE_OUTPUT );
+        LOCATIONS.add( StandardLocation.ANNOTATION_PROCESSOR_PATH );
+        LOCATIONS.add( StandardLocation.PLATFORM_CLASS_PATH );
+        // only known to Java 9+
+        LOCATIONS.add( StandardLocation.locationFor( "MODULE_PATH" ) );
+        LOCATIONS.add( StandardLocation.locationFor( "UPGRADE_MODULE_PATH" ) );
+    }
+
+    /**
+     * Options setting locations which cannot be reset, a file manager used with them is not pooled.
+     */
+    private static final Collection<String> UNPOOLED_OPTIONS =
+        Arrays.asList( "--module-source-path", "--patch-module" );
+
+    private InProcessCompilerService()
+    {
+        // static methods only
+    }
+
+    /**
+     * @return <code>true</code> if the running JVM provides a javax.tools compiler
+     */
+    static boolean isAvailable()
+    {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    /**
+     * Compiles the source files of the configuration.
+     *
+     * @param args The javac command line built for the configuration, the source files are ignored.
+     * @param configuration The compiler configuration.
+     * @return The result of the compilation.
+     * @throws IOException If the file manager fails.
+     */
+    static CompilerResult compile( String[] args, CompilerConfiguration configuration )
+        throws IOException
+    {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        new File( configuration.getOutputLocation() ).mkdirs();
+        if ( configuration.getGeneratedSourcesDirectory() != null )
+        {
+            configuration.getGeneratedSourcesDirectory().mkdirs();
+        }
+
+        Set<String> sourcePaths = new HashSet<String>();
+        List<File> sourceFiles = new ArrayList<File>();
+        for ( File sourceFile : configuration.getSourceFiles() )
+        {
+            sourcePaths.add( sourceFile.getAbsolutePath() );
+            sourceFiles.add( sourceFile.getAbsoluteFile() );
+        }
+        List<String> options = new ArrayList<String>( args.length );
+        boolean poolable = true;
+        for ( String arg : args )
+        {
+            if ( !sourcePaths.contains( arg ) )
+            {
+                options.add( arg );
+                poolable &= !UNPOOLED_OPTIONS.contains( arg );
+            }
+        }
+
+        String key = System.getProperty( "java.home" ) + '|' + configuration.getSourceEncoding();
+        PooledFileManager fileManager = acquire( key, compiler, configuration );
+        boolean reusable = false;
+        try
+        {
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+            Iterable<? extends JavaFileObject> units =
+                fileManager.fileManager.getJavaFileObjectsFromFiles( sourceFiles );
+            Boolean success =
+                compiler.getTask( null, fileManager.fileManager, diagnostics, options, null, units ).call();
+            reusable = poolable;
+
+            List<CompilerMessage> messages = new ArrayList<CompilerMessage>();
+            for ( Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics() )
+            {
+                messages.add( toCompilerMessage( diagnostic ) );
+            }
+            return new CompilerResult( Boolean.TRUE.equals( success ), messages );
+        }
+        finally
+        {
+            if ( reusable )
+            {
+                release( key, fileManager );
+            }
+            else
+            {
+                fileManager.fileManager.close();
+            }
+        }
+    }
+
+    private static PooledFileManager acquire( String key, JavaCompiler compiler,
+                                              CompilerConfiguration configuration )
+        throws IOException
+    {
+        List<String> pathElements = new ArrayList<String>();
+        addAll( pathElements, configuration.getClasspathEntries() );
+        addAll( pathElements, configuration.getModulepathEntries() );
+        addAll( pathElements, configuration.getProcessorPathEntries() );
+
+        PooledFileManager fileManager;
+        synchronized ( POOL )
+        {
+            LinkedList<PooledFileManager> idle = POOL.get( key );
+            fileManager = idle != null ? idle.poll() : null;
+        }
+
+        if ( fileManager != null && fileManager.hasChanged( pathElements ) )
+        {
+            fileManager.fileManager.close();
+            fileManager = null;
+        }
+        if ( fileManager == null )
+        {
+            String encoding = configuration.getSourceEncoding();
+            Charset charset = encoding != null && encoding.length() > 0 ? Charset.forName( encoding ) : null;
+            fileManager = new PooledFileManager( compiler.getStandardFileManager( null, Locale.getDefault(), charset ) );
+        }
+
+        fileManager.record( pathElements );
+        for ( JavaFileManager.Location location : LOCATIONS )
+        {
+            try
+            {
+                // back to the defaults, the options of the compilation set the locations it uses
+                fileManager.fileManager.setLocation( location, null );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // location unknown to this JDK
+            }
+        }
+        return fileManager;
+    }
+
+    private static void release( String key, PooledFileManager fileManager )
+    {
+        synchronized ( POOL )
+        {
+            LinkedList<PooledFileManager> idle = POOL.get( key );
+            if ( idle == null )
+            {
+                idle = new LinkedList<PooledFileManager>();
+                POOL.put( key, idle );
+            }
+            idle.push( fileManager );
+        }
+    }
+
+    private static void addAll( List<String> pathElements, List<String> entries )
+    {
+        if ( entries != null )
+        {
+            pathElements.addAll( entries );
+        }
+    }
+
+    private static CompilerMessage toCompilerMessage( Diagnostic<? extends JavaFileObject> diagnostic )
+    {
+        CompilerMessage.Kind kind;
+        switch ( diagnostic.getKind() )
+        {
+            case ERROR:
+                kind = CompilerMessage.Kind.ERROR;
+                break;
+            case WARNING:
+                kind = CompilerMessage.Kind.WARNING;
+                break;
+            case MANDATORY_WARNING:
+                kind = CompilerMessage.Kind.MANDATORY_WARNING;
+                break;
+            case NOTE:
+                kind = CompilerMessage.Kind.NOTE;
+                break;
+            default:
+                kind = CompilerMessage.Kind.OTHER;
+                break;
+        }
+
+        String file = diagnostic.getSource() != null ? diagnostic.getSource().toUri().getPath() : null;
+        int line = (int) diagnostic.getLineNumber();
+        int column = (int) diagnostic.getColumnNumber();
+        return new CompilerMessage( file, kind, line, column, line, column, diagnostic.getMessage( null ) );
+    }
+
+    /**
+     * A file manager of the pool, with the length and the modification time of the jars it has been used with.
+     */
+    private static class PooledFileManager
+    {
+
+        private final StandardJavaFileManager fileManager;
+
+        private final Map<String, String> jars = new HashMap<String, String>();
+
+        PooledFileManager( StandardJavaFileManager fileManager )
+        {
+            this.fileManager = fileManager;
+        }
+
+        boolean hasChanged( List<String> pathElements )
+        {
+            for ( String pathElement : pathElements )
+            {
+                String stamp = jars.get( pathElement );
+                if ( stamp != null && !stamp.equals( stamp( new File( pathElement ) ) ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void record( List<String> pathElements )
+        {
+            for ( String pathElement : pathElements )
+            {
+                File file = new File( pathElement );
+                if ( file.isFile() )
+                {
+                    jars.put( pathElement, stamp( file ) );
+                }
+            }
+        }
+
+        private static String stamp( File file )
+        {
+            return file.length() + ":" + file.lastModified();
+        }
+
+    }
+
+}
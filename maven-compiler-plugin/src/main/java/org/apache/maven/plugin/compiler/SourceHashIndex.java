@@ -0,0 +1,351 @@
+package org.apache.maven.plugin.compiler;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The content hashes of the sources as of their last successful compilation. A source whose length and modification
+ * time are the recorded ones is not read; otherwise it is hashed, on as many threads as there are processors, and
+ * it is only reported as changed if its content differs. A checkout or a cache restore touching the modification time
+ * of a source therefore does not make it stale.
+ *
+ * @since 3.6.2
+ */
+class SourceHashIndex
+{
+
+    private static final String HEADER = "#source-hashes 2";
+
+    private final File file;
+
+    private final int threads;
+
+    private final Map<File, Entry> entries = new HashMap<File, Entry>();
+
+    private final Map<File, Entry> pending = new HashMap<File, Entry>();
+
+    /**
+     * @param file The file the index is stored in.
+     * @param threads The number of threads hashing the sources.
+     */
+    SourceHashIndex( File file, int threads )
+    {
+        this.file = file;
+        this.threads = threads;
+    }
+
+    /**
+     * Loads the index stored by the previous build, if any.
+     *
+     * @throws IOException If the index cannot be read.
+     */
+    void load()
+        throws IOException
+    {
+        entries.clear();
+        pending.clear();
+
+        if ( !file.isFile() )
+        {
+            return;
+        }
+
+        BufferedReader reader = new BufferedReader( new InputStreamReader( new FileInputStream( file ), "UTF-8" ) );
+        try
+        {
+            if ( !HEADER.equals( reader.readLine() ) )
+            {
+                return;
+            }
+            for ( String line = reader.readLine(); line != null; line = reader.readLine() )
+            {
+                String[] fields = line.split( " ", 5 );
+                if ( fields.length == 5 )
+                {
+                    entries.put( new File( fields[4] ), new Entry( Long.parseLong( fields[0] ),
+                                                                   Long.parseLong( fields[1] ),
+                                                                   Long.parseLong( fields[2] ), fields[3] ) );
+                }
+            }
+        }
+        catch ( NumberFormatException e )
+        {
+            // broken index, every source is hashed again
+            entries.clear();
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    /**
+     * Computes the sources whose content changed since their last successful compilation. The sources whose content
+     * did not change get their new length and modification time recorded.
+     *
+     * @param sources The sources to check.
+     * @return The new and changed sources, never <code>null</code>.
+     * @throws IOException If a source cannot be read.
+     */
+    Set<File> getChangedSources( Collection<File> sources )
+        throws IOException
+    {
+        Map<File, Future<String>> hashes = new HashMap<File, Future<String>>();
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            for ( File source : sources )
+            {
+                final File absoluteSource = source.getAbsoluteFile();
+                Entry entry = entries.get( absoluteSource );
+                if ( entry == null || entry.length != absoluteSource.length()
+                    || entry.lastModified != absoluteSource.lastModified() )
+                {
+                    hashes.put( source, executor.submit( new Callable<String>()
+                    {
+                        public String call()
+                            throws IOException
+                        {
+                            return hash( absoluteSource );
+                        }
+                    } ) );
+                }
+            }
+
+            Set<File> changed = new HashSet<File>();
+            for ( Map.Entry<File, Future<String>> hash : hashes.entrySet() )
+            {
+                File source = hash.getKey().getAbsoluteFile();
+                String value = get( hash.getValue() );
+                Entry previous = entries.get( source );
+                if ( previous != null && previous.hash.equals( value ) )
+                {
+                    entries.put( source,
+                                 new Entry( source.length(), source.lastModified(), previous.compiled, value ) );
+                }
+                else
+                {
+                    pending.put( source, new Entry( source.length(), source.lastModified(), 0, value ) );
+                    changed.add( hash.getKey() );
+                }
+            }
+            return changed;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tells whether the output of an unchanged source can be trusted: a class file deleted by a failed compilation or
+     * by hand, or older than the last compilation of the source, has to be compiled again.
+     *
+     * @param source The source.
+     * @param output The file compiled from the source.
+     * @return <code>true</code> if the output exists and is not older than the last recorded compilation of the source
+     */
+    boolean isOutputUpToDate( File source, File output )
+    {
+        Entry entry = entries.get( source.getAbsoluteFile() );
+        // modification times may be truncated to the second by the file system
+        return entry != null && output.isFile() && output.lastModified() >= entry.compiled - entry.compiled % 1000;
+    }
+
+    /**
+     * @param sources All the sources of the module.
+     * @return <code>true</code> if a source of the previous compilation is not part of the specified ones anymore
+     */
+    boolean hasRemovedSources( Collection<File> sources )
+    {
+        Set<File> current = new HashSet<File>( sources.size() * 2 );
+        for ( File source : sources )
+        {
+            current.add( source.getAbsoluteFile() );
+        }
+        return !current.containsAll( entries.keySet() );
+    }
+
+    /**
+     * Records the content hashes of successfully compiled sources.
+     *
+     * @param compiledSources The compiled sources.
+     * @param compileTime The time the compilation started at.
+     */
+    void update( Collection<File> compiledSources, long compileTime )
+    {
+        for ( File source : compiledSources )
+        {
+            File absoluteSource = source.getAbsoluteFile();
+            Entry entry = pending.remove( absoluteSource );
+            if ( entry == null )
+            {
+                entry = entries.get( absoluteSource );
+            }
+            if ( entry != null )
+            {
+                entries.put( absoluteSource, new Entry( entry.length, entry.lastModified, compileTime, entry.hash ) );
+            }
+        }
+    }
+
+    /**
+     * Forgets the sources which are not part of the specified ones anymore.
+     *
+     * @param sources All the sources of the module.
+     */
+    void retain( Collection<File> sources )
+    {
+        Set<File> current = new HashSet<File>( sources.size() * 2 );
+        for ( File source : sources )
+        {
+            current.add( source.getAbsoluteFile() );
+        }
+        entries.keySet().retainAll( current );
+    }
+
+    /**
+     * Stores the index.
+     *
+     * @throws IOException If the index cannot be written.
+     */
+    void save()
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+
+        Writer writer = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" ) );
+        try
+        {
+            writer.write( HEADER + '\n' );
+            for ( Map.Entry<File, Entry> entry : entries.entrySet() )
+            {
+                Entry value = entry.getValue();
+                writer.write( value.length + " " + value.lastModified + ' ' + value.compiled + ' ' + value.hash + ' '
+                                  + entry.getKey() + '\n' );
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    private static String get( Future<String> hash )
+        throws IOException
+    {
+        try
+        {
+            return hash.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while hashing sources", e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException( e.getCause().getMessage(), e.getCause() );
+        }
+    }
+
+    private static String hash( File source )
+        throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+
+        InputStream in = new FileInputStream( source );
+        try
+        {
+            byte[] buffer = new byte[8192];
+            for ( int n = in.read( buffer ); n >= 0; n = in.read( buffer ) )
+            {
+                digest.update( buffer, 0, n );
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+
+        StringBuilder hex = new StringBuilder( 40 );
+        for ( byte b : digest.digest() )
+        {
+            hex.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return hex.toString();
+    }
+
+    private static class Entry
+    {
+
+        private final long length;
+
+        private final long lastModified;
+
+        private final long compiled;
+
+        private final String hash;
+
+        Entry( long length, long lastModified, long compiled, String hash )
+        {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.compiled = compiled;
+            this.hash = hash;
+        }
+
+    }
+
+}
@@ -0,0 +1,311 @@
+package org.apache.maven.plugin.compiler.module;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Caches the module name information of dependency jars, keyed by the path of the jar and checked against its length
+ * and modification time, so that an unchanged jar is not opened again. The cache is held by the
+ * {@link ProjectAnalyzer} component, hence shared by all the modules of a build, and can be persisted to a file shared
+ * by subsequent builds. The information depends on the JDK running Maven, which parses the jars with the module API
+ * from Java 9 on: the file is discarded when it was written by another Java version.
+ *
+ * @since 3.6.2
+ */
+class ModuleDescriptorCache
+{
+
+    private static final String HEADER = "#module-descriptors 1";
+
+    private final String javaVersion;
+
+    private final Map<File, Entry> entries = new HashMap<File, Entry>();
+
+    private File loadedFile;
+
+    private String loadedStamp;
+
+    private boolean modified;
+
+    ModuleDescriptorCache()
+    {
+        this( System.getProperty( "java.specification.version" ) );
+    }
+
+    /**
+     * @param javaVersion The specification version of the JDK the descriptors are read with.
+     */
+    ModuleDescriptorCache( String javaVersion )
+    {
+        this.javaVersion = javaVersion;
+    }
+
+    /**
+     * @param jar The jar file.
+     * @return The cached information of the jar, or <code>null</code> if the jar is unknown or changed since.
+     */
+    synchronized Entry get( File jar )
+    {
+        Entry entry = entries.get( jar.getAbsoluteFile() );
+        if ( entry != null && ( entry.length != jar.length() || entry.lastModified != jar.lastModified() ) )
+        {
+            entry = null;
+        }
+        return entry;
+    }
+
+    /**
+     * @param jar The jar file.
+     * @param descriptor The module descriptor of the jar, may be <code>null</code>.
+     * @param automaticModuleName The <code>Automatic-Module-Name</code> of the manifest of the jar, may be
+     *            <code>null</code>.
+     */
+    synchronized void put( File jar, JavaModuleDescriptor descriptor, String automaticModuleName )
+    {
+        entries.put( jar.getAbsoluteFile(),
+                     new Entry( jar.length(), jar.lastModified(), descriptor, automaticModuleName ) );
+        modified = true;
+    }
+
+    /**
+     * Adds the entries of the cache file to the ones in memory, unless the file has already been read or written in
+     * its current state.
+     *
+     * @param file The cache file.
+     * @throws IOException If the cache file cannot be read.
+     */
+    synchronized void load( File file )
+        throws IOException
+    {
+        if ( !file.isFile() || ( file.equals( loadedFile ) && stamp( file ).equals( loadedStamp ) ) )
+        {
+            return;
+        }
+
+        Map<File, Entry> loaded = new HashMap<File, Entry>();
+        BufferedReader reader = new BufferedReader( new InputStreamReader( new FileInputStream( file ), "UTF-8" ) );
+        try
+        {
+            if ( !HEADER.equals( reader.readLine() ) || !( "K " + javaVersion ).equals( reader.readLine() ) )
+            {
+                return;
+            }
+
+            Entry entry = null;
+            for ( String line = reader.readLine(); line != null; line = reader.readLine() )
+            {
+                String[] fields = line.split( " ", 2 );
+                if ( fields.length < 2 )
+                {
+                    continue;
+                }
+                if ( "J".equals( fields[0] ) )
+                {
+                    String[] jar = fields[1].split( " ", 3 );
+                    entry = new Entry( Long.parseLong( jar[0] ), Long.parseLong( jar[1] ), null, null );
+                    loaded.put( new File( jar[2] ), entry );
+                }
+                else if ( entry == null )
+                {
+                    continue;
+                }
+                else if ( "N".equals( fields[0] ) )
+                {
+                    entry.builder = JavaModuleDescriptor.newModule( fields[1] );
+                }
+                else if ( "A".equals( fields[0] ) )
+                {
+                    entry.builder = JavaModuleDescriptor.newAutomaticModule( fields[1] );
+                }
+                else if ( "R".equals( fields[0] ) && entry.builder != null )
+                {
+                    entry.builder.requires( fields[1] );
+                }
+                else if ( "E".equals( fields[0] ) && entry.builder != null )
+                {
+                    entry.builder.exports( fields[1] );
+                }
+                else if ( "M".equals( fields[0] ) )
+                {
+                    entry.automaticModuleName = fields[1];
+                }
+            }
+        }
+        catch ( RuntimeException e )
+        {
+            throw new IOException( "Broken module descriptor cache " + file, e );
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        for ( Map.Entry<File, Entry> entry : loaded.entrySet() )
+        {
+            Entry value = entry.getValue();
+            if ( value.builder != null )
+            {
+                value.descriptor = value.builder.build();
+                value.builder = null;
+            }
+            if ( !entries.containsKey( entry.getKey() ) )
+            {
+                entries.put( entry.getKey(), value );
+            }
+        }
+        loadedFile = file;
+        loadedStamp = stamp( file );
+    }
+
+    /**
+     * Writes the cache file if entries were added since the last write. The entries of jars which do not exist
+     * anymore are dropped.
+     *
+     * @param file The cache file.
+     * @throws IOException If the cache file cannot be written.
+     */
+    synchronized void save( File file )
+        throws IOException
+    {
+        if ( !modified && file.isFile() )
+        {
+            return;
+        }
+
+        for ( Iterator<File> it = entries.keySet().iterator(); it.hasNext(); )
+        {
+            if ( !it.next().isFile() )
+            {
+                it.remove();
+            }
+        }
+
+        file.getParentFile().mkdirs();
+        // written aside and moved, builds running concurrently share the file
+        File tmp = File.createTempFile( file.getName(), ".tmp", file.getParentFile() );
+        try
+        {
+            Writer writer = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( tmp ), "UTF-8" ) );
+            try
+            {
+                writer.write( HEADER + '\n' );
+                writer.write( "K " + javaVersion + '\n' );
+                for ( Map.Entry<File, Entry> entry : entries.entrySet() )
+                {
+                    write( writer, entry.getKey(), entry.getValue() );
+                }
+            }
+            finally
+            {
+                writer.close();
+            }
+            // File.renameTo does not replace an existing file everywhere
+            if ( !tmp.renameTo( file ) && !( file.delete() && tmp.renameTo( file ) ) )
+            {
+                throw new IOException( "Failed to move " + tmp + " to " + file );
+            }
+        }
+        finally
+        {
+            tmp.delete();
+        }
+
+        modified = false;
+        loadedFile = file;
+        loadedStamp = stamp( file );
+    }
+
+    private static void write( Writer writer, File jar, Entry entry )
+        throws IOException
+    {
+        writer.write( "J " + entry.length + ' ' + entry.lastModified + ' ' + jar + '\n' );
+        JavaModuleDescriptor descriptor = entry.descriptor;
+        if ( descriptor != null )
+        {
+            writer.write( ( descriptor.isAutomatic() ? "A " : "N " ) + descriptor.name() + '\n' );
+            for ( JavaModuleDescriptor.JavaRequires requires : descriptor.requires() )
+            {
+                writer.write( "R " + requires.name() + '\n' );
+            }
+            for ( JavaModuleDescriptor.JavaExports exports : descriptor.exports() )
+            {
+                writer.write( "E " + exports.source() + '\n' );
+            }
+        }
+        if ( entry.automaticModuleName != null )
+        {
+            writer.write( "M " + entry.automaticModuleName + '\n' );
+        }
+    }
+
+    private static String stamp( File file )
+    {
+        return file.length() + ":" + file.lastModified();
+    }
+
+    /**
+     * The module name information of a jar.
+     */
+    static class Entry
+    {
+
+        private final long length;
+
+        private final long lastModified;
+
+        private JavaModuleDescriptor descriptor;
+
+        private String automaticModuleName;
+
+        private JavaModuleDescriptor.Builder builder;
+
+        Entry( long length, long lastModified, JavaModuleDescriptor descriptor, String automaticModuleName )
+        {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.descriptor = descriptor;
+            this.automaticModuleName = automaticModuleName;
+        }
+
+        JavaModuleDescriptor getDescriptor()
+        {
+            return descriptor;
+        }
+
+        String getAutomaticModuleName()
+        {
+            return automaticModuleName;
+        }
+
+    }
+
+}
@@ -51,6 +51,11 @@ public class ProjectAnalyzer extends AbstractLogEnabled
     @Requirement( hint = "reflect" )
     private ModuleInfoParser reflectParser;
 
+    /**
+     * Shared by all the analyses, this component is a singleton.
+     */
+    private final ModuleDescriptorCache moduleDescriptorCache = new ModuleDescriptorCache();
+
     public ProjectAnalyzerResult analyze( ProjectAnalyzerRequest request )
         throws IOException
     {
@@ -65,30 +70,65 @@ public class ProjectAnalyzer extends AbstractLogEnabled
         
         Map<String, ModuleNameSource> moduleNameSources = new HashMap<String, ModuleNameSource>();
         
+        File cacheFile = request.getModuleDescriptorCacheFile();
+        if ( cacheFile != null )
+        {
+            try
+            {
+                moduleDescriptorCache.load( cacheFile );
+            }
+            catch ( IOException e )
+            {
+                getLogger().debug( "Failed to read the module descriptor cache: " + e.getMessage() );
+            }
+        }
+
         // start from root
         result.setBaseModuleDescriptor( baseModuleDescriptor );
 
         // collect all modules from path
         for ( File file : request.getDependencyArtifacts() )
         {
-            JavaModuleDescriptor descriptor = extractDescriptor( file );
+            JavaModuleDescriptor descriptor;
 
-            if ( descriptor != null )
+            String modulename;
+
+            // only jars are cached, the content of a directory may change without its modification time
+            ModuleDescriptorCache.Entry cached = file.isFile() ? moduleDescriptorCache.get( file ) : null;
+
+            if ( cached != null )
             {
-                availableNamedModules.put( descriptor.name(), descriptor );
+                descriptor = cached.getDescriptor();
+                modulename = cached.getAutomaticModuleName();
             }
-            
-            if ( descriptor == null || descriptor.isAutomatic() )
+            else
             {
-                Manifest manifest = extractManifest( file );
+                descriptor = extractDescriptor( file );
+                modulename = null;
+
+                if ( descriptor == null || descriptor.isAutomatic() )
+                {
+                    Manifest manifest = extractManifest( file );
 
-                String modulename = null;
-                
-                if ( manifest != null )
+                    if ( manifest != null )
+                    {
+                        modulename = manifest.getMainAttributes().getValue( "Automatic-Module-Name" );
+                    }
+                }
+
+                if ( file.isFile() )
                 {
-                    modulename = manifest.getMainAttributes().getValue( "Automatic-Module-Name" );
+                    moduleDescriptorCache.put( file, descriptor, modulename );
                 }
+            }
 
+            if ( descriptor != null )
+            {
+                availableNamedModules.put( descriptor.name(), descriptor );
+            }
+            
+            if ( descriptor == null || descriptor.isAutomatic() )
+            {
                 if ( modulename != null )
                 {
                     moduleNameSources.put( modulename, ModuleNameSource.MANIFEST );
@@ -106,6 +146,18 @@ public class ProjectAnalyzer extends AbstractLogEnabled
             pathElements.put( file, descriptor );
         }
         result.setPathElements( pathElements );
+
+        if ( cacheFile != null )
+        {
+            try
+            {
+                moduleDescriptorCache.save( cacheFile );
+            }
+            catch ( IOException e )
+            {
+                getLogger().debug( "Failed to store the module descriptor cache: " + e.getMessage() );
+            }
+        }
         
         result.setModuleNameSources( moduleNameSources );
 
@@ -34,6 +34,8 @@ public class ProjectAnalyzerRequest
     
     private Collection<File> dependencyArtifacts;
 
+    private File moduleDescriptorCacheFile;
+
     public JavaModuleDescriptor getBaseModuleDescriptor()
     {
         return baseModuleDescriptor;
@@ -55,4 +57,20 @@ public class ProjectAnalyzerRequest
         this.dependencyArtifacts = dependencyArtifacts;
         return this;
     }
+
+    public File getModuleDescriptorCacheFile()
+    {
+        return moduleDescriptorCacheFile;
+    }
+
+    /**
+     * @param moduleDescriptorCacheFile The file persisting the module names of the dependency jars across builds, may
+     *            be <code>null</code> to only cache them in memory.
+     * @return This request.
+     */
+    public ProjectAnalyzerRequest setModuleDescriptorCacheFile( File moduleDescriptorCacheFile )
+    {
+        this.moduleDescriptorCacheFile = moduleDescriptorCacheFile;
+        return this;
+    }
 }
@@ -0,0 +1,301 @@
+package org.apache.maven.plugin.compiler;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+
+public class ClassDependencyGraphTest
+    extends TestCase
+{
+
+    private File sourceDirectory;
+
+    private File outputDirectory;
+
+    private File graphFile;
+
+    private long time = System.currentTimeMillis() - 3600 * 1000;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        File basedir = new File( System.getProperty( "basedir", "." ), "target/dependency-graph-test/" + getName() );
+        FileUtils.deleteDirectory( basedir );
+        sourceDirectory = new File( basedir, "src" );
+        outputDirectory = new File( basedir, "classes" );
+        graphFile = new File( basedir, "dependencyGraph.lst" );
+        outputDirectory.mkdirs();
+
+        writeSource( "p/A.java", "package p; public class A { public int api() { return 1; } }" );
+        writeSource( "p/B.java", "package p; class B { int value = new A().api(); }" );
+        writeSource( "p/C.java", "package p; class C { Runnable r = new Runnable() { public void run() { } }; }" );
+        writeSource( "q/D.java", "package q; public class D { public static final int VALUE = 1; }" );
+        writeSource( "q/E.java", "package q; class E { int value = D.VALUE; }" );
+
+        compile( getSources() );
+        ClassDependencyGraph graph = newGraph( "config" );
+        graph.rebuild( getSources() );
+        graph.save();
+    }
+
+    public void testUpToDate()
+        throws Exception
+    {
+        ClassDependencyGraph graph = newGraph( "config" );
+        assertTrue( graph.load() );
+        assertEquals( Collections.emptySet(), graph.getStaleSources( getSources() ) );
+    }
+
+    public void testConfigurationChanged()
+        throws Exception
+    {
+        assertFalse( newGraph( "other config" ).load() );
+    }
+
+    public void testInternalChangeDoesNotCascade()
+        throws Exception
+    {
+        writeSource( "p/A.java", "package p; public class A { public int api() { return 2; } }" );
+
+        ClassDependencyGraph graph = newGraph( "config" );
+        assertTrue( graph.load() );
+        Set<File> stale = graph.getStaleSources( getSources() );
+        assertEquals( sources( "p/A.java" ), stale );
+
+        assertEquals( Collections.emptySet(), compile( graph, stale ) );
+    }
+
+    public void testApiChangeRecompilesDependents()
+        throws Exception
+    {
+        writeSource( "p/A.java", "package p; public class A { public int api() { return 1; } public void m() { } }" );
+
+        ClassDependencyGraph graph = newGraph( "config" );
+        assertTrue( graph.load() );
+        Set<File> stale = graph.getStaleSources( getSources() );
+        assertEquals( sources( "p/A.java" ), stale );
+
+        Set<File> dependents = compile( graph, stale );
+        assertEquals( sources( "p/B.java" ), dependents );
+        assertEquals( Collections.emptySet(), compile( graph, dependents ) );
+        graph.save();
+
+        graph = newGraph( "config" );
+        assertTrue( graph.load() );
+        assertEquals( Collections.emptySet(), graph.getStaleSources( getSources() ) );
+    }
+
+    public void testConstantChangeRecompilesAllSources()
+        throws Exception
+    {
+        writeSource( "q/D.java", "package q; public class D { public static final int VALUE = 2; }" );
+
+        ClassDependencyGraph graph = newGraph( "config" );
+        assertTrue( graph.load() );
+        Set<File> stale = graph.getStaleSources( getSources() );
+        assertEquals( sources( "q/D.java" ), stale );
+
+        // whether the compiler kept a reference to D in E or not
+        Set<File> dependents = compile( graph, stale );
+        assertEquals( sources( "p/A.java", "p/B.java", "p/C.java", "q/E.java" ), dependents );
+        assertEquals( Collections.emptySet(), compile( graph, dependents ) );
+    }
+
+    public void testApiChangeRecompilesDependentsOfSubtypes()
+        throws Exception
+    {
+        writeSource( "r/S.java", "package r; public class S { public void m() { } }" );
+        writeSource( "r/T.java", "package r; public class T extends S { }" );
+        writeSource( "r/U.java", "package r; public class U extends T { }" );
+        writeSource( "r/V.java", "package r; class V { void call() { new U().m(); } }" );
+        compile( sources( "r/S.java", "r/T.java", "r/U.java", "r/V.java" ) );
+        ClassDependencyGraph graph = newGraph( "config" );
+        graph.rebuild( getSources() );
+        graph.save();
+
+        writeSource( "r/S.java", "package r; public class S { }" );
+
+        graph = newGraph( "config" );
+        assertTrue( graph.load() );
+        Set<File> stale = graph.getStaleSources( getSources() );
+        assertEquals( sources( "r/S.java" ), stale );
+
+        // V only references U, whose own class file did not change
+        graph.beforeCompile( stale );
+        compile( stale );
+        assertEquals( sources( "r/T.java", "r/U.java", "r/V.java" ), graph.afterCompile( stale ) );
+    }
+
+    public void testRemovedSource()
+        throws Exception
+    {
+        new File( sourceDirectory, "p/A.java" ).delete();
+
+        ClassDependencyGraph graph = newGraph( "config" );
+        assertTrue( graph.load() );
+        assertEquals( sources( "p/B.java" ), graph.getStaleSources( getSources() ) );
+        assertFalse( new File( outputDirectory, "p/A.class" ).exists() );
+    }
+
+    public void testRemovedInnerClass()
+        throws Exception
+    {
+        writeSource( "p/C.java", "package p; class C { }" );
+
+        ClassDependencyGraph graph = newGraph( "config" );
+        assertTrue( graph.load() );
+        Set<File> stale = graph.getStaleSources( getSources() );
+        assertEquals( sources( "p/C.java" ), stale );
+
+        assertEquals( Collections.emptySet(), compile( graph, stale ) );
+        assertFalse( new File( outputDirectory, "p/C$1.class" ).exists() );
+    }
+
+    public void testMissingClassFile()
+        throws Exception
+    {
+        new File( outputDirectory, "p/C$1.class" ).delete();
+
+        ClassDependencyGraph graph = newGraph( "config" );
+        assertTrue( graph.load() );
+        assertEquals( sources( "p/C.java" ), graph.getStaleSources( getSources() ) );
+    }
+
+    public void testUnreadableClassFile()
+        throws Exception
+    {
+        // a class file version unknown to the analyzer, as written by a newer compiler
+        OutputStream out = new FileOutputStream( new File( outputDirectory, "p/F.class" ) );
+        try
+        {
+            out.write( new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 99, 0, 0 } );
+        }
+        finally
+        {
+            out.close();
+        }
+
+        ClassDependencyGraph graph = newGraph( "config" );
+        try
+        {
+            graph.rebuild( getSources() );
+            fail( "The class file should not be readable" );
+        }
+        catch ( IOException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().contains( "F.class" ) );
+        }
+
+        graph.delete();
+        assertFalse( newGraph( "config" ).load() );
+    }
+
+    private ClassDependencyGraph newGraph( String configuration )
+    {
+        return new ClassDependencyGraph( graphFile, outputDirectory,
+                                         Collections.singletonList( sourceDirectory.getAbsolutePath() ), ".java",
+                                         configuration );
+    }
+
+    private Set<File> compile( ClassDependencyGraph graph, Set<File> sources )
+        throws IOException
+    {
+        graph.beforeCompile( sources );
+        compile( sources );
+        return graph.afterCompile( sources );
+    }
+
+    private void compile( Set<File> sources )
+    {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<String>();
+        args.addAll( Arrays.asList( "-d", outputDirectory.getPath(), "-cp", outputDirectory.getPath(),
+                                    "-sourcepath", sourceDirectory.getPath(), "-implicit:none" ) );
+        for ( File source : sources )
+        {
+            args.add( source.getPath() );
+        }
+        assertEquals( 0, compiler.run( null, null, null, args.toArray( new String[args.size()] ) ) );
+    }
+
+    private void writeSource( String path, String content )
+        throws IOException
+    {
+        File file = new File( sourceDirectory, path );
+        file.getParentFile().mkdirs();
+        Writer writer = new FileWriter( file );
+        try
+        {
+            writer.write( content );
+        }
+        finally
+        {
+            writer.close();
+        }
+        // distinct modification times, whatever the resolution of the file system
+        time += 2000;
+        file.setLastModified( time );
+    }
+
+    private Set<File> getSources()
+    {
+        Set<File> sources = new HashSet<File>();
+        for ( String path : new String[] { "p/A.java", "p/B.java", "p/C.java", "q/D.java", "q/E.java", "r/S.java",
+            "r/T.java", "r/U.java", "r/V.java" } )
+        {
+            File file = new File( sourceDirectory, path );
+            if ( file.exists() )
+            {
+                sources.add( file.getAbsoluteFile() );
+            }
+        }
+        return sources;
+    }
+
+    private Set<File> sources( String... paths )
+    {
+        Set<File> sources = new HashSet<File>();
+        for ( String path : paths )
+        {
+            sources.add( new File( sourceDirectory, path ).getAbsoluteFile() );
+        }
+        return sources;
+    }
+
+}
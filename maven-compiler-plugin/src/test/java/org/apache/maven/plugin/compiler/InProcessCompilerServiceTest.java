@@ -0,0 +1,148 @@
+package org.apache.maven.plugin.compiler;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import javax.tools.ToolProvider;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+import org.codehaus.plexus.compiler.CompilerConfiguration;
+import org.codehaus.plexus.compiler.CompilerMessage;
+import org.codehaus.plexus.compiler.CompilerResult;
+
+public class InProcessCompilerServiceTest
+    extends TestCase
+{
+
+    private File basedir;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        basedir = new File( System.getProperty( "basedir", "." ), "target/shared-compiler-test/" + getName() );
+        FileUtils.deleteDirectory( basedir );
+    }
+
+    public void testCompilationError()
+        throws Exception
+    {
+        File source = writeSource( "src/p/A.java", "package p; public class A { int i = \"\"; }" );
+
+        CompilerResult result = compile( source, null );
+
+        assertFalse( result.isSuccess() );
+        assertEquals( 1, result.getCompilerMessages().size() );
+        CompilerMessage message = result.getCompilerMessages().get( 0 );
+        assertEquals( CompilerMessage.Kind.ERROR, message.getKind() );
+        assertEquals( 1, message.getStartLine() );
+    }
+
+    public void testChangedJarIsReopened()
+        throws Exception
+    {
+        File jar = new File( basedir, "lib.jar" );
+        File source = writeSource( "src/p/A.java", "package p; public class A { int i = q.L.a(); }" );
+
+        writeJar( jar, "package q; public class L { public static int a() { return 1; } }" );
+        assertTrue( compile( source, jar ).isSuccess() );
+        assertTrue( new File( basedir, "classes/p/A.class" ).isFile() );
+
+        writeJar( jar, "package q; public class L { public static int b() { return 1; } }" );
+        assertFalse( compile( source, jar ).isSuccess() );
+
+        writeSource( "src/p/A.java", "package p; public class A { int i = q.L.b(); }" );
+        assertTrue( compile( source, jar ).isSuccess() );
+    }
+
+    private CompilerResult compile( File source, File jar )
+        throws IOException
+    {
+        File classes = new File( basedir, "classes" );
+
+        CompilerConfiguration configuration = new CompilerConfiguration();
+        configuration.setOutputLocation( classes.getAbsolutePath() );
+        configuration.setSourceFiles( Collections.singleton( source ) );
+        configuration.setSourceEncoding( "UTF-8" );
+        String classpath = classes.getAbsolutePath();
+        if ( jar != null )
+        {
+            configuration.setClasspathEntries( Arrays.asList( classes.getAbsolutePath(), jar.getAbsolutePath() ) );
+            classpath += File.pathSeparator + jar.getAbsolutePath();
+        }
+
+        String[] args = { "-d", classes.getAbsolutePath(), "-classpath", classpath, source.getAbsolutePath() };
+        return InProcessCompilerService.compile( args, configuration );
+    }
+
+    private void writeJar( File jar, String content )
+        throws Exception
+    {
+        File source = writeSource( "lib/q/L.java", content );
+        File classes = new File( basedir, "lib-classes" );
+        FileUtils.deleteDirectory( classes );
+        classes.mkdirs();
+        assertEquals( 0, ToolProvider.getSystemJavaCompiler().run( null, null, null, "-d", classes.getPath(),
+                                                                     source.getPath() ) );
+
+        long lastModified = jar.lastModified();
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ) );
+        try
+        {
+            out.putNextEntry( new ZipEntry( "q/L.class" ) );
+            out.write( FileUtils.fileReadArray( new File( classes, "q/L.class" ) ) );
+        }
+        finally
+        {
+            out.close();
+        }
+        // a distinct modification time, whatever the resolution of the file system
+        jar.setLastModified( Math.max( lastModified + 2000, System.currentTimeMillis() ) );
+    }
+
+    private File writeSource( String path, String content )
+        throws IOException
+    {
+        File file = new File( basedir, path );
+        file.getParentFile().mkdirs();
+        Writer writer = new FileWriter( file );
+        try
+        {
+            writer.write( content );
+        }
+        finally
+        {
+            writer.close();
+        }
+        return file;
+    }
+
+}
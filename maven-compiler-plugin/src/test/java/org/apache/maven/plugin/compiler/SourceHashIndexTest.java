@@ -0,0 +1,150 @@
+package org.apache.maven.plugin.compiler;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+
+public class SourceHashIndexTest
+    extends TestCase
+{
+
+    private File basedir;
+
+    private File indexFile;
+
+    private File a;
+
+    private File b;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        basedir = new File( System.getProperty( "basedir", "." ), "target/source-hashes-test/" + getName() );
+        FileUtils.deleteDirectory( basedir );
+        indexFile = new File( basedir, "sourceHashes.lst" );
+        a = writeSource( "A.java", "class A { }" );
+        b = writeSource( "B.java", "class B { }" );
+
+        SourceHashIndex index = newIndex();
+        assertEquals( sources( a, b ), index.getChangedSources( sources( a, b ) ) );
+        index.update( sources( a, b ), System.currentTimeMillis() );
+        index.save();
+    }
+
+    public void testTouchedSourceIsUnchanged()
+        throws Exception
+    {
+        a.setLastModified( a.lastModified() + 10000 );
+
+        SourceHashIndex index = newIndex();
+        assertEquals( Collections.emptySet(), index.getChangedSources( sources( a, b ) ) );
+        assertFalse( index.hasRemovedSources( sources( a, b ) ) );
+    }
+
+    public void testChangedSourceStaysChangedUntilCompiled()
+        throws Exception
+    {
+        writeSource( "A.java", "class A { int i; }" );
+
+        SourceHashIndex index = newIndex();
+        assertEquals( sources( a ), index.getChangedSources( sources( a, b ) ) );
+        index.save();
+
+        index = newIndex();
+        assertEquals( sources( a ), index.getChangedSources( sources( a, b ) ) );
+        index.update( sources( a ), System.currentTimeMillis() );
+        index.save();
+
+        assertEquals( Collections.emptySet(), newIndex().getChangedSources( sources( a, b ) ) );
+    }
+
+    public void testMissingOrOlderOutput()
+        throws Exception
+    {
+        File classA = writeSource( "A.class", "" );
+        File classB = writeSource( "B.class", "" );
+
+        a.setLastModified( a.lastModified() + 10000 );
+        SourceHashIndex index = newIndex();
+        assertEquals( Collections.emptySet(), index.getChangedSources( sources( a, b ) ) );
+        assertTrue( index.isOutputUpToDate( a, classA ) );
+
+        // deleted by a failed compilation or by hand
+        classA.delete();
+        assertFalse( index.isOutputUpToDate( a, classA ) );
+
+        // written before the last compilation of the source
+        classB.setLastModified( classB.lastModified() - 3600 * 1000 );
+        assertFalse( index.isOutputUpToDate( b, classB ) );
+    }
+
+    public void testRemovedSource()
+        throws Exception
+    {
+        SourceHashIndex index = newIndex();
+        assertTrue( index.hasRemovedSources( sources( a ) ) );
+
+        index.retain( sources( a ) );
+        assertFalse( index.hasRemovedSources( sources( a ) ) );
+    }
+
+    private SourceHashIndex newIndex()
+        throws IOException
+    {
+        SourceHashIndex index = new SourceHashIndex( indexFile, 2 );
+        index.load();
+        return index;
+    }
+
+    private Set<File> sources( File... files )
+    {
+        return new HashSet<File>( Arrays.asList( files ) );
+    }
+
+    private File writeSource( String path, String content )
+        throws IOException
+    {
+        File file = new File( basedir, path );
+        file.getParentFile().mkdirs();
+        Writer writer = new FileWriter( file );
+        try
+        {
+            writer.write( content );
+        }
+        finally
+        {
+            writer.close();
+        }
+        return file;
+    }
+
+}
@@ -0,0 +1,143 @@
+package org.apache.maven.plugin.compiler.module;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+
+public class ModuleDescriptorCacheTest
+    extends TestCase
+{
+
+    private File basedir;
+
+    private File cacheFile;
+
+    private File jar;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        basedir = new File( System.getProperty( "basedir", "." ), "target/module-descriptor-cache-test/" + getName() );
+        FileUtils.deleteDirectory( basedir );
+        basedir.mkdirs();
+        cacheFile = new File( basedir, "cache/module-descriptors.lst" );
+        jar = new File( basedir, "lib.jar" );
+        write( jar, "content" );
+    }
+
+    public void testSaveAndLoad()
+        throws Exception
+    {
+        ModuleDescriptorCache cache = new ModuleDescriptorCache();
+        JavaModuleDescriptor descriptor =
+            JavaModuleDescriptor.newModule( "org.example.lib" ).requires( "java.sql" ).exports( "org.example" ).build();
+        cache.put( jar, descriptor, null );
+        cache.save( cacheFile );
+
+        cache = new ModuleDescriptorCache();
+        cache.load( cacheFile );
+        ModuleDescriptorCache.Entry entry = cache.get( jar );
+        assertNotNull( entry );
+        assertNull( entry.getAutomaticModuleName() );
+        assertEquals( "org.example.lib", entry.getDescriptor().name() );
+        assertFalse( entry.getDescriptor().isAutomatic() );
+        assertEquals( "java.sql", entry.getDescriptor().requires().iterator().next().name() );
+        assertEquals( "org.example", entry.getDescriptor().exports().iterator().next().source() );
+    }
+
+    public void testAutomaticModule()
+        throws Exception
+    {
+        ModuleDescriptorCache cache = new ModuleDescriptorCache();
+        cache.put( jar, JavaModuleDescriptor.newAutomaticModule( "lib" ).build(), "org.example.lib" );
+        cache.save( cacheFile );
+
+        cache = new ModuleDescriptorCache();
+        cache.load( cacheFile );
+        ModuleDescriptorCache.Entry entry = cache.get( jar );
+        assertEquals( "org.example.lib", entry.getAutomaticModuleName() );
+        assertTrue( entry.getDescriptor().isAutomatic() );
+        assertEquals( Collections.emptySet(), entry.getDescriptor().requires() );
+    }
+
+    public void testChangedJar()
+        throws Exception
+    {
+        ModuleDescriptorCache cache = new ModuleDescriptorCache();
+        cache.put( jar, null, null );
+        assertNotNull( cache.get( jar ) );
+
+        write( jar, "other content" );
+        assertNull( cache.get( jar ) );
+    }
+
+    public void testRemovedJarIsDropped()
+        throws Exception
+    {
+        ModuleDescriptorCache cache = new ModuleDescriptorCache();
+        cache.put( jar, null, null );
+        jar.delete();
+        cache.save( cacheFile );
+
+        write( jar, "content" );
+        cache = new ModuleDescriptorCache();
+        cache.load( cacheFile );
+        assertNull( cache.get( jar ) );
+    }
+
+    public void testOtherJavaVersion()
+        throws Exception
+    {
+        ModuleDescriptorCache cache = new ModuleDescriptorCache( "9" );
+        cache.put( jar, JavaModuleDescriptor.newAutomaticModule( "lib" ).build(), null );
+        cache.save( cacheFile );
+
+        cache = new ModuleDescriptorCache( "1.8" );
+        cache.load( cacheFile );
+        assertNull( cache.get( jar ) );
+
+        cache = new ModuleDescriptorCache( "9" );
+        cache.load( cacheFile );
+        assertNotNull( cache.get( jar ) );
+    }
+
+    private static void write( File file, String content )
+        throws IOException
+    {
+        FileOutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( content.getBytes( "UTF-8" ) );
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+}
@@ -22,6 +22,7 @@ package org.apache.maven.plugins.dependency;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
 import java.util.List;
 
 import org.apache.maven.artifact.Artifact;
@@ -32,7 +33,11 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.dependency.utils.ArtifactTask;
+import org.apache.maven.plugins.dependency.utils.ArtifactTaskRunner;
 import org.apache.maven.plugins.dependency.utils.DependencySilentLog;
+import org.apache.maven.plugins.dependency.utils.FileLinker;
+import org.apache.maven.plugins.dependency.utils.markers.ChecksumFileMarkerHandler;
 import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuildingRequest;
@@ -125,6 +130,16 @@ public abstract class AbstractDependencyMojo
     @Parameter( property = "mdep.skip", defaultValue = "false" )
     private boolean skip;
 
+    /**
+     * The number of threads copying or unpacking the artifacts. The artifacts copied to the same file are copied one
+     * after the other, and the artifacts unpacked to the same directory are moved into it in order once unpacked, so
+     * the result is the same as with a single thread.
+     *
+     * @since 3.0.2
+     */
+    @Parameter( property = "mdep.threads", defaultValue = "1" )
+    private int threads = 1;
+
     // Mojo methods -----------------------------------------------------------
 
     /*
@@ -178,6 +193,8 @@ public abstract class AbstractDependencyMojo
                     + "copy should be executed after packaging: see MDEP-187." );
             }
 
+            // a link left by a previous linkMode would write the copy to the repository
+            FileLinker.unlink( artifact, destFile );
             FileUtils.copyFile( artifact, destFile );
         }
         catch ( IOException e )
@@ -297,6 +314,85 @@ public abstract class AbstractDependencyMojo
         }
     }
 
+    /**
+     * Unpacks the archive file to a temporary directory inside the location, then moves the changed files to the
+     * location. The manifest of the unpacked files is recorded by the marker handler.
+     *
+     * @param artifact File to be unpacked.
+     * @param type The type of the artifact.
+     * @param location Location where to put the unpacked files.
+     * @param includes Comma separated list of file patterns to include.
+     * @param excludes Comma separated list of file patterns to exclude.
+     * @param encoding Encoding of artifact. Set {@code null} for default encoding.
+     * @param handler The marker handler of the artifact.
+     * @throws MojoExecutionException with a message if an error occurs.
+     * @since 3.0.2
+     */
+    protected void unpackChanges( Artifact artifact, String type, File location, String includes, String excludes,
+                                  String encoding, ChecksumFileMarkerHandler handler )
+        throws MojoExecutionException
+    {
+        File unpackDirectory;
+        try
+        {
+            location.mkdirs();
+            unpackDirectory = Files.createTempDirectory( location.toPath(), ".mdep-unpack-" ).toFile();
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to create a temporary directory in " + location, e );
+        }
+
+        try
+        {
+            unpack( artifact, type, unpackDirectory, includes, excludes, encoding );
+            moveChanges( artifact, unpackDirectory, location, handler );
+        }
+        finally
+        {
+            try
+            {
+                FileUtils.deleteDirectory( unpackDirectory );
+            }
+            catch ( IOException e )
+            {
+                getLog().debug( "Unable to delete " + unpackDirectory, e );
+            }
+        }
+    }
+
+    /**
+     * Moves the files of an unpacked artifact which differ from the ones of the location to the location, and deletes
+     * the unpack directory. The manifest of the unpacked files is recorded by the marker handler.
+     *
+     * @param artifact The unpacked artifact.
+     * @param unpackDirectory The directory the artifact was unpacked to.
+     * @param location Location where to put the unpacked files.
+     * @param handler The marker handler of the artifact.
+     * @throws MojoExecutionException with a message if an error occurs.
+     * @since 3.0.2
+     */
+    protected void moveChanges( Artifact artifact, File unpackDirectory, File location,
+                                ChecksumFileMarkerHandler handler )
+        throws MojoExecutionException
+    {
+        int moved = handler.moveChanges( unpackDirectory, location );
+        getLog().debug( moved + " of the " + handler.getManifest().size() + " files of " + artifact.getId()
+            + " changed" );
+    }
+
+    /**
+     * Runs the copy or unpack tasks, concurrently when more than one thread is configured.
+     *
+     * @param tasks the tasks, in the order they would run sequentially
+     * @throws MojoExecutionException with a message if an error occurs.
+     */
+    protected void processArtifacts( List<? extends ArtifactTask> tasks )
+        throws MojoExecutionException
+    {
+        new ArtifactTaskRunner( threads ).run( tasks );
+    }
+
     private void silenceUnarchiver( UnArchiver unArchiver )
     {
         // dangerous but handle any errors. It's the only way to silence the unArchiver.
@@ -354,6 +450,16 @@ public abstract class AbstractDependencyMojo
         this.useJvmChmod = useJvmChmod;
     }
 
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
     public boolean isSkip()
     {
         return skip;
@@ -37,6 +37,8 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.artifact.filter.StrictPatternExcludesArtifactFilter;
+import org.apache.maven.shared.dependency.analyzer.ClassAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
 import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzerException;
@@ -226,6 +228,23 @@ public abstract class AbstractAnalyzeMojo
     @Parameter
     private String [] ignoredUnusedDeclaredDependencies = new String[0];
 
+    /**
+     * Index the classes of the dependency jars by checksum, so that the jars shared by the modules of a reactor, and
+     * by the builds, are listed once. Only used with the <code>default</code> analyzer.
+     *
+     * @since 3.0.2
+     */
+    @Parameter( property = "mdep.analyze.useClassIndex", defaultValue = "false" )
+    private boolean useClassIndex;
+
+    /**
+     * The directory of the class index, shared by the builds.
+     *
+     * @since 3.0.2
+     */
+    @Parameter( property = "mdep.analyze.classIndexDirectory",
+                defaultValue = "${user.home}/.m2/dependency-analyzer-index" )
+    private File classIndexDirectory;
 
     // Mojo methods -----------------------------------------------------------
 
@@ -273,6 +292,17 @@ public abstract class AbstractAnalyzeMojo
         {
             final PlexusContainer container = (PlexusContainer) context.get( PlexusConstants.PLEXUS_KEY );
 
+            if ( useClassIndex )
+            {
+                if ( "default".equals( roleHint ) )
+                {
+                    return new IndexedProjectDependencyAnalyzer( new ClassIndex( classIndexDirectory ),
+                                                                 container.lookup( ClassAnalyzer.class ),
+                                                                 container.lookup( DependencyAnalyzer.class ) );
+                }
+                getLog().warn( "The class index is not used with the analyzer " + roleHint );
+            }
+
             return (ProjectDependencyAnalyzer) container.lookup( role, roleHint );
         }
         catch ( Exception exception )
@@ -303,7 +333,14 @@ public abstract class AbstractAnalyzeMojo
         ProjectDependencyAnalysis analysis;
         try
         {
-            analysis = createProjectDependencyAnalyzer().analyze( project );
+            ProjectDependencyAnalyzer projectDependencyAnalyzer = createProjectDependencyAnalyzer();
+            analysis = projectDependencyAnalyzer.analyze( project );
+
+            if ( projectDependencyAnalyzer instanceof IndexedProjectDependencyAnalyzer )
+            {
+                getLog().info( ( (IndexedProjectDependencyAnalyzer) projectDependencyAnalyzer ).getClassIndex()
+                    .getSummary() );
+            }
 
             if ( usedDependencies != null )
             {
@@ -30,6 +30,8 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.AbstractMavenReport;
 import org.apache.maven.reporting.MavenReportException;
+import org.apache.maven.shared.dependency.analyzer.ClassAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
 import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzer;
 import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzerException;
@@ -102,6 +104,36 @@ public class AnalyzeReportMojo
     @Parameter( property = "mdep.analyze.skip", defaultValue = "false" )
     private boolean skip;
 
+    /**
+     * Index the classes of the dependency jars by checksum, so that the jars shared by the modules of a reactor, and
+     * by the builds, are listed once.
+     *
+     * @since 3.0.2
+     */
+    @Parameter( property = "mdep.analyze.useClassIndex", defaultValue = "false" )
+    private boolean useClassIndex;
+
+    /**
+     * The directory of the class index, shared by the builds.
+     *
+     * @since 3.0.2
+     */
+    @Parameter( property = "mdep.analyze.classIndexDirectory",
+                defaultValue = "${user.home}/.m2/dependency-analyzer-index" )
+    private File classIndexDirectory;
+
+    /**
+     * Lists the classes of the output directories of the reactor modules, with the class index.
+     */
+    @Component
+    private ClassAnalyzer classAnalyzer;
+
+    /**
+     * Lists the classes used by the project, with the class index.
+     */
+    @Component
+    private DependencyAnalyzer dependencyAnalyzer;
+
     // Mojo methods -----------------------------------------------------------
 
     /*
@@ -134,7 +166,18 @@ public class AnalyzeReportMojo
         ProjectDependencyAnalysis analysis;
         try
         {
-            analysis = analyzer.analyze( project );
+            if ( useClassIndex )
+            {
+                IndexedProjectDependencyAnalyzer indexedAnalyzer =
+                    new IndexedProjectDependencyAnalyzer( new ClassIndex( classIndexDirectory ), classAnalyzer,
+                                                          dependencyAnalyzer );
+                analysis = indexedAnalyzer.analyze( project );
+                getLog().info( indexedAnalyzer.getClassIndex().getSummary() );
+            }
+            else
+            {
+                analysis = analyzer.analyze( project );
+            }
 
             if ( usedDependencies != null )
             {
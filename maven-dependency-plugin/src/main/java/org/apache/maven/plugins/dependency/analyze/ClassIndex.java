@@ -0,0 +1,229 @@
+package org.apache.maven.plugins.dependency.analyze;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.apache.maven.plugins.dependency.utils.DependencyUtil;
+
+/**
+ * Index of the classes declared by the dependency jars, by SHA-1 of the jar, so that the jars shared by the modules
+ * of a reactor are scanned once. The index is kept in memory for the build and, when a directory is given, on disk for
+ * the next builds.
+ *
+ * @since 3.0.2
+ */
+class ClassIndex
+{
+    private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    /**
+     * The classes of the jars scanned or read during the build, by checksum.
+     */
+    private static final Map<String, Set<String>> CLASSES = new ConcurrentHashMap<String, Set<String>>();
+
+    /**
+     * The checksums of the jars, by path, size and timestamp, so that each jar is hashed once per build.
+     */
+    private static final Map<String, String> CHECKSUMS = new ConcurrentHashMap<String, String>();
+
+    private final File directory;
+
+    private int hits;
+
+    private int misses;
+
+    /**
+     * @param directory the directory of the persistent index, or <code>null</code> to keep it in memory only.
+     */
+    ClassIndex( File directory )
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * @param jar a jar file.
+     * @return the names of the classes of the jar.
+     * @throws IOException if the jar or the index could not be read.
+     */
+    Set<String> getClasses( File jar )
+        throws IOException
+    {
+        String checksum = getChecksum( jar );
+
+        Set<String> classes = CLASSES.get( checksum );
+        if ( classes == null && directory != null )
+        {
+            classes = read( checksum );
+        }
+        if ( classes != null )
+        {
+            hits++;
+        }
+        else
+        {
+            misses++;
+            classes = scan( jar );
+            if ( directory != null )
+            {
+                write( checksum, classes );
+            }
+        }
+        CLASSES.put( checksum, classes );
+        return classes;
+    }
+
+    /**
+     * @return the number of jars found in the index.
+     */
+    int getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * @return the number of jars scanned.
+     */
+    int getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * @return the number of jars found in the index and scanned, with the hit rate.
+     */
+    String getSummary()
+    {
+        int total = hits + misses;
+        return "Class index: " + hits + " of " + total + " dependency jars found ("
+            + ( total == 0 ? 100 : 100 * hits / total ) + "% hit rate), " + misses + " scanned";
+    }
+
+    /**
+     * Clears the index kept in memory.
+     */
+    static void clear()
+    {
+        CLASSES.clear();
+        CHECKSUMS.clear();
+    }
+
+    private static String getChecksum( File jar )
+        throws IOException
+    {
+        String key = jar.getAbsolutePath() + ':' + jar.length() + ':' + jar.lastModified();
+        String checksum = CHECKSUMS.get( key );
+        if ( checksum == null )
+        {
+            checksum = DependencyUtil.checksum( jar );
+            CHECKSUMS.put( key, checksum );
+        }
+        return checksum;
+    }
+
+    private static Set<String> scan( File jar )
+        throws IOException
+    {
+        Set<String> classes = new HashSet<String>();
+        JarFile jarFile = new JarFile( jar );
+        try
+        {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while ( entries.hasMoreElements() )
+            {
+                String entry = entries.nextElement().getName();
+                if ( entry.endsWith( ".class" ) )
+                {
+                    String className = entry.replace( '/', '.' );
+                    classes.add( className.substring( 0, className.length() - ".class".length() ) );
+                }
+            }
+        }
+        finally
+        {
+            jarFile.close();
+        }
+        return Collections.unmodifiableSet( classes );
+    }
+
+    private Path getIndexFile( String checksum )
+    {
+        return new File( directory, checksum.substring( 0, 2 ) + File.separator + checksum + ".classes" ).toPath();
+    }
+
+    private Set<String> read( String checksum )
+    {
+        try
+        {
+            return Collections.unmodifiableSet( new HashSet<String>( Files.readAllLines( getIndexFile( checksum ),
+                                                                                          UTF_8 ) ) );
+        }
+        catch ( IOException e )
+        {
+            // not indexed yet, or unreadable: the jar is scanned again
+            return null;
+        }
+    }
+
+    private void write( String checksum, Set<String> classes )
+        throws IOException
+    {
+        Path file = getIndexFile( checksum );
+        Files.createDirectories( file.getParent() );
+
+        List<String> lines = new ArrayList<String>( classes );
+        Collections.sort( lines );
+
+        // another build may write the same file
+        Path temp = Files.createTempFile( file.getParent(), checksum, ".tmp" );
+        try
+        {
+            Files.write( temp, lines, UTF_8 );
+            try
+            {
+                Files.move( temp, file, StandardCopyOption.ATOMIC_MOVE );
+            }
+            catch ( AtomicMoveNotSupportedException e )
+            {
+                Files.move( temp, file, StandardCopyOption.REPLACE_EXISTING );
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists( temp );
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.apache.maven.plugins.dependency.analyze;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.analyzer.ClassAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.DependencyAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalysis;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzer;
+import org.apache.maven.shared.dependency.analyzer.ProjectDependencyAnalyzerException;
+
+/**
+ * The analysis of the default project dependency analyzer, with the classes of the dependency jars taken from a
+ * {@link ClassIndex} instead of being listed again for each module.
+ *
+ * @since 3.0.2
+ */
+class IndexedProjectDependencyAnalyzer
+    implements ProjectDependencyAnalyzer
+{
+    private final ClassIndex classIndex;
+
+    private final ClassAnalyzer classAnalyzer;
+
+    private final DependencyAnalyzer dependencyAnalyzer;
+
+    IndexedProjectDependencyAnalyzer( ClassIndex classIndex, ClassAnalyzer classAnalyzer,
+                                      DependencyAnalyzer dependencyAnalyzer )
+    {
+        this.classIndex = classIndex;
+        this.classAnalyzer = classAnalyzer;
+        this.dependencyAnalyzer = dependencyAnalyzer;
+    }
+
+    /**
+     * @return the class index, with the number of jars found in it.
+     */
+    ClassIndex getClassIndex()
+    {
+        return classIndex;
+    }
+
+    @Override
+    public ProjectDependencyAnalysis analyze( MavenProject project )
+        throws ProjectDependencyAnalyzerException
+    {
+        try
+        {
+            Map<String, Artifact> classArtifacts = buildClassArtifactMap( project );
+            Set<String> dependencyClasses = buildDependencyClasses( project );
+
+            Set<Artifact> declaredArtifacts = new LinkedHashSet<Artifact>();
+            if ( project.getDependencyArtifacts() != null )
+            {
+                declaredArtifacts.addAll( project.getDependencyArtifacts() );
+            }
+
+            Set<Artifact> usedArtifacts = new LinkedHashSet<Artifact>();
+            for ( String className : dependencyClasses )
+            {
+                Artifact artifact = classArtifacts.get( className );
+                if ( artifact != null )
+                {
+                    usedArtifacts.add( artifact );
+                }
+            }
+
+            Set<Artifact> usedDeclaredArtifacts = new LinkedHashSet<Artifact>( declaredArtifacts );
+            usedDeclaredArtifacts.retainAll( usedArtifacts );
+
+            Set<Artifact> usedUndeclaredArtifacts = new LinkedHashSet<Artifact>( usedArtifacts );
+            usedUndeclaredArtifacts.removeAll( declaredArtifacts );
+
+            Set<Artifact> unusedDeclaredArtifacts = new LinkedHashSet<Artifact>( declaredArtifacts );
+            unusedDeclaredArtifacts.removeAll( usedArtifacts );
+
+            return new ProjectDependencyAnalysis( usedDeclaredArtifacts, usedUndeclaredArtifacts,
+                                                  unusedDeclaredArtifacts );
+        }
+        catch ( IOException exception )
+        {
+            throw new ProjectDependencyAnalyzerException( "Cannot analyze dependencies", exception );
+        }
+    }
+
+    /**
+     * @return the classes of the dependencies, mapped to the first artifact declaring them.
+     */
+    private Map<String, Artifact> buildClassArtifactMap( MavenProject project )
+        throws IOException
+    {
+        Map<String, Artifact> classArtifacts = new HashMap<String, Artifact>();
+        for ( Artifact artifact : project.getArtifacts() )
+        {
+            File file = artifact.getFile();
+            Set<String> classes;
+            if ( file != null && file.getName().endsWith( ".jar" ) )
+            {
+                classes = classIndex.getClasses( file );
+            }
+            else if ( file != null && file.isDirectory() )
+            {
+                // the output directory of a module of the reactor, which changes from a build to the other
+                classes = classAnalyzer.analyze( file.toURI().toURL() );
+            }
+            else
+            {
+                continue;
+            }
+
+            for ( String className : classes )
+            {
+                if ( !classArtifacts.containsKey( className ) )
+                {
+                    classArtifacts.put( className, artifact );
+                }
+            }
+        }
+        return classArtifacts;
+    }
+
+    private Set<String> buildDependencyClasses( MavenProject project )
+        throws IOException
+    {
+        Set<String> dependencyClasses = new LinkedHashSet<String>();
+        dependencyClasses.addAll( buildDependencyClasses( project.getBuild().getOutputDirectory() ) );
+        dependencyClasses.addAll( buildDependencyClasses( project.getBuild().getTestOutputDirectory() ) );
+        return dependencyClasses;
+    }
+
+    private Set<String> buildDependencyClasses( String path )
+        throws IOException
+    {
+        return dependencyAnalyzer.analyze( new File( path ).toURI().toURL() );
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.maven.plugins.dependency.fromConfiguration;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.dependency.utils.ArtifactTask;
 import org.apache.maven.plugins.dependency.utils.filters.ArtifactItemFilter;
 import org.apache.maven.plugins.dependency.utils.filters.DestFileFilter;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
@@ -28,6 +29,7 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -107,17 +109,28 @@ public class CopyMojo
         List<ArtifactItem> theArtifactItems =
             getProcessedArtifactItems( new ProcessArtifactItemsRequest( stripVersion, prependGroupId,
                                                                         useBaseVersion, stripClassifier ) );
-        for ( ArtifactItem artifactItem : theArtifactItems )
+        List<ArtifactTask> tasks = new ArrayList<ArtifactTask>( theArtifactItems.size() );
+        for ( final ArtifactItem artifactItem : theArtifactItems )
         {
             if ( artifactItem.isNeedsProcessing() )
             {
-                copyArtifact( artifactItem );
+                tasks.add( new ArtifactTask( getDestFile( artifactItem ), false )
+                {
+                    @Override
+                    public void process( File location )
+                        throws MojoExecutionException
+                    {
+                        // the copies are never made to a temporary location
+                        copyArtifact( artifactItem );
+                    }
+                } );
             }
             else
             {
                 this.getLog().info( artifactItem + " already exists in " + artifactItem.getOutputDirectory() );
             }
         }
+        processArtifacts( tasks );
     }
 
     /**
@@ -130,9 +143,12 @@ public class CopyMojo
     protected void copyArtifact( ArtifactItem artifactItem )
         throws MojoExecutionException
     {
-        File destFile = new File( artifactItem.getOutputDirectory(), artifactItem.getDestFileName() );
+        copyFile( artifactItem.getArtifact().getFile(), getDestFile( artifactItem ) );
+    }
 
-        copyFile( artifactItem.getArtifact().getFile(), destFile );
+    private File getDestFile( ArtifactItem artifactItem )
+    {
+        return new File( artifactItem.getOutputDirectory(), artifactItem.getDestFileName() );
     }
 
     @Override
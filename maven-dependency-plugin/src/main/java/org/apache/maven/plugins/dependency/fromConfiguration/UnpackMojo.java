@@ -21,8 +21,10 @@ package org.apache.maven.plugins.dependency.fromConfiguration;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.dependency.utils.ArtifactTask;
 import org.apache.maven.plugins.dependency.utils.filters.ArtifactItemFilter;
 import org.apache.maven.plugins.dependency.utils.filters.MarkerFileFilter;
+import org.apache.maven.plugins.dependency.utils.markers.ChecksumFileMarkerHandler;
 import org.apache.maven.plugins.dependency.utils.markers.MarkerHandler;
 import org.apache.maven.plugins.dependency.utils.markers.UnpackFileMarkerHandler;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
@@ -31,6 +33,7 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.codehaus.plexus.util.StringUtils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -73,6 +76,16 @@ public class UnpackMojo
     @Parameter( property = "mdep.unpack.excludes" )
     private String excludes;
 
+    /**
+     * Record the checksum of each artifact and of its unpacked files in its marker. An artifact is then unpacked again
+     * only if its content, its includes, excludes or encoding changed, whatever its timestamp, and only its changed
+     * files are rewritten, the files removed from the artifact being deleted.
+     *
+     * @since 3.0.2
+     */
+    @Parameter( property = "mdep.useChecksumMarkers", defaultValue = "false" )
+    private boolean useChecksumMarkers;
+
     /**
      * The artifact to unpack from command line. A string of the form
      * <code>groupId:artifactId:version[:packaging[:classifier]]</code>. Use {@link #artifactItems} within the
@@ -89,7 +102,7 @@ public class UnpackMojo
      * @throws MojoExecutionException with a message if an error occurs.
      * @see ArtifactItem
      * @see #getArtifactItems
-     * @see #unpackArtifact(ArtifactItem)
+     * @see #unpackArtifact(ArtifactItem, File)
      */
     @Override
     protected void doExecute()
@@ -103,45 +116,115 @@ public class UnpackMojo
         verifyRequirements();
 
         List<ArtifactItem> processedItems = getProcessedArtifactItems( false );
-        for ( ArtifactItem artifactItem : processedItems )
+        List<ArtifactTask> tasks = new ArrayList<ArtifactTask>( processedItems.size() );
+        for ( final ArtifactItem artifactItem : processedItems )
         {
             if ( artifactItem.isNeedsProcessing() )
             {
-                unpackArtifact( artifactItem );
+                final ChecksumFileMarkerHandler checksumHandler =
+                    useChecksumMarkers ? createChecksumMarkerHandler( artifactItem ) : null;
+                tasks.add( new ArtifactTask( artifactItem.getOutputDirectory(), true )
+                {
+                    @Override
+                    public void process( File location )
+                        throws MojoExecutionException
+                    {
+                        if ( checksumHandler != null && location.equals( getTarget() ) )
+                        {
+                            unpackChanges( artifactItem.getArtifact(), artifactItem.getType(), location,
+                                           artifactItem.getIncludes(), artifactItem.getExcludes(),
+                                           artifactItem.getEncoding(), checksumHandler );
+                        }
+                        else
+                        {
+                            // a temporary directory: the changes are picked by moveContent() against the target
+                            unpackArtifact( artifactItem, location );
+                        }
+                    }
+
+                    @Override
+                    public void moveContent( File location )
+                        throws MojoExecutionException
+                    {
+                        if ( checksumHandler != null )
+                        {
+                            moveChanges( artifactItem.getArtifact(), location, getTarget(), checksumHandler );
+                        }
+                        else
+                        {
+                            super.moveContent( location );
+                        }
+                    }
+
+                    @Override
+                    public void completed()
+                        throws MojoExecutionException
+                    {
+                        if ( checksumHandler != null )
+                        {
+                            checksumHandler.deleteRemovedFiles( getTarget() );
+                            checksumHandler.setMarker();
+                        }
+                        else
+                        {
+                            new UnpackFileMarkerHandler( artifactItem, markersDirectory ).setMarker();
+                        }
+                    }
+                } );
             }
             else
             {
                 this.getLog().info( artifactItem.getArtifact().getFile().getName() + " already unpacked." );
             }
         }
+        processArtifacts( tasks );
     }
 
     /**
      * This method gets the Artifact object and calls DependencyUtil.unpackFile.
      *
      * @param artifactItem containing the information about the Artifact to unpack.
+     * @param location the directory to unpack the artifact to.
      * @throws MojoExecutionException with a message if an error occurs.
      * @see #getArtifact
      */
-    private void unpackArtifact( ArtifactItem artifactItem )
+    private void unpackArtifact( ArtifactItem artifactItem, File location )
         throws MojoExecutionException
     {
-        MarkerHandler handler = new UnpackFileMarkerHandler( artifactItem, this.markersDirectory );
-
-        unpack( artifactItem.getArtifact(), artifactItem.getType(), artifactItem.getOutputDirectory(),
-                artifactItem.getIncludes(), artifactItem.getExcludes(), artifactItem.getEncoding() );
-        handler.setMarker();
+        unpack( artifactItem.getArtifact(), artifactItem.getType(), location, artifactItem.getIncludes(),
+                artifactItem.getExcludes(), artifactItem.getEncoding() );
     }
 
     @Override
     ArtifactItemFilter getMarkedArtifactFilter( ArtifactItem item )
     {
-        MarkerHandler handler = new UnpackFileMarkerHandler( item, this.markersDirectory );
+        MarkerHandler handler;
+        if ( useChecksumMarkers )
+        {
+            // the includes and excludes of the item are not defaulted yet
+            handler = new ChecksumFileMarkerHandler( item.getArtifact(), this.markersDirectory,
+                                                     StringUtils.isEmpty( item.getIncludes() ) ? getIncludes()
+                                                                     : item.getIncludes(),
+                                                     StringUtils.isEmpty( item.getExcludes() ) ? getExcludes()
+                                                                     : item.getExcludes(),
+                                                     item.getEncoding() );
+        }
+        else
+        {
+            handler = new UnpackFileMarkerHandler( item, this.markersDirectory );
+        }
 
         return new MarkerFileFilter( this.isOverWriteReleases(), this.isOverWriteSnapshots(), this.isOverWriteIfNewer(),
                                      handler );
     }
 
+    private ChecksumFileMarkerHandler createChecksumMarkerHandler( ArtifactItem artifactItem )
+    {
+        return new ChecksumFileMarkerHandler( artifactItem.getArtifact(), this.markersDirectory,
+                                              artifactItem.getIncludes(), artifactItem.getExcludes(),
+                                              artifactItem.getEncoding() );
+    }
+
     protected List<ArtifactItem> getProcessedArtifactItems( boolean removeVersion )
         throws MojoExecutionException
     {
@@ -208,4 +291,22 @@ public class UnpackMojo
     {
         this.includes = includes;
     }
+
+    /**
+     * @param useChecksumMarkers Whether the markers record the checksums of the artifacts and of their files.
+     * @since 3.0.2
+     */
+    public void setUseChecksumMarkers( boolean useChecksumMarkers )
+    {
+        this.useChecksumMarkers = useChecksumMarkers;
+    }
+
+    /**
+     * @return Returns whether the markers record the checksums of the artifacts and of their files.
+     * @since 3.0.2
+     */
+    public boolean isUseChecksumMarkers()
+    {
+        return this.useChecksumMarkers;
+    }
 }
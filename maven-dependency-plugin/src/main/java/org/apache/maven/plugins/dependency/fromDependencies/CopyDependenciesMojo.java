@@ -22,8 +22,10 @@ package org.apache.maven.plugins.dependency.fromDependencies;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.layout.ArtifactRepositoryLayout;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.dependency.utils.ArtifactTask;
 import org.apache.maven.plugins.dependency.utils.DependencyStatusSets;
 import org.apache.maven.plugins.dependency.utils.DependencyUtil;
+import org.apache.maven.plugins.dependency.utils.FileLinker;
 import org.apache.maven.plugins.dependency.utils.filters.DestFileFilter;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
@@ -38,9 +40,13 @@ import org.apache.maven.shared.artifact.install.ArtifactInstallerException;
 import org.apache.maven.shared.artifact.resolve.ArtifactResolverException;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Goal that copies the project dependencies from the repository to a defined
@@ -103,6 +109,20 @@ public class CopyDependenciesMojo
     @Parameter
     protected boolean ignorePermissions;
 
+    /**
+     * How the artifacts are materialized in the output directory: <code>copy</code>, <code>hardlink</code>,
+     * <code>symlink</code> or <code>reflink</code> (a copy on write clone, on btrfs, xfs or apfs). The artifacts
+     * are copied when they cannot be linked, for instance when the output directory is not on the file system of the
+     * local repository. The linked files must not be modified, as they are the files of the local repository, except
+     * with <code>reflink</code>.
+     *
+     * @since 3.0.2
+     */
+    @Parameter( property = "mdep.linkMode", defaultValue = "copy" )
+    protected String linkMode = FileLinker.COPY;
+
+    private final AtomicBoolean linkFallbackLogged = new AtomicBoolean();
+
     /**
      * Main entry into mojo. Gets the list of dependencies and iterates through
      * calling copyArtifact.
@@ -115,16 +135,35 @@ public class CopyDependenciesMojo
     protected void doExecute()
         throws MojoExecutionException
     {
+        if ( !FileLinker.isValidMode( linkMode ) )
+        {
+            throw new MojoExecutionException( "Unknown linkMode '" + linkMode
+                + "', expected copy, hardlink, symlink or reflink" );
+        }
+
         DependencyStatusSets dss = getDependencySets( this.failOnMissingClassifierArtifact, addParentPoms );
         Set<Artifact> artifacts = dss.getResolvedDependencies();
 
         if ( !useRepositoryLayout )
         {
-            for ( Artifact artifact : artifacts )
+            List<ArtifactTask> tasks = new ArrayList<ArtifactTask>( artifacts.size() );
+            for ( final Artifact artifact : artifacts )
             {
-                copyArtifact( artifact, isStripVersion(), this.prependGroupId, this.useBaseVersion,
-                              this.stripClassifier );
+                File destFile = getDestFile( artifact, isStripVersion(), this.prependGroupId, this.useBaseVersion,
+                                             this.stripClassifier );
+                tasks.add( new ArtifactTask( destFile, false )
+                {
+                    @Override
+                    public void process( File location )
+                        throws MojoExecutionException
+                    {
+                        // the copies are never made to a temporary location
+                        copyArtifact( artifact, isStripVersion(), prependGroupId, useBaseVersion,
+                                      stripClassifier );
+                    }
+                } );
             }
+            processArtifacts( tasks );
         }
         else
         {
@@ -238,7 +277,48 @@ public class CopyDependenciesMojo
                                  boolean useBaseVersion, boolean removeClassifier )
         throws MojoExecutionException
     {
+        copyFile( artifact.getFile(),
+                  getDestFile( artifact, removeVersion, prependGroupId, useBaseVersion, removeClassifier ) );
+    }
 
+    /**
+     * Links the file to the destination with the configured {@link #linkMode}, or copies it.
+     */
+    @Override
+    protected void copyFile( File artifact, File destFile )
+        throws MojoExecutionException
+    {
+        if ( FileLinker.COPY.equals( linkMode ) || artifact.isDirectory() )
+        {
+            super.copyFile( artifact, destFile );
+            return;
+        }
+
+        try
+        {
+            if ( FileLinker.link( artifact, destFile, linkMode ) )
+            {
+                getLog().info( "Linking " + ( this.outputAbsoluteArtifactFilename ? artifact.getAbsolutePath()
+                                               : artifact.getName() ) + " to " + destFile );
+                return;
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Error linking artifact from " + artifact + " to " + destFile, e );
+        }
+
+        if ( linkFallbackLogged.compareAndSet( false, true ) )
+        {
+            getLog().warn( "Unable to " + linkMode + " " + artifact + " to " + destFile
+                + ", the artifacts that cannot be linked are copied" );
+        }
+        super.copyFile( artifact, destFile );
+    }
+
+    private File getDestFile( Artifact artifact, boolean removeVersion, boolean prependGroupId,
+                              boolean useBaseVersion, boolean removeClassifier )
+    {
         String destFileName = DependencyUtil.getFormattedFileName( artifact, removeVersion, prependGroupId, 
                 useBaseVersion, removeClassifier );
 
@@ -246,9 +326,7 @@ public class CopyDependenciesMojo
         destDir = DependencyUtil.getFormattedOutputDirectory( useSubDirectoryPerScope, useSubDirectoryPerType,
                                                               useSubDirectoryPerArtifact, useRepositoryLayout,
                                                               stripVersion, outputDirectory, artifact );
-        File destFile = new File( destDir, destFileName );
-
-        copyFile( artifact.getFile(), destFile );
+        return new File( destDir, destFileName );
     }
     
     /**
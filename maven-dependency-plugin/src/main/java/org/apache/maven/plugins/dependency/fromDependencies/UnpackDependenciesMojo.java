@@ -21,10 +21,13 @@ package org.apache.maven.plugins.dependency.fromDependencies;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.dependency.utils.ArtifactTask;
 import org.apache.maven.plugins.dependency.utils.DependencyStatusSets;
 import org.apache.maven.plugins.dependency.utils.DependencyUtil;
 import org.apache.maven.plugins.dependency.utils.filters.MarkerFileFilter;
+import org.apache.maven.plugins.dependency.utils.markers.ChecksumFileMarkerHandler;
 import org.apache.maven.plugins.dependency.utils.markers.DefaultFileMarkerHandler;
+import org.apache.maven.plugins.dependency.utils.markers.MarkerHandler;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -32,6 +35,8 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.shared.artifact.filter.collection.ArtifactsFilter;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Goal that unpacks the project dependencies from the repository to a defined
@@ -75,6 +80,16 @@ public class UnpackDependenciesMojo
     @Parameter( property = "mdep.unpack.encoding" )
     private String encoding;
 
+    /**
+     * Record the checksum of each artifact and of its unpacked files in its marker. An artifact is then unpacked again
+     * only if its content, the includes, excludes or encoding changed, whatever its timestamp, and only its changed
+     * files are rewritten, the files removed from the artifact being deleted.
+     *
+     * @since 3.0.2
+     */
+    @Parameter( property = "mdep.useChecksumMarkers", defaultValue = "false" )
+    private boolean useChecksumMarkers;
+
     /**
      * Main entry into mojo. This method gets the dependencies and iterates
      * through each one passing it to DependencyUtil.unpackFile().
@@ -89,16 +104,67 @@ public class UnpackDependenciesMojo
     {
         DependencyStatusSets dss = getDependencySets( this.failOnMissingClassifierArtifact );
 
-        for ( Artifact artifact : dss.getResolvedDependencies() )
+        List<ArtifactTask> tasks = new ArrayList<ArtifactTask>();
+        for ( final Artifact artifact : dss.getResolvedDependencies() )
         {
             File destDir;
             destDir = DependencyUtil.getFormattedOutputDirectory( useSubDirectoryPerScope, useSubDirectoryPerType,
                                                                   useSubDirectoryPerArtifact, useRepositoryLayout,
                                                                   stripVersion, outputDirectory, artifact );
-            unpack( artifact, destDir, getIncludes(), getExcludes(), getEncoding() );
-            DefaultFileMarkerHandler handler = new DefaultFileMarkerHandler( artifact, this.markersDirectory );
-            handler.setMarker();
+            final ChecksumFileMarkerHandler checksumHandler = useChecksumMarkers
+                ? new ChecksumFileMarkerHandler( artifact, markersDirectory, getIncludes(), getExcludes(),
+                                                 getEncoding() )
+                : null;
+            tasks.add( new ArtifactTask( destDir, true )
+            {
+                @Override
+                public void process( File location )
+                    throws MojoExecutionException
+                {
+                    if ( checksumHandler != null && location.equals( getTarget() ) )
+                    {
+                        unpackChanges( artifact, artifact.getType(), location, getIncludes(), getExcludes(),
+                                       getEncoding(), checksumHandler );
+                    }
+                    else
+                    {
+                        // a temporary directory: the changes are picked by moveContent() against the target
+                        unpack( artifact, location, getIncludes(), getExcludes(), getEncoding() );
+                    }
+                }
+
+                @Override
+                public void moveContent( File location )
+                    throws MojoExecutionException
+                {
+                    if ( checksumHandler != null )
+                    {
+                        moveChanges( artifact, location, getTarget(), checksumHandler );
+                    }
+                    else
+                    {
+                        super.moveContent( location );
+                    }
+                }
+
+                @Override
+                public void completed()
+                    throws MojoExecutionException
+                {
+                    if ( checksumHandler != null )
+                    {
+                        checksumHandler.deleteRemovedFiles( getTarget() );
+                        checksumHandler.setMarker();
+                    }
+                    else
+                    {
+                        DefaultFileMarkerHandler handler = new DefaultFileMarkerHandler( artifact, markersDirectory );
+                        handler.setMarker();
+                    }
+                }
+            } );
         }
+        processArtifacts( tasks );
 
         for ( Artifact artifact : dss.getSkippedDependencies() )
         {
@@ -109,8 +175,11 @@ public class UnpackDependenciesMojo
     @Override
     protected ArtifactsFilter getMarkedArtifactFilter()
     {
+        MarkerHandler handler = useChecksumMarkers
+            ? new ChecksumFileMarkerHandler( this.markersDirectory, getIncludes(), getExcludes(), getEncoding() )
+            : new DefaultFileMarkerHandler( this.markersDirectory );
         return new MarkerFileFilter( this.overWriteReleases, this.overWriteSnapshots, this.overWriteIfNewer,
-                                     new DefaultFileMarkerHandler( this.markersDirectory ) );
+                                     handler );
     }
 
     /**
@@ -164,4 +233,22 @@ public class UnpackDependenciesMojo
     {
         return this.encoding;
     }
+
+    /**
+     * @param useChecksumMarkers Whether the markers record the checksums of the artifacts and of their files.
+     * @since 3.0.2
+     */
+    public void setUseChecksumMarkers( boolean useChecksumMarkers )
+    {
+        this.useChecksumMarkers = useChecksumMarkers;
+    }
+
+    /**
+     * @return Returns whether the markers record the checksums of the artifacts and of their files.
+     * @since 3.0.2
+     */
+    public boolean isUseChecksumMarkers()
+    {
+        return this.useChecksumMarkers;
+    }
 }
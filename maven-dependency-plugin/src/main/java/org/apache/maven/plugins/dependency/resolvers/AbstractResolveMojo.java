@@ -20,20 +20,26 @@ package org.apache.maven.plugins.dependency.resolvers;
  */
 
 import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.dependency.fromDependencies.AbstractDependencyFilterMojo;
 import org.apache.maven.plugins.dependency.utils.DependencyUtil;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.shared.artifact.ArtifactCoordinate;
 import org.apache.maven.shared.artifact.filter.collection.ArtifactIdFilter;
 import org.apache.maven.shared.artifact.filter.collection.ClassifierFilter;
 import org.apache.maven.shared.artifact.filter.collection.FilterArtifacts;
 import org.apache.maven.shared.artifact.filter.collection.GroupIdFilter;
 import org.apache.maven.shared.artifact.filter.collection.TypeFilter;
+import org.apache.maven.shared.artifact.resolve.ArtifactResolverException;
 import org.apache.maven.shared.artifact.resolve.ArtifactResult;
 import org.apache.maven.shared.dependencies.DependableCoordinate;
 import org.apache.maven.shared.dependencies.resolve.DependencyResolverException;
@@ -95,6 +101,26 @@ public abstract class AbstractResolveMojo
     @Parameter
     protected boolean ignorePermissions;
 
+    /**
+     * Collect the whole set of artifacts to resolve first, then resolve it with <code>prefetchThreads</code> threads
+     * instead of one artifact after the other, and log the number of artifacts, their size and the time spent. The set
+     * is made of the plugins and reports with their dependencies for <code>resolve-plugins</code> and
+     * <code>go-offline</code>, and of the artifacts of the <code>classifier</code> for <code>resolve</code> and
+     * <code>sources</code>.
+     *
+     * @since 3.0.2
+     */
+    @Parameter( property = "mdep.prefetch", defaultValue = "false" )
+    protected boolean prefetch;
+
+    /**
+     * The number of artifacts resolved concurrently when prefetching.
+     *
+     * @since 3.0.2
+     */
+    @Parameter( property = "mdep.prefetchThreads", defaultValue = "5" )
+    protected int prefetchThreads = 5;
+
     protected FilterArtifacts getPluginArtifactsFilter()
     {
         if ( excludeReactor )
@@ -169,4 +195,59 @@ public abstract class AbstractResolveMojo
         return artifacts;
 
     }
+
+    /**
+     * Resolves the artifacts of the specified coordinates, concurrently when prefetching.
+     */
+    @Override
+    protected Set<Artifact> resolve( Set<ArtifactCoordinate> coordinates, boolean stopOnFailure )
+        throws MojoExecutionException
+    {
+        if ( !prefetch )
+        {
+            return super.resolve( coordinates, stopOnFailure );
+        }
+
+        final ProjectBuildingRequest buildingRequest = newResolveArtifactProjectBuildingRequest();
+        ArtifactPrefetcher<ArtifactCoordinate> prefetcher =
+            new ArtifactPrefetcher<ArtifactCoordinate>( prefetchThreads )
+            {
+                @Override
+                protected Collection<Artifact> resolve( ArtifactCoordinate coordinate )
+                    throws MojoExecutionException
+                {
+                    try
+                    {
+                        ArtifactResult result = getArtifactResolver().resolveArtifact( buildingRequest, coordinate );
+                        return Collections.singleton( result.getArtifact() );
+                    }
+                    catch ( ArtifactResolverException ex )
+                    {
+                        throw new MojoExecutionException( "error resolving: " + coordinate, ex );
+                    }
+                }
+            };
+
+        Set<Artifact> resolvedArtifacts = new LinkedHashSet<Artifact>();
+        for ( Collection<Artifact> artifacts : prefetcher.prefetch( coordinates, stopOnFailure ).values() )
+        {
+            resolvedArtifacts.addAll( artifacts );
+        }
+        for ( Map.Entry<ArtifactCoordinate, MojoExecutionException> failure : prefetcher.getFailures().entrySet() )
+        {
+            // an error occurred during resolution, log it and continue
+            getLog().debug( "error resolving: " + failure.getKey() );
+            getLog().debug( failure.getValue().getCause() );
+        }
+        logPrefetchSummary( prefetcher );
+        return resolvedArtifacts;
+    }
+
+    void logPrefetchSummary( ArtifactPrefetcher<?> prefetcher )
+    {
+        if ( !isSilent() )
+        {
+            getLog().info( prefetcher.getSummary() );
+        }
+    }
 }
@@ -0,0 +1,230 @@
+package org.apache.maven.plugins.dependency.resolvers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Resolves a set of artifacts, or of coordinates whose dependencies are resolved, with a bounded number of threads:
+ * the whole set is collected first and handed to the threads, which take the next one as soon as they are done, so
+ * that the latency of the repositories is not paid once per artifact. The results are returned in the order of the
+ * set, whatever the order they were resolved in.
+ *
+ * @param <K> the type of what is resolved.
+ * @since 3.0.2
+ */
+abstract class ArtifactPrefetcher<K>
+{
+    private final int threads;
+
+    private final Map<K, MojoExecutionException> failures = new LinkedHashMap<K, MojoExecutionException>();
+
+    private final Set<File> files = new HashSet<File>();
+
+    private long bytes;
+
+    private long time;
+
+    /**
+     * @param threads the maximum number of resolutions running concurrently.
+     */
+    ArtifactPrefetcher( int threads )
+    {
+        this.threads = Math.max( 1, threads );
+    }
+
+    /**
+     * Resolves one element of the set. Called concurrently.
+     *
+     * @param key an element of the set.
+     * @return the resolved artifacts.
+     * @throws MojoExecutionException with a message if the resolution failed.
+     */
+    protected abstract Collection<Artifact> resolve( K key )
+        throws MojoExecutionException;
+
+    /**
+     * Resolves the specified set.
+     *
+     * @param keys the set to resolve.
+     * @param stopOnFailure whether a failure stops the resolution, or is recorded in {@link #getFailures()}.
+     * @return the resolved artifacts, in the order of the set, without the failures.
+     * @throws MojoExecutionException with the first failure, in the order of the set, when stopping on failure.
+     */
+    Map<K, Collection<Artifact>> prefetch( Collection<K> keys, boolean stopOnFailure )
+        throws MojoExecutionException
+    {
+        long start = System.currentTimeMillis();
+        Map<K, Collection<Artifact>> results = new LinkedHashMap<K, Collection<Artifact>>();
+        if ( keys.isEmpty() )
+        {
+            return results;
+        }
+
+        List<Future<Collection<Artifact>>> futures = new ArrayList<Future<Collection<Artifact>>>( keys.size() );
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, keys.size() ) );
+        try
+        {
+            for ( final K key : keys )
+            {
+                futures.add( executor.submit( new Callable<Collection<Artifact>>()
+                {
+                    @Override
+                    public Collection<Artifact> call()
+                        throws MojoExecutionException
+                    {
+                        return resolve( key );
+                    }
+                } ) );
+            }
+
+            int i = 0;
+            for ( K key : keys )
+            {
+                try
+                {
+                    Collection<Artifact> artifacts = await( futures.get( i++ ) );
+                    results.put( key, artifacts );
+                    count( artifacts );
+                }
+                catch ( MojoExecutionException e )
+                {
+                    if ( stopOnFailure )
+                    {
+                        throw e;
+                    }
+                    failures.put( key, e );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+            time += System.currentTimeMillis() - start;
+        }
+        return results;
+    }
+
+    /**
+     * @return the failures which did not stop the resolution, in the order of the set.
+     */
+    Map<K, MojoExecutionException> getFailures()
+    {
+        return failures;
+    }
+
+    /**
+     * @return the number of distinct artifact files resolved.
+     */
+    int getArtifactCount()
+    {
+        return files.size();
+    }
+
+    /**
+     * @return the size of the distinct artifact files resolved.
+     */
+    long getBytes()
+    {
+        return bytes;
+    }
+
+    /**
+     * @return the number of artifacts resolved, with their size and the time spent.
+     */
+    String getSummary()
+    {
+        return String.format( Locale.ENGLISH, "Prefetched %d artifacts (%s) in %.2f s with %d threads",
+                              files.size(), formatBytes( bytes ), time / 1000.0, threads );
+    }
+
+    private void count( Collection<Artifact> artifacts )
+    {
+        for ( Artifact artifact : artifacts )
+        {
+            // the plugins share most of their dependencies
+            File file = artifact.getFile();
+            if ( file != null && file.isFile() && files.add( file.getAbsoluteFile() ) )
+            {
+                bytes += file.length();
+            }
+        }
+    }
+
+    static String formatBytes( long bytes )
+    {
+        if ( bytes < 1024 )
+        {
+            return bytes + " B";
+        }
+        if ( bytes < 1024 * 1024 )
+        {
+            return String.format( Locale.ENGLISH, "%.1f kB", bytes / 1024.0 );
+        }
+        return String.format( Locale.ENGLISH, "%.1f MB", bytes / ( 1024.0 * 1024.0 ) );
+    }
+
+    private static Collection<Artifact> await( Future<Collection<Artifact>> future )
+        throws MojoExecutionException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while resolving artifacts", e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof MojoExecutionException )
+            {
+                throw (MojoExecutionException) cause;
+            }
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw new MojoExecutionException( cause.getMessage(), cause );
+        }
+    }
+}
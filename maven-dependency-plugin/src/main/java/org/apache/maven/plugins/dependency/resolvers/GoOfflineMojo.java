@@ -32,6 +32,8 @@ import java.util.Set;
 /**
  * Goal that resolves all project dependencies, including plugins and reports
  * and their dependencies.
+ * With <code>-Dmdep.prefetch</code>, the plugins and reports are resolved with their
+ * dependencies by several threads.
  *
  * @author <a href="mailto:brianf@apache.org">Brian Fox</a>
  * @version $Id$
@@ -20,8 +20,12 @@ package org.apache.maven.plugins.dependency.resolvers;
  */
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
@@ -71,7 +75,18 @@ public class ResolvePluginsMojo
         try
         {
             // ideally this should either be DependencyCoordinates or DependencyNode
-            final Set<Artifact> plugins = resolvePluginArtifacts();
+            final Set<Artifact> plugins;
+            final Map<Artifact, Collection<Artifact>> pluginDependencies;
+            if ( prefetch )
+            {
+                pluginDependencies = prefetchPluginArtifacts();
+                plugins = pluginDependencies.keySet();
+            }
+            else
+            {
+                plugins = resolvePluginArtifacts();
+                pluginDependencies = null;
+            }
 
             StringBuilder sb = new StringBuilder();
             sb.append( "\n" );
@@ -104,12 +119,11 @@ public class ResolvePluginsMojo
 
                     if ( !excludeTransitive )
                     {
-                        DefaultDependableCoordinate pluginCoordinate = new DefaultDependableCoordinate();
-                        pluginCoordinate.setGroupId( plugin.getGroupId() );
-                        pluginCoordinate.setArtifactId( plugin.getArtifactId() );
-                        pluginCoordinate.setVersion( plugin.getVersion() );
+                        Collection<Artifact> dependencies =
+                            pluginDependencies != null ? pluginDependencies.get( plugin )
+                                            : resolveArtifactDependencies( toDependableCoordinate( plugin ) );
 
-                        for ( final Artifact artifact : resolveArtifactDependencies( pluginCoordinate ) )
+                        for ( final Artifact artifact : dependencies )
                         {
                             artifactFilename = null;
                             if ( outputAbsoluteArtifactFilename )
@@ -173,15 +187,7 @@ public class ResolvePluginsMojo
     protected Set<Artifact> resolvePluginArtifacts()
         throws ArtifactFilterException, ArtifactResolverException
     {
-        final Set<Artifact> plugins = getProject().getPluginArtifacts();
-        final Set<Artifact> reports = getProject().getReportArtifacts();
-
-        Set<Artifact> artifacts = new LinkedHashSet<Artifact>();
-        artifacts.addAll( reports );
-        artifacts.addAll( plugins );
-
-        final FilterArtifacts filter = getPluginArtifactsFilter();
-        artifacts = filter.filter( artifacts );
+        Set<Artifact> artifacts = getPluginArtifacts();
 
         Set<Artifact> resolvedArtifacts = new LinkedHashSet<Artifact>( artifacts.size() );
         //        final ArtifactFilter filter = getPluginFilter();
@@ -201,10 +207,7 @@ public class ResolvePluginsMojo
             //     continue;
             // }
 
-            ProjectBuildingRequest buildingRequest =
-                new DefaultProjectBuildingRequest( session.getProjectBuildingRequest() );
-
-            buildingRequest.setRemoteRepositories( this.remotePluginRepositories );
+            ProjectBuildingRequest buildingRequest = newResolvePluginProjectBuildingRequest();
 
             // resolve the new artifact
             resolvedArtifacts.add( getArtifactResolver().resolveArtifact( buildingRequest, artifact ) .getArtifact() );
@@ -212,6 +215,89 @@ public class ResolvePluginsMojo
         return artifacts;
     }
 
+    /**
+     * This method collects the plugin artifacts from the project, then resolves them with their dependencies, unless
+     * <code>excludeTransitive</code> is set, with <code>prefetchThreads</code> threads.
+     *
+     * @return the resolved plugin artifacts, with their resolved dependencies.
+     * @throws ArtifactFilterException
+     * @throws MojoExecutionException
+     */
+    protected Map<Artifact, Collection<Artifact>> prefetchPluginArtifacts()
+        throws ArtifactFilterException, MojoExecutionException
+    {
+        final ProjectBuildingRequest buildingRequest = newResolvePluginProjectBuildingRequest();
+        ArtifactPrefetcher<Artifact> prefetcher = new ArtifactPrefetcher<Artifact>( prefetchThreads )
+        {
+            @Override
+            protected Collection<Artifact> resolve( Artifact plugin )
+                throws MojoExecutionException
+            {
+                // the plugin first, then its dependencies
+                List<Artifact> artifacts = new ArrayList<Artifact>();
+                try
+                {
+                    artifacts.add( getArtifactResolver().resolveArtifact( buildingRequest, plugin ).getArtifact() );
+                    if ( !excludeTransitive )
+                    {
+                        artifacts.addAll( resolveArtifactDependencies( toDependableCoordinate( plugin ) ) );
+                    }
+                }
+                catch ( ArtifactResolverException e )
+                {
+                    throw new MojoExecutionException( "error resolving: " + plugin, e );
+                }
+                catch ( DependencyResolverException e )
+                {
+                    throw new MojoExecutionException( "error resolving: " + plugin, e );
+                }
+                return artifacts;
+            }
+        };
+
+        Map<Artifact, Collection<Artifact>> pluginDependencies = new LinkedHashMap<Artifact, Collection<Artifact>>();
+        for ( Collection<Artifact> resolved : prefetcher.prefetch( getPluginArtifacts(), true ).values() )
+        {
+            List<Artifact> artifacts = new ArrayList<Artifact>( resolved );
+            pluginDependencies.put( artifacts.get( 0 ), artifacts.subList( 1, artifacts.size() ) );
+        }
+        logPrefetchSummary( prefetcher );
+        return pluginDependencies;
+    }
+
+    private Set<Artifact> getPluginArtifacts()
+        throws ArtifactFilterException
+    {
+        final Set<Artifact> plugins = getProject().getPluginArtifacts();
+        final Set<Artifact> reports = getProject().getReportArtifacts();
+
+        Set<Artifact> artifacts = new LinkedHashSet<Artifact>();
+        artifacts.addAll( reports );
+        artifacts.addAll( plugins );
+
+        final FilterArtifacts filter = getPluginArtifactsFilter();
+        return filter.filter( artifacts );
+    }
+
+    private ProjectBuildingRequest newResolvePluginProjectBuildingRequest()
+    {
+        ProjectBuildingRequest buildingRequest =
+            new DefaultProjectBuildingRequest( session.getProjectBuildingRequest() );
+
+        buildingRequest.setRemoteRepositories( this.remotePluginRepositories );
+
+        return buildingRequest;
+    }
+
+    private static DefaultDependableCoordinate toDependableCoordinate( Artifact plugin )
+    {
+        DefaultDependableCoordinate pluginCoordinate = new DefaultDependableCoordinate();
+        pluginCoordinate.setGroupId( plugin.getGroupId() );
+        pluginCoordinate.setArtifactId( plugin.getArtifactId() );
+        pluginCoordinate.setVersion( plugin.getVersion() );
+        return pluginCoordinate;
+    }
+
     @Override
     protected ArtifactsFilter getMarkedArtifactFilter()
     {
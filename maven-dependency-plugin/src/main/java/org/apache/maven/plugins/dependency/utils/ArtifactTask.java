@@ -0,0 +1,98 @@
+package org.apache.maven.plugins.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * The copy of an artifact to a file, or its unpacking to a directory, run by an {@link ArtifactTaskRunner}.
+ *
+ * @since 3.0.2
+ */
+public abstract class ArtifactTask
+{
+    private final File target;
+
+    private final boolean directory;
+
+    /**
+     * @param target the file the artifact is copied to, or the directory it is unpacked to
+     * @param directory whether the target is a directory
+     */
+    protected ArtifactTask( File target, boolean directory )
+    {
+        this.target = target;
+        this.directory = directory;
+    }
+
+    /**
+     * Copies or unpacks the artifact. This method may be called concurrently with the ones of other tasks.
+     *
+     * @param location the target of the task, or a temporary directory when several artifacts are unpacked to the
+     *            same directory
+     * @throws MojoExecutionException with a message if an error occurs.
+     */
+    public abstract void process( File location )
+        throws MojoExecutionException;
+
+    /**
+     * Moves the content of the temporary directory the artifact was unpacked to into the target. This is called in
+     * the order of the tasks and from the thread running them, so the target holds the files of the previous tasks.
+     * By default every file is moved, replacing the existing one.
+     *
+     * @param location the temporary directory given to {@link #process(File)}
+     * @throws MojoExecutionException with a message if an error occurs.
+     */
+    public void moveContent( File location )
+        throws MojoExecutionException
+    {
+        ArtifactTaskRunner.moveContent( location, target );
+    }
+
+    /**
+     * Called once the artifact is in its target, in the order of the tasks and from the thread running them, to set
+     * the marker of the artifact for instance.
+     *
+     * @throws MojoExecutionException with a message if an error occurs.
+     */
+    public void completed()
+        throws MojoExecutionException
+    {
+        // nothing by default
+    }
+
+    /**
+     * @return the file the artifact is copied to, or the directory it is unpacked to
+     */
+    public File getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * @return whether the target is a directory
+     */
+    public boolean isDirectory()
+    {
+        return directory;
+    }
+}
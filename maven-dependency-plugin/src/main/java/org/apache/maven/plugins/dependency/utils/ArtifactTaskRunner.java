@@ -0,0 +1,371 @@
+package org.apache.maven.plugins.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Runs the copy and unpack tasks of a mojo with a bounded number of threads. The result does not depend on the
+ * number of threads:
+ * <ul>
+ * <li>the tasks copying an artifact to the same file run one after the other, in order,</li>
+ * <li>the tasks unpacking an artifact to the same directory, or to nested directories, unpack it concurrently to a
+ * temporary directory inside their target, whose content is then moved to the target in order: the last artifact
+ * overwrites the files of the previous ones, as when unpacking them sequentially,</li>
+ * <li>the other tasks run concurrently.</li>
+ * </ul>
+ * {@link ArtifactTask#moveContent(File)} and {@link ArtifactTask#completed()} are always called in order, from the
+ * calling thread.
+ *
+ * @since 3.0.2
+ */
+public class ArtifactTaskRunner
+{
+    private static final String STAGING_PREFIX = ".mdep-staging-";
+
+    private final int threads;
+
+    /**
+     * @param threads the maximum number of tasks running concurrently
+     */
+    public ArtifactTaskRunner( int threads )
+    {
+        this.threads = threads;
+    }
+
+    /**
+     * Runs the specified tasks.
+     *
+     * @param tasks the tasks, in the order they would run sequentially
+     * @throws MojoExecutionException with the error of the first task failing, in the order of the tasks.
+     */
+    public void run( List<? extends ArtifactTask> tasks )
+        throws MojoExecutionException
+    {
+        if ( threads <= 1 || tasks.size() < 2 )
+        {
+            for ( ArtifactTask task : tasks )
+            {
+                task.process( task.getTarget() );
+                task.completed();
+            }
+            return;
+        }
+
+        List<File> targets = new ArrayList<File>( tasks.size() );
+        for ( ArtifactTask task : tasks )
+        {
+            targets.add( normalize( task.getTarget() ) );
+        }
+        boolean[] overlapping = findOverlapping( tasks, targets );
+
+        List<File> stagingDirectories = new ArrayList<File>( tasks.size() );
+        List<Future<Void>> futures = new ArrayList<Future<Void>>( tasks.size() );
+        Map<File, Future<Void>> sequences = new HashMap<File, Future<Void>>();
+
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, tasks.size() ) );
+        try
+        {
+            for ( int i = 0; i < tasks.size(); i++ )
+            {
+                final ArtifactTask task = tasks.get( i );
+                if ( !overlapping[i] )
+                {
+                    stagingDirectories.add( null );
+                    futures.add( executor.submit( new ProcessCallable( task, task.getTarget() ) ) );
+                }
+                else if ( task.isDirectory() )
+                {
+                    File stagingDirectory = new File( task.getTarget(), STAGING_PREFIX + i );
+                    stagingDirectories.add( stagingDirectory );
+                    futures.add( executor.submit( new ProcessCallable( task, stagingDirectory ) ) );
+                }
+                else
+                {
+                    // all the copies to this file are made by the first of them
+                    stagingDirectories.add( null );
+                    File key = targets.get( i );
+                    Future<Void> sequence = sequences.get( key );
+                    if ( sequence == null )
+                    {
+                        sequence = executor.submit( new SequenceCallable( tasks, targets, key ) );
+                        sequences.put( key, sequence );
+                    }
+                    futures.add( sequence );
+                }
+            }
+
+            for ( int i = 0; i < tasks.size(); i++ )
+            {
+                await( futures.get( i ) );
+                if ( stagingDirectories.get( i ) != null )
+                {
+                    tasks.get( i ).moveContent( stagingDirectories.get( i ) );
+                }
+                tasks.get( i ).completed();
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+            awaitTermination( executor );
+            for ( File stagingDirectory : stagingDirectories )
+            {
+                deleteQuietly( stagingDirectory );
+            }
+        }
+    }
+
+    /**
+     * A task overlaps another one when they have the same target, or when they both unpack and the target of one is
+     * an ancestor of the target of the other. Looking up the targets and their parents in sets, this takes a time
+     * proportional to the number of tasks times the depth of their targets.
+     */
+    private static boolean[] findOverlapping( List<? extends ArtifactTask> tasks, List<File> targets )
+    {
+        Map<File, Integer> targetCounts = new HashMap<File, Integer>();
+        Set<File> directories = new HashSet<File>();
+        for ( int i = 0; i < tasks.size(); i++ )
+        {
+            Integer count = targetCounts.get( targets.get( i ) );
+            targetCounts.put( targets.get( i ), count == null ? 1 : count + 1 );
+            if ( tasks.get( i ).isDirectory() )
+            {
+                directories.add( targets.get( i ) );
+            }
+        }
+
+        boolean[] overlapping = new boolean[tasks.size()];
+        Set<File> ancestors = new HashSet<File>();
+        for ( int i = 0; i < tasks.size(); i++ )
+        {
+            overlapping[i] = targetCounts.get( targets.get( i ) ) > 1;
+            if ( tasks.get( i ).isDirectory() )
+            {
+                for ( File parent = targets.get( i ).getParentFile(); parent != null; parent = parent.getParentFile() )
+                {
+                    if ( directories.contains( parent ) )
+                    {
+                        overlapping[i] = true;
+                        ancestors.add( parent );
+                    }
+                }
+            }
+        }
+        for ( int i = 0; i < tasks.size(); i++ )
+        {
+            if ( tasks.get( i ).isDirectory() && ancestors.contains( targets.get( i ) ) )
+            {
+                overlapping[i] = true;
+            }
+        }
+        return overlapping;
+    }
+
+    private static File normalize( File file )
+    {
+        return file.getAbsoluteFile().toPath().normalize().toFile();
+    }
+
+    private static void await( Future<Void> future )
+        throws MojoExecutionException
+    {
+        try
+        {
+            future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while copying or unpacking artifacts", e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof MojoExecutionException )
+            {
+                throw (MojoExecutionException) cause;
+            }
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw new MojoExecutionException( cause.getMessage(), cause );
+        }
+    }
+
+    private static void awaitTermination( ExecutorService executor )
+    {
+        try
+        {
+            // the running tasks may still write to the staging directories
+            executor.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static void moveContent( File source, File target )
+        throws MojoExecutionException
+    {
+        final Path sourcePath = source.toPath();
+        final Path targetPath = target.toPath();
+        try
+        {
+            Files.walkFileTree( sourcePath, new SimpleFileVisitor<Path>()
+            {
+                @Override
+                public FileVisitResult preVisitDirectory( Path dir, BasicFileAttributes attrs )
+                    throws IOException
+                {
+                    Files.createDirectories( targetPath.resolve( sourcePath.relativize( dir ) ) );
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile( Path file, BasicFileAttributes attrs )
+                    throws IOException
+                {
+                    Files.move( file, targetPath.resolve( sourcePath.relativize( file ) ),
+                                StandardCopyOption.REPLACE_EXISTING );
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory( Path dir, IOException exc )
+                    throws IOException
+                {
+                    if ( exc != null )
+                    {
+                        throw exc;
+                    }
+                    if ( !dir.equals( sourcePath ) )
+                    {
+                        Files.setLastModifiedTime( targetPath.resolve( sourcePath.relativize( dir ) ),
+                                                   Files.getLastModifiedTime( dir ) );
+                    }
+                    Files.delete( dir );
+                    return FileVisitResult.CONTINUE;
+                }
+            } );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Error moving unpacked files from " + source + " to " + target, e );
+        }
+    }
+
+    private static void deleteQuietly( File directory )
+    {
+        if ( directory != null && directory.exists() )
+        {
+            try
+            {
+                FileUtils.deleteDirectory( directory );
+            }
+            catch ( IOException e )
+            {
+                // ignored, at worst the temporary directory is left behind
+            }
+        }
+    }
+
+    private static final class ProcessCallable
+        implements Callable<Void>
+    {
+        private final ArtifactTask task;
+
+        private final File location;
+
+        ProcessCallable( ArtifactTask task, File location )
+        {
+            this.task = task;
+            this.location = location;
+        }
+
+        @Override
+        public Void call()
+            throws MojoExecutionException
+        {
+            task.process( location );
+            return null;
+        }
+    }
+
+    private static final class SequenceCallable
+        implements Callable<Void>
+    {
+        private final List<? extends ArtifactTask> tasks;
+
+        private final List<File> targets;
+
+        private final File target;
+
+        SequenceCallable( List<? extends ArtifactTask> tasks, List<File> targets, File target )
+        {
+            this.tasks = tasks;
+            this.targets = targets;
+            this.target = target;
+        }
+
+        @Override
+        public Void call()
+            throws MojoExecutionException
+        {
+            for ( int i = 0; i < tasks.size(); i++ )
+            {
+                ArtifactTask task = tasks.get( i );
+                if ( !task.isDirectory() && targets.get( i ).equals( target ) )
+                {
+                    task.process( task.getTarget() );
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -21,9 +21,13 @@ package org.apache.maven.plugins.dependency.utils;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.ArtifactUtils;
@@ -303,4 +307,48 @@ public final class DependencyUtil
 
         return ret;
     }
+
+    /**
+     * Computes the checksum of a file.
+     *
+     * @param file the file.
+     * @since 3.0.2
+     * @return the hexadecimal SHA-1 of the file.
+     * @throws IOException if the file could not be read.
+     */
+    public static String checksum( File file )
+        throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ( ( read = in.read( buffer ) ) != -1 )
+            {
+                digest.update( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+
+        StringBuilder hex = new StringBuilder( 40 );
+        for ( byte b : digest.digest() )
+        {
+            hex.append( Character.forDigit( ( b >> 4 ) & 0xf, 16 ) ).append( Character.forDigit( b & 0xf, 16 ) );
+        }
+        return hex.toString();
+    }
 }
@@ -0,0 +1,232 @@
+package org.apache.maven.plugins.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.Os;
+
+/**
+ * Utility class materializing a file of the local repository in an output directory with a link instead of a copy.
+ *
+ * @since 3.0.2
+ */
+public final class FileLinker
+{
+
+    /**
+     * The file is copied.
+     */
+    public static final String COPY = "copy";
+
+    /**
+     * The file is hard linked, which requires the output directory to be on the same file system as the repository.
+     */
+    public static final String HARDLINK = "hardlink";
+
+    /**
+     * The file is a symbolic link to the file of the repository.
+     */
+    public static final String SYMLINK = "symlink";
+
+    /**
+     * The file is a copy sharing the blocks of the file of the repository until one of them is modified, on the file
+     * systems supporting it (btrfs, xfs, apfs).
+     */
+    public static final String REFLINK = "reflink";
+
+    private static final List<String> MODES = Arrays.asList( COPY, HARDLINK, SYMLINK, REFLINK );
+
+    private FileLinker()
+    {
+        // no instances
+    }
+
+    /**
+     * @param mode the link mode.
+     * @return whether the mode is one of {@link #COPY}, {@link #HARDLINK}, {@link #SYMLINK} and {@link #REFLINK}.
+     */
+    public static boolean isValidMode( String mode )
+    {
+        return MODES.contains( mode );
+    }
+
+    /**
+     * Links the destination file to the source file, replacing the destination file if it exists.
+     *
+     * @param source the file to link to.
+     * @param destFile the link to create.
+     * @param mode {@link #HARDLINK}, {@link #SYMLINK} or {@link #REFLINK}.
+     * @return <code>false</code> if the link could not be created, for instance when the file system does not support
+     *         it or when the files are on different file systems: the file must then be copied.
+     * @throws IOException if the existing destination file could not be replaced.
+     */
+    public static boolean link( File source, File destFile, String mode )
+        throws IOException
+    {
+        Path sourcePath = source.toPath().toAbsolutePath();
+        Path destPath = destFile.toPath();
+
+        if ( isLinked( sourcePath, destPath, mode ) )
+        {
+            return true;
+        }
+        if ( !Files.isSymbolicLink( destPath ) && isSameLocation( sourcePath, destPath ) )
+        {
+            // the output directory is the directory of the file, there is nothing to link
+            return true;
+        }
+
+        Files.createDirectories( destPath.toAbsolutePath().getParent() );
+        Files.deleteIfExists( destPath );
+        try
+        {
+            if ( HARDLINK.equals( mode ) )
+            {
+                Files.createLink( destPath, sourcePath );
+                return true;
+            }
+            if ( SYMLINK.equals( mode ) )
+            {
+                Files.createSymbolicLink( destPath, sourcePath );
+                return true;
+            }
+            if ( REFLINK.equals( mode ) )
+            {
+                return reflink( sourcePath, destPath );
+            }
+            throw new IllegalArgumentException( "Unknown link mode: " + mode );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            return false;
+        }
+        catch ( IOException e )
+        {
+            // cross-device link, missing privilege...
+            Files.deleteIfExists( destPath );
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the destination file if it is a symbolic link, or a hard link to the source file at another path, so
+     * that copying a file over it does not write to the file of the repository. The destination file is kept if it is
+     * the source file itself.
+     *
+     * @param source the file to copy.
+     * @param destFile the destination of the copy.
+     * @throws IOException if the destination file could not be deleted.
+     */
+    public static void unlink( File source, File destFile )
+        throws IOException
+    {
+        Path sourcePath = source.toPath();
+        Path destPath = destFile.toPath();
+        if ( Files.isSymbolicLink( destPath ) )
+        {
+            Files.delete( destPath );
+        }
+        else if ( Files.exists( destPath ) && !isSameLocation( sourcePath, destPath )
+            && Files.isSameFile( sourcePath, destPath ) )
+        {
+            Files.delete( destPath );
+        }
+    }
+
+    /**
+     * @return whether both paths denote the same directory entry, including through a case-insensitive alias or a
+     *         symbolic link to a parent directory, rather than two links to the same file.
+     */
+    private static boolean isSameLocation( Path sourcePath, Path destPath )
+        throws IOException
+    {
+        if ( sourcePath.toFile().getCanonicalPath().equals( destPath.toFile().getCanonicalPath() ) )
+        {
+            return true;
+        }
+        return Files.exists( sourcePath ) && Files.exists( destPath )
+            && sourcePath.toRealPath().equals( destPath.toRealPath() );
+    }
+
+    private static boolean isLinked( Path sourcePath, Path destPath, String mode )
+        throws IOException
+    {
+        if ( HARDLINK.equals( mode ) )
+        {
+            return !Files.isSymbolicLink( destPath ) && Files.exists( destPath )
+                && Files.isSameFile( sourcePath, destPath );
+        }
+        if ( SYMLINK.equals( mode ) )
+        {
+            return Files.isSymbolicLink( destPath ) && sourcePath.equals( Files.readSymbolicLink( destPath ) );
+        }
+        // a reflink cannot be told from a copy
+        return false;
+    }
+
+    private static boolean reflink( Path sourcePath, Path destPath )
+        throws IOException
+    {
+        List<String> command;
+        if ( Os.isFamily( Os.FAMILY_MAC ) )
+        {
+            command = Arrays.asList( "cp", "-c", sourcePath.toString(), destPath.toString() );
+        }
+        else if ( System.getProperty( "os.name" ).toLowerCase( Locale.ENGLISH ).contains( "linux" ) )
+        {
+            command = Arrays.asList( "cp", "--reflink=always", sourcePath.toString(), destPath.toString() );
+        }
+        else
+        {
+            return false;
+        }
+
+        Process process = new ProcessBuilder( command ).redirectErrorStream( true ).start();
+        InputStream output = process.getInputStream();
+        try
+        {
+            IOUtil.toByteArray( output );
+            if ( process.waitFor() == 0 )
+            {
+                return true;
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            process.destroy();
+        }
+        finally
+        {
+            IOUtil.close( output );
+        }
+        Files.deleteIfExists( destPath );
+        return false;
+    }
+}
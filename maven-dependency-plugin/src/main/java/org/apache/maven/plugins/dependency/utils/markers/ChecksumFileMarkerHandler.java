@@ -0,0 +1,420 @@
+package org.apache.maven.plugins.dependency.utils.markers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.dependency.utils.DependencyUtil;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Marker recording the checksum of an unpacked artifact, the includes, excludes and encoding it was unpacked with and
+ * the checksum of each unpacked file. The marker is set only as long as the content of the artifact and the settings
+ * are unchanged, whatever the timestamps of the files, and the manifest of the unpacked files allows to unpack a
+ * changed artifact by rewriting only the changed files and deleting the removed ones. A removed file is kept when
+ * another artifact unpacked to the same directory lists it too.
+ *
+ * @since 3.0.2
+ */
+public class ChecksumFileMarkerHandler
+    extends DefaultFileMarkerHandler
+{
+    private static final String ARTIFACT_CHECKSUM = "artifact.sha1";
+
+    private static final String ARTIFACT_SIZE = "artifact.size";
+
+    private static final String ARTIFACT_LAST_MODIFIED = "artifact.lastModified";
+
+    private static final String INCLUDES = "includes";
+
+    private static final String EXCLUDES = "excludes";
+
+    private static final String ENCODING = "encoding";
+
+    private static final String LOCATION = "location";
+
+    private static final String FILE_PREFIX = "file.";
+
+    private static final String MARKER_SUFFIX = ".manifest";
+
+    private final String includes;
+
+    private final String excludes;
+
+    private final String encoding;
+
+    private Map<String, String> manifest = Collections.emptyMap();
+
+    private File location;
+
+    public ChecksumFileMarkerHandler( File markerFilesDirectory, String includes, String excludes, String encoding )
+    {
+        super( markerFilesDirectory );
+        this.includes = nullToEmpty( includes );
+        this.excludes = nullToEmpty( excludes );
+        this.encoding = nullToEmpty( encoding );
+    }
+
+    public ChecksumFileMarkerHandler( Artifact artifact, File markerFilesDirectory, String includes, String excludes,
+                                      String encoding )
+    {
+        this( markerFilesDirectory, includes, excludes, encoding );
+        setArtifact( artifact );
+    }
+
+    @Override
+    protected synchronized File getMarkerFile()
+    {
+        // an artifact can be unpacked several times with different settings
+        int settingsHash = ( includes + '\n' + excludes + '\n' + encoding ).hashCode();
+        return new File( this.markerFilesDirectory, this.artifact.getId().replace( ':', '-' )
+            + ( settingsHash == 0 ? "" : "-" + Integer.toHexString( settingsHash ) ) + MARKER_SUFFIX );
+    }
+
+    /**
+     * @return <code>true</code> if the artifact was unpacked with the same settings and has not changed since.
+     */
+    @Override
+    public synchronized boolean isMarkerSet()
+        throws MojoExecutionException
+    {
+        return isCurrent( this.artifact );
+    }
+
+    /**
+     * @return <code>true</code> if the content of the artifact changed since it was unpacked: unlike the default
+     *         marker, the timestamps are not compared.
+     */
+    @Override
+    public synchronized boolean isMarkerOlder( Artifact artifact1 )
+        throws MojoExecutionException
+    {
+        return !isCurrent( artifact1 );
+    }
+
+    /**
+     * Writes the marker with the checksum of the artifact, the settings, the directory the artifact was unpacked to and
+     * the manifest of the unpacked files.
+     */
+    @Override
+    public synchronized void setMarker()
+        throws MojoExecutionException
+    {
+        File marker = getMarkerFile();
+        Properties properties = new Properties();
+        properties.setProperty( INCLUDES, includes );
+        properties.setProperty( EXCLUDES, excludes );
+        properties.setProperty( ENCODING, encoding );
+        if ( location != null )
+        {
+            properties.setProperty( LOCATION, location.getPath() );
+        }
+        for ( Map.Entry<String, String> entry : manifest.entrySet() )
+        {
+            properties.setProperty( FILE_PREFIX + entry.getKey(), entry.getValue() );
+        }
+
+        OutputStream out = null;
+        try
+        {
+            File file = this.artifact.getFile();
+            if ( file != null && file.isFile() )
+            {
+                properties.setProperty( ARTIFACT_CHECKSUM, DependencyUtil.checksum( file ) );
+                properties.setProperty( ARTIFACT_SIZE, String.valueOf( file.length() ) );
+                properties.setProperty( ARTIFACT_LAST_MODIFIED, String.valueOf( file.lastModified() ) );
+            }
+
+            marker.getParentFile().mkdirs();
+            out = new FileOutputStream( marker );
+            properties.store( out, "Unpacked " + this.artifact.getId() );
+            out.close();
+            out = null;
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to create Marker: " + marker.getAbsolutePath(), e );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    /**
+     * Unpacks the changes of the artifact: the files of the unpack directory are moved to the location, unless the
+     * location already contains the same file. The location and the manifest of the unpacked files are recorded for
+     * {@link #setMarker()} and the unpack directory is deleted.
+     *
+     * @param unpackDirectory the directory the artifact was unpacked to.
+     * @param location the directory the artifact is unpacked to.
+     * @return the number of files moved to the location.
+     * @throws MojoExecutionException with a message if an error occurs.
+     */
+    public synchronized int moveChanges( File unpackDirectory, File location )
+        throws MojoExecutionException
+    {
+        final Path sourcePath = unpackDirectory.toPath();
+        final Path targetPath = location.toPath();
+        final Map<String, String> files = new TreeMap<String, String>();
+        final int[] moved = new int[1];
+        try
+        {
+            Files.walkFileTree( sourcePath, new SimpleFileVisitor<Path>()
+            {
+                @Override
+                public FileVisitResult preVisitDirectory( Path dir, BasicFileAttributes attrs )
+                    throws IOException
+                {
+                    Files.createDirectories( targetPath.resolve( sourcePath.relativize( dir ) ) );
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile( Path file, BasicFileAttributes attrs )
+                    throws IOException
+                {
+                    String path = sourcePath.relativize( file ).toString().replace( File.separatorChar, '/' );
+                    String checksum = DependencyUtil.checksum( file.toFile() );
+                    files.put( path, checksum );
+
+                    Path target = targetPath.resolve( path );
+                    if ( Files.isRegularFile( target )
+                        && checksum.equals( DependencyUtil.checksum( target.toFile() ) ) )
+                    {
+                        // unchanged, its timestamp is kept
+                        Files.delete( file );
+                    }
+                    else
+                    {
+                        Files.move( file, target, StandardCopyOption.REPLACE_EXISTING );
+                        moved[0]++;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory( Path dir, IOException exc )
+                    throws IOException
+                {
+                    if ( exc != null )
+                    {
+                        throw exc;
+                    }
+                    Files.delete( dir );
+                    return FileVisitResult.CONTINUE;
+                }
+            } );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Error moving unpacked files from " + unpackDirectory + " to "
+                + location, e );
+        }
+        this.manifest = files;
+        this.location = location.getAbsoluteFile();
+        return moved[0];
+    }
+
+    /**
+     * Deletes the files unpacked the previous time which are not part of the artifact anymore, unless they were
+     * modified since or another artifact unpacked to the same location lists them in its marker.
+     *
+     * @param location the directory the artifact is unpacked to.
+     * @return the number of deleted files.
+     * @throws MojoExecutionException with a message if an error occurs.
+     */
+    public synchronized int deleteRemovedFiles( File location )
+        throws MojoExecutionException
+    {
+        Properties previous = readMarker();
+        if ( previous == null )
+        {
+            return 0;
+        }
+
+        Set<String> shared = getOtherManifests( location );
+        int deleted = 0;
+        try
+        {
+            for ( String key : previous.stringPropertyNames() )
+            {
+                if ( !key.startsWith( FILE_PREFIX ) )
+                {
+                    continue;
+                }
+                String path = key.substring( FILE_PREFIX.length() );
+                File file = new File( location, path );
+                if ( !manifest.containsKey( path ) && !shared.contains( path ) && file.isFile()
+                    && previous.getProperty( key ).equals( DependencyUtil.checksum( file ) ) && file.delete() )
+                {
+                    deleted++;
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Error deleting the removed files from " + location, e );
+        }
+        return deleted;
+    }
+
+    /**
+     * @return the checksums of the unpacked files, by path relative to the unpack directory.
+     */
+    public synchronized Map<String, String> getManifest()
+    {
+        return Collections.unmodifiableMap( manifest );
+    }
+
+    private boolean isCurrent( Artifact artifact1 )
+        throws MojoExecutionException
+    {
+        Properties marker = readMarker();
+        if ( marker == null )
+        {
+            return false;
+        }
+
+        File file = artifact1.getFile();
+        if ( file == null || !file.isFile() )
+        {
+            return true;
+        }
+        if ( String.valueOf( file.length() ).equals( marker.getProperty( ARTIFACT_SIZE ) )
+            && String.valueOf( file.lastModified() ).equals( marker.getProperty( ARTIFACT_LAST_MODIFIED ) ) )
+        {
+            return true;
+        }
+
+        // touched, copied or restored from a cache: only the content matters
+        try
+        {
+            return DependencyUtil.checksum( file ).equals( marker.getProperty( ARTIFACT_CHECKSUM ) );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to compute the checksum of " + file, e );
+        }
+    }
+
+    /**
+     * @return the paths listed by the markers of the other artifacts unpacked to the location, or whose location is
+     *         unknown.
+     */
+    private Set<String> getOtherManifests( File location )
+        throws MojoExecutionException
+    {
+        Set<String> paths = new HashSet<String>();
+        File[] markers = this.markerFilesDirectory.listFiles();
+        if ( markers == null )
+        {
+            return paths;
+        }
+
+        File own = getMarkerFile();
+        File absoluteLocation = location.getAbsoluteFile();
+        for ( File marker : markers )
+        {
+            if ( !marker.getName().endsWith( MARKER_SUFFIX ) || marker.equals( own ) || !marker.isFile() )
+            {
+                continue;
+            }
+            Properties properties = readProperties( marker );
+            String otherLocation = properties.getProperty( LOCATION );
+            if ( otherLocation != null && !absoluteLocation.equals( new File( otherLocation ) ) )
+            {
+                continue;
+            }
+            for ( String key : properties.stringPropertyNames() )
+            {
+                if ( key.startsWith( FILE_PREFIX ) )
+                {
+                    paths.add( key.substring( FILE_PREFIX.length() ) );
+                }
+            }
+        }
+        return paths;
+    }
+
+    private Properties readMarker()
+        throws MojoExecutionException
+    {
+        File marker = getMarkerFile();
+        if ( !marker.isFile() )
+        {
+            return null;
+        }
+
+        Properties properties = readProperties( marker );
+        if ( !includes.equals( properties.getProperty( INCLUDES ) )
+            || !excludes.equals( properties.getProperty( EXCLUDES ) )
+            || !encoding.equals( properties.getProperty( ENCODING ) ) )
+        {
+            return null;
+        }
+        return properties;
+    }
+
+    private static Properties readProperties( File marker )
+        throws MojoExecutionException
+    {
+        Properties properties = new Properties();
+        InputStream in = null;
+        try
+        {
+            in = new FileInputStream( marker );
+            properties.load( in );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to read Marker: " + marker.getAbsolutePath(), e );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+        return properties;
+    }
+
+    private static String nullToEmpty( String value )
+    {
+        return value == null ? "" : value;
+    }
+}
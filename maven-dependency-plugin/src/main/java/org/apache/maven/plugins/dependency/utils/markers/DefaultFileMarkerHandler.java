@@ -26,6 +26,9 @@ import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 
 /**
+ * Handles the marker file of an artifact. The methods of a handler are synchronized, so that it can be shared by the
+ * threads copying or unpacking artifacts.
+ *
  * @author <a href="mailto:brianf@apache.org">Brian Fox</a>
  * @version $Id$
  */
@@ -70,7 +73,7 @@ public class DefaultFileMarkerHandler
      *             method denies read access to the file or directory
      */
     @Override
-    public boolean isMarkerSet()
+    public synchronized boolean isMarkerSet()
         throws MojoExecutionException
     {
         File marker = getMarkerFile();
@@ -78,7 +81,7 @@ public class DefaultFileMarkerHandler
     }
 
     @Override
-    public boolean isMarkerOlder( Artifact artifact1 )
+    public synchronized boolean isMarkerOlder( Artifact artifact1 )
         throws MojoExecutionException
     {
         File marker = getMarkerFile();
@@ -95,7 +98,7 @@ public class DefaultFileMarkerHandler
     }
 
     @Override
-    public void setMarker()
+    public synchronized void setMarker()
         throws MojoExecutionException
     {
         File marker = getMarkerFile();
@@ -156,7 +159,7 @@ public class DefaultFileMarkerHandler
      *             method denies delete access to the file
      */
     @Override
-    public boolean clearMarker()
+    public synchronized boolean clearMarker()
         throws MojoExecutionException
     {
         File marker = getMarkerFile();
@@ -166,7 +169,7 @@ public class DefaultFileMarkerHandler
     /**
      * @return Returns the artifact.
      */
-    public Artifact getArtifact()
+    public synchronized Artifact getArtifact()
     {
         return this.artifact;
     }
@@ -176,7 +179,7 @@ public class DefaultFileMarkerHandler
      *            The artifact to set.
      */
     @Override
-    public void setArtifact( Artifact artifact )
+    public synchronized void setArtifact( Artifact artifact )
     {
         this.artifact = artifact;
     }
@@ -184,7 +187,7 @@ public class DefaultFileMarkerHandler
     /**
      * @return Returns the markerFilesDirectory.
      */
-    public File getMarkerFilesDirectory()
+    public synchronized File getMarkerFilesDirectory()
     {
         return this.markerFilesDirectory;
     }
@@ -193,7 +196,7 @@ public class DefaultFileMarkerHandler
      * @param markerFilesDirectory
      *            The markerFilesDirectory to set.
      */
-    public void setMarkerFilesDirectory( File markerFilesDirectory )
+    public synchronized void setMarkerFilesDirectory( File markerFilesDirectory )
     {
         this.markerFilesDirectory = markerFilesDirectory;
     }
@@ -45,7 +45,7 @@ public class UnpackFileMarkerHandler
     }
 
     @Override
-    protected File getMarkerFile()
+    protected synchronized File getMarkerFile()
     {
         /**
          * Build a hash of all include/exclude strings, to determine
@@ -80,7 +80,7 @@ public class UnpackFileMarkerHandler
         return markerFile;
     }
 
-    public void setArtifactItem( ArtifactItem artifactItem )
+    public synchronized void setArtifactItem( ArtifactItem artifactItem )
     {
         this.artifactItem = artifactItem;
 
@@ -90,7 +90,7 @@ public class UnpackFileMarkerHandler
         }
     }
 
-    public ArtifactItem getArtifactItem()
+    public synchronized ArtifactItem getArtifactItem()
     {
         return this.artifactItem;
     }
@@ -0,0 +1,124 @@
+package org.apache.maven.plugins.dependency.analyze;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestClassIndex
+    extends TestCase
+{
+    private File testDir;
+
+    private File indexDirectory;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        testDir = new File( "target/unittest-output/class-index" );
+        FileUtils.deleteDirectory( testDir );
+        indexDirectory = new File( testDir, "index" );
+        ClassIndex.clear();
+    }
+
+    protected void tearDown()
+        throws Exception
+    {
+        ClassIndex.clear();
+        super.tearDown();
+    }
+
+    public void testIndexIsSharedByModulesAndBuilds()
+        throws Exception
+    {
+        File jar = createJar( new File( testDir, "repository/a-1.0.jar" ), "a/A.class", "a/b/B.class",
+                              "META-INF/MANIFEST.MF" );
+        File copy = createJar( new File( testDir, "other/a-1.0.jar" ), "a/A.class", "a/b/B.class",
+                               "META-INF/MANIFEST.MF" );
+        Set<String> expected = new HashSet<String>( Arrays.asList( "a.A", "a.b.B" ) );
+
+        // first module: scanned
+        ClassIndex index = new ClassIndex( indexDirectory );
+        assertEquals( expected, index.getClasses( jar ) );
+        assertEquals( 0, index.getHits() );
+        assertEquals( 1, index.getMisses() );
+
+        // next modules: same content, whatever the path
+        index = new ClassIndex( indexDirectory );
+        assertEquals( expected, index.getClasses( jar ) );
+        assertEquals( expected, index.getClasses( copy ) );
+        assertEquals( 2, index.getHits() );
+        assertEquals( 0, index.getMisses() );
+        assertEquals( "Class index: 2 of 2 dependency jars found (100% hit rate), 0 scanned", index.getSummary() );
+
+        // next build: read from the directory
+        ClassIndex.clear();
+        index = new ClassIndex( indexDirectory );
+        assertEquals( expected, index.getClasses( jar ) );
+        assertEquals( 1, index.getHits() );
+    }
+
+    public void testChangedJarIsScanned()
+        throws Exception
+    {
+        File jar = createJar( new File( testDir, "repository/a-1.0-SNAPSHOT.jar" ), "a/A.class" );
+        ClassIndex index = new ClassIndex( null );
+        assertEquals( new HashSet<String>( Arrays.asList( "a.A" ) ), index.getClasses( jar ) );
+
+        createJar( jar, "a/A.class", "a/C.class" );
+        assertTrue( jar.setLastModified( jar.lastModified() + 2000 ) );
+        assertEquals( new HashSet<String>( Arrays.asList( "a.A", "a.C" ) ), index.getClasses( jar ) );
+        assertEquals( 2, index.getMisses() );
+        assertFalse( indexDirectory.exists() );
+    }
+
+    private static File createJar( File jar, String... entries )
+        throws IOException
+    {
+        jar.getParentFile().mkdirs();
+        JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ) );
+        try
+        {
+            for ( String entry : entries )
+            {
+                out.putNextEntry( new ZipEntry( entry ) );
+                out.write( entry.getBytes( "UTF-8" ) );
+                out.closeEntry();
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+        return jar;
+    }
+}
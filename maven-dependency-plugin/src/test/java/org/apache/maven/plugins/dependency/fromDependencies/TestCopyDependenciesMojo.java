@@ -21,6 +21,7 @@ package org.apache.maven.plugins.dependency.fromDependencies;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -34,6 +35,7 @@ import org.apache.maven.plugins.dependency.AbstractDependencyMojoTestCase;
 import org.apache.maven.plugins.dependency.utils.DependencyUtil;
 import org.apache.maven.plugins.dependency.utils.markers.DefaultFileMarkerHandler;
 import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.StringUtils;
 import org.sonatype.aether.impl.internal.SimpleLocalRepositoryManager;
 import org.sonatype.aether.util.DefaultRepositorySystemSession;
@@ -105,6 +107,19 @@ public class TestCopyDependenciesMojo
         assertTrue( dest.exists() );
     }
 
+    public void testCopyFileOntoItself()
+        throws MojoExecutionException, IOException
+    {
+        File src = new File( mojo.outputDirectory, "itself.jar" );
+        mojo.outputDirectory.mkdirs();
+        FileUtils.fileWrite( src, "content" );
+
+        // the output directory is the directory of the artifact
+        copyFile( mojo, src, src );
+        copyFile( mojo, src, new File( mojo.outputDirectory, "../outputDirectory/itself.jar" ) );
+        assertEquals( "content", FileUtils.fileRead( src ) );
+    }
+
     /**
      * tests the proper discovery and configuration of the mojo
      *
@@ -797,4 +812,36 @@ public class TestCopyDependenciesMojo
             assertTrue( file.exists() );
         }
     }
+
+    public void testLinkModeHardlink()
+        throws Exception
+    {
+        mojo.linkMode = "hardlink";
+        mojo.execute();
+
+        Set<Artifact> artifacts = mojo.getProject().getArtifacts();
+        for ( Artifact artifact : artifacts )
+        {
+            String fileName = DependencyUtil.getFormattedFileName( artifact, false );
+            File file = new File( mojo.outputDirectory, fileName );
+            assertTrue( file.exists() );
+            // the output directory is on the file system of the repository
+            assertTrue( Files.isSameFile( artifact.getFile().toPath(), file.toPath() ) );
+        }
+    }
+
+    public void testLinkModeInvalid()
+        throws Exception
+    {
+        mojo.linkMode = "junction";
+        try
+        {
+            mojo.execute();
+            fail( "Expected an exception for the link mode" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            assertTrue( e.getMessage().contains( "junction" ) );
+        }
+    }
 }
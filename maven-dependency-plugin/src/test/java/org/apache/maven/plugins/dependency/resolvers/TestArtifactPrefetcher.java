@@ -0,0 +1,174 @@
+package org.apache.maven.plugins.dependency.resolvers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestArtifactPrefetcher
+    extends TestCase
+{
+    private File repository;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        repository = new File( "target/unittest-output/prefetch/repository" );
+        FileUtils.deleteDirectory( repository );
+        repository.mkdirs();
+        for ( int i = 0; i < 6; i++ )
+        {
+            FileUtils.fileWrite( new File( repository, "a" + i + "-1.0.jar" ), "a" + i + "!" );
+        }
+    }
+
+    public void testPrefetch()
+        throws Exception
+    {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        StandInPrefetcher prefetcher = new StandInPrefetcher( 3 )
+        {
+            @Override
+            protected Collection<Artifact> resolve( String artifactId )
+                throws MojoExecutionException
+            {
+                raiseTo( maxRunning, running.incrementAndGet() );
+                try
+                {
+                    // the latency of a remote repository, the last ones first
+                    Thread.sleep( 100 - 10 * Integer.parseInt( artifactId.substring( 1 ) ) );
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new MojoExecutionException( "interrupted", e );
+                }
+                finally
+                {
+                    running.decrementAndGet();
+                }
+                // every artifact depends on the first one
+                return Arrays.asList( super.resolve( artifactId ).iterator().next(),
+                                      super.resolve( "a0" ).iterator().next() );
+            }
+        };
+
+        List<String> keys = Arrays.asList( "a0", "a1", "a2", "a3", "a4", "a5" );
+        Map<String, Collection<Artifact>> results = prefetcher.prefetch( keys, true );
+
+        assertEquals( keys, new ArrayList<String>( results.keySet() ) );
+        assertEquals( "a4", results.get( "a4" ).iterator().next().getArtifactId() );
+        assertTrue( maxRunning.get() > 1 );
+        assertTrue( maxRunning.get() <= 3 );
+
+        // the file of "a0" is counted once
+        assertEquals( 6, prefetcher.getArtifactCount() );
+        assertEquals( 18, prefetcher.getBytes() );
+        String summary = prefetcher.getSummary();
+        assertTrue( summary, summary.matches( "Prefetched 6 artifacts \\(18 B\\) in \\d+\\.\\d\\d s with 3 threads" ) );
+        assertTrue( prefetcher.getFailures().isEmpty() );
+    }
+
+    public void testFailures()
+        throws Exception
+    {
+        StandInPrefetcher prefetcher = new StandInPrefetcher( 4 );
+        List<String> keys = Arrays.asList( "a0", "missing1", "a2", "missing3" );
+
+        Map<String, Collection<Artifact>> results = prefetcher.prefetch( keys, false );
+        assertEquals( Arrays.asList( "a0", "a2" ), new ArrayList<String>( results.keySet() ) );
+        assertEquals( Arrays.asList( "missing1", "missing3" ),
+                      new ArrayList<String>( prefetcher.getFailures().keySet() ) );
+
+        try
+        {
+            new StandInPrefetcher( 4 ).prefetch( keys, true );
+            fail( "Expected a MojoExecutionException" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            assertEquals( "error resolving: missing1", e.getMessage() );
+        }
+    }
+
+    public void testFormatBytes()
+    {
+        assertEquals( "0 B", ArtifactPrefetcher.formatBytes( 0 ) );
+        assertEquals( "2.0 kB", ArtifactPrefetcher.formatBytes( 2048 ) );
+        assertEquals( "1.5 MB", ArtifactPrefetcher.formatBytes( 3 * 512 * 1024 ) );
+    }
+
+    /**
+     * Raises the maximum to the specified value, unless another thread raised it higher.
+     */
+    static void raiseTo( AtomicInteger max, int value )
+    {
+        int current = max.get();
+        while ( value > current && !max.compareAndSet( current, value ) )
+        {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Resolves the artifacts from a local file-based repository.
+     */
+    private class StandInPrefetcher
+        extends ArtifactPrefetcher<String>
+    {
+        StandInPrefetcher( int threads )
+        {
+            super( threads );
+        }
+
+        @Override
+        protected Collection<Artifact> resolve( String artifactId )
+            throws MojoExecutionException
+        {
+            File file = new File( repository, artifactId + "-1.0.jar" );
+            if ( !file.isFile() )
+            {
+                throw new MojoExecutionException( "error resolving: " + artifactId );
+            }
+
+            Artifact artifact = new DefaultArtifact( "test", artifactId, VersionRange.createFromVersion( "1.0" ),
+                                                     Artifact.SCOPE_COMPILE, "jar", null,
+                                                     new DefaultArtifactHandler(), false );
+            artifact.setFile( file );
+            return Arrays.asList( artifact );
+        }
+    }
+}
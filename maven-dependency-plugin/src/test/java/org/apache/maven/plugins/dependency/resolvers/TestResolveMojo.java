@@ -20,14 +20,21 @@ package org.apache.maven.plugins.dependency.resolvers;
  */
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugins.dependency.AbstractDependencyMojoTestCase;
 import org.apache.maven.plugins.dependency.resolvers.ResolveDependenciesMojo;
+import org.apache.maven.plugins.dependency.testUtils.DependencyArtifactStubFactory;
 import org.apache.maven.plugins.dependency.utils.DependencyStatusSets;
 import org.apache.maven.plugin.testing.SilentLog;
 import org.apache.maven.project.MavenProject;
+import org.sonatype.aether.impl.internal.SimpleLocalRepositoryManager;
+import org.sonatype.aether.util.DefaultRepositorySystemSession;
 
 public class TestResolveMojo
     extends AbstractDependencyMojoTestCase
@@ -76,6 +83,66 @@ public class TestResolveMojo
         assertEquals( directArtifacts.size(), results.getResolvedDependencies().size() );
     }
 
+    public void testPrefetchClassifier()
+        throws Exception
+    {
+        // the classifier artifacts are resolved from the stub repository
+        stubFactory = new DependencyArtifactStubFactory( testDir, true, false );
+
+        File testPom = new File( getBasedir(), "target/test-classes/unit/resolve-test/plugin-config.xml" );
+        ResolveDependenciesMojo mojo = (ResolveDependenciesMojo) lookupMojo( "resolve", testPom );
+        mojo.setSilent( true );
+        MavenProject project = mojo.getProject();
+
+        MavenSession session = newMavenSession( project );
+        setVariableValueToObject( mojo, "session", session );
+
+        DefaultRepositorySystemSession repoSession = (DefaultRepositorySystemSession) session.getRepositorySession();
+        repoSession.setLocalRepositoryManager( new SimpleLocalRepositoryManager( stubFactory.getWorkingDir() ) );
+
+        setVariableValueToObject( mojo, "artifactHandlerManager", lookup( ArtifactHandlerManager.class ) );
+        setVariableValueToObject( mojo, "markersDirectory", new File( testDir, "markers" ) );
+        setVariableValueToObject( mojo, "classifier", "sources" );
+
+        Set<Artifact> artifacts = this.stubFactory.getScopedArtifacts();
+        Set<Artifact> directArtifacts = this.stubFactory.getReleaseAndSnapshotArtifacts();
+        artifacts.addAll( directArtifacts );
+        project.setArtifacts( artifacts );
+        project.setDependencyArtifacts( directArtifacts );
+
+        // the sources of the first artifact are missing, the failure is skipped
+        Artifact missing = null;
+        for ( Artifact artifact : artifacts )
+        {
+            if ( missing == null )
+            {
+                missing = artifact;
+                continue;
+            }
+            stubFactory.createArtifact( artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(),
+                                        artifact.getScope(), artifact.getType(), "sources" );
+        }
+
+        mojo.execute();
+        List<Artifact> resolved = new ArrayList<Artifact>( mojo.getResults().getResolvedDependencies() );
+        assertEquals( artifacts.size() - 1, resolved.size() );
+
+        mojo.prefetch = true;
+        mojo.prefetchThreads = 3;
+        mojo.execute();
+        List<Artifact> prefetched = new ArrayList<Artifact>( mojo.getResults().getResolvedDependencies() );
+
+        // the same artifacts, in the same order
+        assertEquals( resolved, prefetched );
+        for ( Artifact artifact : prefetched )
+        {
+            assertEquals( "sources", artifact.getClassifier() );
+            assertTrue( artifact.getFile().isFile() );
+            assertFalse( artifact.getArtifactId().equals( missing.getArtifactId() )
+                && artifact.getVersion().equals( missing.getVersion() ) );
+        }
+    }
+
     public void testSilent()
         throws Exception
     {
@@ -0,0 +1,223 @@
+package org.apache.maven.plugins.dependency.resolvers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugins.dependency.AbstractDependencyMojoTestCase;
+import org.apache.maven.plugins.dependency.testUtils.stubs.DependencyProjectStub;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.artifact.resolve.ArtifactResult;
+import org.apache.maven.shared.dependencies.DependableCoordinate;
+import org.apache.maven.shared.dependencies.resolve.DependencyResolver;
+import org.codehaus.plexus.util.FileUtils;
+import org.sonatype.aether.impl.internal.SimpleLocalRepositoryManager;
+import org.sonatype.aether.util.DefaultRepositorySystemSession;
+
+public class TestResolvePluginsMojo
+    extends AbstractDependencyMojoTestCase
+{
+    private ResolvePluginsMojo mojo;
+
+    private final Set<Artifact> plugins = new LinkedHashSet<Artifact>();
+
+    private final Set<Artifact> reports = new LinkedHashSet<Artifact>();
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private final AtomicInteger dependencyResolutions = new AtomicInteger();
+
+    protected void setUp()
+        throws Exception
+    {
+        // required for mojo lookups to work
+        super.setUp( "resolve-plugins", true, false );
+
+        File testPom = new File( getBasedir(), "target/test-classes/unit/resolve-test/plugin-config.xml" );
+        mojo = (ResolvePluginsMojo) lookupMojo( "resolve-plugins", testPom );
+        assertNotNull( mojo );
+        mojo.setSilent( true );
+
+        // the plugins and reports are resolved from the stub repository
+        for ( int i = 0; i < 4; i++ )
+        {
+            plugins.add( stubFactory.createArtifact( "testGroupId", "maven-" + i + "-plugin", "1.0",
+                                                     Artifact.SCOPE_RUNTIME ) );
+        }
+        reports.add( stubFactory.createArtifact( "testGroupId", "maven-report-plugin", "1.0",
+                                                 Artifact.SCOPE_RUNTIME ) );
+
+        MavenProject project = new DependencyProjectStub()
+        {
+            public Set getPluginArtifacts()
+            {
+                return plugins;
+            }
+
+            public Set getReportArtifacts()
+            {
+                return reports;
+            }
+        };
+        setVariableValueToObject( mojo, "project", project );
+
+        MavenSession session = newMavenSession( project );
+        setVariableValueToObject( mojo, "session", session );
+
+        DefaultRepositorySystemSession repoSession = (DefaultRepositorySystemSession) session.getRepositorySession();
+        repoSession.setLocalRepositoryManager( new SimpleLocalRepositoryManager( stubFactory.getWorkingDir() ) );
+
+        // the stub repository has no POM, the dependencies of the plugins are stubbed
+        setVariableValueToObject( mojo, "dependencyResolver", Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] { DependencyResolver.class }, new StubDependencyResolver() ) );
+    }
+
+    public void testPrefetchPluginArtifacts()
+        throws Exception
+    {
+        mojo.prefetch = true;
+        mojo.prefetchThreads = 3;
+
+        Map<Artifact, Collection<Artifact>> pluginDependencies = mojo.prefetchPluginArtifacts();
+
+        // the reports first, then the plugins, as when they are resolved one after the other
+        List<Artifact> expected = new ArrayList<Artifact>( reports );
+        expected.addAll( plugins );
+        assertEquals( expected, new ArrayList<Artifact>( pluginDependencies.keySet() ) );
+
+        for ( Map.Entry<Artifact, Collection<Artifact>> entry : pluginDependencies.entrySet() )
+        {
+            Artifact plugin = entry.getKey();
+            assertTrue( plugin.getFile().isFile() );
+
+            // the resolved plugin is not one of its dependencies
+            List<String> dependencies = new ArrayList<String>();
+            for ( Artifact dependency : entry.getValue() )
+            {
+                dependencies.add( dependency.getArtifactId() );
+            }
+            assertEquals( Arrays.asList( plugin.getArtifactId() + "-dependency", "common-dependency" ),
+                          dependencies );
+        }
+
+        assertEquals( 5, dependencyResolutions.get() );
+        assertTrue( maxRunning.get() > 1 );
+        assertTrue( maxRunning.get() <= 3 );
+    }
+
+    public void testPrefetchPluginArtifactsExcludeTransitive()
+        throws Exception
+    {
+        mojo.prefetch = true;
+        setVariableValueToObject( mojo, "excludeTransitive", Boolean.TRUE );
+
+        Map<Artifact, Collection<Artifact>> pluginDependencies = mojo.prefetchPluginArtifacts();
+
+        assertEquals( 5, pluginDependencies.size() );
+        for ( Collection<Artifact> dependencies : pluginDependencies.values() )
+        {
+            assertTrue( dependencies.isEmpty() );
+        }
+        assertEquals( 0, dependencyResolutions.get() );
+    }
+
+    public void testPrefetchOutput()
+        throws Exception
+    {
+        File outputFile = new File( testDir, "plugins.txt" );
+        mojo.outputFile = outputFile;
+        mojo.prefetch = true;
+
+        mojo.execute();
+
+        String output = FileUtils.fileRead( outputFile );
+        for ( Artifact plugin : plugins )
+        {
+            assertTrue( output, output.contains( "   testGroupId:" + plugin.getArtifactId() + ":jar:1.0" ) );
+            assertTrue( output, output.contains( "      testGroupId:" + plugin.getArtifactId()
+                + "-dependency:jar:1.0:runtime\n" ) );
+        }
+    }
+
+    /**
+     * Resolves each plugin to a dependency of its own and a dependency shared by all of them, slowly.
+     */
+    private class StubDependencyResolver
+        implements InvocationHandler
+    {
+        @Override
+        public Object invoke( Object proxy, Method method, Object[] args )
+            throws Throwable
+        {
+            if ( !"resolveDependencies".equals( method.getName() ) )
+            {
+                throw new UnsupportedOperationException( method.getName() );
+            }
+            DependableCoordinate coordinate = (DependableCoordinate) args[1];
+
+            dependencyResolutions.incrementAndGet();
+            TestArtifactPrefetcher.raiseTo( maxRunning, running.incrementAndGet() );
+            try
+            {
+                // the latency of a remote repository
+                Thread.sleep( 50 );
+            }
+            finally
+            {
+                running.decrementAndGet();
+            }
+
+            List<ArtifactResult> results = new ArrayList<ArtifactResult>();
+            results.add( newResult( coordinate.getArtifactId() + "-dependency" ) );
+            results.add( newResult( "common-dependency" ) );
+            return results;
+        }
+
+        private ArtifactResult newResult( String artifactId )
+            throws Exception
+        {
+            final Artifact artifact =
+                stubFactory.createArtifact( "testGroupId", artifactId, "1.0", Artifact.SCOPE_RUNTIME );
+            return new ArtifactResult()
+            {
+                @Override
+                public Artifact getArtifact()
+                {
+                    return artifact;
+                }
+            };
+        }
+    }
+}
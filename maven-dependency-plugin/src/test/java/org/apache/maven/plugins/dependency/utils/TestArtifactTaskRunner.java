@@ -0,0 +1,292 @@
+package org.apache.maven.plugins.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.dependency.utils.markers.ChecksumFileMarkerHandler;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestArtifactTaskRunner
+    extends TestCase
+{
+    private File outputFolder;
+
+    private final List<Integer> completed = Collections.synchronizedList( new ArrayList<Integer>() );
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        outputFolder = new File( "target/unittest-output/artifact-task-runner" );
+        FileUtils.deleteDirectory( outputFolder );
+    }
+
+    public void testCopiesToTheSameFileAreOrdered()
+        throws Exception
+    {
+        File destFile = new File( outputFolder, "same.jar" );
+        List<ArtifactTask> tasks = new ArrayList<ArtifactTask>();
+        for ( int i = 0; i < 10; i++ )
+        {
+            tasks.add( new WriteTask( i, i % 2 == 0 ? destFile : new File( outputFolder, i + ".jar" ), false ) );
+        }
+
+        new ArtifactTaskRunner( 4 ).run( tasks );
+
+        assertEquals( "8", FileUtils.fileRead( destFile ) );
+        assertEquals( "9", FileUtils.fileRead( new File( outputFolder, "9.jar" ) ) );
+        assertCompletedInOrder( 10 );
+    }
+
+    public void testUnpacksToTheSameDirectoryAreMergedInOrder()
+        throws Exception
+    {
+        File unpacked = new File( outputFolder, "unpacked" );
+        File nested = new File( unpacked, "nested" );
+        List<ArtifactTask> tasks = new ArrayList<ArtifactTask>();
+        for ( int i = 0; i < 10; i++ )
+        {
+            tasks.add( new WriteTask( i, i == 5 ? outputFolder : i == 7 ? nested : unpacked, true ) );
+        }
+        tasks.add( new WriteTask( 10, new File( outputFolder, "other" ), true ) );
+
+        new ArtifactTaskRunner( 4 ).run( tasks );
+
+        assertEquals( "9", FileUtils.fileRead( new File( unpacked, "shared.txt" ) ) );
+        assertEquals( "9", FileUtils.fileRead( new File( nested, "shared.txt" ) ) );
+        assertEquals( "7", FileUtils.fileRead( new File( nested, "nested/shared.txt" ) ) );
+        assertEquals( "5", FileUtils.fileRead( new File( outputFolder, "shared.txt" ) ) );
+        assertEquals( "10", FileUtils.fileRead( new File( outputFolder, "other/shared.txt" ) ) );
+        for ( int i = 0; i < 10; i++ )
+        {
+            File target = i == 5 ? outputFolder : i == 7 ? nested : unpacked;
+            assertTrue( new File( target, "only-" + i + ".txt" ).exists() );
+        }
+        assertNoStagingDirectory( outputFolder );
+        assertCompletedInOrder( 11 );
+    }
+
+    public void testUnpacksToNestedDirectoriesAreMergedInOrder()
+        throws Exception
+    {
+        File unpacked = new File( outputFolder, "unpacked" );
+        List<ArtifactTask> tasks = new ArrayList<ArtifactTask>();
+        tasks.add( new WriteTask( 0, unpacked, true ) );
+        tasks.add( new WriteTask( 1, new File( outputFolder, "./unpacked/./nested" ), true ) );
+        tasks.add( new WriteTask( 2, new File( outputFolder, "unpacked-other" ), true ) );
+
+        new ArtifactTaskRunner( 3 ).run( tasks );
+
+        assertEquals( "0", FileUtils.fileRead( new File( unpacked, "shared.txt" ) ) );
+        assertEquals( "1", FileUtils.fileRead( new File( unpacked, "nested/shared.txt" ) ) );
+        assertEquals( "2", FileUtils.fileRead( new File( outputFolder, "unpacked-other/shared.txt" ) ) );
+        assertNoStagingDirectory( outputFolder );
+        assertCompletedInOrder( 3 );
+    }
+
+    public void testFirstFailureIsReported()
+        throws Exception
+    {
+        List<ArtifactTask> tasks = new ArrayList<ArtifactTask>();
+        for ( int i = 0; i < 6; i++ )
+        {
+            final int index = i;
+            tasks.add( new WriteTask( i, outputFolder, true )
+            {
+                @Override
+                public void process( File location )
+                    throws MojoExecutionException
+                {
+                    super.process( location );
+                    if ( index >= 3 )
+                    {
+                        throw new MojoExecutionException( "failure " + index );
+                    }
+                }
+            } );
+        }
+
+        try
+        {
+            new ArtifactTaskRunner( 3 ).run( tasks );
+            fail( "Expected a failure" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            assertEquals( "failure 3", e.getMessage() );
+        }
+        assertCompletedInOrder( 3 );
+        assertEquals( "2", FileUtils.fileRead( new File( outputFolder, "shared.txt" ) ) );
+        assertNoStagingDirectory( outputFolder );
+    }
+
+    public void testChecksumMarkersKeepUnchangedFilesWithThreads()
+        throws Exception
+    {
+        File unpacked = new File( outputFolder, "unpacked" );
+        List<Integer> moved = new ArrayList<Integer>();
+        List<ArtifactTask> tasks = new ArrayList<ArtifactTask>();
+        for ( int i = 0; i < 3; i++ )
+        {
+            tasks.add( new ChecksumTask( i, unpacked, moved ) );
+        }
+        new ArtifactTaskRunner( 4 ).run( tasks );
+        assertEquals( Arrays.asList( 3, 3, 3 ), moved );
+
+        // whole seconds, whatever the resolution of the file system
+        long lastModified = ( System.currentTimeMillis() - 60000 ) / 1000 * 1000;
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertTrue( new File( unpacked, "only-" + i + ".txt" ).setLastModified( lastModified ) );
+        }
+
+        // unpacked again: the shared files are replaced in order, the other files are not rewritten
+        moved.clear();
+        completed.clear();
+        new ArtifactTaskRunner( 4 ).run( tasks );
+        assertEquals( Arrays.asList( 2, 2, 2 ), moved );
+        assertEquals( "2", FileUtils.fileRead( new File( unpacked, "shared.txt" ) ) );
+        for ( int i = 0; i < 3; i++ )
+        {
+            assertEquals( lastModified, new File( unpacked, "only-" + i + ".txt" ).lastModified() );
+        }
+        assertNoStagingDirectory( outputFolder );
+        assertCompletedInOrder( 3 );
+    }
+
+    private void assertNoStagingDirectory( File directory )
+    {
+        for ( File file : directory.listFiles() )
+        {
+            assertFalse( file.getPath(), file.getName().startsWith( ".mdep-staging-" ) );
+            if ( file.isDirectory() )
+            {
+                assertNoStagingDirectory( file );
+            }
+        }
+    }
+
+    private void assertCompletedInOrder( int count )
+    {
+        assertEquals( count, completed.size() );
+        for ( int i = 0; i < count; i++ )
+        {
+            assertEquals( Integer.valueOf( i ), completed.get( i ) );
+        }
+    }
+
+    private class ChecksumTask
+        extends WriteTask
+    {
+        private final ChecksumFileMarkerHandler handler =
+            new ChecksumFileMarkerHandler( new File( outputFolder, "markers" ), null, null, null );
+
+        private final List<Integer> moved;
+
+        ChecksumTask( int index, File target, List<Integer> moved )
+        {
+            super( index, target, true );
+            this.moved = moved;
+        }
+
+        @Override
+        public void process( File location )
+            throws MojoExecutionException
+        {
+            if ( location.equals( getTarget() ) )
+            {
+                File unpackDirectory = new File( location, ".unpack" );
+                super.process( unpackDirectory );
+                moved.add( handler.moveChanges( unpackDirectory, location ) );
+            }
+            else
+            {
+                super.process( location );
+            }
+        }
+
+        @Override
+        public void moveContent( File location )
+            throws MojoExecutionException
+        {
+            moved.add( handler.moveChanges( location, getTarget() ) );
+        }
+    }
+
+    private class WriteTask
+        extends ArtifactTask
+    {
+        private final int index;
+
+        WriteTask( int index, File target, boolean directory )
+        {
+            super( target, directory );
+            this.index = index;
+        }
+
+        @Override
+        public void process( File location )
+            throws MojoExecutionException
+        {
+            try
+            {
+                if ( isDirectory() )
+                {
+                    // the later tasks are made to finish first
+                    Thread.sleep( 50 - 5 * index );
+                    location.mkdirs();
+                    FileUtils.fileWrite( new File( location, "shared.txt" ), String.valueOf( index ) );
+                    FileUtils.fileWrite( new File( location, "only-" + index + ".txt" ), String.valueOf( index ) );
+                    new File( location, "nested" ).mkdirs();
+                    FileUtils.fileWrite( new File( location, "nested/shared.txt" ), String.valueOf( index ) );
+                }
+                else
+                {
+                    location.getParentFile().mkdirs();
+                    FileUtils.fileWrite( location, String.valueOf( index ) );
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new MojoExecutionException( e.getMessage(), e );
+            }
+            catch ( InterruptedException e )
+            {
+                throw new MojoExecutionException( e.getMessage(), e );
+            }
+        }
+
+        @Override
+        public void completed()
+        {
+            completed.add( index );
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.testing.SilentLog;
 import org.apache.maven.plugin.testing.stubs.DefaultArtifactHandlerStub;
+import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -315,4 +316,16 @@ public class TestDependencyUtil
         tokens = DependencyUtil.tokenizer( "  " );
         assertEquals( 0, tokens.length );
     }
+
+    public void testChecksum()
+        throws Exception
+    {
+        File file = new File( "target/unittest-output/checksum/empty" );
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file, "" );
+        assertEquals( "da39a3ee5e6b4b0d3255bfef95601890afd80709", DependencyUtil.checksum( file ) );
+
+        FileUtils.fileWrite( file, "abc" );
+        assertEquals( "a9993e364706816aba3e25717850c26c9cd0d89d", DependencyUtil.checksum( file ) );
+    }
 }
@@ -0,0 +1,138 @@
+package org.apache.maven.plugins.dependency.utils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.nio.file.Files;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestFileLinker
+    extends TestCase
+{
+    private File source;
+
+    private File outputFolder;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        File testDir = new File( "target/unittest-output/file-linker" );
+        FileUtils.deleteDirectory( testDir );
+        source = new File( testDir, "repository/artifact-1.0.jar" );
+        source.getParentFile().mkdirs();
+        FileUtils.fileWrite( source, "artifact" );
+        outputFolder = new File( testDir, "output" );
+        outputFolder.mkdirs();
+    }
+
+    public void testValidModes()
+    {
+        assertTrue( FileLinker.isValidMode( "copy" ) );
+        assertTrue( FileLinker.isValidMode( "hardlink" ) );
+        assertTrue( FileLinker.isValidMode( "symlink" ) );
+        assertTrue( FileLinker.isValidMode( "reflink" ) );
+        assertFalse( FileLinker.isValidMode( "junction" ) );
+        assertFalse( FileLinker.isValidMode( null ) );
+    }
+
+    public void testHardlink()
+        throws Exception
+    {
+        File dest = new File( outputFolder, "artifact.jar" );
+        FileUtils.fileWrite( dest, "previous" );
+
+        assertTrue( FileLinker.link( source, dest, FileLinker.HARDLINK ) );
+        assertTrue( Files.isSameFile( source.toPath(), dest.toPath() ) );
+        assertFalse( Files.isSymbolicLink( dest.toPath() ) );
+
+        // linking again keeps the link
+        assertTrue( FileLinker.link( source, dest, FileLinker.HARDLINK ) );
+        assertTrue( Files.isSameFile( source.toPath(), dest.toPath() ) );
+    }
+
+    public void testSymlink()
+        throws Exception
+    {
+        File dest = new File( outputFolder, "artifact.jar" );
+
+        if ( FileLinker.link( source, dest, FileLinker.SYMLINK ) )
+        {
+            assertTrue( Files.isSymbolicLink( dest.toPath() ) );
+            assertEquals( "artifact", FileUtils.fileRead( dest ) );
+        }
+        else
+        {
+            assertFalse( dest.exists() );
+        }
+    }
+
+    public void testReflink()
+        throws Exception
+    {
+        File dest = new File( outputFolder, "artifact.jar" );
+
+        if ( FileLinker.link( source, dest, FileLinker.REFLINK ) )
+        {
+            assertEquals( "artifact", FileUtils.fileRead( dest ) );
+            assertFalse( Files.isSameFile( source.toPath(), dest.toPath() ) );
+        }
+        else
+        {
+            // not supported by the file system, the caller copies the file
+            assertFalse( dest.exists() );
+        }
+    }
+
+    public void testUnlinkBeforeCopy()
+        throws Exception
+    {
+        File dest = new File( outputFolder, "artifact.jar" );
+        assertTrue( FileLinker.link( source, dest, FileLinker.HARDLINK ) );
+
+        FileLinker.unlink( source, dest );
+        assertFalse( dest.exists() );
+        FileUtils.copyFile( source, dest );
+        FileUtils.fileWrite( dest, "modified" );
+        assertEquals( "artifact", FileUtils.fileRead( source ) );
+
+        // a plain copy is kept
+        FileLinker.unlink( source, dest );
+        assertTrue( dest.exists() );
+    }
+
+    public void testSourceIsDestination()
+        throws Exception
+    {
+        File alias = new File( source.getParentFile(), "../repository/" + source.getName() );
+
+        FileLinker.unlink( source, source );
+        FileLinker.unlink( source, alias );
+        assertTrue( FileLinker.link( source, alias, FileLinker.HARDLINK ) );
+        assertTrue( FileLinker.link( source, alias, FileLinker.SYMLINK ) );
+        assertTrue( source.isFile() );
+        assertFalse( Files.isSymbolicLink( source.toPath() ) );
+        assertEquals( "artifact", FileUtils.fileRead( source ) );
+    }
+}
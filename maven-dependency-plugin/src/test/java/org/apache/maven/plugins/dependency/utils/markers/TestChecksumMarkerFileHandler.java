@@ -0,0 +1,187 @@
+package org.apache.maven.plugins.dependency.utils.markers;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.codehaus.plexus.util.FileUtils;
+
+public class TestChecksumMarkerFileHandler
+    extends TestCase
+{
+    Artifact artifact;
+
+    File testDir;
+
+    File markersFolder;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        testDir = new File( "target/unittest-output/checksum-markers" );
+        FileUtils.deleteDirectory( testDir );
+        markersFolder = new File( testDir, "markers" );
+
+        VersionRange vr = VersionRange.createFromVersion( "1.1" );
+        artifact = new DefaultArtifact( "test", "1", vr, Artifact.SCOPE_COMPILE, "jar", "",
+                                        new DefaultArtifactHandler(), false );
+        File file = new File( testDir, "repository/test-1.1.jar" );
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file, "version 1" );
+        artifact.setFile( file );
+    }
+
+    protected void tearDown()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( testDir );
+    }
+
+    public void testMarkerFollowsTheContent()
+        throws Exception
+    {
+        ChecksumFileMarkerHandler handler =
+            new ChecksumFileMarkerHandler( artifact, markersFolder, "**/*.class", null, null );
+        assertFalse( handler.isMarkerSet() );
+        assertTrue( handler.isMarkerOlder( artifact ) );
+
+        handler.setMarker();
+        assertTrue( handler.isMarkerSet() );
+        assertFalse( handler.isMarkerOlder( artifact ) );
+
+        // same content, restored from a cache
+        assertTrue( artifact.getFile().setLastModified( artifact.getFile().lastModified() - 60000 ) );
+        assertTrue( handler.isMarkerSet() );
+
+        // other settings
+        assertFalse( new ChecksumFileMarkerHandler( artifact, markersFolder, null, null, null ).isMarkerSet() );
+        assertFalse( new ChecksumFileMarkerHandler( artifact, markersFolder, "**/*.class", null, "UTF-8" )
+            .isMarkerSet() );
+
+        // new content, with an older timestamp
+        long lastModified = artifact.getFile().lastModified();
+        FileUtils.fileWrite( artifact.getFile(), "version 2" );
+        assertTrue( artifact.getFile().setLastModified( lastModified - 60000 ) );
+        assertFalse( handler.isMarkerSet() );
+        assertTrue( handler.isMarkerOlder( artifact ) );
+
+        assertTrue( handler.clearMarker() );
+        assertFalse( handler.getMarkerFile().exists() );
+    }
+
+    public void testDelta()
+        throws Exception
+    {
+        File location = new File( testDir, "unpacked" );
+
+        File unpacked = new File( testDir, "unpack-1" );
+        write( unpacked, "same.txt", "same" );
+        write( unpacked, "dir/changed.txt", "before" );
+        write( unpacked, "removed.txt", "removed" );
+        write( unpacked, "modified.txt", "modified" );
+        ChecksumFileMarkerHandler handler = new ChecksumFileMarkerHandler( artifact, markersFolder, null, null, null );
+        assertEquals( 4, handler.moveChanges( unpacked, location ) );
+        assertFalse( unpacked.exists() );
+        assertEquals( 0, handler.deleteRemovedFiles( location ) );
+        handler.setMarker();
+        assertEquals( 4, handler.getManifest().size() );
+
+        File same = new File( location, "same.txt" );
+        assertTrue( same.setLastModified( same.lastModified() - 60000 ) );
+        long sameLastModified = same.lastModified();
+        FileUtils.fileWrite( new File( location, "modified.txt" ), "modified by the build" );
+
+        unpacked = new File( testDir, "unpack-2" );
+        write( unpacked, "same.txt", "same" );
+        write( unpacked, "dir/changed.txt", "after" );
+        write( unpacked, "added.txt", "added" );
+        handler = new ChecksumFileMarkerHandler( artifact, markersFolder, null, null, null );
+        assertEquals( 2, handler.moveChanges( unpacked, location ) );
+        assertEquals( 1, handler.deleteRemovedFiles( location ) );
+        handler.setMarker();
+
+        assertEquals( sameLastModified, same.lastModified() );
+        assertEquals( "after", FileUtils.fileRead( new File( location, "dir/changed.txt" ) ) );
+        assertEquals( "added", FileUtils.fileRead( new File( location, "added.txt" ) ) );
+        assertFalse( new File( location, "removed.txt" ).exists() );
+        // not part of the artifact anymore, but not deleted as it was modified
+        assertTrue( new File( location, "modified.txt" ).exists() );
+        assertEquals( 3, handler.getManifest().size() );
+    }
+
+    public void testFileSharedWithAnotherArtifact()
+        throws Exception
+    {
+        File location = new File( testDir, "unpacked" );
+        VersionRange vr = VersionRange.createFromVersion( "1.0" );
+        Artifact other = new DefaultArtifact( "test", "other", vr, Artifact.SCOPE_COMPILE, "jar", "",
+                                              new DefaultArtifactHandler(), false );
+        File otherFile = new File( testDir, "repository/other-1.0.jar" );
+        FileUtils.fileWrite( otherFile, "other" );
+        other.setFile( otherFile );
+
+        File unpacked = new File( testDir, "unpack-1" );
+        write( unpacked, "LICENSE", "license" );
+        write( unpacked, "own.txt", "own" );
+        ChecksumFileMarkerHandler handler = new ChecksumFileMarkerHandler( artifact, markersFolder, null, null, null );
+        handler.moveChanges( unpacked, location );
+        handler.setMarker();
+
+        unpacked = new File( testDir, "unpack-other" );
+        write( unpacked, "LICENSE", "license" );
+        ChecksumFileMarkerHandler otherHandler =
+            new ChecksumFileMarkerHandler( other, markersFolder, null, null, null );
+        otherHandler.moveChanges( unpacked, location );
+        otherHandler.setMarker();
+
+        // the new version does not ship the license anymore, the other artifact still does
+        unpacked = new File( testDir, "unpack-2" );
+        write( unpacked, "own.txt", "own" );
+        handler = new ChecksumFileMarkerHandler( artifact, markersFolder, null, null, null );
+        handler.moveChanges( unpacked, location );
+        assertEquals( 0, handler.deleteRemovedFiles( location ) );
+        assertTrue( new File( location, "LICENSE" ).exists() );
+
+        // the other artifact is now unpacked elsewhere
+        unpacked = new File( testDir, "unpack-other-2" );
+        write( unpacked, "LICENSE", "license" );
+        otherHandler.moveChanges( unpacked, new File( testDir, "elsewhere" ) );
+        otherHandler.setMarker();
+        assertEquals( 1, handler.deleteRemovedFiles( location ) );
+        assertFalse( new File( location, "LICENSE" ).exists() );
+    }
+
+    private static void write( File directory, String path, String content )
+        throws IOException
+    {
+        File file = new File( directory, path );
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file, content );
+    }
+}
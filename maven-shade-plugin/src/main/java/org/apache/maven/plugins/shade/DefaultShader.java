@@ -22,11 +22,15 @@ package org.apache.maven.plugins.shade;
 import com.google.common.base.Joiner;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.shade.filter.Filter;
 import org.apache.maven.plugins.shade.relocation.Relocator;
+import org.apache.maven.plugins.shade.relocation.RelocatorIndex;
 import org.apache.maven.plugins.shade.resource.ManifestResourceTransformer;
 import org.apache.maven.plugins.shade.resource.ResourceTransformer;
+import org.apache.maven.plugins.shade.resource.StreamingResourceTransformer;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
 import org.codehaus.plexus.util.IOUtil;
@@ -46,17 +50,20 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.jar.JarOutputStream;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.zip.ZipException;
 
 /**
@@ -84,6 +91,10 @@ public class DefaultShader
                 manifestTransformer = transformer;
                 it.remove();
             }
+            else if ( transformer instanceof StreamingResourceTransformer )
+            {
+                ( (StreamingResourceTransformer) transformer ).setSpillThreshold( shadeRequest.getSpillThreshold() );
+            }
         }
 
         RelocatorRemapper remapper = new RelocatorRemapper( shadeRequest.getRelocators() );
@@ -91,17 +102,31 @@ public class DefaultShader
         // noinspection ResultOfMethodCallIgnored
         shadeRequest.getUberJar().getParentFile().mkdirs();
 
-        JarOutputStream out = null;
+        ShadeCache cache = null;
+        if ( shadeRequest.getCacheDirectory() != null && remapper.hasRelocators() )
+        {
+            cache = new ShadeCache( shadeRequest.getCacheDirectory(), shadeRequest.getUberJar(),
+                                    shadeRequest.getJars(), shadeRequest.getRelocators(), getLogger() );
+        }
+
+        ShadedJarOutputStream out = null;
         try
         {
-            out = new JarOutputStream( new BufferedOutputStream( new FileOutputStream( shadeRequest.getUberJar() ) ) );
+            out = new ShadedJarOutputStream( shadeRequest.getUberJar() );
             goThroughAllJarEntriesForManifestTransformer( shadeRequest, resources, manifestTransformer, out );
 
             // CHECKSTYLE_OFF: MagicNumber
             Multimap<String, File> duplicates = HashMultimap.create( 10000, 3 );
             // CHECKSTYLE_ON: MagicNumber
 
-            shadeJars( shadeRequest, resources, transformers, remapper, out, duplicates );
+            if ( shadeRequest.getThreads() > 1 )
+            {
+                shadeJarsInParallel( shadeRequest, resources, transformers, remapper, cache, out, duplicates );
+            }
+            else
+            {
+                shadeJars( shadeRequest, resources, transformers, remapper, cache, out, duplicates );
+            }
 
             // CHECKSTYLE_OFF: MagicNumber
             Multimap<Collection<File>, String> overlapping = HashMultimap.create( 20, 15 );
@@ -124,20 +149,26 @@ public class DefaultShader
                 showOverlappingWarning();
             }
 
-            for ( ResourceTransformer transformer : transformers )
-            {
-                if ( transformer.hasTransformedResource() )
-                {
-                    transformer.modifyOutputStream( out );
-                }
-            }
+            addTransformedResources( transformers, out, shadeRequest.getUberJar() );
 
             out.close();
             out = null;
+
+            if ( cache != null )
+            {
+                cache.save( shadeRequest.getUberJar() );
+            }
         }
         finally
         {
             IOUtil.close( out );
+
+            if ( cache != null )
+            {
+                cache.close();
+            }
+
+            releaseTransformers( transformers );
         }
 
         for ( Filter filter : shadeRequest.getFilters() )
@@ -146,8 +177,76 @@ public class DefaultShader
         }
     }
 
+    /**
+     * The resource transformers write to a JarOutputStream, which can't be the stream of the shaded jar: they write
+     * to a temporary jar, whose entries are then copied to the shaded jar as they are.
+     */
+    private void addTransformedResources( List<ResourceTransformer> transformers, ShadedJarOutputStream out,
+                                          File uberJar )
+        throws IOException
+    {
+        List<ResourceTransformer> transformed = new ArrayList<ResourceTransformer>();
+        for ( ResourceTransformer transformer : transformers )
+        {
+            if ( transformer.hasTransformedResource() )
+            {
+                transformed.add( transformer );
+            }
+        }
+        if ( transformed.isEmpty() )
+        {
+            return;
+        }
+
+        File temporaryJar = File.createTempFile( "transformed", ".jar", uberJar.getParentFile() );
+        try
+        {
+            JarOutputStream jos = null;
+            try
+            {
+                jos = new JarOutputStream( new BufferedOutputStream( new FileOutputStream( temporaryJar ) ) );
+                for ( ResourceTransformer transformer : transformed )
+                {
+                    transformer.modifyOutputStream( jos );
+                }
+                jos.close();
+                jos = null;
+            }
+            finally
+            {
+                IOUtil.close( jos );
+            }
+
+            out.copyEntries( temporaryJar );
+        }
+        finally
+        {
+            // noinspection ResultOfMethodCallIgnored
+            temporaryJar.delete();
+        }
+    }
+
+    private void releaseTransformers( List<ResourceTransformer> transformers )
+    {
+        for ( ResourceTransformer transformer : transformers )
+        {
+            if ( transformer instanceof StreamingResourceTransformer )
+            {
+                try
+                {
+                    ( (StreamingResourceTransformer) transformer ).release();
+                }
+                catch ( IOException e )
+                {
+                    getLogger().warn( "Failed to release " + transformer.getClass().getName(), e );
+                }
+            }
+        }
+    }
+
     private void shadeJars( ShadeRequest shadeRequest, Set<String> resources, List<ResourceTransformer> transformers,
-                            RelocatorRemapper remapper, JarOutputStream jos, Multimap<String, File> duplicates )
+                            RelocatorRemapper remapper, ShadeCache cache, ShadedJarOutputStream jos,
+                            Multimap<String, File> duplicates )
         throws IOException, MojoExecutionException
     {
         for ( File jar : shadeRequest.getJars() )
@@ -157,14 +256,14 @@ public class DefaultShader
 
             List<Filter> jarFilters = getFilters( jar, shadeRequest.getFilters() );
 
-            JarFile jarFile = newJarFile( jar );
+            ZipFile zipFile = newZipFile( jar );
 
             try
             {
 
-                for ( Enumeration<JarEntry> j = jarFile.entries(); j.hasMoreElements(); )
+                for ( Enumeration<ZipArchiveEntry> j = zipFile.getEntries(); j.hasMoreElements(); )
                 {
-                    JarEntry entry = j.nextElement();
+                    ZipArchiveEntry entry = j.nextElement();
 
                     String name = entry.getName();
 
@@ -178,100 +277,284 @@ public class DefaultShader
 
                     if ( !entry.isDirectory() && !isFiltered( jarFilters, name ) )
                     {
-                        shadeSingleJar( shadeRequest, resources, transformers, remapper, jos, duplicates, jar, jarFile,
-                                        entry, name );
+                        shadeSingleJar( shadeRequest, resources, transformers, remapper, cache, jos, duplicates, jar,
+                                        zipFile, entry, name );
                     }
                 }
 
             }
             finally
             {
-                jarFile.close();
+                zipFile.close();
             }
         }
     }
 
     private void shadeSingleJar( ShadeRequest shadeRequest, Set<String> resources,
                                  List<ResourceTransformer> transformers, RelocatorRemapper remapper,
-                                 JarOutputStream jos, Multimap<String, File> duplicates, File jar, JarFile jarFile,
-                                 JarEntry entry, String name )
+                                 ShadeCache cache, ShadedJarOutputStream jos, Multimap<String, File> duplicates,
+                                 File jar, ZipFile zipFile, ZipArchiveEntry entry, String name )
         throws IOException, MojoExecutionException
     {
-        InputStream in = null;
-        try
+        byte[] classBytes = null;
+        if ( name.endsWith( ".class" ) && remapper.hasRelocators() )
         {
-            in = jarFile.getInputStream( entry );
-            String mappedName = remapper.map( name );
+            classBytes = relocatedClass( remapper, cache, jar, zipFile, entry, name );
+        }
+
+        writeEntry( shadeRequest, resources, transformers, remapper, cache, jos, duplicates, jar, zipFile, entry, name,
+                    classBytes );
+    }
+
+    /**
+     * Parallel variant of {@link #shadeJars}: the entries are read and the classes remapped on a pool of
+     * {@link ShadeRequest#getThreads()} workers, while the calling thread drains the results in submission order.
+     * Since the writer stage sees the entries in exactly the same order as the serial path, the content of the
+     * shaded jar, the duplicate detection and the resource transformers behave the same.
+     */
+    private void shadeJarsInParallel( ShadeRequest shadeRequest, Set<String> resources,
+                                      List<ResourceTransformer> transformers, final RelocatorRemapper remapper,
+                                      final ShadeCache cache, ShadedJarOutputStream jos,
+                                      Multimap<String, File> duplicates )
+        throws IOException, MojoExecutionException
+    {
+        int threads = shadeRequest.getThreads();
 
-            int idx = mappedName.lastIndexOf( '/' );
-            if ( idx != -1 )
+        getLogger().debug( "Shading with " + threads + " threads" );
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+
+        // bound the number of entries held in memory while the writer catches up
+        // CHECKSTYLE_OFF: MagicNumber
+        int window = threads * 16;
+        // CHECKSTYLE_ON: MagicNumber
+
+        LinkedList<Future<ShadedEntry>> pending = new LinkedList<Future<ShadedEntry>>();
+        List<ZipFile> openJars = new ArrayList<ZipFile>();
+        try
+        {
+            for ( final File jar : shadeRequest.getJars() )
             {
-                // make sure dirs are created
-                String dir = mappedName.substring( 0, idx );
-                if ( !resources.contains( dir ) )
+                getLogger().debug( "Processing JAR " + jar );
+
+                List<Filter> jarFilters = getFilters( jar, shadeRequest.getFilters() );
+
+                final ZipFile zipFile = newZipFile( jar );
+                openJars.add( zipFile );
+
+                for ( Enumeration<ZipArchiveEntry> j = zipFile.getEntries(); j.hasMoreElements(); )
                 {
-                    addDirectory( resources, jos, dir );
+                    final ZipArchiveEntry entry = j.nextElement();
+
+                    final String name = entry.getName();
+
+                    if ( "META-INF/INDEX.LIST".equals( name ) )
+                    {
+                        // see shadeJars()
+                        continue;
+                    }
+
+                    if ( !entry.isDirectory() && !isFiltered( jarFilters, name ) )
+                    {
+                        pending.add( executor.submit( new Callable<ShadedEntry>()
+                        {
+                            public ShadedEntry call()
+                                throws Exception
+                            {
+                                return readEntry( remapper, cache, jar, zipFile, entry, name );
+                            }
+                        } ) );
+
+                        if ( pending.size() >= window )
+                        {
+                            writeEntry( shadeRequest, resources, transformers, remapper, cache, jos, duplicates,
+                                        await( pending.removeFirst() ) );
+                        }
+                    }
                 }
+
+                // the end of this jar is marked so it gets closed as soon as all its entries are written
+                pending.add( closeMarker( zipFile ) );
             }
 
-            if ( name.endsWith( ".class" ) )
+            while ( !pending.isEmpty() )
             {
-                duplicates.put( name, jar );
-                addRemappedClass( remapper, jos, jar, name, in );
+                writeEntry( shadeRequest, resources, transformers, remapper, cache, jos, duplicates,
+                            await( pending.removeFirst() ) );
             }
-            else if ( shadeRequest.isShadeSourcesContent() && name.endsWith( ".java" ) )
+        }
+        finally
+        {
+            executor.shutdownNow();
+
+            for ( ZipFile zipFile : openJars )
             {
-                // Avoid duplicates
-                if ( resources.contains( mappedName ) )
-                {
-                    return;
-                }
+                ZipFile.closeQuietly( zipFile );
+            }
+        }
+    }
 
-                addJavaSource( resources, jos, mappedName, in, shadeRequest.getRelocators() );
+    /**
+     * Relocates a class on a worker. The other entries are left to the writer, which copies them without
+     * decompressing them or hands them to the resource transformers.
+     */
+    private ShadedEntry readEntry( RelocatorRemapper remapper, ShadeCache cache, File jar, ZipFile zipFile,
+                                   ZipArchiveEntry entry, String name )
+        throws IOException, MojoExecutionException
+    {
+        byte[] classBytes = null;
+        if ( name.endsWith( ".class" ) && remapper.hasRelocators() )
+        {
+            classBytes = relocatedClass( remapper, cache, jar, zipFile, entry, name );
+        }
+
+        return new ShadedEntry( jar, zipFile, entry, name, classBytes );
+    }
+
+    private static Future<ShadedEntry> closeMarker( final ZipFile zipFile )
+    {
+        return new CloseMarker( new Callable<ShadedEntry>()
+        {
+            public ShadedEntry call()
+                throws Exception
+            {
+                zipFile.close();
+                return null;
             }
-            else
+        } );
+    }
+
+    private static ShadedEntry await( Future<ShadedEntry> future )
+        throws IOException, MojoExecutionException
+    {
+        if ( future instanceof CloseMarker )
+        {
+            // not submitted to the pool, the jar is closed by the writer once it reaches the marker
+            ( (CloseMarker) future ).run();
+        }
+
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while shading", e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
             {
-                if ( !resourceTransformed( transformers, mappedName, in, shadeRequest.getRelocators() ) )
-                {
-                    // Avoid duplicates that aren't accounted for by the resource transformers
-                    if ( resources.contains( mappedName ) )
-                    {
-                        return;
-                    }
+                throw (IOException) cause;
+            }
+            if ( cause instanceof MojoExecutionException )
+            {
+                throw (MojoExecutionException) cause;
+            }
+            throw new MojoExecutionException( "Error shading jar: " + cause.getMessage(), cause );
+        }
+    }
 
-                    addResource( resources, jos, mappedName, entry.getTime(), in );
-                }
+    private void writeEntry( ShadeRequest shadeRequest, Set<String> resources,
+                             List<ResourceTransformer> transformers, RelocatorRemapper remapper, ShadeCache cache,
+                             ShadedJarOutputStream jos, Multimap<String, File> duplicates, ShadedEntry shadedEntry )
+        throws IOException, MojoExecutionException
+    {
+        if ( shadedEntry == null )
+        {
+            // close marker
+            return;
+        }
+
+        writeEntry( shadeRequest, resources, transformers, remapper, cache, jos, duplicates, shadedEntry.jar,
+                    shadedEntry.zipFile, shadedEntry.entry, shadedEntry.name, shadedEntry.classBytes );
+    }
+
+    /**
+     * Writes a single entry to the shaded jar, this is the ordered part shared by the serial and the parallel
+     * paths.
+     *
+     * @param classBytes the already remapped class when the entry is a class and there are relocators
+     */
+    private void writeEntry( ShadeRequest shadeRequest, Set<String> resources,
+                             List<ResourceTransformer> transformers, RelocatorRemapper remapper, ShadeCache cache,
+                             ShadedJarOutputStream jos, Multimap<String, File> duplicates, File jar,
+                             ZipFile zipFile, ZipArchiveEntry entry, String name, byte[] classBytes )
+        throws IOException
+    {
+        String mappedName = remapper.map( name );
+
+        int idx = mappedName.lastIndexOf( '/' );
+        if ( idx != -1 )
+        {
+            // make sure dirs are created
+            String dir = mappedName.substring( 0, idx );
+            if ( !resources.contains( dir ) )
+            {
+                addDirectory( resources, jos, dir );
             }
+        }
 
-            in.close();
-            in = null;
+        if ( name.endsWith( ".class" ) )
+        {
+            duplicates.put( name, jar );
+            addRemappedClass( remapper, cache, jos, jar, zipFile, entry, name, classBytes );
         }
-        finally
+        else if ( shadeRequest.isShadeSourcesContent() && name.endsWith( ".java" ) )
         {
-            IOUtil.close( in );
+            // Avoid duplicates
+            if ( resources.contains( mappedName ) )
+            {
+                return;
+            }
+
+            InputStream in = zipFile.getInputStream( entry );
+            try
+            {
+                addJavaSource( resources, jos, mappedName, in, shadeRequest.getRelocators() );
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        else
+        {
+            if ( !resourceTransformed( transformers, mappedName, zipFile, entry, shadeRequest.getRelocators() ) )
+            {
+                // Avoid duplicates that aren't accounted for by the resource transformers
+                if ( resources.contains( mappedName ) )
+                {
+                    return;
+                }
+
+                addResource( resources, jos, mappedName, zipFile, entry );
+            }
         }
     }
 
     private void goThroughAllJarEntriesForManifestTransformer( ShadeRequest shadeRequest, Set<String> resources,
                                                                ResourceTransformer manifestTransformer,
-                                                               JarOutputStream jos )
+                                                               ShadedJarOutputStream jos )
         throws IOException
     {
         if ( manifestTransformer != null )
         {
             for ( File jar : shadeRequest.getJars() )
             {
-                JarFile jarFile = newJarFile( jar );
+                ZipFile zipFile = newZipFile( jar );
                 try
                 {
-                    for ( Enumeration<JarEntry> en = jarFile.entries(); en.hasMoreElements(); )
+                    for ( Enumeration<ZipArchiveEntry> en = zipFile.getEntries(); en.hasMoreElements(); )
                     {
-                        JarEntry entry = en.nextElement();
+                        ZipArchiveEntry entry = en.nextElement();
                         String resource = entry.getName();
                         if ( manifestTransformer.canTransformResource( resource ) )
                         {
                             resources.add( resource );
-                            InputStream inputStream = jarFile.getInputStream( entry );
+                            InputStream inputStream = zipFile.getInputStream( entry );
                             try
                             {
                                 manifestTransformer.processResource( resource, inputStream,
@@ -287,13 +570,11 @@ public class DefaultShader
                 }
                 finally
                 {
-                    jarFile.close();
+                    zipFile.close();
                 }
             }
-            if ( manifestTransformer.hasTransformedResource() )
-            {
-                manifestTransformer.modifyOutputStream( jos );
-            }
+            addTransformedResources( Collections.singletonList( manifestTransformer ), jos,
+                                     shadeRequest.getUberJar() );
         }
     }
 
@@ -346,16 +627,16 @@ public class DefaultShader
         }
     }
 
-    private JarFile newJarFile( File jar )
+    private ZipFile newZipFile( File jar )
         throws IOException
     {
         try
         {
-            return new JarFile( jar );
+            return new ZipFile( jar );
         }
         catch ( ZipException zex )
         {
-            // JarFile is not very verbose and doesn't tell the user which file it was
+            // ZipFile is not very verbose and doesn't tell the user which file it was
             // so we will create a new Exception instead
             throw new ZipException( "error in opening zip file " + jar );
         }
@@ -377,7 +658,7 @@ public class DefaultShader
         return list;
     }
 
-    private void addDirectory( Set<String> resources, JarOutputStream jos, String name )
+    private void addDirectory( Set<String> resources, ShadedJarOutputStream jos, String name )
         throws IOException
     {
         if ( name.lastIndexOf( '/' ) > 0 )
@@ -390,29 +671,46 @@ public class DefaultShader
         }
 
         // directory entries must end in "/"
-        JarEntry entry = new JarEntry( name + "/" );
-        jos.putNextEntry( entry );
+        jos.putNextEntry( name + "/" );
 
         resources.add( name );
     }
 
-    private void addRemappedClass( RelocatorRemapper remapper, JarOutputStream jos, File jar, String name,
-                                   InputStream is )
+    private byte[] relocatedClass( RelocatorRemapper remapper, ShadeCache cache, File jar, ZipFile zipFile,
+                                   ZipArchiveEntry entry, String name )
         throws IOException, MojoExecutionException
     {
-        if ( !remapper.hasRelocators() )
+        if ( cache != null )
         {
-            try
-            {
-                jos.putNextEntry( new JarEntry( name ) );
-                IOUtil.copy( is, jos );
-            }
-            catch ( ZipException e )
+            byte[] cached = cache.getRelocatedClass( jar, name );
+            if ( cached != null )
             {
-                getLogger().debug( "We have a duplicate " + name + " in " + jar );
+                return cached;
             }
+        }
 
-            return;
+        InputStream is = zipFile.getInputStream( entry );
+        try
+        {
+            return remapClass( remapper, name, is );
+        }
+        finally
+        {
+            is.close();
+        }
+    }
+
+    /**
+     * Relocates the given class. This does not touch any shared state, so it is safe to call from several threads.
+     *
+     * @return the bytes of the relocated class, or the original bytes if there is no relocator
+     */
+    private byte[] remapClass( final RelocatorRemapper remapper, String name, InputStream is )
+        throws IOException, MojoExecutionException
+    {
+        if ( !remapper.hasRelocators() )
+        {
+            return IOUtil.toByteArray( is );
         }
 
         ClassReader cr = new ClassReader( is );
@@ -453,7 +751,26 @@ public class DefaultShader
             throw new MojoExecutionException( "Error in ASM processing class " + name, ise );
         }
 
-        byte[] renamedClass = cw.toByteArray();
+        return cw.toByteArray();
+    }
+
+    private void addRemappedClass( RelocatorRemapper remapper, ShadeCache cache, ShadedJarOutputStream jos, File jar,
+                                   ZipFile zipFile, ZipArchiveEntry entry, String name, byte[] classBytes )
+        throws IOException
+    {
+        if ( !remapper.hasRelocators() )
+        {
+            try
+            {
+                jos.copyEntry( name, zipFile, entry, false );
+            }
+            catch ( ZipException e )
+            {
+                getLogger().debug( "We have a duplicate " + name + " in " + jar );
+            }
+
+            return;
+        }
 
         // Need to take the .class off for remapping evaluation
         String mappedName = remapper.map( name.substring( 0, name.indexOf( '.' ) ) );
@@ -461,9 +778,14 @@ public class DefaultShader
         try
         {
             // Now we put it back on so the class file is written out with the right extension.
-            jos.putNextEntry( new JarEntry( mappedName + ".class" ) );
+            jos.putNextEntry( mappedName + ".class" );
+
+            IOUtil.copy( classBytes, jos );
 
-            IOUtil.copy( renamedClass, jos );
+            if ( cache != null )
+            {
+                cache.written( jar, name, mappedName + ".class" );
+            }
         }
         catch ( ZipException e )
         {
@@ -484,8 +806,8 @@ public class DefaultShader
         return false;
     }
 
-    private boolean resourceTransformed( List<ResourceTransformer> resourceTransformers, String name, InputStream is,
-                                         List<Relocator> relocators )
+    private boolean resourceTransformed( List<ResourceTransformer> resourceTransformers, String name,
+                                         ZipFile zipFile, ZipArchiveEntry entry, List<Relocator> relocators )
         throws IOException
     {
         boolean resourceTransformed = false;
@@ -496,7 +818,15 @@ public class DefaultShader
             {
                 getLogger().debug( "Transforming " + name + " using " + transformer.getClass().getName() );
 
-                transformer.processResource( name, is, relocators );
+                InputStream is = zipFile.getInputStream( entry );
+                try
+                {
+                    transformer.processResource( name, is, relocators );
+                }
+                finally
+                {
+                    is.close();
+                }
 
                 resourceTransformed = true;
 
@@ -506,11 +836,11 @@ public class DefaultShader
         return resourceTransformed;
     }
 
-    private void addJavaSource( Set<String> resources, JarOutputStream jos, String name, InputStream is,
+    private void addJavaSource( Set<String> resources, ShadedJarOutputStream jos, String name, InputStream is,
                                 List<Relocator> relocators )
         throws IOException
     {
-        jos.putNextEntry( new JarEntry( name ) );
+        jos.putNextEntry( name );
 
         String sourceContent = IOUtil.toString( new InputStreamReader( is, "UTF-8" ) );
 
@@ -526,37 +856,66 @@ public class DefaultShader
         resources.add( name );
     }
 
-    private void addResource( Set<String> resources, JarOutputStream jos, String name, long lastModified,
-                              InputStream is )
+    private void addResource( Set<String> resources, ShadedJarOutputStream jos, String name, ZipFile zipFile,
+                              ZipArchiveEntry source )
         throws IOException
     {
-        final JarEntry jarEntry = new JarEntry( name );
+        jos.copyEntry( name, zipFile, source, true );
 
-        jarEntry.setTime( lastModified );
+        resources.add( name );
+    }
 
-        jos.putNextEntry( jarEntry );
+    /**
+     * An entry handled by a worker, with its remapped bytes if it is a class, waiting to be written.
+     */
+    private static class ShadedEntry
+    {
+        private final File jar;
 
-        IOUtil.copy( is, jos );
+        private final ZipFile zipFile;
 
-        resources.add( name );
+        private final ZipArchiveEntry entry;
+
+        private final String name;
+
+        private final byte[] classBytes;
+
+        ShadedEntry( File jar, ZipFile zipFile, ZipArchiveEntry entry, String name, byte[] classBytes )
+        {
+            this.jar = jar;
+            this.zipFile = zipFile;
+            this.entry = entry;
+            this.name = name;
+            this.classBytes = classBytes;
+        }
+    }
+
+    /**
+     * Marks the end of a jar in the queue of pending entries.
+     */
+    private static class CloseMarker
+        extends FutureTask<ShadedEntry>
+    {
+        CloseMarker( Callable<ShadedEntry> callable )
+        {
+            super( callable );
+        }
     }
 
     static class RelocatorRemapper
         extends Remapper
     {
 
-        private final Pattern classPattern = Pattern.compile( "(\\[*)?L(.+);" );
-
-        List<Relocator> relocators;
+        private final RelocatorIndex index;
 
         public RelocatorRemapper( List<Relocator> relocators )
         {
-            this.relocators = relocators;
+            this.index = new RelocatorIndex( relocators );
         }
 
         public boolean hasRelocators()
         {
-            return !relocators.isEmpty();
+            return !index.isEmpty();
         }
 
         public Object mapValue( Object object )
@@ -569,15 +928,15 @@ public class DefaultShader
                 String prefix = "";
                 String suffix = "";
 
-                Matcher m = classPattern.matcher( name );
-                if ( m.matches() )
+                int start = classNameStart( name );
+                if ( start > 0 )
                 {
-                    prefix = m.group( 1 ) + "L";
+                    prefix = name.substring( 0, start );
                     suffix = ";";
-                    name = m.group( 2 );
+                    name = name.substring( start, name.length() - 1 );
                 }
 
-                for ( Relocator r : relocators )
+                for ( Relocator r : index.getCandidates( name ) )
                 {
                     if ( r.canRelocateClass( name ) )
                     {
@@ -604,15 +963,15 @@ public class DefaultShader
             String prefix = "";
             String suffix = "";
 
-            Matcher m = classPattern.matcher( name );
-            if ( m.matches() )
+            int start = classNameStart( name );
+            if ( start > 0 )
             {
-                prefix = m.group( 1 ) + "L";
+                prefix = name.substring( 0, start );
                 suffix = ";";
-                name = m.group( 2 );
+                name = name.substring( start, name.length() - 1 );
             }
 
-            for ( Relocator r : relocators )
+            for ( Relocator r : index.getCandidates( name ) )
             {
                 if ( r.canRelocatePath( name ) )
                 {
@@ -624,6 +983,51 @@ public class DefaultShader
             return value;
         }
 
+        /**
+         * Matches object type descriptors such as <code>Lorg/foo/Bar;</code> or <code>[[Lorg/foo/Bar;</code>, like
+         * the regular expression <code>(\[*)?L(.+);</code> did without its cost.
+         *
+         * @return the index of the class name in the descriptor, or -1 if this is not a descriptor
+         */
+        static int classNameStart( String name )
+        {
+            int length = name.length();
+
+            int start = 0;
+            while ( start < length && name.charAt( start ) == '[' )
+            {
+                start++;
+            }
+
+            if ( start >= length || name.charAt( start ) != 'L' )
+            {
+                return -1;
+            }
+            start++;
+
+            if ( length - 1 <= start || name.charAt( length - 1 ) != ';' )
+            {
+                return -1;
+            }
+
+            for ( int i = start; i < length - 1; i++ )
+            {
+                switch ( name.charAt( i ) )
+                {
+                    // '.' does not match line terminators
+                    case '\n':
+                    case '\r':
+                    case '\u0085':
+                    case '\u2028':
+                    case '\u2029':
+                        return -1;
+                    default:
+                }
+            }
+
+            return start;
+        }
+
     }
 
 }
@@ -0,0 +1,264 @@
+package org.apache.maven.plugins.shade;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import org.apache.maven.plugins.shade.relocation.Relocator;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * State kept between two incremental shadings of the same jar: a copy of the previous shaded jar and a manifest
+ * with the SHA-1 of every input jar, a fingerprint of the relocation configuration and, for every relocated class,
+ * the entry it was written to. A class coming from an unchanged jar can then be copied from the previous shaded jar
+ * instead of being relocated again.
+ * <p>
+ * Only relocated classes are taken from the cache: resources are still read from the input jars since the resource
+ * transformers need to see them, and the filters are applied to every entry as before.
+ *
+ * @since 3.0.1
+ */
+class ShadeCache
+{
+    private static final String CONFIGURATION = "configuration";
+
+    private static final String JAR_PREFIX = "jar.";
+
+    private static final String CLASS_PREFIX = "class.";
+
+    private final Logger logger;
+
+    private final File manifestFile;
+
+    private final File previousJar;
+
+    private final String configuration;
+
+    /** The hashes of the input jars of this shading. */
+    private final Map<File, String> jarHashes = new HashMap<File, String>();
+
+    /** The manifest of the previous shading, empty if it can't be used. */
+    private final Properties previous;
+
+    /** The manifest of this shading. */
+    private final Properties current = new Properties();
+
+    private JarFile previousJarFile;
+
+    private int hits;
+
+    ShadeCache( File directory, File uberJar, Collection<File> jars, Collection<Relocator> relocators,
+                Logger logger )
+        throws IOException
+    {
+        this.logger = logger;
+        this.manifestFile = new File( directory, uberJar.getName() + ".properties" );
+        this.previousJar = new File( directory, uberJar.getName() );
+        this.configuration = fingerprint( relocators );
+
+        previous = loadManifest();
+
+        current.setProperty( CONFIGURATION, configuration );
+        for ( File jar : jars )
+        {
+            String hash = hash( jar );
+            jarHashes.put( jar, hash );
+            current.setProperty( JAR_PREFIX + jar.getAbsolutePath(), jar.length() + ":" + jar.lastModified() + ":"
+                + hash );
+        }
+
+        if ( !previous.isEmpty() )
+        {
+            previousJarFile = new JarFile( previousJar );
+        }
+    }
+
+    private Properties loadManifest()
+        throws IOException
+    {
+        Properties manifest = new Properties();
+
+        if ( manifestFile.isFile() && previousJar.isFile() )
+        {
+            InputStream in = new BufferedInputStream( new FileInputStream( manifestFile ) );
+            try
+            {
+                manifest.load( in );
+            }
+            finally
+            {
+                IOUtil.close( in );
+            }
+
+            if ( !configuration.equals( manifest.getProperty( CONFIGURATION ) ) )
+            {
+                logger.info( "Relocation configuration changed, relocating all classes." );
+                manifest.clear();
+            }
+        }
+
+        return manifest;
+    }
+
+    /**
+     * The SHA-1 of the jar, taken from the previous manifest when the size and the modification time of the jar
+     * did not change.
+     */
+    private String hash( File jar )
+        throws IOException
+    {
+        String stamp = jar.length() + ":" + jar.lastModified() + ":";
+
+        String known = previous.getProperty( JAR_PREFIX + jar.getAbsolutePath() );
+        if ( known != null && known.startsWith( stamp ) )
+        {
+            return known.substring( stamp.length() );
+        }
+
+        return Files.asByteSource( jar ).hash( Hashing.sha1() ).toString();
+    }
+
+    private static String fingerprint( Collection<Relocator> relocators )
+    {
+        Hasher hasher = Hashing.sha1().newHasher();
+
+        // a new version of the plugin may relocate differently
+        hasher.putString( String.valueOf( ShadeCache.class.getPackage().getImplementationVersion() ),
+                          Charsets.UTF_8 );
+
+        for ( Relocator relocator : relocators )
+        {
+            // relocators without a meaningful toString() never match, which only disables the cache
+            hasher.putString( relocator.getClass().getName() + ":" + relocator + "\n", Charsets.UTF_8 );
+        }
+
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Returns the class as it was relocated by the previous shading, if it came from the same jar.
+     * This may be called from several threads.
+     *
+     * @param jar the jar containing the class
+     * @param name the name of the class in the jar
+     * @return the relocated class, or <code>null</code> if it has to be relocated again
+     */
+    byte[] getRelocatedClass( File jar, String name )
+        throws IOException
+    {
+        if ( previousJarFile == null )
+        {
+            return null;
+        }
+
+        String entryName = previous.getProperty( CLASS_PREFIX + jarHashes.get( jar ) + "!" + name );
+        if ( entryName == null )
+        {
+            return null;
+        }
+
+        ZipEntry entry = previousJarFile.getEntry( entryName );
+        if ( entry == null )
+        {
+            return null;
+        }
+
+        InputStream in = previousJarFile.getInputStream( entry );
+        try
+        {
+            byte[] bytes = IOUtil.toByteArray( in );
+            synchronized ( this )
+            {
+                hits++;
+            }
+            return bytes;
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    /**
+     * Records that a relocated class was written to the shaded jar.
+     *
+     * @param jar the jar containing the class
+     * @param name the name of the class in the jar
+     * @param entryName the name of the entry in the shaded jar
+     */
+    void written( File jar, String name, String entryName )
+    {
+        current.setProperty( CLASS_PREFIX + jarHashes.get( jar ) + "!" + name, entryName );
+    }
+
+    /**
+     * Keeps the shaded jar and its manifest for the next shading.
+     *
+     * @param uberJar the shaded jar which was just written
+     */
+    void save( File uberJar )
+        throws IOException
+    {
+        close();
+
+        logger.info( "Copied " + hits + " relocated classes from the previous shaded jar." );
+
+        FileUtils.copyFile( uberJar, previousJar );
+
+        OutputStream out = new BufferedOutputStream( new FileOutputStream( manifestFile ) );
+        try
+        {
+            current.store( out, null );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    void close()
+        throws IOException
+    {
+        if ( previousJarFile != null )
+        {
+            previousJarFile.close();
+            previousJarFile = null;
+        }
+    }
+}
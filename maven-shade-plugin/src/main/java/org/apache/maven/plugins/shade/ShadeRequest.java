@@ -21,6 +21,7 @@ package org.apache.maven.plugins.shade;
 
 import org.apache.maven.plugins.shade.filter.Filter;
 import org.apache.maven.plugins.shade.relocation.Relocator;
+import org.apache.maven.plugins.shade.resource.ResourceBuffer;
 import org.apache.maven.plugins.shade.resource.ResourceTransformer;
 
 import java.io.File;
@@ -46,6 +47,12 @@ public class ShadeRequest
 
     private boolean shadeSourcesContent;
 
+    private int threads = 1;
+
+    private File cacheDirectory;
+
+    private int spillThreshold = ResourceBuffer.DEFAULT_THRESHOLD;
+
     public Set<File> getJars()
     {
         return jars;
@@ -137,4 +144,55 @@ public class ShadeRequest
     {
         this.shadeSourcesContent = shadeSourcesContent;
     }
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * The number of threads used to read and relocate the entries of the jars. When greater than 1, the entries are
+     * processed on a pool of workers and written in the same order as with a single thread.
+     *
+     * @param threads
+     * @since 3.0.1
+     */
+    public void setThreads( int threads )
+    {
+        this.threads = threads;
+    }
+
+    public File getCacheDirectory()
+    {
+        return cacheDirectory;
+    }
+
+    /**
+     * When set, the shading is incremental: the relocated classes of the jars which did not change since the
+     * previous shading are copied from the shaded jar kept in this directory instead of being relocated again.
+     *
+     * @param cacheDirectory
+     * @since 3.0.1
+     */
+    public void setCacheDirectory( File cacheDirectory )
+    {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    public int getSpillThreshold()
+    {
+        return spillThreshold;
+    }
+
+    /**
+     * The number of bytes a {@link org.apache.maven.plugins.shade.resource.StreamingResourceTransformer} may keep in
+     * memory for an aggregated resource before moving it to a temporary file.
+     *
+     * @param spillThreshold
+     * @since 3.0.1
+     */
+    public void setSpillThreshold( int spillThreshold )
+    {
+        this.spillThreshold = spillThreshold;
+    }
 }
@@ -0,0 +1,188 @@
+package org.apache.maven.plugins.shade;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipException;
+
+/**
+ * Writes the shaded jar. Entries copied unchanged from an input jar are written with their compressed data, CRC and
+ * sizes as they are, without going through the inflater and the deflater. Other entries are written like with a
+ * {@link java.util.jar.JarOutputStream}: {@link #putNextEntry(String)} starts an entry and the content is written to
+ * this stream. As with a JarOutputStream, a duplicate entry is rejected with a {@link ZipException}.
+ *
+ * @since 3.0.1
+ */
+class ShadedJarOutputStream
+    extends OutputStream
+{
+    private final ZipArchiveOutputStream out;
+
+    private final Set<String> names = new HashSet<String>();
+
+    private boolean entryOpen;
+
+    ShadedJarOutputStream( File file )
+        throws IOException
+    {
+        this.out = new ZipArchiveOutputStream( file );
+    }
+
+    /**
+     * Starts a new entry, its content is then written to this stream.
+     *
+     * @param name the name of the entry
+     * @throws ZipException if there is already an entry with that name
+     * @throws IOException When the IO blows up
+     */
+    public void putNextEntry( String name )
+        throws IOException
+    {
+        ZipArchiveEntry entry = newEntry( name );
+        entry.setTime( System.currentTimeMillis() );
+        out.putArchiveEntry( entry );
+        entryOpen = true;
+    }
+
+    /**
+     * Copies an entry of an input jar without decompressing it.
+     *
+     * @param name the name of the entry in the shaded jar
+     * @param zipFile the input jar
+     * @param source the entry of the input jar
+     * @param keepTime whether the modification time of the source entry is kept
+     * @throws ZipException if there is already an entry with that name
+     * @throws IOException When the IO blows up
+     */
+    public void copyEntry( String name, ZipFile zipFile, ZipArchiveEntry source, boolean keepTime )
+        throws IOException
+    {
+        ZipArchiveEntry entry = newEntry( name );
+        entry.setTime( keepTime ? source.getTime() : System.currentTimeMillis() );
+        entry.setMethod( source.getMethod() );
+        entry.setCrc( source.getCrc() );
+        entry.setSize( source.getSize() );
+        entry.setCompressedSize( source.getCompressedSize() );
+
+        InputStream raw = zipFile.getRawInputStream( source );
+        try
+        {
+            out.addRawArchiveEntry( entry, raw );
+        }
+        finally
+        {
+            raw.close();
+        }
+    }
+
+    /**
+     * Copies all the entries of a jar without decompressing them, keeping their modification time.
+     *
+     * @param jar the jar to copy
+     * @throws ZipException if an entry of the jar is already in the shaded jar
+     * @throws IOException When the IO blows up
+     */
+    public void copyEntries( File jar )
+        throws IOException
+    {
+        ZipFile zipFile = new ZipFile( jar );
+        try
+        {
+            for ( Enumeration<ZipArchiveEntry> e = zipFile.getEntries(); e.hasMoreElements(); )
+            {
+                ZipArchiveEntry entry = e.nextElement();
+                copyEntry( entry.getName(), zipFile, entry, true );
+            }
+        }
+        finally
+        {
+            zipFile.close();
+        }
+    }
+
+    private ZipArchiveEntry newEntry( String name )
+        throws IOException
+    {
+        if ( !names.add( name ) )
+        {
+            throw new ZipException( "duplicate entry: " + name );
+        }
+
+        closeEntry();
+
+        return new ZipArchiveEntry( name );
+    }
+
+    private void closeEntry()
+        throws IOException
+    {
+        if ( entryOpen )
+        {
+            entryOpen = false;
+            out.closeArchiveEntry();
+        }
+    }
+
+    @Override
+    public void write( int b )
+        throws IOException
+    {
+        out.write( b );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len )
+        throws IOException
+    {
+        out.write( b, off, len );
+    }
+
+    @Override
+    public void flush()
+        throws IOException
+    {
+        out.flush();
+    }
+
+    @Override
+    public void close()
+        throws IOException
+    {
+        try
+        {
+            closeEntry();
+            out.finish();
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.apache.maven.plugins.shade.filter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.IOUtil;
+import org.vafer.jdependency.Clazz;
+import org.vafer.jdependency.Clazzpath;
+import org.vafer.jdependency.ClazzpathUnit;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The classes declared by a jar along with the classes each of them depends on, as found by jdependency. When a
+ * cache directory is given, the edges of every jar are stored there under the SHA-1 of the jar, so a jar which was
+ * already analyzed is never parsed again.
+ *
+ * @since 3.0.1
+ */
+class ClassDependencyIndex
+{
+    private static final String UTF_8 = "UTF-8";
+
+    private final File cacheDirectory;
+
+    private final Log log;
+
+    private int hits;
+
+    private int misses;
+
+    /**
+     * @param cacheDirectory where to store the edges, or <code>null</code> to always parse the jars
+     * @param log the log
+     */
+    ClassDependencyIndex( File cacheDirectory, Log log )
+    {
+        this.cacheDirectory = cacheDirectory;
+        this.log = log;
+    }
+
+    /**
+     * Returns the classes declared by the jar, each mapped to the names of the classes it depends on.
+     *
+     * @param jar the jar
+     * @param id used in the messages
+     * @return the dependency edges, keyed by class name
+     * @throws IOException if the jar can't be read
+     */
+    Map<String, Set<String>> getEdges( File jar, String id )
+        throws IOException
+    {
+        File cacheFile = null;
+        if ( cacheDirectory != null )
+        {
+            cacheFile = new File( cacheDirectory, Files.asByteSource( jar ).hash( Hashing.sha1() ) + ".deps" );
+            if ( cacheFile.isFile() )
+            {
+                hits++;
+                return read( cacheFile );
+            }
+        }
+
+        misses++;
+        Map<String, Set<String>> edges = parse( jar, id );
+
+        if ( cacheFile != null )
+        {
+            write( cacheFile, edges );
+        }
+
+        return edges;
+    }
+
+    int getHits()
+    {
+        return hits;
+    }
+
+    int getMisses()
+    {
+        return misses;
+    }
+
+    private static Map<String, Set<String>> parse( File jar, String id )
+        throws IOException
+    {
+        Clazzpath cp = new Clazzpath();
+
+        InputStream is = new FileInputStream( jar );
+        try
+        {
+            ClazzpathUnit unit = cp.addClazzpathUnit( is, id );
+
+            Map<String, Set<String>> edges = new LinkedHashMap<String, Set<String>>();
+            for ( Clazz clazz : unit.getClazzes() )
+            {
+                Set<String> dependencies = new HashSet<String>();
+                for ( Clazz dependency : clazz.getDependencies() )
+                {
+                    dependencies.add( dependency.getName() );
+                }
+                edges.put( clazz.getName(), dependencies );
+            }
+            return edges;
+        }
+        finally
+        {
+            IOUtil.close( is );
+        }
+    }
+
+    /**
+     * One line per class, the name of the class followed by the names of its dependencies, separated by spaces.
+     */
+    private void write( File cacheFile, Map<String, Set<String>> edges )
+    {
+        // written to a temporary file first, so that a concurrent build never reads a partial index
+        File tmp = new File( cacheFile.getPath() + ".tmp" + Thread.currentThread().getId() );
+        Writer writer = null;
+        try
+        {
+            // noinspection ResultOfMethodCallIgnored
+            cacheDirectory.mkdirs();
+
+            writer = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( tmp ), UTF_8 ) );
+            for ( Map.Entry<String, Set<String>> entry : edges.entrySet() )
+            {
+                writer.write( entry.getKey() );
+                for ( String dependency : entry.getValue() )
+                {
+                    writer.write( ' ' );
+                    writer.write( dependency );
+                }
+                writer.write( '\n' );
+            }
+            writer.close();
+            writer = null;
+
+            if ( !tmp.renameTo( cacheFile ) )
+            {
+                // noinspection ResultOfMethodCallIgnored
+                tmp.delete();
+            }
+        }
+        catch ( IOException e )
+        {
+            log.debug( "Could not write the dependency index " + cacheFile + ": " + e.getMessage() );
+            // noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
+    }
+
+    private static Map<String, Set<String>> read( File cacheFile )
+        throws IOException
+    {
+        Map<String, Set<String>> edges = new LinkedHashMap<String, Set<String>>();
+
+        Reader reader = new InputStreamReader( new FileInputStream( cacheFile ), UTF_8 );
+        try
+        {
+            BufferedReader lines = new BufferedReader( reader );
+            String line;
+            while ( ( line = lines.readLine() ) != null )
+            {
+                if ( line.length() == 0 )
+                {
+                    continue;
+                }
+
+                String[] names = line.split( " " );
+                edges.put( names[0], new HashSet<String>( Arrays.asList( names ).subList( 1, names.length ) ) );
+            }
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+
+        return edges;
+    }
+}
@@ -22,19 +22,16 @@ package org.apache.maven.plugins.shade.filter;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
-import org.codehaus.plexus.util.IOUtil;
-import org.vafer.jdependency.Clazz;
-import org.vafer.jdependency.Clazzpath;
-import org.vafer.jdependency.ClazzpathUnit;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.zip.ZipException;
 
@@ -49,7 +46,8 @@ public class MinijarFilter
 
     private Log log;
 
-    private Set<Clazz> removable;
+    /** The entries of the classes to remove, such as <code>org/foo/Bar.class</code>. */
+    private Set<String> removable;
 
     private int classesKept;
 
@@ -86,41 +84,71 @@ public class MinijarFilter
     public MinijarFilter( MavenProject project, Log log, List<SimpleFilter> simpleFilters )
         throws IOException
     {
-      this.log = log;
+        this( project, log, simpleFilters, null );
+    }
+
+    /**
+     * @param project {@link MavenProject}
+     * @param log {@link Log}
+     * @param simpleFilters {@link SimpleFilter}
+     * @param indexDirectory where the class dependencies of the jars are kept between builds, may be <code>null</code>
+     * @throws IOException in case of errors.
+     * @since 3.0.1
+     */
+    public MinijarFilter( MavenProject project, Log log, List<SimpleFilter> simpleFilters, File indexDirectory )
+        throws IOException
+    {
+        this.log = log;
 
-      File artifactFile = project.getArtifact().getFile();
+        File artifactFile = project.getArtifact().getFile();
 
         if ( artifactFile != null )
         {
-          Clazzpath cp = new Clazzpath();
+            ClassDependencyIndex index = new ClassDependencyIndex( indexDirectory, log );
+
+            Map<String, Set<String>> artifactEdges = index.getEdges( artifactFile, project.toString() );
 
-          ClazzpathUnit artifactUnit = cp.addClazzpathUnit( new FileInputStream( artifactFile ), project.toString() );
+            // a class declared by several jars depends on what any of its declarations depends on
+            Map<String, Set<String>> graph = new HashMap<String, Set<String>>();
+            addEdges( graph, artifactEdges );
 
+            Map<Artifact, Set<String>> dependencyClasses = new LinkedHashMap<Artifact, Set<String>>();
             for ( Artifact dependency : project.getArtifacts() )
             {
-                addDependencyToClasspath( cp, dependency );
+                Map<String, Set<String>> edges = getEdges( index, dependency );
+                if ( edges != null )
+                {
+                    addEdges( graph, edges );
+                    dependencyClasses.put( dependency, edges.keySet() );
+                }
             }
 
-            removable = cp.getClazzes();
-            removePackages( artifactUnit );
-            removable.removeAll( artifactUnit.getClazzes() );
-            removable.removeAll( artifactUnit.getTransitiveDependencies() );
-            removeSpecificallyIncludedClasses( project,
+            Set<String> kept = getReachableClasses( graph, artifactEdges.keySet() );
+
+            removable = new HashSet<String>();
+            for ( String clazz : graph.keySet() )
+            {
+                if ( !kept.contains( clazz ) )
+                {
+                    removable.add( toEntryName( clazz ) );
+                }
+            }
+
+            removePackages( kept );
+            removeSpecificallyIncludedClasses( dependencyClasses,
                 simpleFilters == null ? Collections.<SimpleFilter>emptyList() : simpleFilters );
+
+            log.debug( "Class dependencies of " + index.getHits() + " jars taken from the index, "
+                + index.getMisses() + " jars analyzed" );
         }
     }
 
-    private ClazzpathUnit addDependencyToClasspath( Clazzpath cp, Artifact dependency )
+    private Map<String, Set<String>> getEdges( ClassDependencyIndex index, Artifact dependency )
         throws IOException
     {
-        InputStream is = null;
-        ClazzpathUnit clazzpathUnit = null;
         try
         {
-            is = new FileInputStream( dependency.getFile() );
-            clazzpathUnit = cp.addClazzpathUnit( is, dependency.toString() );
-            is.close();
-            is = null;
+            return index.getEdges( dependency.getFile(), dependency.toString() );
         }
         catch ( ZipException e )
         {
@@ -137,67 +165,90 @@ public class MinijarFilter
             log.warn( dependency.toString()
                 + " could not be analyzed for minimization; dependency is probably malformed." );
         }
-        finally
+
+        return null;
+    }
+
+    private static void addEdges( Map<String, Set<String>> graph, Map<String, Set<String>> edges )
+    {
+        for ( Map.Entry<String, Set<String>> entry : edges.entrySet() )
         {
-            IOUtil.close( is );
+            Set<String> dependencies = graph.get( entry.getKey() );
+            if ( dependencies == null )
+            {
+                dependencies = new HashSet<String>();
+                graph.put( entry.getKey(), dependencies );
+            }
+            dependencies.addAll( entry.getValue() );
         }
+    }
 
-        return clazzpathUnit;
+    /**
+     * @return the roots and all the classes they transitively depend on
+     */
+    private static Set<String> getReachableClasses( Map<String, Set<String>> graph, Set<String> roots )
+    {
+        Set<String> reachable = new HashSet<String>( roots );
+        LinkedList<String> queue = new LinkedList<String>( roots );
+        while ( !queue.isEmpty() )
+        {
+            Set<String> dependencies = graph.get( queue.removeFirst() );
+            if ( dependencies != null )
+            {
+                for ( String dependency : dependencies )
+                {
+                    if ( reachable.add( dependency ) )
+                    {
+                        queue.add( dependency );
+                    }
+                }
+            }
+        }
+        return reachable;
     }
 
-    private void removePackages( ClazzpathUnit artifactUnit )
+    private static String toEntryName( String className )
     {
-        Set<String> packageNames = new HashSet<String>();
-        removePackages( artifactUnit.getClazzes(), packageNames );
-        removePackages( artifactUnit.getTransitiveDependencies(), packageNames );
+        return className.replace( '.', '/' ) + ".class";
     }
 
-    @SuppressWarnings( "rawtypes" )
-    private void removePackages( Set clazzes, Set<String> packageNames )
+    private void removePackages( Set<String> kept )
     {
-        for ( Object clazze : clazzes )
+        Set<String> packageNames = new HashSet<String>();
+        for ( String clazz : kept )
         {
-            Clazz clazz = (Clazz) clazze;
-            String name = clazz.getName();
+            String name = clazz;
             while ( name.contains( "." ) )
             {
                 name = name.substring( 0, name.lastIndexOf( '.' ) );
                 if ( packageNames.add( name ) )
                 {
-                    removable.remove( new Clazz( name + ".package-info" ) );
+                    removable.remove( toEntryName( name + ".package-info" ) );
                 }
             }
         }
     }
 
-    private void removeSpecificallyIncludedClasses( MavenProject project, List<SimpleFilter> simpleFilters )
-        throws IOException
+    private void removeSpecificallyIncludedClasses( Map<Artifact, Set<String>> dependencyClasses,
+                                                    List<SimpleFilter> simpleFilters )
     {
         // remove classes specifically included in filters
-        Clazzpath checkCp = new Clazzpath();
-        for ( Artifact dependency : project.getArtifacts() )
+        for ( Map.Entry<Artifact, Set<String>> entry : dependencyClasses.entrySet() )
         {
-            File jar = dependency.getFile();
+            File jar = entry.getKey().getFile();
 
             for ( SimpleFilter simpleFilter : simpleFilters )
             {
                 if ( simpleFilter.canFilter( jar ) )
                 {
-                    ClazzpathUnit depClazzpathUnit = addDependencyToClasspath( checkCp, dependency );
-                    if ( depClazzpathUnit != null )
+                    for ( String clazz : entry.getValue() )
                     {
-                        Set<Clazz> clazzes = depClazzpathUnit.getClazzes();
-                        Iterator<Clazz> j = removable.iterator();
-                        while ( j.hasNext() )
+                        String entryName = toEntryName( clazz );
+                        if ( removable.contains( entryName )
+                            && simpleFilter.isSpecificallyIncluded( clazz.replace( '.', '/' ) ) )
                         {
-                            Clazz clazz = j.next();
-
-                            if ( clazzes.contains( clazz ) //
-                                && simpleFilter.isSpecificallyIncluded( clazz.getName().replace( '.', '/' ) ) )
-                            {
-                                log.info( clazz.getName() + " not removed because it was specifically included" );
-                                j.remove();
-                            }
+                            log.info( clazz + " not removed because it was specifically included" );
+                            removable.remove( entryName );
                         }
                     }
                 }
@@ -214,12 +265,12 @@ public class MinijarFilter
     /** {@inheritDoc} */
     public boolean isFiltered( String classFile )
     {
-        String className = classFile.replace( '/', '.' ).replaceFirst( "\\.class$", "" );
-        Clazz clazz = new Clazz( className );
-
-        if ( removable != null && removable.contains( clazz ) )
+        if ( removable != null && removable.contains( classFile ) )
         {
-            log.debug( "Removing " + className );
+            if ( log.isDebugEnabled() )
+            {
+                log.debug( "Removing " + classFile.replace( '/', '.' ).replaceFirst( "\\.class$", "" ) );
+            }
             classesRemoved += 1;
             return true;
         }
@@ -331,6 +331,16 @@ public class ShadeMojo
     @Parameter
     private boolean minimizeJar;
 
+    /**
+     * Where the class dependencies of the jars analyzed by {@link #minimizeJar} are kept, keyed by the SHA-1 of each
+     * jar, so that a jar is only parsed once. Point it to a directory outside of the build directory to share it
+     * between builds and modules.
+     *
+     * @since 3.0.1
+     */
+    @Parameter( defaultValue = "${project.build.directory}/shade-cache/minijar" )
+    private File minimizeJarIndexDirectory;
+
     /**
      * The path to the output file for the shaded artifact. When this parameter is set, the created archive will neither
      * replace the project's main artifact nor will it be attached. Hence, this parameter causes the parameters
@@ -364,6 +374,36 @@ public class ShadeMojo
     @Parameter( defaultValue = "false" )
     private boolean shadeTestJar;
 
+    /**
+     * The number of threads used to read and relocate the classes of the shaded artifacts. The shaded jar is still
+     * written by a single thread, in the same order as with the default of one thread.
+     *
+     * @since 3.0.1
+     */
+    @Parameter( property = "shadeThreads", defaultValue = "1" )
+    private int threads;
+
+    /**
+     * When true, the shaded jar and a manifest of its inputs are kept in
+     * <code>${project.build.directory}/shade-cache</code> so that the next execution can copy the relocated classes
+     * of the unchanged dependencies from it instead of relocating them again. Any change to the relocations
+     * invalidates the whole cache.
+     *
+     * @since 3.0.1
+     */
+    @Parameter( property = "shadeIncremental", defaultValue = "false" )
+    private boolean incremental;
+
+    /**
+     * The number of bytes a resource aggregated by a transformer such as the
+     * <code>ServicesResourceTransformer</code> or the <code>AppendingTransformer</code> may take in memory before it
+     * is moved to a temporary file.
+     *
+     * @since 3.0.1
+     */
+    @Parameter( defaultValue = "1048576" )
+    private int resourceSpillThreshold;
+
     /**
      * @since 1.6
      */
@@ -569,6 +609,12 @@ public class ShadeMojo
         shadeRequest.setFilters( filters );
         shadeRequest.setRelocators( relocators );
         shadeRequest.setResourceTransformers( resourceTransformers );
+        shadeRequest.setThreads( threads );
+        shadeRequest.setSpillThreshold( resourceSpillThreshold );
+        if ( incremental )
+        {
+            shadeRequest.setCacheDirectory( new File( project.getBuild().getDirectory(), "shade-cache" ) );
+        }
         return shadeRequest;
     }
 
@@ -823,7 +869,7 @@ public class ShadeMojo
 
             try
             {
-                filters.add( new MinijarFilter( project, getLog(), simpleFilters ) );
+                filters.add( new MinijarFilter( project, getLog(), simpleFilters, minimizeJarIndexDirectory ) );
             }
             catch ( IOException e )
             {
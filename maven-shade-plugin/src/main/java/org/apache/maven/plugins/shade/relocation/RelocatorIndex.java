@@ -0,0 +1,159 @@
+package org.apache.maven.plugins.shade.relocation;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index over a list of relocators, built once per shading. The path patterns of the {@link SimpleRelocator}s are
+ * stored in a prefix trie, so finding the relocators which might apply to a name is a single walk over its
+ * characters instead of a test against every relocator. Relocators which can't be indexed (raw string relocators
+ * and custom implementations) are always returned as candidates.
+ *
+ * @since 3.0.1
+ */
+public class RelocatorIndex
+{
+
+    private final List<Relocator> relocators;
+
+    private final Node root = new Node();
+
+    private final BitSet unindexed = new BitSet();
+
+    public RelocatorIndex( List<Relocator> relocators )
+    {
+        this.relocators = new ArrayList<Relocator>( relocators );
+
+        for ( int i = 0; i < this.relocators.size(); i++ )
+        {
+            Relocator relocator = this.relocators.get( i );
+
+            if ( relocator instanceof SimpleRelocator && !( (SimpleRelocator) relocator ).isRawString() )
+            {
+                root.add( ( (SimpleRelocator) relocator ).getPathPattern(), i );
+            }
+            else
+            {
+                unindexed.set( i );
+            }
+        }
+    }
+
+    public List<Relocator> getRelocators()
+    {
+        return relocators;
+    }
+
+    public boolean isEmpty()
+    {
+        return relocators.isEmpty();
+    }
+
+    /**
+     * Returns the relocators which might relocate the given name, either as a path or as a class name, in the order
+     * they were configured. The caller still has to ask each candidate, this only rules out the relocators whose
+     * pattern isn't a prefix of the name.
+     *
+     * @param name a path or a class name
+     * @return the candidates, never <code>null</code>
+     */
+    public List<Relocator> getCandidates( String name )
+    {
+        BitSet hits = (BitSet) unindexed.clone();
+
+        lookup( name, hits );
+
+        if ( name.indexOf( '/' ) < 0 && name.indexOf( '.' ) >= 0 )
+        {
+            // a class name is matched against the path patterns once its dots are replaced
+            lookup( name.replace( '.', '/' ), hits );
+        }
+
+        if ( hits.isEmpty() )
+        {
+            return Collections.emptyList();
+        }
+
+        List<Relocator> candidates = new ArrayList<Relocator>( hits.cardinality() );
+        for ( int i = hits.nextSetBit( 0 ); i >= 0; i = hits.nextSetBit( i + 1 ) )
+        {
+            candidates.add( relocators.get( i ) );
+        }
+        return candidates;
+    }
+
+    private void lookup( String path, BitSet hits )
+    {
+        root.collect( path, 0, hits );
+
+        // see SimpleRelocator.canRelocatePath(), an extra / on the front of a path is allowed
+        if ( path.length() > 0 && path.charAt( 0 ) == '/' )
+        {
+            root.collect( path, 1, hits );
+        }
+    }
+
+    private static class Node
+    {
+        private final Map<Character, Node> children = new HashMap<Character, Node>();
+
+        /** The relocators whose pattern ends at this node. */
+        private final BitSet relocators = new BitSet();
+
+        void add( String pattern, int index )
+        {
+            Node node = this;
+            for ( int i = 0; i < pattern.length(); i++ )
+            {
+                Character c = pattern.charAt( i );
+                Node child = node.children.get( c );
+                if ( child == null )
+                {
+                    child = new Node();
+                    node.children.put( c, child );
+                }
+                node = child;
+            }
+            node.relocators.set( index );
+        }
+
+        void collect( String path, int start, BitSet hits )
+        {
+            Node node = this;
+            int i = start;
+            while ( node != null )
+            {
+                hits.or( node.relocators );
+
+                if ( i >= path.length() )
+                {
+                    break;
+                }
+                node = node.children.get( path.charAt( i++ ) );
+            }
+        }
+    }
+}
@@ -164,6 +164,19 @@ public class SimpleRelocator
         return false;
     }
 
+    /**
+     * @return the path prefix matched by this relocator, used by {@link RelocatorIndex}
+     */
+    String getPathPattern()
+    {
+        return pathPattern;
+    }
+
+    boolean isRawString()
+    {
+        return rawString;
+    }
+
     public boolean canRelocatePath( String path )
     {
         if ( rawString )
@@ -219,4 +232,11 @@ public class SimpleRelocator
             return sourceContent.replaceAll( "\\b" + pattern, shadedPattern );
         }
     }
+
+    @Override
+    public String toString()
+    {
+        return pathPattern + " -> " + shadedPathPattern + " includes=" + includes + " excludes=" + excludes
+            + ( rawString ? " rawString" : "" );
+    }
 }
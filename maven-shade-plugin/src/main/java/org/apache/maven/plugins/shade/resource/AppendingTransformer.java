@@ -22,8 +22,6 @@ package org.apache.maven.plugins.shade.resource;
 import org.apache.maven.plugins.shade.relocation.Relocator;
 import org.codehaus.plexus.util.IOUtil;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -34,11 +32,11 @@ import java.util.jar.JarOutputStream;
  * A resource processor that appends content for a resource, separated by a newline.
  */
 public class AppendingTransformer
-    implements ResourceTransformer
+    implements StreamingResourceTransformer
 {
     String resource;
 
-    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    ResourceBuffer data = new ResourceBuffer();
 
     public boolean canTransformResource( String r )
     {
@@ -67,7 +65,18 @@ public class AppendingTransformer
     {
         jos.putNextEntry( new JarEntry( resource ) );
 
-        IOUtil.copy( new ByteArrayInputStream( data.toByteArray() ), jos );
+        data.writeTo( jos );
         data.reset();
     }
+
+    public void setSpillThreshold( int threshold )
+    {
+        data = new ResourceBuffer( threshold );
+    }
+
+    public void release()
+        throws IOException
+    {
+        data.close();
+    }
 }
@@ -20,7 +20,6 @@ package org.apache.maven.plugins.shade.resource;
  */
 
 import org.apache.maven.plugins.shade.relocation.Relocator;
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.ReaderFactory;
 import org.codehaus.plexus.util.WriterFactory;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
@@ -31,6 +30,7 @@ import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.LinkedHashMap;
@@ -132,11 +132,9 @@ public class ComponentsXmlResourceTransformer
     public void modifyOutputStream( JarOutputStream jos )
         throws IOException
     {
-        byte[] data = getTransformedResource();
-
         jos.putNextEntry( new JarEntry( COMPONENTS_XML_PATH ) );
 
-        IOUtil.copy( data, jos );
+        writeTransformedResource( jos );
 
         components.clear();
     }
@@ -151,31 +149,34 @@ public class ComponentsXmlResourceTransformer
     {
         ByteArrayOutputStream baos = new ByteArrayOutputStream( 1024 * 4 );
 
-        Writer writer = WriterFactory.newXmlWriter( baos );
-        try
-        {
-            Xpp3Dom dom = new Xpp3Dom( "component-set" );
+        writeTransformedResource( baos );
 
-            Xpp3Dom componentDom = new Xpp3Dom( "components" );
+        return baos.toByteArray();
+    }
 
-            dom.addChild( componentDom );
+    /**
+     * Writes the merged components straight to the given stream, which is left open.
+     */
+    private void writeTransformedResource( OutputStream os )
+        throws IOException
+    {
+        Writer writer = WriterFactory.newXmlWriter( os );
 
-            for ( Xpp3Dom component : components.values() )
-            {
-                componentDom.addChild( component );
-            }
+        Xpp3Dom dom = new Xpp3Dom( "component-set" );
 
-            Xpp3DomWriter.write( writer, dom );
+        Xpp3Dom componentDom = new Xpp3Dom( "components" );
 
-            writer.close();
-            writer = null;
-        }
-        finally
+        dom.addChild( componentDom );
+
+        for ( Xpp3Dom component : components.values() )
         {
-            IOUtil.close( writer );
+            componentDom.addChild( component );
         }
 
-        return baos.toByteArray();
+        Xpp3DomWriter.write( writer, dom );
+
+        // not closed, this would close the jar
+        writer.flush();
     }
 
     private String getRelocatedClass( String className, List<Relocator> relocators )
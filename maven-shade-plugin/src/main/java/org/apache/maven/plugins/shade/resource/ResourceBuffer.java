@@ -0,0 +1,192 @@
+package org.apache.maven.plugins.shade.resource;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.codehaus.plexus.util.IOUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Buffer for the content aggregated by a {@link StreamingResourceTransformer}. The content is kept in memory until it
+ * grows past a threshold, then it is moved to a temporary file and the rest is appended to that file.
+ *
+ * @since 3.0.1
+ */
+public class ResourceBuffer
+    extends OutputStream
+{
+    /** The default number of bytes kept in memory, 1 MB. */
+    public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+
+    private final int threshold;
+
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+
+    private File file;
+
+    private OutputStream fileOut;
+
+    private long size;
+
+    private int lastByte = -1;
+
+    public ResourceBuffer()
+    {
+        this( DEFAULT_THRESHOLD );
+    }
+
+    public ResourceBuffer( int threshold )
+    {
+        this.threshold = threshold;
+    }
+
+    public void write( int b )
+        throws IOException
+    {
+        out( 1 ).write( b );
+        size++;
+        lastByte = b & 0xff;
+    }
+
+    public void write( byte[] b, int off, int len )
+        throws IOException
+    {
+        if ( len == 0 )
+        {
+            return;
+        }
+        out( len ).write( b, off, len );
+        size += len;
+        lastByte = b[off + len - 1] & 0xff;
+    }
+
+    private OutputStream out( int len )
+        throws IOException
+    {
+        if ( fileOut == null && size + len > threshold )
+        {
+            file = File.createTempFile( "maven-shade-", ".tmp" );
+            fileOut = new BufferedOutputStream( new FileOutputStream( file ) );
+            memory.writeTo( fileOut );
+            memory = null;
+        }
+        return fileOut != null ? fileOut : memory;
+    }
+
+    /**
+     * @return the number of bytes written to this buffer
+     */
+    public long size()
+    {
+        return size;
+    }
+
+    /**
+     * @return the last byte written to this buffer, or -1 if it is empty
+     */
+    public int lastByte()
+    {
+        return lastByte;
+    }
+
+    /**
+     * @return whether the content was moved to a temporary file
+     */
+    public boolean isSpilled()
+    {
+        return file != null;
+    }
+
+    /**
+     * Copies the content of this buffer to the given stream, which is left open.
+     */
+    public void writeTo( OutputStream os )
+        throws IOException
+    {
+        if ( fileOut == null )
+        {
+            memory.writeTo( os );
+            return;
+        }
+
+        InputStream in = toInputStream();
+        try
+        {
+            IOUtil.copy( in, os );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    /**
+     * @return a new stream over the content of this buffer, to be closed by the caller
+     */
+    public InputStream toInputStream()
+        throws IOException
+    {
+        if ( fileOut == null )
+        {
+            return new ByteArrayInputStream( memory.toByteArray() );
+        }
+
+        fileOut.flush();
+        return new FileInputStream( file );
+    }
+
+    /**
+     * Discards the content of this buffer and deletes its temporary file, if any.
+     */
+    public void reset()
+        throws IOException
+    {
+        if ( fileOut != null )
+        {
+            fileOut.close();
+            fileOut = null;
+
+            // noinspection ResultOfMethodCallIgnored
+            file.delete();
+            file = null;
+        }
+
+        memory = new ByteArrayOutputStream();
+        size = 0;
+        lastByte = -1;
+    }
+
+    /**
+     * Same as {@link #reset()}, a closed buffer can still be written to.
+     */
+    public void close()
+        throws IOException
+    {
+        reset();
+    }
+}
@@ -19,8 +19,6 @@ package org.apache.maven.plugins.shade.resource;
  * under the License.
  */
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
@@ -39,9 +37,11 @@ import org.codehaus.plexus.util.IOUtil;
  * @author Robert Scholte
  * @since 3.0.0
  */
-public class ResourceBundleAppendingTransformer implements ResourceTransformer
+public class ResourceBundleAppendingTransformer implements StreamingResourceTransformer
 {
-    private Map<String, ByteArrayOutputStream>  dataMap = new HashMap<String, ByteArrayOutputStream>();
+    private Map<String, ResourceBuffer>  dataMap = new HashMap<String, ResourceBuffer>();
+
+    private int spillThreshold = ResourceBuffer.DEFAULT_THRESHOLD;
     
     private Pattern resourceBundlePattern;
     
@@ -66,10 +66,10 @@ public class ResourceBundleAppendingTransformer implements ResourceTransformer
     public void processResource( String resource, InputStream is, List<Relocator> relocators )
         throws IOException
     {
-        ByteArrayOutputStream data = dataMap.get( resource );
+        ResourceBuffer data = dataMap.get( resource );
         if ( data == null )
         {
-            data = new ByteArrayOutputStream();
+            data = new ResourceBuffer( spillThreshold );
             dataMap.put( resource, data );
         }
         
@@ -85,13 +85,27 @@ public class ResourceBundleAppendingTransformer implements ResourceTransformer
     public void modifyOutputStream( JarOutputStream jos )
         throws IOException
     {
-        for ( Map.Entry<String, ByteArrayOutputStream> dataEntry : dataMap.entrySet() )
+        for ( Map.Entry<String, ResourceBuffer> dataEntry : dataMap.entrySet() )
         {
             jos.putNextEntry( new JarEntry( dataEntry.getKey() ) );
 
-            IOUtil.copy( new ByteArrayInputStream( dataEntry.getValue().toByteArray() ), jos );
+            dataEntry.getValue().writeTo( jos );
             dataEntry.getValue().reset();
         }
     }
 
+    public void setSpillThreshold( int threshold )
+    {
+        this.spillThreshold = threshold;
+    }
+
+    public void release()
+        throws IOException
+    {
+        for ( ResourceBuffer data : dataMap.values() )
+        {
+            data.close();
+        }
+    }
+
 }
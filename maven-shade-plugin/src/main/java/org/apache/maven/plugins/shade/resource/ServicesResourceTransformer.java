@@ -20,20 +20,16 @@ package org.apache.maven.plugins.shade.resource;
  */
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
-import java.io.StringReader;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.maven.plugins.shade.relocation.Relocator;
 
 import com.google.common.io.LineReader;
@@ -46,7 +42,7 @@ import com.google.common.io.LineReader;
  * shading process.
  */
 public class ServicesResourceTransformer
-    implements ResourceTransformer
+    implements StreamingResourceTransformer
 {
 
     private static final String SERVICES_PATH = "META-INF/services";
@@ -55,6 +51,8 @@ public class ServicesResourceTransformer
 
     private List<Relocator> relocators;
 
+    private int spillThreshold = ResourceBuffer.DEFAULT_THRESHOLD;
+
     public boolean canTransformResource( String resource )
     {
         if ( resource.startsWith( SERVICES_PATH ) )
@@ -71,15 +69,13 @@ public class ServicesResourceTransformer
         ServiceStream out = serviceEntries.get( resource );
         if ( out == null )
         {
-            out = new ServiceStream();
+            out = new ServiceStream( spillThreshold );
             serviceEntries.put( resource, out );
         }
 
         final ServiceStream fout = out;
 
-        final String content = IOUtils.toString( is );
-        StringReader reader = new StringReader( content );
-        LineReader lineReader = new LineReader( reader );
+        LineReader lineReader = new LineReader( new InputStreamReader( is ) );
         String line;
         while ( ( line = lineReader.readLine() ) != null )
         {
@@ -99,6 +95,7 @@ public class ServicesResourceTransformer
             this.relocators = relocators;
         }
     }
+
     public boolean hasTransformedResource()
     {
         return serviceEntries.size() > 0;
@@ -161,19 +158,33 @@ public class ServicesResourceTransformer
         }
     }
 
+    public void setSpillThreshold( int threshold )
+    {
+        this.spillThreshold = threshold;
+    }
+
+    public void release()
+        throws IOException
+    {
+        for ( ServiceStream data : serviceEntries.values() )
+        {
+            data.close();
+        }
+    }
+
     static class ServiceStream
-        extends ByteArrayOutputStream
+        extends ResourceBuffer
     {
 
-        public ServiceStream()
+        public ServiceStream( int threshold )
         {
-            super( 1024 );
+            super( threshold );
         }
 
         public void append( String content )
             throws IOException
         {
-            if ( count > 0 && buf[count - 1] != '\n' && buf[count - 1] != '\r' )
+            if ( size() > 0 && lastByte() != '\n' && lastByte() != '\r' )
             {
                 write( '\n' );
             }
@@ -182,11 +193,6 @@ public class ServicesResourceTransformer
             this.write( contentBytes );
         }
 
-        public InputStream toInputStream()
-        {
-            return new ByteArrayInputStream( buf, 0, count );
-        }
-
     }
 
 }
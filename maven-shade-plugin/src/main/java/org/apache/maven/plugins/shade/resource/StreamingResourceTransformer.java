@@ -0,0 +1,49 @@
+package org.apache.maven.plugins.shade.resource;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+
+/**
+ * A resource transformer which aggregates the resources it processes in {@link ResourceBuffer}s rather than in
+ * memory, so that the heap used by the shading doesn't grow with the size of the aggregated resources.
+ *
+ * @since 3.0.1
+ */
+public interface StreamingResourceTransformer
+    extends ResourceTransformer
+{
+    /**
+     * Sets the number of bytes a buffer may keep in memory before it is moved to a temporary file. This is called
+     * before any resource is processed.
+     *
+     * @param threshold the threshold in bytes
+     */
+    void setSpillThreshold( int threshold );
+
+    /**
+     * Releases the buffers and their temporary files. This is called when the shading is done, whether it succeeded
+     * or not.
+     *
+     * @throws IOException When the IO blows up
+     */
+    void release()
+        throws IOException;
+}
@@ -20,16 +20,28 @@ package org.apache.maven.plugins.shade;
  */
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
 
 import junit.framework.TestCase;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.maven.plugins.shade.filter.Filter;
 import org.apache.maven.plugins.shade.relocation.Relocator;
 import org.apache.maven.plugins.shade.relocation.SimpleRelocator;
@@ -37,6 +49,8 @@ import org.apache.maven.plugins.shade.resource.ComponentsXmlResourceTransformer;
 import org.apache.maven.plugins.shade.resource.ResourceTransformer;
 import org.codehaus.plexus.logging.Logger;
 import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.Opcodes;
@@ -160,11 +174,310 @@ public class DefaultShaderTest
         assertEquals( "__StringUtils.java", source[0] );
     }
 
+    public void testShaderInParallel()
+        throws Exception
+    {
+        File serialJar = new File( "target/foo-serial.jar" );
+        File parallelJar = new File( "target/foo-parallel.jar" );
+
+        shaderWithPattern( "org/shaded/plexus/util", serialJar, EXCLUDES, 1 );
+        shaderWithPattern( "org/shaded/plexus/util", parallelJar, EXCLUDES, 4 );
+
+        assertSameEntries( serialJar, parallelJar );
+    }
+
+    public void testIncrementalShader()
+        throws Exception
+    {
+        File cacheDirectory = new File( "target/shade-cache-test" );
+        FileUtils.deleteDirectory( cacheDirectory );
+
+        // a copy of the project jar, changed by the test
+        File projectJar = new File( cacheDirectory, "jars/test-project-1.0-SNAPSHOT.jar" );
+        File plexusJar = new File( "src/test/jars/plexus-utils-1.4.1.jar" );
+        FileUtils.copyFile( new File( "src/test/jars/test-project-1.0-SNAPSHOT.jar" ), projectJar );
+
+        File fullJar = new File( "target/foo-full.jar" );
+        File incrementalJar = new File( "target/foo-incremental.jar" );
+
+        shaderWithPattern( "org/shaded/plexus/util", fullJar, EXCLUDES, 1 );
+        int classes = countClasses( fullJar );
+
+        // the first run fills the cache, the second one copies all the classes from it
+        assertEquals( 0, shadeIncrementally( "org/shaded/plexus/util", projectJar, plexusJar, incrementalJar,
+                                             cacheDirectory ) );
+        assertTrue( new File( cacheDirectory, incrementalJar.getName() ).isFile() );
+        assertTrue( new File( cacheDirectory, incrementalJar.getName() + ".properties" ).isFile() );
+        assertSameEntries( fullJar, incrementalJar );
+
+        assertEquals( classes, shadeIncrementally( "org/shaded/plexus/util", projectJar, plexusJar, incrementalJar,
+                                                   cacheDirectory ) );
+        assertSameEntries( fullJar, incrementalJar );
+
+        // only the classes of the changed jar are relocated again
+        addEntry( projectJar, "changed.txt" );
+        assertEquals( countClasses( plexusJar ), shadeIncrementally( "org/shaded/plexus/util", projectJar, plexusJar,
+                                                                     incrementalJar, cacheDirectory ) );
+
+        // another relocation invalidates the cache
+        assertEquals( 0, shadeIncrementally( "org/other/plexus/util", projectJar, plexusJar, incrementalJar,
+                                             cacheDirectory ) );
+        JarFile jar = new JarFile( incrementalJar );
+        try
+        {
+            assertNotNull( jar.getEntry( "org/other/plexus/util/StringUtils.class" ) );
+            assertNull( jar.getEntry( "org/shaded/plexus/util/StringUtils.class" ) );
+        }
+        finally
+        {
+            jar.close();
+        }
+    }
+
+    /**
+     * @return the number of relocated classes copied from the cache
+     */
+    private static int shadeIncrementally( String shadedPattern, File projectJar, File plexusJar, File uberJar,
+                                           File cacheDirectory )
+        throws Exception
+    {
+        DefaultShader s = new DefaultShader();
+        RecordingLogger logger = new RecordingLogger();
+        s.enableLogging( logger );
+
+        ShadeRequest shadeRequest = newShadeRequest( shadedPattern, uberJar, EXCLUDES );
+        shadeRequest.setJars( new LinkedHashSet<File>( Arrays.asList( projectJar, plexusJar ) ) );
+        shadeRequest.setCacheDirectory( cacheDirectory );
+
+        s.shade( shadeRequest );
+
+        for ( String message : logger.messages )
+        {
+            Matcher matcher = Pattern.compile( "Copied (\\d+) relocated classes .*" ).matcher( message );
+            if ( matcher.matches() )
+            {
+                return Integer.parseInt( matcher.group( 1 ) );
+            }
+        }
+        fail( "The cache was not used" );
+        return -1;
+    }
+
+    private static int countClasses( File file )
+        throws Exception
+    {
+        JarFile jar = new JarFile( file );
+        try
+        {
+            int classes = 0;
+            for ( JarEntry entry : Collections.list( jar.entries() ) )
+            {
+                if ( entry.getName().endsWith( ".class" ) )
+                {
+                    classes++;
+                }
+            }
+            return classes;
+        }
+        finally
+        {
+            jar.close();
+        }
+    }
+
+    /**
+     * Rewrites the jar with one more entry, which changes its checksum.
+     */
+    private static void addEntry( File file, String name )
+        throws Exception
+    {
+        File copy = new File( file.getPath() + ".tmp" );
+        JarFile jar = new JarFile( file );
+        JarOutputStream jos = new JarOutputStream( new FileOutputStream( copy ) );
+        try
+        {
+            for ( JarEntry entry : Collections.list( jar.entries() ) )
+            {
+                jos.putNextEntry( new JarEntry( entry.getName() ) );
+                IOUtil.copy( jar.getInputStream( entry ), jos );
+            }
+            jos.putNextEntry( new JarEntry( name ) );
+        }
+        finally
+        {
+            jos.close();
+            jar.close();
+        }
+        FileUtils.rename( copy, file );
+    }
+
+    public void testStoredEntriesAreCopiedStored()
+        throws Exception
+    {
+        byte[] content = "stored content".getBytes( "UTF-8" );
+        CRC32 crc = new CRC32();
+        crc.update( content );
+
+        File input = new File( "target/stored-input.jar" );
+        input.getParentFile().mkdirs();
+        JarOutputStream jos = new JarOutputStream( new FileOutputStream( input ) );
+        try
+        {
+            JarEntry stored = new JarEntry( "stored.txt" );
+            stored.setMethod( ZipEntry.STORED );
+            stored.setSize( content.length );
+            stored.setCrc( crc.getValue() );
+            jos.putNextEntry( stored );
+            jos.write( content );
+
+            jos.putNextEntry( new JarEntry( "deflated.txt" ) );
+            jos.write( content );
+        }
+        finally
+        {
+            jos.close();
+        }
+
+        File output = new File( "target/stored-output.jar" );
+
+        ShadeRequest shadeRequest = new ShadeRequest();
+        shadeRequest.setJars( Collections.singleton( input ) );
+        shadeRequest.setUberJar( output );
+        shadeRequest.setFilters( new ArrayList<Filter>() );
+        shadeRequest.setRelocators( new ArrayList<Relocator>() );
+        shadeRequest.setResourceTransformers( new ArrayList<ResourceTransformer>() );
+
+        newShader().shade( shadeRequest );
+
+        JarFile jar = new JarFile( output );
+        try
+        {
+            JarEntry stored = jar.getJarEntry( "stored.txt" );
+            assertEquals( ZipEntry.STORED, stored.getMethod() );
+            assertEquals( crc.getValue(), stored.getCrc() );
+            assertTrue( Arrays.equals( content, IOUtil.toByteArray( jar.getInputStream( stored ) ) ) );
+
+            JarEntry deflated = jar.getJarEntry( "deflated.txt" );
+            assertEquals( ZipEntry.DEFLATED, deflated.getMethod() );
+            assertTrue( Arrays.equals( content, IOUtil.toByteArray( jar.getInputStream( deflated ) ) ) );
+        }
+        finally
+        {
+            jar.close();
+        }
+    }
+
+    public void testDeflatedEntriesAreCopiedRaw()
+        throws Exception
+    {
+        StringBuilder text = new StringBuilder();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            text.append( "line " ).append( i ).append( '\n' );
+        }
+        byte[] content = text.toString().getBytes( "UTF-8" );
+
+        // compressed with another level than the default one, recompressing would give other bytes
+        File input = new File( "target/deflated-input.jar" );
+        input.getParentFile().mkdirs();
+        JarOutputStream jos = new JarOutputStream( new FileOutputStream( input ) );
+        try
+        {
+            jos.setLevel( Deflater.BEST_SPEED );
+            jos.putNextEntry( new JarEntry( "deflated.txt" ) );
+            jos.write( content );
+            jos.putNextEntry( new JarEntry( "p/Deflated.class" ) );
+            jos.write( content );
+        }
+        finally
+        {
+            jos.close();
+        }
+
+        File output = new File( "target/deflated-output.jar" );
+
+        ShadeRequest shadeRequest = new ShadeRequest();
+        shadeRequest.setJars( Collections.singleton( input ) );
+        shadeRequest.setUberJar( output );
+        shadeRequest.setFilters( new ArrayList<Filter>() );
+        shadeRequest.setRelocators( new ArrayList<Relocator>() );
+        shadeRequest.setResourceTransformers( new ArrayList<ResourceTransformer>() );
+
+        newShader().shade( shadeRequest );
+
+        ZipFile expected = new ZipFile( input );
+        ZipFile actual = new ZipFile( output );
+        try
+        {
+            for ( String name : new String[] { "deflated.txt", "p/Deflated.class" } )
+            {
+                ZipArchiveEntry expectedEntry = expected.getEntry( name );
+                ZipArchiveEntry actualEntry = actual.getEntry( name );
+                assertEquals( ZipEntry.DEFLATED, actualEntry.getMethod() );
+                assertEquals( expectedEntry.getCrc(), actualEntry.getCrc() );
+                assertEquals( expectedEntry.getCompressedSize(), actualEntry.getCompressedSize() );
+                assertTrue( name, Arrays.equals( IOUtil.toByteArray( expected.getRawInputStream( expectedEntry ) ),
+                                                 IOUtil.toByteArray( actual.getRawInputStream( actualEntry ) ) ) );
+                assertTrue( name,
+                            Arrays.equals( content, IOUtil.toByteArray( actual.getInputStream( actualEntry ) ) ) );
+            }
+        }
+        finally
+        {
+            expected.close();
+            actual.close();
+        }
+    }
+
+    private static void assertSameEntries( File expectedJar, File actualJar )
+        throws Exception
+    {
+        JarFile expected = new JarFile( expectedJar );
+        JarFile actual = new JarFile( actualJar );
+        try
+        {
+            List<JarEntry> expectedEntries = Collections.list( expected.entries() );
+            List<JarEntry> actualEntries = Collections.list( actual.entries() );
+
+            assertEquals( expectedEntries.size(), actualEntries.size() );
+
+            for ( int i = 0; i < expectedEntries.size(); i++ )
+            {
+                JarEntry expectedEntry = expectedEntries.get( i );
+                JarEntry actualEntry = actualEntries.get( i );
+
+                assertEquals( expectedEntry.getName(), actualEntry.getName() );
+                assertTrue( expectedEntry.getName(),
+                            Arrays.equals( IOUtil.toByteArray( expected.getInputStream( expectedEntry ) ),
+                                           IOUtil.toByteArray( actual.getInputStream( actualEntry ) ) ) );
+            }
+        }
+        finally
+        {
+            expected.close();
+            actual.close();
+        }
+    }
+
     private void shaderWithPattern( String shadedPattern, File jar, String[] excludes )
         throws Exception
+    {
+        shaderWithPattern( shadedPattern, jar, excludes, 1 );
+    }
+
+    private void shaderWithPattern( String shadedPattern, File jar, String[] excludes, int threads )
+        throws Exception
     {
         DefaultShader s = newShader();
 
+        ShadeRequest shadeRequest = newShadeRequest( shadedPattern, jar, excludes );
+        shadeRequest.setThreads( threads );
+
+        s.shade( shadeRequest );
+    }
+
+    private static ShadeRequest newShadeRequest( String shadedPattern, File jar, String[] excludes )
+    {
         Set<File> set = new LinkedHashSet<File>();
 
         set.add( new File( "src/test/jars/test-project-1.0-SNAPSHOT.jar" ) );
@@ -187,8 +500,25 @@ public class DefaultShaderTest
         shadeRequest.setFilters( filters );
         shadeRequest.setRelocators( relocators );
         shadeRequest.setResourceTransformers( resourceTransformers );
+        return shadeRequest;
+    }
 
-        s.shade( shadeRequest );
+    private static class RecordingLogger
+        extends ConsoleLogger
+    {
+        private final List<String> messages = new ArrayList<String>();
+
+        RecordingLogger()
+        {
+            super( Logger.LEVEL_INFO, "TEST" );
+        }
+
+        @Override
+        public void info( String message, Throwable throwable )
+        {
+            messages.add( message );
+            super.info( message, throwable );
+        }
     }
 
     private static DefaultShader newShader()
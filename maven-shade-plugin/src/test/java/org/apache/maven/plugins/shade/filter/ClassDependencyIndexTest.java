@@ -0,0 +1,76 @@
+package org.apache.maven.plugins.shade.filter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ClassDependencyIndexTest
+{
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final File jar = new File( "src/test/jars/plexus-utils-1.4.1.jar" );
+
+    @Test
+    public void testEdgesAreReadBackFromTheIndex()
+        throws IOException
+    {
+        File indexDirectory = tempFolder.newFolder( "index" );
+
+        ClassDependencyIndex index = new ClassDependencyIndex( indexDirectory, mock( Log.class ) );
+
+        Map<String, Set<String>> parsed = index.getEdges( jar, "plexus-utils" );
+        Map<String, Set<String>> cached = index.getEdges( jar, "plexus-utils" );
+
+        assertEquals( 1, index.getMisses() );
+        assertEquals( 1, index.getHits() );
+        assertEquals( parsed, cached );
+
+        assertTrue( parsed.containsKey( "org.codehaus.plexus.util.StringUtils" ) );
+        assertFalse( parsed.get( "org.codehaus.plexus.util.FileUtils" ).isEmpty() );
+    }
+
+    @Test
+    public void testWithoutIndexDirectory()
+        throws IOException
+    {
+        ClassDependencyIndex index = new ClassDependencyIndex( null, mock( Log.class ) );
+
+        index.getEdges( jar, "plexus-utils" );
+        index.getEdges( jar, "plexus-utils" );
+
+        assertEquals( 2, index.getMisses() );
+        assertEquals( 0, index.getHits() );
+    }
+}
@@ -0,0 +1,108 @@
+package org.apache.maven.plugins.shade.relocation;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Test for {@link RelocatorIndex}.
+ */
+public class RelocatorIndexTest
+    extends TestCase
+{
+
+    private static final String[] NAMES = { "org/foo/Class", "org/foo/Class.class", "org/foo/bar/Class",
+        "org.foo.Class", "org.foo.bar.Class", "/org/foo/bar/file.properties", "org/foo/Excluded", "org/Foo/Class",
+        "com/foo/Class", "org/foobar/Class", "org", "", "META-INF/maven/org.foo/pom.xml", "org/foo/raw/Class" };
+
+    private List<Relocator> relocators;
+
+    protected void setUp()
+    {
+        relocators = new ArrayList<Relocator>();
+        relocators.add( new SimpleRelocator( "org.foo.bar", "shaded.bar", null, null ) );
+        relocators.add( new SimpleRelocator( "org.foo", "shaded.foo", null, Arrays.asList( "org.foo.Excluded" ) ) );
+        relocators.add( new SimpleRelocator( "org.foo.raw", "shaded.raw", null, null, true ) );
+        relocators.add( new SimpleRelocator( "com.foo", null, Arrays.asList( "com.foo.Included" ), null ) );
+        relocators.add( new SimpleRelocator( "org/foo", "shaded/other", null, null ) );
+    }
+
+    public void testCandidates()
+    {
+        RelocatorIndex index = new RelocatorIndex( relocators );
+
+        assertEquals( Arrays.asList( relocators.get( 0 ), relocators.get( 1 ), relocators.get( 2 ),
+                                     relocators.get( 4 ) ), index.getCandidates( "org/foo/bar/Class" ) );
+        assertEquals( Arrays.asList( relocators.get( 0 ), relocators.get( 1 ), relocators.get( 2 ),
+                                     relocators.get( 4 ) ), index.getCandidates( "org.foo.bar.Class" ) );
+        assertEquals( Arrays.asList( relocators.get( 1 ), relocators.get( 2 ), relocators.get( 4 ) ),
+                      index.getCandidates( "/org/foo/Class" ) );
+        assertEquals( Arrays.asList( relocators.get( 2 ) ), index.getCandidates( "net/foo/Class" ) );
+    }
+
+    public void testSameRelocatorAsLinearScan()
+    {
+        RelocatorIndex index = new RelocatorIndex( relocators );
+
+        for ( String name : NAMES )
+        {
+            assertSame( name, firstPathRelocator( relocators, name ),
+                        firstPathRelocator( index.getCandidates( name ), name ) );
+            assertSame( name, firstClassRelocator( relocators, name ),
+                        firstClassRelocator( index.getCandidates( name ), name ) );
+        }
+    }
+
+    public void testEmpty()
+    {
+        RelocatorIndex index = new RelocatorIndex( new ArrayList<Relocator>() );
+
+        assertTrue( index.isEmpty() );
+        assertTrue( index.getCandidates( "org/foo/Class" ).isEmpty() );
+    }
+
+    private static Relocator firstPathRelocator( List<Relocator> relocators, String name )
+    {
+        for ( Relocator relocator : relocators )
+        {
+            if ( relocator.canRelocatePath( name ) )
+            {
+                return relocator;
+            }
+        }
+        return null;
+    }
+
+    private static Relocator firstClassRelocator( List<Relocator> relocators, String name )
+    {
+        for ( Relocator relocator : relocators )
+        {
+            if ( relocator.canRelocateClass( name ) )
+            {
+                return relocator;
+            }
+        }
+        return null;
+    }
+}
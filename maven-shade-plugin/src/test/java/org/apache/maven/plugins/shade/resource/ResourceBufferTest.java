@@ -0,0 +1,87 @@
+package org.apache.maven.plugins.shade.resource;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Test for {@link ResourceBuffer}.
+ */
+public class ResourceBufferTest
+    extends TestCase
+{
+
+    public void testKeptInMemoryBelowThreshold()
+        throws Exception
+    {
+        ResourceBuffer buffer = new ResourceBuffer( 16 );
+        buffer.write( "0123456789".getBytes( "UTF-8" ) );
+
+        assertFalse( buffer.isSpilled() );
+        assertEquals( 10, buffer.size() );
+        assertEquals( '9', buffer.lastByte() );
+        assertEquals( "0123456789", content( buffer ) );
+    }
+
+    public void testSpilledAboveThreshold()
+        throws Exception
+    {
+        ResourceBuffer buffer = new ResourceBuffer( 16 );
+        buffer.write( "0123456789".getBytes( "UTF-8" ) );
+        buffer.write( "abcdefghij".getBytes( "UTF-8" ) );
+        buffer.write( '\n' );
+
+        assertTrue( buffer.isSpilled() );
+        assertEquals( 21, buffer.size() );
+        assertEquals( '\n', buffer.lastByte() );
+        assertEquals( "0123456789abcdefghij\n", content( buffer ) );
+
+        InputStream in = buffer.toInputStream();
+        try
+        {
+            assertEquals( "0123456789abcdefghij\n", IOUtil.toString( in, "UTF-8" ) );
+        }
+        finally
+        {
+            in.close();
+        }
+
+        buffer.reset();
+
+        assertFalse( buffer.isSpilled() );
+        assertEquals( 0, buffer.size() );
+        assertEquals( -1, buffer.lastByte() );
+        assertEquals( "", content( buffer ) );
+    }
+
+    private static String content( ResourceBuffer buffer )
+        throws Exception
+    {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        buffer.writeTo( os );
+        return os.toString( "UTF-8" );
+    }
+
+}
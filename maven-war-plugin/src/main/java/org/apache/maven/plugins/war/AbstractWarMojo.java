@@ -26,6 +26,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.artifact.factory.ArtifactFactory;
@@ -193,7 +196,8 @@ public abstract class AbstractWarMojo
     private String outputFileNameMapping;
 
     /**
-     * The file containing the webapp structure cache.
+     * The file containing the webapp structure cache. Starting with <b>3.1.1</b>, the cache is saved in a binary
+     * format; a cache saved in the XML format by a previous version is still read.
      *
      * @since 2.1-alpha-1
      */
@@ -350,6 +354,28 @@ public abstract class AbstractWarMojo
     @Parameter( defaultValue = "true" )
     private boolean useJvmChmod;
 
+    /**
+     * The number of threads copying the files of the webapp: the web resources, the overlays, the classes and the
+     * libraries. The files are registered in the webapp structure in the same order whatever the number of threads,
+     * so the precedence of the overlays does not change; only the copies run concurrently.
+     *
+     * @since 3.1.1
+     */
+    @Parameter( property = "maven.war.packagingThreads", defaultValue = "1" )
+    private int packagingThreads;
+
+    /**
+     * The directory caching unpacked overlays, keyed by the SHA-1 checksum of the overlay artifact. An overlay is then
+     * unpacked once for all the projects and builds sharing this directory, e.g.
+     * <code>${settings.localRepository}/.cache/maven-war-plugin/overlays</code>, and its files are hard linked into
+     * the webapp directory when the file system allows it, copied otherwise. Overlays are unpacked in the
+     * <code>workDirectory</code> of the project when not set.
+     *
+     * @since 3.1.1
+     */
+    @Parameter( property = "maven.war.overlaysCacheDirectory" )
+    private File overlaysCacheDirectory;
+
     /**
      * The archive configuration to use. See <a href="http://maven.apache.org/shared/maven-archiver/index.html">Maven
      * Archiver Reference</a>.
@@ -461,17 +487,19 @@ public abstract class AbstractWarMojo
         throws MojoExecutionException, MojoFailureException, IOException
     {
 
-        WebappStructure cache;
+        WebappStructure previousCache = null;
         if ( useCache && cacheFile.exists() )
         {
-            // CHECKSTYLE_OFF: LineLength
-            cache = new WebappStructure( mavenProject.getDependencies(), webappStructureSerialier.fromXml( cacheFile ) );
-            // CHECKSTYLE_ON: LineLength
-        }
-        else
-        {
-            cache = new WebappStructure( mavenProject.getDependencies(), null );
+            try
+            {
+                previousCache = webappStructureSerialier.fromFile( cacheFile );
+            }
+            catch ( IOException e )
+            {
+                getLog().warn( "Ignoring the webapp structure cache: " + e.getMessage() );
+            }
         }
+        WebappStructure cache = new WebappStructure( mavenProject.getDependencies(), previousCache );
 
         // CHECKSTYLE_OFF: LineLength
         final long startTime = System.currentTimeMillis();
@@ -517,13 +545,26 @@ public abstract class AbstractWarMojo
             throw new MojoExecutionException( e.getMessage(), e );
         }
 
+        final ExecutorService copyExecutor =
+            packagingThreads > 1 ? Executors.newFixedThreadPool( packagingThreads ) : null;
+
         final WarPackagingContext context =
             new DefaultWarPackagingContext( webapplicationDirectory, cache, overlayManager, defaultFilterWrappers,
                                             getNonFilteredFileExtensions(), filteringDeploymentDescriptors,
-                                            this.artifactFactory, resourceEncoding, useJvmChmod );
-        for ( WarPackagingTask warPackagingTask : packagingTasks )
+                                            this.artifactFactory, resourceEncoding, useJvmChmod, copyExecutor );
+        try
         {
-            warPackagingTask.performPackaging( context );
+            for ( WarPackagingTask warPackagingTask : packagingTasks )
+            {
+                warPackagingTask.performPackaging( context );
+            }
+        }
+        finally
+        {
+            if ( copyExecutor != null )
+            {
+                shutdown( copyExecutor );
+            }
         }
 
         // Post packaging
@@ -536,6 +577,25 @@ public abstract class AbstractWarMojo
 
     }
 
+    /**
+     * Waits for the copies left over by the packaging tasks.
+     *
+     * @param copyExecutor the copy executor
+     */
+    private void shutdown( ExecutorService copyExecutor )
+    {
+        copyExecutor.shutdown();
+        try
+        {
+            copyExecutor.awaitTermination( Long.MAX_VALUE, TimeUnit.MILLISECONDS );
+        }
+        catch ( InterruptedException e )
+        {
+            copyExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Returns a <tt>List</tt> of the {@link org.apache.maven.plugins.war.packaging.WarPackagingTask}
      * instances to invoke to perform the packaging.
@@ -615,6 +675,8 @@ public abstract class AbstractWarMojo
 
         private boolean useJvmChmod = true;
 
+        private final ExecutorService copyExecutor;
+
         /**
          * @param webappDirectory The web application directory.
          * @param webappStructure The web app structure.
@@ -625,13 +687,15 @@ public abstract class AbstractWarMojo
          * @param artifactFactory The artifact factory.
          * @param resourceEncoding The resource encoding.
          * @param useJvmChmod use Jvm chmod or not.
+         * @param copyExecutor The executor copying files concurrently, <tt>null</tt> to copy them sequentially.
          */
         public DefaultWarPackagingContext( File webappDirectory, final WebappStructure webappStructure,
                                            final OverlayManager overlayManager,
                                            List<FileUtils.FilterWrapper> filterWrappers,
                                            List<String> nonFilteredFileExtensions,
                                            boolean filteringDeploymentDescriptors, ArtifactFactory artifactFactory,
-                                           String resourceEncoding, boolean useJvmChmod )
+                                           String resourceEncoding, boolean useJvmChmod,
+                                           ExecutorService copyExecutor )
         {
             this.webappDirectory = webappDirectory;
             this.webappStructure = webappStructure;
@@ -649,6 +713,7 @@ public abstract class AbstractWarMojo
                 webappStructure.getStructure( overlayId );
             }
             this.useJvmChmod = useJvmChmod;
+            this.copyExecutor = copyExecutor;
         }
 
         /**
@@ -739,6 +804,14 @@ public abstract class AbstractWarMojo
             return workDirectory;
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        public File getOverlaysCacheDirectory()
+        {
+            return overlaysCacheDirectory;
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -850,6 +923,14 @@ public abstract class AbstractWarMojo
         {
             return useJvmChmod;
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        public ExecutorService getCopyExecutor()
+        {
+            return copyExecutor;
+        }
     }
 
     /**
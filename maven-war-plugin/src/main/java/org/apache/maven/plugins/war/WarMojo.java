@@ -19,14 +19,23 @@ package org.apache.maven.plugins.war;
  * under the License.
  */
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Properties;
 
+import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.archiver.MavenArchiver;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
@@ -38,9 +47,11 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.plugins.war.util.ClassesPackager;
+import org.apache.maven.plugins.war.util.WarArchiveUpdater;
 import org.apache.maven.project.MavenProjectHelper;
 import org.codehaus.plexus.archiver.Archiver;
 import org.codehaus.plexus.archiver.ArchiverException;
+import org.codehaus.plexus.archiver.jar.Manifest;
 import org.codehaus.plexus.archiver.jar.ManifestException;
 import org.codehaus.plexus.archiver.war.WarArchiver;
 import org.codehaus.plexus.util.FileUtils;
@@ -170,6 +181,18 @@ public class WarMojo
     @Parameter( property = "maven.war.skip", defaultValue = "false" )
     private boolean skip;
 
+    /**
+     * Whether the WAR file of the previous build should be updated instead of being created again. The entries of
+     * the files which did not change are then copied from the previous WAR file as they are, without being compressed
+     * again; only the modified and the new files are compressed. The WAR file is created again if it changed since the
+     * previous build, if the archive configuration, the JDK, the dependencies on the manifest classpath or the
+     * packaging configuration changed.
+     *
+     * @since 3.1.1
+     */
+    @Parameter( property = "maven.war.incrementalArchive", defaultValue = "false" )
+    private boolean incrementalArchive;
+
     // ----------------------------------------------------------------------
     // Implementation
     // ----------------------------------------------------------------------
@@ -233,40 +256,19 @@ public class WarMojo
 
         buildExplodedWebapp( getWebappDirectory() );
 
-        MavenArchiver archiver = new MavenArchiver();
-
-        archiver.setArchiver( warArchiver );
+        boolean expectWebXml = !( Boolean.FALSE.equals( failOnMissingWebXml )
+            || ( failOnMissingWebXml == null && isProjectUsingAtLeastServlet30() ) );
 
-        archiver.setOutputFile( warFile );
-
-        // CHECKSTYLE_OFF: LineLength
-        getLog().debug( "Excluding " + Arrays.asList( getPackagingExcludes() )
-            + " from the generated webapp archive." );
-        getLog().debug( "Including " + Arrays.asList( getPackagingIncludes() ) + " in the generated webapp archive." );
-        // CHECKSTYLE_ON: LineLength
-
-        warArchiver.addDirectory( getWebappDirectory(), getPackagingIncludes(), getPackagingExcludes() );
-
-        final File webXmlFile = new File( getWebappDirectory(), "WEB-INF/web.xml" );
-        if ( webXmlFile.exists() )
+        String fingerprint = incrementalArchive ? getArchiveFingerprint( expectWebXml ) : null;
+        if ( fingerprint == null || !updateArchive( warFile, fingerprint ) )
         {
-            warArchiver.setWebxml( webXmlFile );
-        }
-
-        warArchiver.setRecompressAddedZips( isRecompressZippedFiles() );
-
-        warArchiver.setIncludeEmptyDirs( isIncludeEmptyDirectories() );
-
-        if ( Boolean.FALSE.equals( failOnMissingWebXml )
-            || ( failOnMissingWebXml == null && isProjectUsingAtLeastServlet30() ) )
-        {
-            getLog().debug( "Build won't fail if web.xml file is missing." );
-            warArchiver.setExpectWebXml( false );
+            createArchive( warFile, expectWebXml );
+            if ( fingerprint != null )
+            {
+                saveArchiveState( warFile, fingerprint );
+            }
         }
 
-        // create archive
-        archiver.createArchive( getSession(), getProject(), getArchive() );
-
         // create the classes to be attached if necessary
         if ( isAttachClasses() )
         {
@@ -309,6 +311,215 @@ public class WarMojo
         }
     }
 
+    /**
+     * Creates the WAR file from scratch.
+     *
+     * @param warFile the target WAR file
+     * @param expectWebXml whether the <code>web.xml</code> file is mandatory
+     * @throws IOException if an error occurred while copying files
+     * @throws ArchiverException if the archive could not be created
+     * @throws ManifestException if the manifest could not be created
+     * @throws DependencyResolutionRequiredException if an error occurred while resolving the dependencies
+     */
+    private void createArchive( File warFile, boolean expectWebXml )
+        throws IOException, ManifestException, DependencyResolutionRequiredException
+    {
+        MavenArchiver archiver = new MavenArchiver();
+
+        archiver.setArchiver( warArchiver );
+
+        archiver.setOutputFile( warFile );
+
+        // CHECKSTYLE_OFF: LineLength
+        getLog().debug( "Excluding " + Arrays.asList( getPackagingExcludes() )
+            + " from the generated webapp archive." );
+        getLog().debug( "Including " + Arrays.asList( getPackagingIncludes() ) + " in the generated webapp archive." );
+        // CHECKSTYLE_ON: LineLength
+
+        warArchiver.addDirectory( getWebappDirectory(), getPackagingIncludes(), getPackagingExcludes() );
+
+        final File webXmlFile = new File( getWebappDirectory(), "WEB-INF/web.xml" );
+        if ( webXmlFile.exists() )
+        {
+            warArchiver.setWebxml( webXmlFile );
+        }
+
+        warArchiver.setRecompressAddedZips( isRecompressZippedFiles() );
+
+        warArchiver.setIncludeEmptyDirs( isIncludeEmptyDirectories() );
+
+        if ( !expectWebXml )
+        {
+            getLog().debug( "Build won't fail if web.xml file is missing." );
+            warArchiver.setExpectWebXml( false );
+        }
+
+        // create archive
+        archiver.createArchive( getSession(), getProject(), getArchive() );
+
+    }
+
+    /**
+     * Updates the WAR file of the previous build, if it was built with the same configuration and did not change since.
+     *
+     * @param warFile the target WAR file
+     * @param fingerprint the fingerprint of the configuration
+     * @return <code>true</code> if the WAR file was updated, <code>false</code> if it has to be created from scratch
+     */
+    private boolean updateArchive( File warFile, String fingerprint )
+    {
+        File stateFile = getArchiveStateFile( warFile );
+        if ( !warFile.isFile() || !stateFile.isFile() )
+        {
+            return false;
+        }
+
+        try
+        {
+            Properties state = new Properties();
+            InputStream in = new FileInputStream( stateFile );
+            try
+            {
+                state.load( in );
+            }
+            finally
+            {
+                in.close();
+            }
+            if ( !fingerprint.equals( state.getProperty( "fingerprint" ) )
+                || !getStamp( warFile ).equals( state.getProperty( "archive" ) ) )
+            {
+                getLog().debug( "The configuration or the WAR file changed since the previous build." );
+                return false;
+            }
+
+            WarArchiveUpdater updater =
+                new WarArchiveUpdater( getWebappDirectory(), getPackagingIncludes(), getPackagingExcludes(),
+                                       isRecompressZippedFiles(), isIncludeEmptyDirectories() );
+            updater.update( warFile );
+            getLog().info( "Updated webapp archive " + warFile.getName() + ": " + updater.getKeptEntries()
+                + " entries kept, " + updater.getWrittenEntries() + " written, " + updater.getRemovedEntries()
+                + " removed" );
+
+            saveArchiveState( warFile, fingerprint );
+            return true;
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to update " + warFile.getName() + ", creating it again: " + e.getMessage() );
+            stateFile.delete();
+            return false;
+        }
+    }
+
+    /**
+     * Records the configuration the WAR file was built with.
+     *
+     * @param warFile the target WAR file
+     * @param fingerprint the fingerprint of the configuration
+     * @throws IOException if the state could not be written
+     */
+    private void saveArchiveState( File warFile, String fingerprint )
+        throws IOException
+    {
+        Properties state = new Properties();
+        state.setProperty( "fingerprint", fingerprint );
+        state.setProperty( "archive", getStamp( warFile ) );
+
+        File stateFile = getArchiveStateFile( warFile );
+        stateFile.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream( stateFile );
+        try
+        {
+            state.store( out, null );
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Computes the fingerprint of everything the content of the WAR file depends on, apart from the files of the
+     * webapp directory: the packaging configuration, the effective archive configuration, through the manifest it
+     * generates, and the JDK, which is recorded in the <code>Build-Jdk</code> entry of the manifest.
+     *
+     * @param expectWebXml whether the <code>web.xml</code> file is mandatory
+     * @return the fingerprint
+     * @throws IOException if the manifest could not be written
+     * @throws ManifestException if the manifest could not be created
+     * @throws DependencyResolutionRequiredException if the dependencies of the manifest classpath are not resolved
+     */
+    private String getArchiveFingerprint( boolean expectWebXml )
+        throws IOException, ManifestException, DependencyResolutionRequiredException
+    {
+        MavenArchiveConfiguration archive = getArchive();
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append( Arrays.asList( getPackagingIncludes() ) );
+        fingerprint.append( Arrays.asList( getPackagingExcludes() ) );
+        fingerprint.append( isRecompressZippedFiles() ).append( ',' ).append( isIncludeEmptyDirectories() );
+        fingerprint.append( ',' ).append( expectWebXml ).append( ',' );
+        fingerprint.append( new File( getWebappDirectory(), "WEB-INF/web.xml" ).exists() );
+        fingerprint.append( ',' ).append( getProject().getId() );
+        fingerprint.append( ',' ).append( System.getProperty( "java.version" ) );
+        fingerprint.append( ',' ).append( getManifestChecksum( archive ) );
+        fingerprint.append( ',' ).append( getStamp( new File( getWebappDirectory(), "META-INF/MANIFEST.MF" ) ) );
+        fingerprint.append( ',' ).append( getStamp( archive.getManifestFile() ) );
+        fingerprint.append( ',' ).append( archive.isCompress() ).append( ',' ).append( archive.isAddMavenDescriptor() );
+        if ( archive.isAddMavenDescriptor() )
+        {
+            // the POM is copied to the archive
+            fingerprint.append( ',' ).append( getStamp( getProject().getFile() ) );
+            fingerprint.append( ',' ).append( getStamp( archive.getPomPropertiesFile() ) );
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * Computes the checksum of the manifest generated from the archive configuration, as inherited and interpolated:
+     * its entries, sections and classpath, and the entries added by Maven, such as <code>Build-Jdk</code>.
+     *
+     * @param archive the archive configuration
+     * @return the checksum
+     * @throws IOException if the manifest could not be written
+     * @throws ManifestException if the manifest could not be created
+     * @throws DependencyResolutionRequiredException if the dependencies of the manifest classpath are not resolved
+     */
+    private String getManifestChecksum( MavenArchiveConfiguration archive )
+        throws IOException, ManifestException, DependencyResolutionRequiredException
+    {
+        Manifest manifest = new MavenArchiver().getManifest( getSession(), getProject(), archive );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        manifest.write( out );
+
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+
+        StringBuilder hex = new StringBuilder( 40 );
+        for ( byte b : digest.digest( out.toByteArray() ) )
+        {
+            hex.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return hex.toString();
+    }
+
+    private File getArchiveStateFile( File warFile )
+    {
+        return new File( getWorkDirectory(), warFile.getName() + ".properties" );
+    }
+
+    private static String getStamp( File file )
+    {
+        return file != null && file.exists() ? file.length() + ":" + file.lastModified() : "-";
+    }
+
     /**
      * Determines if the current Maven project being built uses the Servlet 3.0 API (JSR 315). If it does then the
      * <code>web.xml</code> file can be omitted.
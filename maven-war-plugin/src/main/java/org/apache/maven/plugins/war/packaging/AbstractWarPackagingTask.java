@@ -21,6 +21,13 @@ package org.apache.maven.plugins.war.packaging;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.input.XmlStreamReader;
 import org.apache.maven.artifact.Artifact;
@@ -70,6 +77,11 @@ public abstract class AbstractWarPackagingTask
      */
     public static final String LIB_PATH = "WEB-INF/lib/";
 
+    /**
+     * The copies submitted to the copy executor of the context and not waited for yet.
+     */
+    private final List<Future<Boolean>> pendingCopies = new ArrayList<Future<Boolean>>();
+
     /**
      * Copies the files if possible with an optional target prefix.
      * 
@@ -116,6 +128,7 @@ public abstract class AbstractWarPackagingTask
                 copyFile( sourceId, context, sourceFile, destinationFileName );
             }
         }
+        waitForCopies();
     }
 
     /**
@@ -142,7 +155,9 @@ public abstract class AbstractWarPackagingTask
     /**
      * Copy the specified file if the target location has not yet already been used.
      * 
-     * The <tt>targetFileName</tt> is the relative path according to the root of the generated web application.
+     * The <tt>targetFileName</tt> is the relative path according to the root of the generated web application. The
+     * location is registered right away but the copy may run concurrently if the context has a copy executor, use
+     * {@link #waitForCopies()} to wait for it.
      *
      * @param sourceId the source id
      * @param context the context to use
@@ -165,16 +180,16 @@ public abstract class AbstractWarPackagingTask
                public void registered( String ownerId, String targetFilename )
                    throws IOException
                {
-                   copyFile( context, file, targetFile, targetFilename,
-                             false );
+                   submitCopy( context, file, targetFile, targetFilename,
+                               false );
                }
     
                public void alreadyRegistered( String ownerId,
                                               String targetFilename )
                    throws IOException
                {
-                   copyFile( context, file, targetFile, targetFilename,
-                             true );
+                   submitCopy( context, file, targetFile, targetFilename,
+                               true );
                }
     
                public void refused( String ownerId, String targetFilename,
@@ -198,8 +213,8 @@ public abstract class AbstractWarPackagingTask
                                               + "] belonged to overlay ["
                                               + deprecatedOwnerId
                                               + "] so it will be overwritten." );
-                   copyFile( context, file, targetFile, targetFilename,
-                             false );
+                   submitCopy( context, file, targetFile, targetFilename,
+                               false );
                }
     
                public void supersededUnknownOwner( String ownerId,
@@ -215,8 +230,8 @@ public abstract class AbstractWarPackagingTask
                                               + "] which does not exist anymore in the current project. It is recommended to invoke "
                                               + "clean if the dependencies of the project changed." );
                    // CHECKSTYLE_ON: LineLength
-                   copyFile( context, file, targetFile, targetFilename,
-                             false );
+                   submitCopy( context, file, targetFile, targetFilename,
+                               false );
                }
            } );
         }
@@ -263,6 +278,7 @@ public abstract class AbstractWarPackagingTask
                 }
                 // fix for MWAR-36, ensures that the parent dir are created first
                 targetFile.getParentFile().mkdirs();
+                unlinkFromOverlaysCache( context, targetFile );
 
                 context.getMavenFileFilter().copyFile( file, targetFile, true, context.getFilterWrappers(), encoding );
             }
@@ -318,6 +334,82 @@ public abstract class AbstractWarPackagingTask
         }
     }
 
+    /**
+     * Copies the specified file on the copy executor of the context if any, in the current thread otherwise. Folders
+     * are packaged with the shared jar archiver of the context, they are always handled in the current thread.
+     *
+     * @param context the packaging context
+     * @param source the file to copy
+     * @param destination the file to write
+     * @param targetFilename the relative path of the file from the webapp root directory
+     * @param onlyIfModified if true, copy the file only if the source has changed, always copy otherwise
+     * @throws IOException if the file is copied in the current thread and the copy fails
+     */
+    private void submitCopy( final WarPackagingContext context, final File source, final File destination,
+                             final String targetFilename, final boolean onlyIfModified )
+        throws IOException
+    {
+        ExecutorService copyExecutor = context.getCopyExecutor();
+        if ( copyExecutor == null || source.isDirectory() )
+        {
+            copyFile( context, source, destination, targetFilename, onlyIfModified );
+        }
+        else
+        {
+            pendingCopies.add( copyExecutor.submit( new Callable<Boolean>()
+            {
+                public Boolean call()
+                    throws IOException
+                {
+                    return copyFile( context, source, destination, targetFilename, onlyIfModified );
+                }
+            } ) );
+        }
+    }
+
+    /**
+     * Waits for the copies submitted by {@link #copyFile(String, WarPackagingContext, File, String)} to the copy
+     * executor of the context.
+     *
+     * @throws IOException if one of the copies failed
+     */
+    protected void waitForCopies()
+        throws IOException
+    {
+        IOException failure = null;
+        try
+        {
+            for ( Future<Boolean> pendingCopy : pendingCopies )
+            {
+                try
+                {
+                    pendingCopy.get();
+                }
+                catch ( ExecutionException e )
+                {
+                    if ( failure == null )
+                    {
+                        failure = e.getCause() instanceof IOException ? (IOException) e.getCause()
+                                        : new IOException( e.getCause().getMessage(), e.getCause() );
+                    }
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while copying files", e );
+        }
+        finally
+        {
+            pendingCopies.clear();
+        }
+        if ( failure != null )
+        {
+            throw failure;
+        }
+    }
+
     /**
      * Copy file from source to destination. The directories up to <code>destination</code> will be created if they
      * don't already exist. if the <code>onlyIfModified</code> flag is <tt>false</tt>, <code>destination</code> will be
@@ -364,8 +456,13 @@ public abstract class AbstractWarPackagingTask
                     throw ioe;
                 }
             }
+            else if ( isInOverlaysCache( context, source ) && link( source, destination ) )
+            {
+                context.getLog().debug( " + " + targetFilename + " has been linked." );
+            }
             else
             {
+                unlinkFromOverlaysCache( context, destination );
                 FileUtils.copyFile( source.getCanonicalFile(), destination );
                 // preserve timestamp
                 destination.setLastModified( source.lastModified() );
@@ -375,6 +472,55 @@ public abstract class AbstractWarPackagingTask
         }
     }
 
+    /**
+     * Deletes the specified webapp file before it gets written if the overlays cache is used: the file may be a hard
+     * link to a file of a cached overlay, which must not be written through.
+     *
+     * @param context the packaging context
+     * @param file the webapp file about to be written
+     */
+    protected void unlinkFromOverlaysCache( WarPackagingContext context, File file )
+    {
+        if ( context.getOverlaysCacheDirectory() != null )
+        {
+            file.delete();
+        }
+    }
+
+    private boolean isInOverlaysCache( WarPackagingContext context, File source )
+        throws IOException
+    {
+        File cacheDirectory = context.getOverlaysCacheDirectory();
+        return cacheDirectory != null
+            && source.getCanonicalPath().startsWith( cacheDirectory.getCanonicalPath() + File.separator );
+    }
+
+    /**
+     * Hard links the destination to the source.
+     *
+     * @param source an existing file
+     * @param destination the link to create, replaced if it exists
+     * @return true if the link has been created, false if the file system does not support it
+     */
+    private boolean link( File source, File destination )
+    {
+        try
+        {
+            destination.getParentFile().mkdirs();
+            Files.deleteIfExists( destination.toPath() );
+            Files.createLink( destination.toPath(), source.getCanonicalFile().toPath() );
+            return true;
+        }
+        catch ( IOException e )
+        {
+            return false;
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            return false;
+        }
+    }
+
     /**
      * Get the encoding from an XML-file.
      *
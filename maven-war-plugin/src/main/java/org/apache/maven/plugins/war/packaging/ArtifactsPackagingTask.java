@@ -154,6 +154,11 @@ public class ArtifactsPackagingTask
                     }
                 }
             }
+            waitForCopies();
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Failed to copy the artifacts", e );
         }
         catch ( InterpolationException e )
         {
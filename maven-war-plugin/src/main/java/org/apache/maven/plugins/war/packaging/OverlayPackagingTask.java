@@ -25,7 +25,16 @@ import org.apache.maven.plugins.war.util.PathSet;
 import org.codehaus.plexus.util.FileUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handles an overlay.
@@ -36,6 +45,12 @@ import java.io.IOException;
 public class OverlayPackagingTask
     extends AbstractWarPackagingTask
 {
+    /**
+     * The checksums of the overlay artifacts, keyed by path, length and modification time, shared by the projects
+     * built in this JVM.
+     */
+    private static final Map<String, String> CHECKSUMS = new ConcurrentHashMap<String, String>();
+
     private final Overlay overlay;
 
     /**
@@ -116,6 +131,12 @@ public class OverlayPackagingTask
     protected File unpackOverlay( WarPackagingContext context, Overlay overlay )
         throws MojoExecutionException
     {
+        final File file = overlay.getArtifact().getFile();
+        if ( context.getOverlaysCacheDirectory() != null && file.isFile() )
+        {
+            return unpackCachedOverlay( context, overlay, file );
+        }
+
         final File tmpDir = getOverlayTempDirectory( context, overlay );
 
         // TODO: not sure it's good, we should reuse the markers of the dependency plugin
@@ -131,6 +152,113 @@ public class OverlayPackagingTask
         return tmpDir;
     }
 
+    /**
+     * Unpacks the specified overlay in the overlays cache, unless an overlay with the same checksum is already there.
+     * The overlay is unpacked aside and moved in place, so that concurrent builds never see a partial overlay.
+     *
+     * @param context the packaging context
+     * @param overlay the overlay
+     * @param file the overlay artifact file
+     * @return the directory of the cache containing the unpacked overlay
+     * @throws MojoExecutionException if an error occurred while unpacking the overlay
+     */
+    private File unpackCachedOverlay( WarPackagingContext context, Overlay overlay, File file )
+        throws MojoExecutionException
+    {
+        final File cacheDirectory = context.getOverlaysCacheDirectory();
+        final File cachedOverlay;
+        try
+        {
+            cachedOverlay = new File( cacheDirectory, getChecksum( file ) );
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Failed to compute the checksum of overlay [" + overlay + "]", e );
+        }
+
+        if ( cachedOverlay.isDirectory() )
+        {
+            context.getLog().debug( "Overlay [" + overlay + "] was already unpacked in " + cachedOverlay );
+            return cachedOverlay;
+        }
+
+        cacheDirectory.mkdirs();
+        final File unpackDirectory =
+            new File( cacheDirectory, cachedOverlay.getName() + "-" + System.nanoTime() + ".tmp" );
+        try
+        {
+            unpackDirectory.mkdirs();
+            doUnpack( context, file, unpackDirectory );
+            Files.move( unpackDirectory.toPath(), cachedOverlay.toPath(), StandardCopyOption.ATOMIC_MOVE );
+            context.getLog().debug( "Overlay [" + overlay + "] unpacked in " + cachedOverlay );
+        }
+        catch ( FileAlreadyExistsException e )
+        {
+            // unpacked concurrently by another build
+        }
+        catch ( IOException e )
+        {
+            if ( !cachedOverlay.isDirectory() )
+            {
+                throw new MojoExecutionException( "Failed to cache overlay [" + overlay + "]", e );
+            }
+        }
+        finally
+        {
+            try
+            {
+                FileUtils.deleteDirectory( unpackDirectory );
+            }
+            catch ( IOException e )
+            {
+                context.getLog().debug( "Failed to delete " + unpackDirectory + ": " + e.getMessage() );
+            }
+        }
+        return cachedOverlay;
+    }
+
+    private static String getChecksum( File file )
+        throws IOException
+    {
+        final String key = file.getAbsolutePath() + '|' + file.length() + '|' + file.lastModified();
+        String checksum = CHECKSUMS.get( key );
+        if ( checksum == null )
+        {
+            MessageDigest digest;
+            try
+            {
+                digest = MessageDigest.getInstance( "SHA-1" );
+            }
+            catch ( NoSuchAlgorithmException e )
+            {
+                throw new IllegalStateException( e );
+            }
+
+            InputStream in = new FileInputStream( file );
+            try
+            {
+                byte[] buffer = new byte[65536];
+                for ( int n = in.read( buffer ); n >= 0; n = in.read( buffer ) )
+                {
+                    digest.update( buffer, 0, n );
+                }
+            }
+            finally
+            {
+                in.close();
+            }
+
+            StringBuilder hex = new StringBuilder( 40 );
+            for ( byte b : digest.digest() )
+            {
+                hex.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+            }
+            checksum = hex.toString();
+            CHECKSUMS.put( key, checksum );
+        }
+        return checksum;
+    }
+
     /**
      * Returns the directory to use to unpack the specified overlay.
      *
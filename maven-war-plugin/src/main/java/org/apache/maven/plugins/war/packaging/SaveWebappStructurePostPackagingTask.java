@@ -63,7 +63,7 @@ public class SaveWebappStructurePostPackagingTask
         {
             try
             {
-                serialier.toXml( context.getWebappStructure(), targetFile );
+                serialier.toBinary( context.getWebappStructure(), targetFile );
                 context.getLog().debug( "Cache saved successfully." );
             }
             catch ( IOException e )
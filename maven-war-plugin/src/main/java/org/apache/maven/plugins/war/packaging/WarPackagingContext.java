@@ -21,6 +21,7 @@ package org.apache.maven.plugins.war.packaging;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.artifact.factory.ArtifactFactory;
@@ -111,6 +112,15 @@ public interface WarPackagingContext
      */
     File getOverlaysWorkDirectory();
 
+    /**
+     * Returns the directory caching the unpacked overlays by checksum, shared by the projects using the same
+     * overlays. The files of the cached overlays are hard linked into the webapp when possible.
+     *
+     * @return the overlays cache directory, or <tt>null</tt> if overlays are unpacked in the work directory
+     * @since 3.1.1
+     */
+    File getOverlaysCacheDirectory();
+
     /**
      * Returns the archiver manager to use.
      *
@@ -216,4 +226,13 @@ public interface WarPackagingContext
      * @since 2.4
      */
     boolean isUseJvmChmod();
+
+    /**
+     * Returns the executor copying files concurrently. A packaging task waits for the copies it submitted before
+     * it ends.
+     *
+     * @return the copy executor, or <tt>null</tt> if files are copied one after the other
+     * @since 3.1.1
+     */
+    ExecutorService getCopyExecutor();
 }
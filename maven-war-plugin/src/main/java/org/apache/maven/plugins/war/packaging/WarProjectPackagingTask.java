@@ -242,6 +242,7 @@ public class WarProjectPackagingTask
 
                 if ( context.isFilteringDeploymentDescriptors() )
                 {
+                    unlinkFromOverlaysCache( context, new File( webinfDir, "web.xml" ) );
                     context.getMavenFileFilter().copyFile( webXml, new File( webinfDir, "web.xml" ), true,
                                                            context.getFilterWrappers(), getEncoding( webXml ) );
                 }
@@ -258,6 +259,7 @@ public class WarProjectPackagingTask
                 if ( defaultWebXml.exists() && context.isFilteringDeploymentDescriptors() )
                 {
                     context.getWebappStructure().registerFile( id, WEB_INF_PATH + "/web.xml" );
+                    unlinkFromOverlaysCache( context, new File( webinfDir, "web.xml" ) );
                     context.getMavenFileFilter().copyFile( defaultWebXml, new File( webinfDir, "web.xml" ), true,
                                                            context.getFilterWrappers(), getEncoding( defaultWebXml ) );
                 }
@@ -271,6 +273,7 @@ public class WarProjectPackagingTask
 
                 if ( context.isFilteringDeploymentDescriptors() )
                 {
+                    unlinkFromOverlaysCache( context, new File( metainfDir, xmlFileName ) );
                     context.getMavenFileFilter().copyFile( containerConfigXML, new File( metainfDir, xmlFileName ),
                                                            true, context.getFilterWrappers(),
                                                            getEncoding( containerConfigXML ) );
@@ -337,6 +340,7 @@ public class WarProjectPackagingTask
                 copyFile( id, context, new File( resource.getDirectory(), fileName ), targetFileName );
             }
         }
+        waitForCopies();
     }
 
     /**
@@ -0,0 +1,554 @@
+package org.apache.maven.plugins.war.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.codehaus.plexus.util.Os;
+
+/**
+ * A read-only {@link WebappStructure} backed by the binary cache format. The file is memory-mapped and the paths are
+ * only decoded when they are looked up: {@link #getOwner(String)} binary searches the sorted path table, and the
+ * {@link PathSet} of an owner is only built when {@link #getStructure(String)} asks for it.
+ * <p>
+ * The format, big-endian, is made of a header (magic, version, number of strings, owners, paths and dependencies),
+ * the offsets of the strings, the string index of each owner, the string and owner indices of each path sorted by
+ * path, the dependencies as string indices, and finally the strings themselves, each one written once. Every offset,
+ * length and index is checked when the file is read, so that a truncated or corrupted file is rejected up front rather
+ * than failing a lookup in the middle of the packaging.
+ * </p>
+ *
+ * @since 3.1.1
+ */
+class MappedWebappStructure
+    extends WebappStructure
+{
+
+    private static final int MAGIC = 0x57534301;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 6 * 4;
+
+    private static final int DEPENDENCY_SIZE = 10 * 4;
+
+    private static final int DEPENDENCY_STRINGS = 8;
+
+    private static final int NULL = -1;
+
+    private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    private final ByteBuffer buffer;
+
+    private final int stringCount;
+
+    private final int pathsOffset;
+
+    private final int pathCount;
+
+    private final List<String> owners;
+
+    private final List<DependencyInfo> dependenciesInfo;
+
+    private final Map<String, PathSet> structures = new HashMap<String, PathSet>();
+
+    private PathSet allFiles;
+
+    private MappedWebappStructure( ByteBuffer buffer )
+        throws IOException
+    {
+        super( null );
+        this.buffer = buffer;
+        if ( buffer.capacity() < HEADER_SIZE || buffer.getInt( 0 ) != MAGIC || buffer.getInt( 4 ) != VERSION )
+        {
+            throw new IOException( "Not a webapp structure cache" );
+        }
+        stringCount = buffer.getInt( 8 );
+        int ownerCount = buffer.getInt( 12 );
+        pathCount = buffer.getInt( 16 );
+        int dependencyCount = buffer.getInt( 20 );
+        validate( ownerCount, dependencyCount );
+
+        int offset = HEADER_SIZE + stringCount * 4;
+        owners = new ArrayList<String>( ownerCount );
+        for ( int i = 0; i < ownerCount; i++, offset += 4 )
+        {
+            owners.add( getString( buffer.getInt( offset ) ) );
+        }
+
+        pathsOffset = offset;
+        offset += pathCount * 8;
+
+        dependenciesInfo = new ArrayList<DependencyInfo>( dependencyCount );
+        for ( int i = 0; i < dependencyCount; i++ )
+        {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId( getString( buffer.getInt( offset ) ) );
+            dependency.setArtifactId( getString( buffer.getInt( offset + 4 ) ) );
+            dependency.setVersion( getString( buffer.getInt( offset + 8 ) ) );
+            dependency.setType( getString( buffer.getInt( offset + 12 ) ) );
+            dependency.setClassifier( getString( buffer.getInt( offset + 16 ) ) );
+            dependency.setScope( getString( buffer.getInt( offset + 20 ) ) );
+            dependency.setSystemPath( getString( buffer.getInt( offset + 24 ) ) );
+            String targetFileName = getString( buffer.getInt( offset + 28 ) );
+            dependency.setOptional( buffer.getInt( offset + 32 ) != 0 );
+            int exclusionCount = buffer.getInt( offset + 36 );
+            offset += 40;
+            for ( int j = 0; j < exclusionCount; j++, offset += 8 )
+            {
+                Exclusion exclusion = new Exclusion();
+                exclusion.setGroupId( getString( buffer.getInt( offset ) ) );
+                exclusion.setArtifactId( getString( buffer.getInt( offset + 4 ) ) );
+                dependency.addExclusion( exclusion );
+            }
+
+            DependencyInfo dependencyInfo = new DependencyInfo( dependency );
+            dependencyInfo.setTargetFileName( targetFileName );
+            dependenciesInfo.add( dependencyInfo );
+        }
+    }
+
+    /**
+     * Checks the tables against the size of the file, the string offsets and lengths, and every string and owner
+     * index, so that no lookup can fail afterwards.
+     */
+    private void validate( int ownerCount, int dependencyCount )
+        throws IOException
+    {
+        int size = buffer.capacity();
+        check( stringCount >= 0 && ownerCount >= 0 && pathCount >= 0 && dependencyCount >= 0, "negative count" );
+        long tablesEnd = HEADER_SIZE + 4L * stringCount + 4L * ownerCount + 8L * pathCount;
+        check( tablesEnd <= size, "truncated tables" );
+
+        int ownersOffset = HEADER_SIZE + stringCount * 4;
+        for ( int i = 0; i < ownerCount; i++ )
+        {
+            checkString( buffer.getInt( ownersOffset + i * 4 ), false );
+        }
+        int pathsStart = ownersOffset + ownerCount * 4;
+        for ( int i = 0; i < pathCount; i++ )
+        {
+            checkString( buffer.getInt( pathsStart + i * 8 ), false );
+            int owner = buffer.getInt( pathsStart + i * 8 + 4 );
+            check( owner >= 0 && owner < ownerCount, "invalid owner index " + owner );
+        }
+
+        long offset = tablesEnd;
+        for ( int i = 0; i < dependencyCount; i++ )
+        {
+            check( offset + DEPENDENCY_SIZE <= size, "truncated dependencies" );
+            for ( int j = 0; j < DEPENDENCY_STRINGS; j++ )
+            {
+                checkString( buffer.getInt( (int) offset + j * 4 ), true );
+            }
+            int exclusionCount = buffer.getInt( (int) offset + 36 );
+            offset += DEPENDENCY_SIZE;
+            check( exclusionCount >= 0 && offset + 8L * exclusionCount <= size, "truncated exclusions" );
+            for ( int j = 0; j < exclusionCount * 2; j++ )
+            {
+                checkString( buffer.getInt( (int) offset + j * 4 ), true );
+            }
+            offset += 8L * exclusionCount;
+        }
+
+        // the strings follow each other up to the end of the file
+        for ( int i = 0; i < stringCount; i++ )
+        {
+            int stringOffset = buffer.getInt( HEADER_SIZE + i * 4 );
+            check( stringOffset == offset && offset + 4 <= size, "invalid offset of string " + i );
+            int length = buffer.getInt( stringOffset );
+            check( length >= 0 && offset + 4 + length <= size, "invalid length of string " + i );
+            offset += 4 + length;
+        }
+        check( offset == size, "unexpected data after the strings" );
+    }
+
+    private void checkString( int index, boolean nullable )
+        throws IOException
+    {
+        boolean valid = ( nullable && index == NULL ) || ( index >= 0 && index < stringCount );
+        check( valid, "invalid string index " + index );
+    }
+
+    private static void check( boolean condition, String message )
+        throws IOException
+    {
+        if ( !condition )
+        {
+            throw new IOException( message );
+        }
+    }
+
+    /**
+     * Specifies whether the specified file holds a webapp structure in the binary format.
+     *
+     * @param file the file
+     * @return <code>true</code> if the file starts like the binary format
+     * @throws IOException if the file could not be read
+     */
+    static boolean isBinary( File file )
+        throws IOException
+    {
+        DataInputStream in = new DataInputStream( new FileInputStream( file ) );
+        try
+        {
+            return file.length() >= HEADER_SIZE && in.readInt() == MAGIC;
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads the webapp structure stored in the specified file. The file is memory-mapped, except on Windows where a
+     * mapped file cannot be replaced before it is garbage collected: it is read in the heap there.
+     *
+     * @param file the file
+     * @return the webapp structure
+     * @throws IOException if the file could not be read
+     */
+    static MappedWebappStructure read( File file )
+        throws IOException
+    {
+        RandomAccessFile randomAccessFile = new RandomAccessFile( file, "r" );
+        try
+        {
+            FileChannel channel = randomAccessFile.getChannel();
+            ByteBuffer buffer;
+            if ( Os.isFamily( Os.FAMILY_WINDOWS ) )
+            {
+                buffer = ByteBuffer.allocate( (int) channel.size() );
+                while ( buffer.hasRemaining() && channel.read( buffer ) >= 0 )
+                {
+                    // read the whole file
+                }
+            }
+            else
+            {
+                buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+            }
+            return new MappedWebappStructure( buffer );
+        }
+        catch ( IOException e )
+        {
+            throw new IOException( "Corrupted webapp structure cache [" + file.getAbsolutePath() + "]: "
+                + e.getMessage(), e );
+        }
+        catch ( RuntimeException e )
+        {
+            // an offset or an index out of the file
+            throw new IOException( "Corrupted webapp structure cache [" + file.getAbsolutePath() + "]", e );
+        }
+        finally
+        {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Writes the specified webapp structure in the binary format. The structure is written next to the target file
+     * first, and then moved.
+     *
+     * @param webappStructure the webapp structure
+     * @param targetFile the target file
+     * @throws IOException if the file could not be written
+     */
+    static void write( WebappStructure webappStructure, File targetFile )
+        throws IOException
+    {
+        Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+
+        List<String> owners = new ArrayList<String>( webappStructure.getOwners() );
+        int[] ownerStrings = new int[owners.size()];
+        TreeMap<String, Integer> paths = new TreeMap<String, Integer>();
+        for ( int i = 0; i < owners.size(); i++ )
+        {
+            ownerStrings[i] = intern( strings, owners.get( i ) );
+            for ( String path : webappStructure.getStructure( owners.get( i ) ) )
+            {
+                if ( !paths.containsKey( path ) )
+                {
+                    paths.put( path, i );
+                }
+            }
+        }
+        int[] pathStrings = new int[paths.size()];
+        int index = 0;
+        for ( String path : paths.keySet() )
+        {
+            pathStrings[index++] = intern( strings, path );
+        }
+
+        List<DependencyInfo> dependenciesInfo = webappStructure.getDependenciesInfo();
+        ByteArrayOutputStream dependencies = new ByteArrayOutputStream();
+        DataOutputStream dependenciesOut = new DataOutputStream( dependencies );
+        for ( DependencyInfo dependencyInfo : dependenciesInfo )
+        {
+            Dependency dependency = dependencyInfo.getDependency();
+            dependenciesOut.writeInt( intern( strings, dependency.getGroupId() ) );
+            dependenciesOut.writeInt( intern( strings, dependency.getArtifactId() ) );
+            dependenciesOut.writeInt( intern( strings, dependency.getVersion() ) );
+            dependenciesOut.writeInt( intern( strings, dependency.getType() ) );
+            dependenciesOut.writeInt( intern( strings, dependency.getClassifier() ) );
+            dependenciesOut.writeInt( intern( strings, dependency.getScope() ) );
+            dependenciesOut.writeInt( intern( strings, dependency.getSystemPath() ) );
+            dependenciesOut.writeInt( intern( strings, dependencyInfo.getTargetFileName() ) );
+            dependenciesOut.writeInt( dependency.isOptional() ? 1 : 0 );
+            List<Exclusion> exclusions =
+                dependency.getExclusions() != null ? dependency.getExclusions() : Collections.<Exclusion>emptyList();
+            dependenciesOut.writeInt( exclusions.size() );
+            for ( Exclusion exclusion : exclusions )
+            {
+                dependenciesOut.writeInt( intern( strings, exclusion.getGroupId() ) );
+                dependenciesOut.writeInt( intern( strings, exclusion.getArtifactId() ) );
+            }
+        }
+        dependenciesOut.flush();
+
+        List<byte[]> encodedStrings = new ArrayList<byte[]>( strings.size() );
+        for ( String string : strings.keySet() )
+        {
+            encodedStrings.add( string.getBytes( UTF_8 ) );
+        }
+
+        File parent = targetFile.getAbsoluteFile().getParentFile();
+        if ( !parent.exists() && !parent.mkdirs() )
+        {
+            throw new IOException( "Could not create parent [" + parent.getAbsolutePath() + "]" );
+        }
+        File tmpFile = new File( parent, targetFile.getName() + ".tmp" );
+        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmpFile ) ) );
+        try
+        {
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            out.writeInt( encodedStrings.size() );
+            out.writeInt( owners.size() );
+            out.writeInt( paths.size() );
+            out.writeInt( dependenciesInfo.size() );
+
+            int offset = HEADER_SIZE + encodedStrings.size() * 4 + owners.size() * 4 + paths.size() * 8
+                + dependencies.size();
+            for ( byte[] string : encodedStrings )
+            {
+                out.writeInt( offset );
+                offset += 4 + string.length;
+            }
+            for ( int ownerString : ownerStrings )
+            {
+                out.writeInt( ownerString );
+            }
+            index = 0;
+            for ( Integer owner : paths.values() )
+            {
+                out.writeInt( pathStrings[index++] );
+                out.writeInt( owner );
+            }
+            dependencies.writeTo( out );
+            for ( byte[] string : encodedStrings )
+            {
+                out.writeInt( string.length );
+                out.write( string );
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+        Files.move( tmpFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING );
+    }
+
+    @Override
+    public List<DependencyInfo> getDependenciesInfo()
+    {
+        return dependenciesInfo;
+    }
+
+    @Override
+    public List<Dependency> getDependencies()
+    {
+        final List<Dependency> result = new ArrayList<Dependency>( dependenciesInfo.size() );
+        for ( DependencyInfo dependencyInfo : dependenciesInfo )
+        {
+            result.add( dependencyInfo.getDependency() );
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isRegistered( String path )
+    {
+        return getOwner( path ) != null;
+    }
+
+    @Override
+    public String getOwner( String path )
+    {
+        String normalizedPath = PathSet.normalizeFilePathStatic( path );
+        int low = 0;
+        int high = pathCount - 1;
+        while ( low <= high )
+        {
+            int middle = ( low + high ) >>> 1;
+            int offset = pathsOffset + middle * 8;
+            int comparison = getString( buffer.getInt( offset ) ).compareTo( normalizedPath );
+            if ( comparison < 0 )
+            {
+                low = middle + 1;
+            }
+            else if ( comparison > 0 )
+            {
+                high = middle - 1;
+            }
+            else
+            {
+                return owners.get( buffer.getInt( offset + 4 ) );
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Set<String> getOwners()
+    {
+        return Collections.unmodifiableSet( new LinkedHashSet<String>( owners ) );
+    }
+
+    @Override
+    public synchronized PathSet getFullStructure()
+    {
+        if ( allFiles == null )
+        {
+            allFiles = getPaths( NULL );
+        }
+        return allFiles;
+    }
+
+    @Override
+    public synchronized PathSet getStructure( String id )
+    {
+        PathSet pathSet = structures.get( id );
+        if ( pathSet == null )
+        {
+            int owner = owners.indexOf( id );
+            pathSet = owner != NULL ? getPaths( owner ) : new PathSet();
+            structures.put( id, pathSet );
+        }
+        return pathSet;
+    }
+
+    @Override
+    public boolean registerFile( String id, String path )
+    {
+        throw new UnsupportedOperationException( "The cached webapp structure is read-only." );
+    }
+
+    @Override
+    public boolean registerFileForced( String id, String path )
+    {
+        throw new UnsupportedOperationException( "The cached webapp structure is read-only." );
+    }
+
+    @Override
+    public void registerFile( String id, String path, RegistrationCallback callback )
+    {
+        throw new UnsupportedOperationException( "The cached webapp structure is read-only." );
+    }
+
+    @Override
+    public void registerTargetFileName( Artifact artifact, String targetFileName )
+    {
+        throw new UnsupportedOperationException( "The cached webapp structure is read-only." );
+    }
+
+    private PathSet getPaths( int owner )
+    {
+        List<String> paths = new ArrayList<String>();
+        for ( int i = 0; i < pathCount; i++ )
+        {
+            int offset = pathsOffset + i * 8;
+            if ( owner == NULL || buffer.getInt( offset + 4 ) == owner )
+            {
+                paths.add( getString( buffer.getInt( offset ) ) );
+            }
+        }
+        return new PathSet( paths );
+    }
+
+    private String getString( int index )
+    {
+        if ( index == NULL )
+        {
+            return null;
+        }
+        if ( index < 0 || index >= stringCount )
+        {
+            throw new IndexOutOfBoundsException( "Invalid string index " + index );
+        }
+        int offset = buffer.getInt( HEADER_SIZE + index * 4 );
+        byte[] bytes = new byte[buffer.getInt( offset )];
+        ByteBuffer string = buffer.duplicate();
+        string.position( offset + 4 );
+        string.get( bytes );
+        return new String( bytes, UTF_8 );
+    }
+
+    private static int intern( Map<String, Integer> strings, String string )
+    {
+        if ( string == null )
+        {
+            return NULL;
+        }
+        Integer index = strings.get( string );
+        if ( index == null )
+        {
+            index = strings.size();
+            strings.put( string, index );
+        }
+        return index;
+    }
+
+}
@@ -23,8 +23,8 @@ import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.StringUtils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -34,6 +34,9 @@ import java.util.Set;
  * 
  * The class extends functionality of a "normal" set of strings by a process of the paths normalization. All paths are
  * converted to unix form (slashes) and they don't start with starting /.
+ * 
+ * The set is safe for use by multiple threads: its methods are synchronized, and the paths are iterated over a
+ * snapshot, in insertion order.
  *
  * @author Piotr Tabor
  * @version $Id$
@@ -98,7 +101,7 @@ public class PathSet
      *
      * @param path to be added
      */
-    public void add( String path )
+    public synchronized void add( String path )
     {
         pathsSet.add( normalizeFilePath( path ) );
     }
@@ -181,7 +184,7 @@ public class PathSet
      * @param path we are looking for in the set.
      * @return information if the set constains the path.
      */
-    public boolean contains( String path )
+    public synchronized boolean contains( String path )
     {
         return pathsSet.contains( normalizeFilePath( path ) );
     }
@@ -192,7 +195,7 @@ public class PathSet
      * @param path the path to remove
      * @return true if the path was removed, false if it did not existed
      */
-    boolean remove( String path )
+    synchronized boolean remove( String path )
     {
         final String normalizedPath = normalizeFilePath( path );
         return pathsSet.remove( normalizedPath );
@@ -206,15 +209,15 @@ public class PathSet
      */
     public Iterator<String> iterator()
     {
-        return pathsSet.iterator();
+        return paths().iterator();
     }
 
     /**
-     * @return {@link #pathsSet}
+     * @return a snapshot of {@link #pathsSet}
      */
-    public Collection<String> paths()
+    public synchronized Collection<String> paths()
     {
-        return pathsSet;
+        return new ArrayList<String>( pathsSet );
     }
 
     /**
@@ -224,9 +227,9 @@ public class PathSet
      *
      * @param prefix to be added to all items
      */
-    public void addPrefix( String prefix )
+    public synchronized void addPrefix( String prefix )
     {
-        final Set<String> newSet = new HashSet<String>();
+        final Set<String> newSet = new LinkedHashSet<String>();
         for ( String path : pathsSet )
         {
             newSet.add( normalizeFilePath( prefix + path ) );
@@ -239,7 +242,7 @@ public class PathSet
      *
      * @return count of the paths in the set
      */
-    public int size()
+    public synchronized int size()
     {
         return pathsSet.size();
     }
@@ -0,0 +1,379 @@
+package org.apache.maven.plugins.war.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.codehaus.plexus.util.DirectoryScanner;
+
+/**
+ * Updates a previously built WAR file so that it matches the content of the webapp directory. The entries of the
+ * previous archive whose size and CRC match the webapp file are copied byte-for-byte, without being inflated, only the
+ * modified and the new files are compressed. The entries generated by the archiver, that is the manifest and the Maven
+ * descriptor, are kept as they are.
+ *
+ * @since 3.1.1
+ */
+public class WarArchiveUpdater
+{
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    private static final String MAVEN_DESCRIPTOR = "META-INF/maven/";
+
+    private final File webappDirectory;
+
+    private final String[] includes;
+
+    private final String[] excludes;
+
+    private final boolean recompressZippedFiles;
+
+    private final boolean includeEmptyDirectories;
+
+    private int keptEntries;
+
+    private int writtenEntries;
+
+    private int removedEntries;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param webappDirectory the webapp directory
+     * @param includes the patterns of the files to package
+     * @param excludes the patterns of the files not to package
+     * @param recompressZippedFiles whether zip files are compressed again
+     * @param includeEmptyDirectories whether empty directories are packaged
+     */
+    public WarArchiveUpdater( File webappDirectory, String[] includes, String[] excludes,
+                              boolean recompressZippedFiles, boolean includeEmptyDirectories )
+    {
+        this.webappDirectory = webappDirectory;
+        this.includes = includes;
+        this.excludes = excludes;
+        this.recompressZippedFiles = recompressZippedFiles;
+        this.includeEmptyDirectories = includeEmptyDirectories;
+    }
+
+    /**
+     * Updates the specified archive. The updated archive is written next to it first, the archive is left untouched
+     * if the update fails.
+     *
+     * @param archive the archive to update
+     * @throws IOException if the archive could not be read or written
+     */
+    public void update( File archive )
+        throws IOException
+    {
+        keptEntries = 0;
+        writtenEntries = 0;
+        removedEntries = 0;
+
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir( webappDirectory );
+        scanner.setIncludes( includes );
+        scanner.setExcludes( excludes );
+        scanner.addDefaultExcludes();
+        scanner.scan();
+
+        Map<String, File> files = new LinkedHashMap<String, File>();
+        for ( String path : scanner.getIncludedFiles() )
+        {
+            files.put( path.replace( File.separatorChar, '/' ), new File( webappDirectory, path ) );
+        }
+
+        File updatedArchive = new File( archive.getPath() + ".tmp" );
+        ZipFile zipFile = new ZipFile( archive, ENCODING );
+        try
+        {
+            ZipArchiveOutputStream out = new ZipArchiveOutputStream( updatedArchive );
+            try
+            {
+                out.setEncoding( ENCODING );
+                EntryWriter writer = new EntryWriter( zipFile, out );
+
+                for ( Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
+                      entries.hasMoreElements(); )
+                {
+                    ZipArchiveEntry entry = entries.nextElement();
+                    String name = entry.getName();
+                    if ( entry.isDirectory() )
+                    {
+                        // written along with the files they contain
+                        continue;
+                    }
+
+                    File file = files.remove( name );
+                    if ( MANIFEST.equals( name ) || name.startsWith( MAVEN_DESCRIPTOR ) )
+                    {
+                        writer.copy( entry );
+                        keptEntries++;
+                    }
+                    else if ( file == null )
+                    {
+                        removedEntries++;
+                    }
+                    else if ( file.length() == entry.getSize() && checksum( file ) == entry.getCrc() )
+                    {
+                        writer.copy( entry );
+                        keptEntries++;
+                    }
+                    else
+                    {
+                        writer.write( name, file );
+                        writtenEntries++;
+                    }
+                }
+
+                for ( Map.Entry<String, File> file : files.entrySet() )
+                {
+                    writer.write( file.getKey(), file.getValue() );
+                    writtenEntries++;
+                }
+
+                if ( includeEmptyDirectories )
+                {
+                    for ( String path : scanner.getIncludedDirectories() )
+                    {
+                        if ( path.length() > 0 )
+                        {
+                            writer.writeDirectory( path.replace( File.separatorChar, '/' ) + '/' );
+                        }
+                    }
+                }
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+        catch ( IOException e )
+        {
+            updatedArchive.delete();
+            throw e;
+        }
+        finally
+        {
+            zipFile.close();
+        }
+
+        Files.move( updatedArchive.toPath(), archive.toPath(), StandardCopyOption.REPLACE_EXISTING );
+    }
+
+    /**
+     * @return the number of entries of the previous archive which were copied as they are
+     */
+    public int getKeptEntries()
+    {
+        return keptEntries;
+    }
+
+    /**
+     * @return the number of entries which were compressed from the webapp directory
+     */
+    public int getWrittenEntries()
+    {
+        return writtenEntries;
+    }
+
+    /**
+     * @return the number of entries of the previous archive which are not part of the webapp anymore
+     */
+    public int getRemovedEntries()
+    {
+        return removedEntries;
+    }
+
+    private static long checksum( File file )
+        throws IOException
+    {
+        CRC32 crc = new CRC32();
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            byte[] buffer = new byte[8192];
+            for ( int n = in.read( buffer ); n >= 0; n = in.read( buffer ) )
+            {
+                crc.update( buffer, 0, n );
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+        return crc.getValue();
+    }
+
+    private static boolean isZip( File file )
+        throws IOException
+    {
+        byte[] header = new byte[4];
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            if ( in.read( header ) != header.length )
+            {
+                return false;
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+        return header[0] == 'P' && header[1] == 'K' && header[2] == 3 && header[3] == 4;
+    }
+
+    /**
+     * Writes the entries of the updated archive, preceded by the entries of their parent directories.
+     */
+    private class EntryWriter
+    {
+
+        private final ZipFile zipFile;
+
+        private final ZipArchiveOutputStream out;
+
+        private final Map<String, ZipArchiveEntry> previousDirectories = new HashMap<String, ZipArchiveEntry>();
+
+        private final Set<String> directories = new HashSet<String>();
+
+        EntryWriter( ZipFile zipFile, ZipArchiveOutputStream out )
+        {
+            this.zipFile = zipFile;
+            this.out = out;
+            for ( Enumeration<ZipArchiveEntry> entries = zipFile.getEntries(); entries.hasMoreElements(); )
+            {
+                ZipArchiveEntry entry = entries.nextElement();
+                if ( entry.isDirectory() )
+                {
+                    previousDirectories.put( entry.getName(), entry );
+                }
+            }
+        }
+
+        void copy( ZipArchiveEntry entry )
+            throws IOException
+        {
+            writeParentDirectories( entry.getName() );
+            InputStream in = zipFile.getRawInputStream( entry );
+            try
+            {
+                out.addRawArchiveEntry( entry, in );
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+
+        void write( String name, File file )
+            throws IOException
+        {
+            writeParentDirectories( name );
+
+            ZipArchiveEntry entry = new ZipArchiveEntry( name );
+            entry.setTime( file.lastModified() );
+            entry.setUnixMode( UnixStat.FILE_FLAG | UnixStat.DEFAULT_FILE_PERM );
+            if ( !recompressZippedFiles && isZip( file ) )
+            {
+                entry.setMethod( ZipEntry.STORED );
+                entry.setSize( file.length() );
+                entry.setCrc( checksum( file ) );
+            }
+            else
+            {
+                entry.setMethod( ZipEntry.DEFLATED );
+            }
+
+            out.putArchiveEntry( entry );
+            InputStream in = new FileInputStream( file );
+            try
+            {
+                byte[] buffer = new byte[8192];
+                for ( int n = in.read( buffer ); n >= 0; n = in.read( buffer ) )
+                {
+                    out.write( buffer, 0, n );
+                }
+            }
+            finally
+            {
+                in.close();
+            }
+            out.closeArchiveEntry();
+        }
+
+        void writeDirectory( String name )
+            throws IOException
+        {
+            writeParentDirectories( name );
+            if ( !directories.add( name ) )
+            {
+                return;
+            }
+
+            ZipArchiveEntry previous = previousDirectories.get( name );
+            if ( previous != null )
+            {
+                out.addRawArchiveEntry( previous, new ByteArrayInputStream( new byte[0] ) );
+                return;
+            }
+
+            ZipArchiveEntry entry = new ZipArchiveEntry( name );
+            File directory = new File( webappDirectory, name );
+            entry.setTime( directory.isDirectory() ? directory.lastModified() : System.currentTimeMillis() );
+            entry.setUnixMode( UnixStat.DIR_FLAG | UnixStat.DEFAULT_DIR_PERM );
+            out.putArchiveEntry( entry );
+            out.closeArchiveEntry();
+        }
+
+        private void writeParentDirectories( String name )
+            throws IOException
+        {
+            int slash = name.lastIndexOf( '/', name.length() - 2 );
+            if ( slash > 0 && !directories.contains( name.substring( 0, slash + 1 ) ) )
+            {
+                writeDirectory( name.substring( 0, slash + 1 ) );
+            }
+        }
+
+    }
+
+}
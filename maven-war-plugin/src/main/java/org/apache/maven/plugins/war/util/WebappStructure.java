@@ -26,8 +26,8 @@ import org.codehaus.plexus.util.StringUtils;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +37,9 @@ import java.util.Set;
  * structure with the set of files it holds.
  * 
  * Note that this structure is persisted to disk at each invocation to store which owner holds which path (file).
+ * 
+ * The registration methods are synchronized, and the owners are kept in registration order: the first owner
+ * registering a path keeps it, whatever the threads the files are then copied by.
  *
  * @author Stephane Nicoll
  * @version $Id$
@@ -60,7 +63,7 @@ public class WebappStructure
     public WebappStructure( List<Dependency> dependencies )
     {
         this.dependenciesInfo = createDependenciesInfoList( dependencies );
-        this.registeredFiles = new HashMap<String, PathSet>();
+        this.registeredFiles = new LinkedHashMap<String, PathSet>();
         this.cache = null;
     }
 
@@ -73,7 +76,7 @@ public class WebappStructure
     public WebappStructure( List<Dependency> dependencies, WebappStructure cache )
     {
         this.dependenciesInfo = createDependenciesInfoList( dependencies );
-        this.registeredFiles = new HashMap<String, PathSet>();
+        this.registeredFiles = new LinkedHashMap<String, PathSet>();
         if ( cache == null )
         {
             this.cache = new WebappStructure( dependencies );
@@ -133,7 +136,7 @@ public class WebappStructure
      * @param path the relative path from the webapp root directory
      * @return true if the file was registered successfully
      */
-    public boolean registerFile( String id, String path )
+    public synchronized boolean registerFile( String id, String path )
     {
         if ( !isRegistered( path ) )
         {
@@ -158,7 +161,7 @@ public class WebappStructure
      * @param path the relative path from the webapp root directory
      * @return false if the file did not exist, true if the owner was replaced
      */
-    public boolean registerFileForced( String id, String path )
+    public synchronized boolean registerFileForced( String id, String path )
     {
         if ( !isRegistered( path ) )
         {
@@ -187,33 +190,42 @@ public class WebappStructure
     public void registerFile( String id, String path, RegistrationCallback callback )
         throws IOException
     {
+        // the callback is invoked outside of the lock, it usually copies the file
+        final String actualOwner;
+        final String cachedOwner;
+        final boolean knownOwner;
+        synchronized ( this )
+        {
+            actualOwner = getOwner( path );
+            if ( actualOwner == null )
+            {
+                doRegister( id, path );
+            }
+            cachedOwner = cache.getOwner( path );
+            knownOwner = cachedOwner != null && getOwners().contains( cachedOwner );
+        }
 
         // If the file is already in the current structure, rejects it with the current owner
-        if ( isRegistered( path ) )
+        if ( actualOwner != null )
         {
-            callback.refused( id, path, getOwner( path ) );
-        }
-        else
+            callback.refused( id, path, actualOwner );
+        } // This is a new file
+        else if ( cachedOwner == null )
         {
-            doRegister( id, path );
-            // This is a new file
-            if ( cache.getOwner( path ) == null )
-            {
-                callback.registered( id, path );
+            callback.registered( id, path );
 
-            } // The file already belonged to this owner
-            else if ( cache.getOwner( path ).equals( id ) )
-            {
-                callback.alreadyRegistered( id, path );
-            } // The file belongs to another owner and it's known currently
-            else if ( getOwners().contains( cache.getOwner( path ) ) )
-            {
-                callback.superseded( id, path, cache.getOwner( path ) );
-            } // The file belongs to another owner and it's unknown
-            else
-            {
-                callback.supersededUnknownOwner( id, path, cache.getOwner( path ) );
-            }
+        } // The file already belonged to this owner
+        else if ( cachedOwner.equals( id ) )
+        {
+            callback.alreadyRegistered( id, path );
+        } // The file belongs to another owner and it's known currently
+        else if ( knownOwner )
+        {
+            callback.superseded( id, path, cachedOwner );
+        } // The file belongs to another owner and it's unknown
+        else
+        {
+            callback.supersededUnknownOwner( id, path, cachedOwner );
         }
     }
 
@@ -223,7 +235,7 @@ public class WebappStructure
      * @param path the relative path from the webapp root directory
      * @return the owner or <tt>null</tt>.
      */
-    public String getOwner( String path )
+    public synchronized String getOwner( String path )
     {
         if ( !isRegistered( path ) )
         {
@@ -277,7 +289,7 @@ public class WebappStructure
      * @param id the owner
      * @return the list of files registered for that owner
      */
-    public PathSet getStructure( String id )
+    public synchronized PathSet getStructure( String id )
     {
         PathSet pathSet = registeredFiles.get( id );
         if ( pathSet == null )
@@ -368,7 +380,7 @@ public class WebappStructure
      * @param artifact the artifact
      * @param targetFileName the target file name
      */
-    public void registerTargetFileName( Artifact artifact, String targetFileName )
+    public synchronized void registerTargetFileName( Artifact artifact, String targetFileName )
     {
         if ( dependenciesInfo != null )
         {
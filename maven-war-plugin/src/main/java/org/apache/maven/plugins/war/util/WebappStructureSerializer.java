@@ -82,6 +82,39 @@ public class WebappStructureSerializer
     {
     }
 
+    /**
+     * Reads the {@link WebappStructure} from the specified file, either in the binary format or in the XML format
+     * written by previous versions. A structure read from the binary format is read-only.
+     *
+     * @param file the file containing the webapp structure
+     * @return the webapp structure
+     * @throws IOException if an error occurred while reading the structure
+     * @since 3.1.1
+     */
+    public WebappStructure fromFile( File file )
+        throws IOException
+    {
+        if ( MappedWebappStructure.isBinary( file ) )
+        {
+            return MappedWebappStructure.read( file );
+        }
+        return fromXml( file );
+    }
+
+    /**
+     * Saves the {@link WebappStructure} to the specified file, in the binary format.
+     *
+     * @param webappStructure the structure to save
+     * @param targetFile the file to use to save the structure
+     * @throws IOException if an error occurred while saving the webapp structure
+     * @since 3.1.1
+     */
+    public void toBinary( WebappStructure webappStructure, File targetFile )
+        throws IOException
+    {
+        MappedWebappStructure.write( webappStructure, targetFile );
+    }
+
     /**
      * Reads the {@link WebappStructure} from the specified file.
      *
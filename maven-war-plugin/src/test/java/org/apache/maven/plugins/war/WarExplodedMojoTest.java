@@ -728,6 +728,49 @@ public class WarExplodedMojoTest
         expectedEJBDupArtifact.delete();
     }
 
+    /**
+     * @throws Exception in case of an error.
+     */
+    public void testExplodedWar_WithPackagingThreads()
+        throws Exception
+    {
+        // setup test data
+        String testId = "ExplodedWar_WithPackagingThreads";
+        MavenProjectArtifactsStub project = new MavenProjectArtifactsStub();
+        File webAppDirectory = new File( getTestDirectory(), testId );
+        File webAppSource = createWebAppSource( testId );
+        File classesDir = createClassesDir( testId, true );
+        EJBArtifactStub ejbArtifact = new EJBArtifactStub( getBasedir() );
+        ArtifactHandler artifactHandler = (ArtifactHandler) lookup( ArtifactHandler.ROLE, "jar" );
+        ArtifactStub jarArtifact = new JarArtifactStub( getBasedir(), artifactHandler );
+
+        // configure mojo
+        project.addArtifact( ejbArtifact );
+        project.addArtifact( jarArtifact );
+        this.configureMojo( mojo, new LinkedList<String>(), classesDir, webAppSource, webAppDirectory, project );
+        setVariableValueToObject( mojo, "packagingThreads", 4 );
+        mojo.execute();
+
+        // validate operation
+        File expectedWebSourceFile = new File( webAppDirectory, "pansit.jsp" );
+        File expectedWebSource2File = new File( webAppDirectory, "org/web/app/last-exile.jsp" );
+        File expectedEJBArtifact = new File( webAppDirectory, "WEB-INF/lib/ejbartifact-0.0-Test.jar" );
+        File expectedJarArtifact = new File( webAppDirectory, "WEB-INF/lib/jarartifact-0.0-Test.jar" );
+
+        assertTrue( "source files not found: " + expectedWebSourceFile.toString(), expectedWebSourceFile.exists() );
+        assertTrue( "source files not found: " + expectedWebSource2File.toString(), expectedWebSource2File.exists() );
+        assertTrue( "ejb artifact not found: " + expectedEJBArtifact.toString(), expectedEJBArtifact.exists() );
+        assertTrue( "jar artifact not found: " + expectedJarArtifact.toString(), expectedJarArtifact.exists() );
+        assertEquals( "jar artifact not copied completely", jarArtifact.getFile().length(),
+                      expectedJarArtifact.length() );
+
+        // house keeping
+        expectedWebSourceFile.delete();
+        expectedWebSource2File.delete();
+        expectedEJBArtifact.delete();
+        expectedJarArtifact.delete();
+    }
+
     /**
      * @throws Exception in case of an error.
      */
@@ -128,6 +128,80 @@ public class WarMojoTest
             mojo.getWebXml().toString(), null, null, null, }, new String[] { "org/web/app/last-exile.jsp" } );
     }
 
+    public void testIncrementalArchive()
+        throws Exception
+    {
+        String testId = "IncrementalArchive";
+        MavenProject4CopyConstructor project = new MavenProject4CopyConstructor();
+        String outputDir = getTestDirectory().getAbsolutePath() + "/" + testId + "-output";
+        File webAppDirectory = new File( getTestDirectory(), testId );
+        WarArtifact4CCStub warArtifact = new WarArtifact4CCStub( getBasedir() );
+        String warName = "simple";
+        File webAppSource = createWebAppSource( testId );
+        File classesDir = createClassesDir( testId, true );
+        File xmlSource = createXMLConfigDir( testId, new String[] { "web.xml" } );
+
+        project.setArtifact( warArtifact );
+        this.configureMojo( mojo, new LinkedList<String>(), classesDir, webAppSource, webAppDirectory, project );
+        setVariableValueToObject( mojo, "outputDirectory", outputDir );
+        setVariableValueToObject( mojo, "warName", warName );
+        setVariableValueToObject( mojo, "incrementalArchive", Boolean.TRUE );
+        mojo.setWebXml( new File( xmlSource, "web.xml" ) );
+
+        mojo.execute();
+
+        // the second build updates the war file of the first one
+        createFile( new File( webAppSource, "pansit.jsp" ), "updated" );
+        new File( webAppSource, "pansit.jsp" ).setLastModified( System.currentTimeMillis() + 2000 );
+        createFile( new File( webAppSource, "added.jsp" ), "added" );
+        mojo.execute();
+
+        // validate jar file
+        File expectedJarFile = new File( outputDir, "simple.war" );
+        assertJarContent( expectedJarFile, new String[] { "META-INF/MANIFEST.MF", "WEB-INF/web.xml", "pansit.jsp",
+            "added.jsp", "org/web/app/last-exile.jsp",
+            "META-INF/maven/org.apache.maven.plugin.test/maven-war-plugin-test/pom.xml",
+            "META-INF/maven/org.apache.maven.plugin.test/maven-war-plugin-test/pom.properties" }, new String[] { null,
+            mojo.getWebXml().toString(), "updated", "added", null, null, null } );
+    }
+
+    public void testIncrementalArchiveManifestEntries()
+        throws Exception
+    {
+        String testId = "IncrementalArchiveManifestEntries";
+        MavenProject4CopyConstructor project = new MavenProject4CopyConstructor();
+        String outputDir = getTestDirectory().getAbsolutePath() + "/" + testId + "-output";
+        File webAppDirectory = new File( getTestDirectory(), testId );
+        WarArtifact4CCStub warArtifact = new WarArtifact4CCStub( getBasedir() );
+        String warName = "simple";
+        File webAppSource = createWebAppSource( testId );
+        File classesDir = createClassesDir( testId, true );
+        File xmlSource = createXMLConfigDir( testId, new String[] { "web.xml" } );
+
+        project.setArtifact( warArtifact );
+        this.configureMojo( mojo, new LinkedList<String>(), classesDir, webAppSource, webAppDirectory, project );
+        setVariableValueToObject( mojo, "outputDirectory", outputDir );
+        setVariableValueToObject( mojo, "warName", warName );
+        setVariableValueToObject( mojo, "incrementalArchive", Boolean.TRUE );
+        mojo.setWebXml( new File( xmlSource, "web.xml" ) );
+
+        mojo.execute();
+
+        // the manifest of the second build differs, the war file is created again
+        mojo.getArchive().addManifestEntry( "Incremental-Archive", "changed" );
+        mojo.execute();
+
+        JarFile jarFile = new JarFile( new File( outputDir, "simple.war" ) );
+        try
+        {
+            assertEquals( "changed", jarFile.getManifest().getMainAttributes().getValue( "Incremental-Archive" ) );
+        }
+        finally
+        {
+            jarFile.close();
+        }
+    }
+
     public void testClassifier()
         throws Exception
     {
@@ -121,6 +121,41 @@ public class WarOverlaysTest
         }
     }
 
+    public void testDefaultOverlayWithOverlaysCache()
+        throws Exception
+    {
+        // setup test data
+        final String testId = "default-overlay-cache";
+        final File overlaysCacheDirectory = new File( getTestDirectory(), testId + "-cache" );
+        cleanDirectory( overlaysCacheDirectory );
+
+        // Add an overlay
+        final ArtifactStub overlay = buildWarOverlayStub( "overlay-one" );
+
+        final File webAppDirectory = setUpMojo( testId, new ArtifactStub[] { overlay } );
+        try
+        {
+            setVariableValueToObject( mojo, "overlaysCacheDirectory", overlaysCacheDirectory );
+            mojo.execute();
+            // a second build reuses the cached overlay
+            mojo.execute();
+
+            assertDefaultContent( webAppDirectory );
+            assertWebXml( webAppDirectory );
+            assertOverlayedFile( webAppDirectory, "overlay-one", "index.jsp" );
+            assertOverlayedFile( webAppDirectory, "overlay-one", "login.jsp" );
+
+            final File[] cachedOverlays = overlaysCacheDirectory.listFiles();
+            assertEquals( "overlay not cached", 1, cachedOverlays.length );
+            assertTrue( "cached overlay file not found", new File( cachedOverlays[0], "index.jsp" ).isFile() );
+        }
+        finally
+        {
+            cleanDirectory( webAppDirectory );
+            cleanDirectory( overlaysCacheDirectory );
+        }
+    }
+
     public void testDefaultOverlays()
         throws Exception
     {
@@ -0,0 +1,203 @@
+package org.apache.maven.plugins.war.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.codehaus.plexus.util.FileUtils;
+
+public class MappedWebappStructureTest
+    extends TestCase
+{
+
+    private File cacheFile;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        File basedir = new File( System.getProperty( "basedir", "." ), "target/test-dir/mapped-webapp-structure" );
+        FileUtils.deleteDirectory( basedir );
+        cacheFile = new File( basedir, "webapp-cache.bin" );
+    }
+
+    public void testReadWrittenStructure()
+        throws Exception
+    {
+        final List<Dependency> dependencies = new ArrayList<Dependency>();
+        dependencies.add( createDependency( "groupTest", "artifactTest", "1.0", null ) );
+        dependencies.add( createDependency( "groupTest", "artifactTest2", "2.0", "sources" ) );
+        Exclusion exclusion = new Exclusion();
+        exclusion.setGroupId( "excludedGroup" );
+        exclusion.setArtifactId( "excludedArtifact" );
+        dependencies.get( 1 ).addExclusion( exclusion );
+
+        final WebappStructure structure = new WebappStructure( dependencies );
+        structure.registerFile( "currentBuild", "WEB-INF/web.xml" );
+        structure.registerFile( "currentBuild", "index.jsp" );
+        structure.registerFile( "overlay1", "index.jsp" );
+        structure.registerFile( "overlay1", "WEB-INF/lib/a.jar" );
+        structure.registerFile( "overlay2", "WEB-INF/classes/b.class" );
+        structure.registerFileForced( "overlay2", "WEB-INF/web.xml" );
+        structure.getDependenciesInfo().get( 0 ).setTargetFileName( "artifactTest-1.0.jar" );
+
+        MappedWebappStructure.write( structure, cacheFile );
+        assertTrue( MappedWebappStructure.isBinary( cacheFile ) );
+        final WebappStructure cache = MappedWebappStructure.read( cacheFile );
+
+        assertEquals( Arrays.asList( "currentBuild", "overlay1", "overlay2" ),
+                      new ArrayList<String>( cache.getOwners() ) );
+        assertEquals( "currentBuild", cache.getOwner( "index.jsp" ) );
+        assertEquals( "overlay1", cache.getOwner( "/WEB-INF/lib/a.jar" ) );
+        assertEquals( "overlay2", cache.getOwner( "WEB-INF\\web.xml" ) );
+        assertNull( cache.getOwner( "missing.jsp" ) );
+        assertTrue( cache.isRegistered( "WEB-INF/classes/b.class" ) );
+        assertEquals( 4, cache.getFullStructure().size() );
+        assertTrue( cache.getStructure( "overlay2" ).contains( "WEB-INF/web.xml" ) );
+        assertEquals( 2, cache.getStructure( "overlay2" ).size() );
+        assertEquals( 0, cache.getStructure( "unknown" ).size() );
+
+        assertEquals( 2, cache.getDependencies().size() );
+        assertTrue( WarUtils.dependencyEquals( dependencies.get( 0 ), cache.getDependencies().get( 0 ) ) );
+        final Dependency dependency = cache.getDependencies().get( 1 );
+        assertEquals( "sources", dependency.getClassifier() );
+        assertEquals( "excludedArtifact", dependency.getExclusions().get( 0 ).getArtifactId() );
+
+        final WebappStructure webappStructure = new WebappStructure( dependencies, cache );
+        assertEquals( "artifactTest-1.0.jar", webappStructure.getCachedTargetFileName( dependencies.get( 0 ) ) );
+        assertNull( webappStructure.getCachedTargetFileName( dependencies.get( 1 ) ) );
+    }
+
+    public void testReadOnly()
+        throws Exception
+    {
+        MappedWebappStructure.write( new WebappStructure( null ), cacheFile );
+        try
+        {
+            MappedWebappStructure.read( cacheFile ).registerFile( "currentBuild", "index.jsp" );
+            fail( "The cached webapp structure should be read-only" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // expected
+        }
+    }
+
+    public void testCorruptedFile()
+        throws Exception
+    {
+        final WebappStructure structure = new WebappStructure( null );
+        structure.registerFile( "currentBuild", "index.jsp" );
+        MappedWebappStructure.write( structure, cacheFile );
+
+        RandomAccessFile file = new RandomAccessFile( cacheFile, "rw" );
+        try
+        {
+            file.setLength( file.length() / 2 );
+        }
+        finally
+        {
+            file.close();
+        }
+
+        try
+        {
+            MappedWebappStructure.read( cacheFile );
+            fail( "A truncated cache should not be read" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+    }
+
+    public void testCorruptedPathTable()
+        throws Exception
+    {
+        final WebappStructure structure = new WebappStructure( null );
+        structure.registerFile( "currentBuild", "index.jsp" );
+        structure.registerFile( "currentBuild", "WEB-INF/web.xml" );
+        MappedWebappStructure.write( structure, cacheFile );
+
+        // the owner of the second path: 6 header ints, 3 string offsets, 1 owner, then string and owner of each path
+        assertCorrupted( ( 6 + 3 + 1 + 3 ) * 4, 7, "invalid owner index 7" );
+        MappedWebappStructure.write( structure, cacheFile );
+        // the string of the first path
+        assertCorrupted( ( 6 + 3 + 1 ) * 4, 42, "invalid string index 42" );
+        MappedWebappStructure.write( structure, cacheFile );
+        // the length of the last string
+        assertCorrupted( (int) cacheFile.length() - "index.jsp".length() - 4, 1000, "invalid length of string" );
+    }
+
+    private void assertCorrupted( int position, int value, String message )
+        throws IOException
+    {
+        RandomAccessFile file = new RandomAccessFile( cacheFile, "rw" );
+        try
+        {
+            file.seek( position );
+            file.writeInt( value );
+        }
+        finally
+        {
+            file.close();
+        }
+
+        try
+        {
+            new WebappStructureSerializer().fromFile( cacheFile );
+            fail( "A corrupted cache should not be read" );
+        }
+        catch ( IOException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().contains( message ) );
+        }
+    }
+
+    public void testXmlFileIsNotBinary()
+        throws Exception
+    {
+        cacheFile.getParentFile().mkdirs();
+        FileUtils.fileWrite( cacheFile, "UTF-8", "<webapp-structure/>" );
+        assertFalse( MappedWebappStructure.isBinary( cacheFile ) );
+    }
+
+    private Dependency createDependency( String groupId, String artifactId, String version, String classifier )
+    {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId( groupId );
+        dependency.setArtifactId( artifactId );
+        dependency.setVersion( version );
+        dependency.setType( "jar" );
+        dependency.setClassifier( classifier );
+        dependency.setScope( "compile" );
+        return dependency;
+    }
+
+}
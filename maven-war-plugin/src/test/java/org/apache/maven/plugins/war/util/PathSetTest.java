@@ -29,6 +29,9 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class PathSetTest
     extends TestCase
@@ -267,4 +270,43 @@ public class PathSetTest
         assertTrue( ps.contains( "123\\d1/d2\\f2" ) );
         assertFalse( ps.contains( "123\\f3" ) );
     }
+
+    /**
+     * Test method for concurrent 'org.apache.maven.plugin.war.PathSet.add(String)'
+     *
+     * @throws InterruptedException if interrupted
+     */
+    public void testConcurrentAdd()
+        throws InterruptedException
+    {
+        final PathSet ps = new PathSet();
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        for ( int i = 0; i < 4; i++ )
+        {
+            final int thread = i;
+            executor.execute( new Runnable()
+            {
+                public void run()
+                {
+                    for ( int j = 0; j < 1000; j++ )
+                    {
+                        ps.add( "/dir" + thread + "/file" + j );
+                        ps.add( "shared/file" + j );
+                        if ( j % 100 == 0 )
+                        {
+                            for ( String path : ps )
+                            {
+                                assertNotNull( path );
+                            }
+                        }
+                    }
+                }
+            } );
+        }
+        executor.shutdown();
+        assertTrue( executor.awaitTermination( 1, TimeUnit.MINUTES ) );
+
+        assertEquals( "Unexpected PathSet size", 5000, ps.size() );
+        assertTrue( ps.contains( "dir3/file999" ) );
+    }
 }
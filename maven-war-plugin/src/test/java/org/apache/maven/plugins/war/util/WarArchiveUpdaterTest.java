@@ -0,0 +1,170 @@
+package org.apache.maven.plugins.war.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+
+public class WarArchiveUpdaterTest
+    extends TestCase
+{
+
+    private File webappDirectory;
+
+    private File warFile;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        File basedir = new File( System.getProperty( "basedir", "." ), "target/test-dir/war-archive-updater" );
+        FileUtils.deleteDirectory( basedir );
+        webappDirectory = new File( basedir, "webapp" );
+        warFile = new File( basedir, "test.war" );
+
+        writeFile( "index.jsp", "index" );
+        writeFile( "WEB-INF/web.xml", "<web-app/>" );
+        new File( webappDirectory, "WEB-INF/lib" ).mkdirs();
+        ZipOutputStream jar = new ZipOutputStream( new FileOutputStream( new File( webappDirectory,
+                                                                                   "WEB-INF/lib/a.jar" ) ) );
+        try
+        {
+            jar.putNextEntry( new ZipEntry( "a.txt" ) );
+            jar.write( "a".getBytes( "UTF-8" ) );
+        }
+        finally
+        {
+            jar.close();
+        }
+
+        ZipOutputStream war = new ZipOutputStream( new FileOutputStream( warFile ) );
+        try
+        {
+            war.putNextEntry( new ZipEntry( "META-INF/" ) );
+            war.putNextEntry( new ZipEntry( "META-INF/MANIFEST.MF" ) );
+            war.write( "Manifest-Version: 1.0\r\n".getBytes( "UTF-8" ) );
+        }
+        finally
+        {
+            war.close();
+        }
+    }
+
+    public void testUpdate()
+        throws Exception
+    {
+        WarArchiveUpdater updater = newUpdater( false );
+        updater.update( warFile );
+        assertCounts( updater, 1, 3, 0 );
+        assertEntry( "WEB-INF/", null );
+        assertEntry( "index.jsp", "index" );
+        assertEquals( ZipEntry.STORED, getEntry( "WEB-INF/lib/a.jar" ).getMethod() );
+
+        updater.update( warFile );
+        assertCounts( updater, 4, 0, 0 );
+
+        writeFile( "index.jsp", "changed" );
+        writeFile( "css/new.css", "css" );
+        new File( webappDirectory, "WEB-INF/web.xml" ).delete();
+        updater.update( warFile );
+        assertCounts( updater, 2, 2, 1 );
+        assertEntry( "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\r\n" );
+        assertEntry( "index.jsp", "changed" );
+        assertEntry( "css/new.css", "css" );
+        assertNull( getEntry( "WEB-INF/web.xml" ) );
+        assertFalse( new File( warFile.getPath() + ".tmp" ).exists() );
+    }
+
+    public void testUpdateWithEmptyDirectories()
+        throws Exception
+    {
+        new File( webappDirectory, "empty" ).mkdirs();
+
+        newUpdater( false ).update( warFile );
+        assertNull( getEntry( "empty/" ) );
+
+        newUpdater( true ).update( warFile );
+        assertEntry( "empty/", null );
+    }
+
+    private WarArchiveUpdater newUpdater( boolean includeEmptyDirectories )
+    {
+        return new WarArchiveUpdater( webappDirectory, new String[] { "**" }, new String[0], false,
+                                      includeEmptyDirectories );
+    }
+
+    private void assertCounts( WarArchiveUpdater updater, int kept, int written, int removed )
+    {
+        assertEquals( "kept entries", kept, updater.getKeptEntries() );
+        assertEquals( "written entries", written, updater.getWrittenEntries() );
+        assertEquals( "removed entries", removed, updater.getRemovedEntries() );
+    }
+
+    private void assertEntry( String name, String content )
+        throws IOException
+    {
+        ZipFile zipFile = new ZipFile( warFile );
+        try
+        {
+            ZipEntry entry = zipFile.getEntry( name );
+            assertNotNull( "Missing entry " + name, entry );
+            if ( content != null )
+            {
+                assertEquals( content, IOUtil.toString( zipFile.getInputStream( entry ), "UTF-8" ) );
+            }
+        }
+        finally
+        {
+            zipFile.close();
+        }
+    }
+
+    private ZipEntry getEntry( String name )
+        throws IOException
+    {
+        ZipFile zipFile = new ZipFile( warFile );
+        try
+        {
+            return zipFile.getEntry( name );
+        }
+        finally
+        {
+            zipFile.close();
+        }
+    }
+
+    private void writeFile( String path, String content )
+        throws IOException
+    {
+        File file = new File( webappDirectory, path );
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file, "UTF-8", content );
+    }
+
+}